@@ -2,12 +2,11 @@ package com.robotsim;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Scanner;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.Random;
-import java.lang.reflect.InvocationTargetException;
 
 import com.robotsim.communication.CentralComunicacao;
 import com.robotsim.environment.Ambiente;
@@ -26,7 +25,10 @@ import com.robotsim.robots.intelligent.types.RoboExplorador;
 import com.robotsim.robots.terrestrials.RoboAntiAereo;
 import com.robotsim.robots.terrestrials.RoboTanque;
 import com.robotsim.robots.terrestrials.RoboTerrestre;
-import com.robotsim.util.TesteColisao;
+import com.robotsim.simulation.Comando;
+import com.robotsim.simulation.SimClock;
+import com.robotsim.simulation.SimulationContext;
+import com.robotsim.simulation.SimulationEngine;
 
 /**
  * A classe Controlador é responsável por gerenciar a execução principal do
@@ -34,11 +36,21 @@ import com.robotsim.util.TesteColisao;
  * Ela inicializa o ambiente, registra as classes de robôs disponíveis no
  * catálogo e permite
  * que o usuário configure e controle os robôs durante a simulação.
+ * <p>
+ * O estado do mundo é avançado pelo {@link SimulationEngine}; o menu interativo
+ * apenas enfileira comandos no motor e solicita um tick a cada ação.
+ * <p>
+ * Todo o estado do jogo interativo pertence a um único
+ * {@link SimulationContext}; os métodos estáticos de acesso desta classe apenas
+ * delegam para esse contexto.
  */
 public final class Controlador {
     public static final int DELTA_TIME = 1; // Tempo arbitrário de execução em segundos
+    private static final double FOLGA_SPAWN = 2; // Distância mínima entre um robô recém-criado e os obstáculos
 
+    private static SimulationContext contexto;
     private static Ambiente ambiente;
+    private static SimClock relogio = SimClock.doSistema();
     private static CentralComunicacao comunicacao = new CentralComunicacao();
     private static Scanner scanner = new Scanner(System.in);
 
@@ -246,7 +258,7 @@ public final class Controlador {
                 "Dimensões: " + ambiente.getComprimento() + "x" + ambiente.getLargura() + "x" + ambiente.getAltura());
         System.out.println("Número de Robôs Ativos: " + ambiente.getRobos().size());
         System.out.println("Número de Obstáculos: "
-                + ambiente.getEntidades().stream().filter(e -> e instanceof Obstaculo).count());
+                + ambiente.getObstaculos().size());
         // Adicionar mais informações se necessário
         imprimirAmbienteGeral();
     }
@@ -262,8 +274,8 @@ public final class Controlador {
         }
         System.out.println("\n--- Comunicar --- ");
         System.out.println("Robôs disponíveis para comunicação:");
-        List<Robo> outrosRobos = ambiente.getRobos().stream()
-                .filter(r -> r != remetente && r.isLigado())
+        List<Robo> outrosRobos = ambiente.getRobosLigados().stream()
+                .filter(r -> r != remetente)
                 .collect(Collectors.toList());
         if (outrosRobos.isEmpty()) {
             System.out.println("Nenhum outro robô ligado disponível para comunicação.");
@@ -302,8 +314,10 @@ public final class Controlador {
 
         if (escolhaAcao > 0 && escolhaAcao <= acoes.size()) {
             Acao acaoSelecionada = acoes.get(escolhaAcao - 1);
-            // Removida a chamada para menuMover. A ação "Mover" será executada diretamente.
-            robo.executarTarefa(acaoSelecionada);
+            // A ação é aplicada pelo motor de simulação no próximo tick.
+            SimulationEngine motor = contexto.getMotor();
+            motor.enfileirar(Comando.acao(robo, acaoSelecionada));
+            motor.tick();
         } else {
             System.out.println("Seleção de ação inválida.");
         }
@@ -341,7 +355,7 @@ public final class Controlador {
     private static void imprimirAmbienteGeral() {
         // Pausa para melhor visualização
         try {
-            TimeUnit.MILLISECONDS.sleep(500); // Reduzido para não ser muito lento
+            relogio.esperar(500); // Reduzido para não ser muito lento
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             System.err.println("Pausa interrompida: " + e.getMessage());
@@ -364,9 +378,10 @@ public final class Controlador {
      * para os robôs, e define suas posições iniciais no mapa.
      * <p>
      * Observação:
-     * - O método utiliza pausas (TimeUnit.MILLISECONDS.sleep) para melhorar a
+     * - O método utiliza pausas ({@link SimClock#esperar(long)}) para melhorar a
      * experiência
-     * do usuário com mensagens exibidas de forma gradual.
+     * do usuário com mensagens exibidas de forma gradual. No modo virtual do
+     * relógio essas pausas não custam tempo real.
      */
     private static void inicializarSim() {
         try {
@@ -374,80 +389,72 @@ public final class Controlador {
             final int COMPRIMENTO = 60;
             final int LARGURA = 15;
             final int ALTURA = 30;
-            ambiente = new Ambiente(COMPRIMENTO, LARGURA, ALTURA);
+            contexto = new SimulationContext(new Ambiente(COMPRIMENTO, LARGURA, ALTURA), comunicacao, scanner,
+                    relogio);
+            ambiente = contexto.getAmbiente();
 
             // Introdução
             System.out.println("====================== SIMULADOR DE ROBÔS ======================");
             System.out.println("Nesse simulador, você controlará robôs de combate...");
-            TimeUnit.MILLISECONDS.sleep(1600);
+            relogio.esperar(1600);
 
             System.out.println("O simulador funciona por turnos, nos quais algumas ações serão disponíveis.");
-            TimeUnit.MILLISECONDS.sleep(1600);
+            relogio.esperar(1600);
 
             // Posicionamento dos obstáculos
             System.out
                     .printf("\n\nO mapa tem tamanho (%d, %d)\n", ambiente.getComprimento(),
                             ambiente.getLargura());
-            TimeUnit.MILLISECONDS.sleep(1600);
+            relogio.esperar(1600);
 
             Random rand = new Random();
             int numObst = 0;
             for (int loops = 0; loops < 20; loops++) {
                 numObst = rand.nextInt(5) + 1;
                 System.out.print("\rSeu ambiente terá " + numObst + " obstáculos");
-                Thread.sleep(85); // Apenas para simular um processo demorado
+                relogio.esperar(85); // Apenas para simular um processo demorado
             }
             System.out.println();
 
 
             // Adição do obstáculo ao ambiente
             for (int i = 0; i < numObst; i++) {
-                Obstaculo novoObstaculo = new Obstaculo();
+                Obstaculo novoObstaculo = new Obstaculo(ambiente);
                 ambiente.adicionarEntidade(novoObstaculo);
             }
 
-            TimeUnit.MILLISECONDS.sleep(1600);
+            relogio.esperar(1600);
 
             System.out.println("\nAgora, os robôs serão criados:");
-            TimeUnit.MILLISECONDS.sleep(300);
+            relogio.esperar(300);
 
             ArrayList<Class<? extends Robo>> todasClasses = CatalogoRobos.getTodasClasses();
             Collections.shuffle(todasClasses);
 
             Random random = new Random();
-            int i = 0;
             int numRobos = 6;
-            while (i < numRobos) {
-                Class<? extends Robo> classeEscolhida = todasClasses.get(random.nextInt(todasClasses.size()));
-                String nome = classeEscolhida.getSimpleName();
-
-                int x = random.nextInt(ambiente.getComprimento());
-                int y = random.nextInt(ambiente.getLargura());
-
-                try {
-                    Robo novoRobo = classeEscolhida.getConstructor(String.class, int.class, int.class)
-                            .newInstance(nome, x, y);
-
-                    String colisao = TesteColisao.tipoDeColisao(novoRobo, x, y);
-
-                    if (!colisao.equals("Nula")) {
-                        continue;
-                    }
+            HashMap<Class<? extends Robo>, Integer> quantidades = new HashMap<>();
+            for (int i = 0; i < numRobos; i++) {
+                quantidades.merge(todasClasses.get(random.nextInt(todasClasses.size())), 1, Integer::sum);
+            }
 
-                    ambiente.adicionarEntidade(novoRobo);
+            // As posições são reservadas pelo ambiente antes de os robôs serem criados,
+            // mantendo uma folga até os obstáculos. Se o mapa estiver lotado de
+            // obstáculos, a folga deixa de ser exigida.
+            List<Robo> novosRobos;
+            try {
+                novosRobos = ambiente.spawn(quantidades, random.nextLong(), FOLGA_SPAWN);
+            } catch (IllegalStateException e) {
+                novosRobos = ambiente.spawn(quantidades, random.nextLong());
+            }
 
-                    System.out.printf("Robô %s do tipo %s adicionado na posição (%d, %d)\n", nome,
-                            classeEscolhida.getSimpleName(), x, y);
-                    TimeUnit.MILLISECONDS.sleep(300);
-                    i++;
-                } catch (NoSuchMethodException | InstantiationException | IllegalAccessException
-                        | InvocationTargetException e) {
-                    System.err.printf("Erro ao criar instância do robô %s: %s\n", nome, e.getMessage());
-                    e.printStackTrace();
-                }
+            for (Robo novoRobo : novosRobos) {
+                System.out.printf("Robô %s do tipo %s adicionado na posição (%d, %d)\n", novoRobo.getNome(),
+                        novoRobo.getClass().getSimpleName(), novoRobo.getX(), novoRobo.getY());
+                relogio.esperar(300);
             }
 
-            TimeUnit.MILLISECONDS.sleep(1600);
+            relogio.esperar(1600);
 
         } catch (Exception e) {
             System.err.println(e);
@@ -481,6 +488,18 @@ public final class Controlador {
         return ambiente;
     }
 
+    public static SimulationContext getContexto() {
+        return contexto;
+    }
+
+    public static SimulationEngine getMotor() {
+        return contexto.getMotor();
+    }
+
+    public static SimClock getRelogio() {
+        return relogio;
+    }
+
     public static CentralComunicacao getComunicacao() {
         return comunicacao;
     }
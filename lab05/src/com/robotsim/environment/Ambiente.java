@@ -1,12 +1,33 @@
 package com.robotsim.environment;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 import com.robotsim.environment.entity.Entidade;
 import com.robotsim.environment.entity.TipoEntidade;
+import com.robotsim.environment.map.HashEspacial;
+import com.robotsim.environment.map.MapaAlturas;
+import com.robotsim.environment.map.MapaOcupacao;
+import com.robotsim.environment.map.TipoMapa;
+import com.robotsim.environment.obstacle.CampoDistancia;
+import com.robotsim.environment.obstacle.IndiceEspacoLivre;
+import com.robotsim.environment.obstacle.IndiceObstaculos;
 import com.robotsim.environment.obstacle.Obstaculo;
+import com.robotsim.environment.obstacle.TipoObstaculo;
+import com.robotsim.etc.CatalogoRobos;
+import com.robotsim.etc.FabricaRobo;
 import com.robotsim.exceptions.ColisaoException;
 import com.robotsim.robots.Robo;
+import com.robotsim.robots.aerials.RoboAereo;
+import com.robotsim.robots.terrestrials.RoboTerrestre;
+import com.robotsim.simulation.SimulationContext;
 
 /**
  * A classe Ambiente representa o espaço tridimensional onde as entidades (robôs e obstáculos) interagem.
@@ -14,84 +35,154 @@ import com.robotsim.robots.Robo;
  * métodos para manipulação e visualização do estado do ambiente.
  */
 public class Ambiente {
+    private static final int ALCANCE_CAMPO_DISTANCIA = 64; // Distância máxima registrada no campo de distâncias.
+    private static final int SORTEIOS_DIRETOS = 8; // Sorteios sem índice antes de criar o índice de espaço livre.
+    private static final long AREA_MAXIMA_ESPACO_LIVRE = 1L << 26; // Maior área (x × y) indexada por espaço livre.
+    private static final int RODADAS_SORTEIO_SPAWN = 32; // Rodadas de sorteio direto antes de percorrer o mapa no spawn.
     private int comprimento; // Dimensão do ambiente no eixo X.
     private int largura; // Dimensão do ambiente no eixo Y.
     private int altura; // Dimensão do ambiente no eixo Z.
-    private ArrayList<Entidade> entidades = new ArrayList<>(); // Lista de todas as entidades presentes no ambiente.
+    private final ListaIndexada<Entidade> entidades = new ListaIndexada<>(); // Lista de todas as entidades presentes no ambiente.
     private ArrayList<Entidade> entidadesRemovidas = new ArrayList<>(); // Lista de entidades que foram removidas do ambiente (ex: destruídas).
-    private TipoEntidade[][][] mapa; // Representação tridimensional do ambiente, armazenando o tipo de entidade em cada coordenada.
+    // Listas tipadas, mantidas a cada adição, remoção ou mudança de estado, para evitar filtrar `entidades` a cada consulta.
+    // Todas são ListaIndexada, em que remover ou procurar uma entidade não percorre a lista.
+    private final ListaIndexada<Robo> robos = new ListaIndexada<>(); // Robôs ativos.
+    private final ListaIndexada<Obstaculo> obstaculos = new ListaIndexada<>(); // Obstáculos ativos.
+    private final ListaIndexada<RoboAereo> robosAereos = new ListaIndexada<>(); // Robôs aéreos ativos.
+    private final ListaIndexada<RoboTerrestre> robosTerrestres = new ListaIndexada<>(); // Robôs terrestres ativos.
+    private final ListaIndexada<Robo> robosLigados = new ListaIndexada<>(); // Robôs ativos no estado LIGADO.
+    private final List<Entidade> visaoEntidades = Collections.unmodifiableList(entidades);
+    // Visões somente leitura das listas acima, entregues aos chamadores.
+    private final List<Robo> visaoRobos = Collections.unmodifiableList(robos);
+    private final List<Obstaculo> visaoObstaculos = Collections.unmodifiableList(obstaculos);
+    private final List<RoboAereo> visaoRobosAereos = Collections.unmodifiableList(robosAereos);
+    private final List<RoboTerrestre> visaoRobosTerrestres = Collections.unmodifiableList(robosTerrestres);
+    private final List<Robo> visaoRobosLigados = Collections.unmodifiableList(robosLigados);
+    private MapaOcupacao mapa; // Representação tridimensional do ambiente, armazenando o tipo de entidade em cada coordenada.
+    private MapaAlturas alturas; // Entidade mais alta de cada coluna (x, y), usada na vista de cima.
+    private final HashEspacial<Robo> hashRobos = new HashEspacial<>(); // Robôs indexados por posição.
+    private final IndiceObstaculos indiceObstaculos = new IndiceObstaculos(); // Áreas dos obstáculos indexadas.
+    private CampoDistancia campoDistancia; // Obstáculo mais próximo de cada coluna (x, y).
+    private IndiceEspacoLivre espacoLivre; // Centros livres por tipo de obstáculo, criado sob demanda.
+    private SimulationContext contexto; // Contexto (mundo) ao qual este ambiente pertence.
 
     /**
      * Construtor da classe Ambiente.
-     * Inicializa as dimensões do ambiente e o mapa tridimensional.
+     * Inicializa as dimensões do ambiente e o mapa tridimensional, usando um
+     * mapa {@link TipoMapa#DENSO}.
      *
      * @param comprimento A dimensão do ambiente no eixo X.
      * @param largura     A dimensão do ambiente no eixo Y.
      * @param altura      A dimensão do ambiente no eixo Z.
      */
     public Ambiente(int comprimento, int largura, int altura) {
+        this(comprimento, largura, altura, TipoMapa.DENSO);
+    }
+
+    /**
+     * Construtor da classe Ambiente com escolha da estrutura do mapa.
+     * Mapas {@link TipoMapa#ESPARSO} só alocam memória para regiões ocupadas,
+     * permitindo ambientes grandes com poucas entidades.
+     *
+     * @param comprimento A dimensão do ambiente no eixo X.
+     * @param largura     A dimensão do ambiente no eixo Y.
+     * @param altura      A dimensão do ambiente no eixo Z.
+     * @param tipoMapa    A estrutura usada para armazenar a ocupação.
+     */
+    public Ambiente(int comprimento, int largura, int altura, TipoMapa tipoMapa) {
         this.comprimento = comprimento;
         this.largura = largura;
         this.altura = altura;
-        this.mapa = new TipoEntidade[comprimento][largura][altura];
+        this.mapa = tipoMapa.criar(comprimento, largura, altura);
+        this.alturas = new MapaAlturas(comprimento, largura);
+        this.campoDistancia = new CampoDistancia(comprimento, largura, ALCANCE_CAMPO_DISTANCIA);
         inicializarMapa(); // Preenche o mapa com o tipo VAZIO.
     }
 
     /**
-     * Verifica se uma determinada coordenada (x, y, z) está ocupada por alguma entidade.
-     * Este método assume que as coordenadas fornecidas já estão dentro dos limites do ambiente.
+     * Classifica uma posição tridimensional (x, y, z) sem lançar exceções: fora
+     * dos limites físicos do ambiente, ocupada por outra entidade ou válida.
+     * Indicado para laços que testam muitas posições.
      *
      * @param x Coordenada no eixo X.
      * @param y Coordenada no eixo Y.
      * @param z Coordenada no eixo Z.
-     * @return true se a posição estiver ocupada, false caso contrário.
-     */
-    private boolean estaOcupado(int x, int y, int z) {
-        // Verifica se as coordenadas estão dentro dos limites físicos do mapa.
-        // Esta verificação é uma salvaguarda, pois `dentroDosLimites` deve ser chamada antes.
-        if (x < 0 || x >= this.comprimento || y < 0 || y >= this.largura || z < 0 || z >= this.altura) {
-            // Considera-se que uma posição fora dos limites não está "VAZIO",
-            // prevenindo ArrayIndexOutOfBoundsException se estaOcupado for chamado diretamente com coordenadas inválidas.
-            return true; // Ou lançar uma exceção, dependendo da política de erro.
-        }
-        // Retorna true se a célula do mapa não estiver VAZIA, indicando que está ocupada.
-        return this.mapa[x][y][z] != TipoEntidade.VAZIO;
+     * @return O {@link StatusPosicao} da posição.
+     */
+    public StatusPosicao validarPosicao(int x, int y, int z) {
+        if (!dentroDoMapa(x, y, z))
+            return StatusPosicao.FORA_DOS_LIMITES;
+        if (this.mapa.obter(x, y, z) != TipoEntidade.VAZIO)
+            return StatusPosicao.OCUPADA;
+        return StatusPosicao.VALIDA;
     }
 
     /**
      * Verifica se uma posição tridimensional (x, y, z) está dentro dos limites físicos do ambiente
-     * e se não está ocupada por outra entidade.
+     * e se não está ocupada por outra entidade. Delega para {@link #validarPosicao(int, int, int)}
+     * e converte os status inválidos em exceções.
      *
      * @param x Coordenada no eixo X.
      * @param y Coordenada no eixo Y.
      * @param z Coordenada no eixo Z.
      * @return true se a posição estiver dentro dos limites físicos e não ocupada (VAZIO).
      * @throws ColisaoException se a posição estiver dentro dos limites físicos, mas já estiver ocupada.
-     * @throws IndexOutOfBoundsException se as coordenadas estiverem fora dos limites físicos do mapa (implícito pela lógica de retorno).
+     * @throws IndexOutOfBoundsException se as coordenadas estiverem fora dos limites físicos do mapa.
      */
     public boolean dentroDosLimites(int x, int y, int z) throws ColisaoException {
-        // 1. Primeiro, verificar se as coordenadas estão dentro das dimensões físicas do array/mapa.
-        if (!(x < this.comprimento && y < this.largura && z < this.altura &&
-                x >= 0 && y >= 0 && z >= 0)) {
-            // Se estiver fora dos limites físicos, lança uma exceção.
-            // Isso é mais informativo do que simplesmente retornar false, pois indica uma tentativa de acesso inválido.
-            throw new IndexOutOfBoundsException(
-                    String.format("Posição (%d, %d, %d) está fora dos limites do ambiente [%d, %d, %d].",
-                            x, y, z, this.comprimento, this.largura, this.altura));
-        }
+        StatusPosicao status = validarPosicao(x, y, z);
+        if (status == StatusPosicao.FORA_DOS_LIMITES)
+            throw new IndexOutOfBoundsException(descreverStatus(status, x, y, z));
+        if (status == StatusPosicao.OCUPADA)
+            throw new ColisaoException(descreverStatus(status, x, y, z));
+        return true; // Dentro dos limites e não ocupado (Vazio)
+    }
 
-        // 2. Se estiver dentro dos limites físicos, então verificar se a posição está ocupada.
-        if (this.estaOcupado(x, y, z)) { // Acessa o mapa somente após garantir que x,y,z são válidos
-            throw new ColisaoException("Posição (" + x + "," + y + "," + z + ") já está ocupada.");
-        }
+    /**
+     * Monta a mensagem que descreve uma posição inválida, usada nas exceções de
+     * {@link #dentroDosLimites(int, int, int)} e nos avisos de adição.
+     */
+    private String descreverStatus(StatusPosicao status, int x, int y, int z) {
+        if (status == StatusPosicao.FORA_DOS_LIMITES)
+            return String.format("Posição (%d, %d, %d) está fora dos limites do ambiente [%d, %d, %d].",
+                    x, y, z, this.comprimento, this.largura, this.altura);
+        return "Posição (" + x + "," + y + "," + z + ") já está ocupada.";
+    }
 
-        // Se passou por ambas as verificações, a posição é válida e está vazia.
-        return true; // Dentro dos limites e não ocupado (Vazio)
+    /**
+     * Verifica apenas se uma coordenada está dentro das dimensões físicas do
+     * ambiente, sem considerar ocupação e sem lançar exceções.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @param z Coordenada no eixo Z.
+     * @return true se a posição estiver dentro dos limites físicos do ambiente.
+     */
+    public boolean dentroDoMapa(int x, int y, int z) {
+        return x >= 0 && x < comprimento && y >= 0 && y < largura && z >= 0 && z < altura;
+    }
+
+    /**
+     * Retorna o tipo de entidade que ocupa uma coordenada do mapa. Como os
+     * obstáculos são marcados em toda a sua área e altura, esta consulta basta
+     * para saber se uma posição colide com algum obstáculo.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @param z Coordenada no eixo Z.
+     * @return O {@link TipoEntidade} da posição, ou VAZIO se ela estiver fora dos limites.
+     */
+    public TipoEntidade tipoNaPosicao(int x, int y, int z) {
+        if (!dentroDoMapa(x, y, z))
+            return TipoEntidade.VAZIO;
+        return this.mapa.obter(x, y, z);
     }
 
     /**
      * Adiciona uma entidade (robô ou obstáculo) ao ambiente.
      * A entidade é adicionada à lista de entidades e sua posição é marcada no mapa.
+     * Obstáculos são marcados em toda a sua área, do chão (Z = 0) até a sua altura
+     * (limitada à altura do ambiente).
      * Se a posição estiver ocupada ou fora dos limites, uma mensagem de erro é impressa.
      *
      * @param entidade A entidade a ser adicionada.
@@ -100,41 +191,357 @@ public class Ambiente {
         int x = entidade.getX();
         int y = entidade.getY();
         int z = entidade.getZ();
-        try {
-            // Verifica se a posição de destino é válida (dentro dos limites e não ocupada)
-            if (dentroDosLimites(x, y, z)) {
-                this.mapa[x][y][z] = entidade.getTipo(); // Marca a posição no mapa com o tipo da entidade.
-                this.entidades.add(entidade); // Adiciona a entidade à lista de entidades ativas.
+        if (entidade instanceof Obstaculo) {
+            try {
+                // Verifica se toda a área do obstáculo está dentro dos limites e livre.
+                verificarVolume((Obstaculo) entidade);
+            } catch (ColisaoException | IndexOutOfBoundsException e) {
+                // Captura exceções de colisão ou acesso fora dos limites e imprime uma mensagem de erro.
+                System.err.println("Erro ao adicionar entidade: " + e.getMessage());
+                return;
             }
-        } catch (ColisaoException | IndexOutOfBoundsException e) {
-            // Captura exceções de colisão ou acesso fora dos limites e imprime uma mensagem de erro.
-            System.err.println("Erro ao adicionar entidade: " + e.getMessage());
+            marcarVolume((Obstaculo) entidade, TipoEntidade.VAZIO, TipoEntidade.OBSTACULO);
+        } else {
+            // Verifica se a posição de destino é válida (dentro dos limites e não ocupada) sem lançar exceções.
+            StatusPosicao status = validarPosicao(x, y, z);
+            if (status != StatusPosicao.VALIDA) {
+                System.err.println("Erro ao adicionar entidade: " + descreverStatus(status, x, y, z));
+                return;
+            }
+            this.mapa.definir(x, y, z, entidade.getTipo()); // Marca a posição no mapa com o tipo da entidade.
+        }
+        this.entidades.add(entidade); // Adiciona a entidade à lista de entidades ativas.
+        registrarTipo(entidade);
+        int[] area = areaOcupada(entidade, x, y);
+        this.alturas.adicionar(entidade, z, area[0], area[1], area[2], area[3]);
+        if (entidade instanceof Robo && contexto != null) {
+            ((Robo) entidade).setContexto(contexto); // Vincula o robô ao mundo deste ambiente.
         }
     }
 
+    /**
+     * Cria e adiciona robôs em lote, em posições livres sorteadas, sem exigir
+     * folga dos obstáculos. Equivale a
+     * {@link #spawn(Map, long, double)} com folga 0.
+     *
+     * @param quantidades Quantos robôs criar de cada classe.
+     * @param semente     A semente do sorteio das posições.
+     * @return Os robôs criados, na ordem em que foram adicionados.
+     * @throws IllegalStateException Se não houver células livres suficientes.
+     */
+    public List<Robo> spawn(Map<Class<? extends Robo>, Integer> quantidades, long semente) {
+        return spawn(quantidades, semente, 0);
+    }
+
+    /**
+     * Cria e adiciona robôs em lote, em posições livres sorteadas.
+     * <p>
+     * Em vez de sortear uma posição, criar o robô e descartá-lo em caso de
+     * colisão, as células são reservadas antes: para cada altitude inicial, todas
+     * as células necessárias são sorteadas de uma vez no mapa de ocupação, com
+     * os repetidos eliminados por ordenação. Só então os robôs são criados
+     * diretamente nas células reservadas e adicionados em uma única passada, sem
+     * validação célula a célula. Como a altitude inicial depende da classe, o
+     * primeiro robô de cada classe é criado antes da reserva.
+     * <p>
+     * O resultado depende apenas da semente e do estado do ambiente: as classes
+     * são processadas em ordem de nome, independentemente da ordem do mapa.
+     *
+     * @param quantidades Quantos robôs criar de cada classe. Cada classe deve ter
+     *                    um construtor público {@code (String, int, int)}.
+     * @param semente     A semente do sorteio das posições.
+     * @param folga       Distância mínima entre cada robô e a área dos
+     *                    obstáculos (veja {@link #distanciaAoObstaculo(int, int)}).
+     * @return Os robôs criados, na ordem em que foram adicionados.
+     * @throws IllegalArgumentException Se alguma quantidade for negativa.
+     * @throws IllegalStateException    Se não houver células livres suficientes
+     *                                  em alguma altitude.
+     */
+    public List<Robo> spawn(Map<Class<? extends Robo>, Integer> quantidades, long semente, double folga) {
+        Random rand = new Random(semente);
+        ArrayList<Class<? extends Robo>> classes = new ArrayList<>(quantidades.keySet());
+        classes.sort(Comparator.comparing(Class::getName));
+
+        // Cria o primeiro robô de cada classe para descobrir a sua altitude inicial.
+        TreeMap<Integer, List<Robo>> primeirosPorAltitude = new TreeMap<>();
+        int total = 0;
+        for (Class<? extends Robo> classe : classes) {
+            int quantidade = quantidades.get(classe);
+            if (quantidade < 0)
+                throw new IllegalArgumentException("Quantidade negativa de " + classe.getSimpleName() + ".");
+            if (quantidade == 0)
+                continue;
+            Robo primeiro = CatalogoRobos.getFabrica(classe).criar(classe.getSimpleName(), 0, 0);
+            primeirosPorAltitude.computeIfAbsent(primeiro.getZ(), z -> new ArrayList<>()).add(primeiro);
+            total += quantidade;
+        }
+
+        // Reserva as células de cada altitude de uma só vez e cria os robôs nelas.
+        ArrayList<Robo> criados = new ArrayList<>(total);
+        for (Map.Entry<Integer, List<Robo>> altitude : primeirosPorAltitude.entrySet()) {
+            int z = altitude.getKey();
+            int necessarias = 0;
+            for (Robo primeiro : altitude.getValue())
+                necessarias += quantidades.get(primeiro.getClass());
+            long[] celulas = reservarCelulas(z, necessarias, folga, rand);
+
+            int proxima = 0;
+            for (Robo primeiro : altitude.getValue()) {
+                Class<? extends Robo> classe = primeiro.getClass();
+                FabricaRobo fabrica = CatalogoRobos.getFabrica(classe);
+                String nome = classe.getSimpleName();
+                primeiro.setX((int) (celulas[proxima] / largura));
+                primeiro.setY((int) (celulas[proxima] % largura));
+                proxima++;
+                criados.add(primeiro);
+                for (int i = 1; i < quantidades.get(classe); i++, proxima++) {
+                    criados.add(fabrica.criar(nome, (int) (celulas[proxima] / largura),
+                            (int) (celulas[proxima] % largura)));
+                }
+            }
+        }
+        adicionarRobos(criados);
+        return criados;
+    }
+
+    /**
+     * Sorteia {@code quantidade} células distintas e livres na altitude z, a pelo
+     * menos {@code folga} dos obstáculos.
+     * <p>
+     * Enquanto o mapa tem bem mais células do que o pedido, as células são
+     * sorteadas diretamente: os candidatos ocupados são descartados e os
+     * repetidos eliminados ordenando o lote, repetindo até completar. Em mapas
+     * lotados, as células livres são percorridas uma única vez e escolhidas por
+     * seleção sequencial (algoritmo S de Knuth), o que também garante a
+     * uniformidade.
+     *
+     * @return As células, empacotadas como {@code x * largura + y}, em ordem
+     *         aleatória.
+     */
+    private long[] reservarCelulas(int z, int quantidade, double folga, Random rand) {
+        if (z < 0 || z >= altura)
+            throw new IllegalStateException("A altitude inicial " + z + " está fora do ambiente.");
+        long[] celulas = new long[quantidade];
+        int obtidas = 0;
+        if ((long) quantidade * 4 < (long) comprimento * largura) {
+            for (int rodada = 0; rodada < RODADAS_SORTEIO_SPAWN && obtidas < quantidade; rodada++) {
+                int sorteios = quantidade - obtidas;
+                for (int i = 0; i < sorteios; i++) {
+                    int x = rand.nextInt(comprimento);
+                    int y = rand.nextInt(largura);
+                    if (celulaLivre(x, y, z, folga))
+                        celulas[obtidas++] = (long) x * largura + y;
+                }
+                // Elimina os repetidos do lote, que ficam adjacentes após a ordenação.
+                Arrays.sort(celulas, 0, obtidas);
+                int distintas = 0;
+                for (int i = 0; i < obtidas; i++) {
+                    if (distintas == 0 || celulas[i] != celulas[distintas - 1])
+                        celulas[distintas++] = celulas[i];
+                }
+                obtidas = distintas;
+            }
+        }
+
+        if (obtidas < quantidade) {
+            long livres = 0;
+            for (int x = 0; x < comprimento; x++)
+                for (int y = 0; y < largura; y++)
+                    if (celulaLivre(x, y, z, folga))
+                        livres++;
+            if (livres < quantidade)
+                throw new IllegalStateException(String.format(
+                        "Há apenas %d células livres na altitude %d para %d robôs.", livres, z, quantidade));
+            obtidas = 0;
+            for (int x = 0; x < comprimento && obtidas < quantidade; x++) {
+                for (int y = 0; y < largura && obtidas < quantidade; y++) {
+                    if (!celulaLivre(x, y, z, folga))
+                        continue;
+                    // Escolhe a célula com probabilidade (faltam / livres restantes).
+                    if (rand.nextDouble() * livres < quantidade - obtidas)
+                        celulas[obtidas++] = (long) x * largura + y;
+                    livres--;
+                }
+            }
+        }
+
+        // Embaralha as células para que a ordem das classes não dependa da posição.
+        for (int i = quantidade - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            long celula = celulas[i];
+            celulas[i] = celulas[j];
+            celulas[j] = celula;
+        }
+        return celulas;
+    }
+
+    /**
+     * Verifica se a célula (x, y, z) está livre e a pelo menos {@code folga} da
+     * área dos obstáculos.
+     */
+    private boolean celulaLivre(int x, int y, int z, double folga) {
+        return this.mapa.obter(x, y, z) == TipoEntidade.VAZIO && (folga <= 0 || distanciaAoObstaculo(x, y) >= folga);
+    }
+
+    /**
+     * Adiciona em uma única passada robôs cujas posições já foram reservadas por
+     * {@link #reservarCelulas(int, int, double, Random)}, sem a validação de
+     * {@link #adicionarEntidade(Entidade)}.
+     */
+    private void adicionarRobos(List<Robo> novos) {
+        this.entidades.ensureCapacity(this.entidades.size() + novos.size());
+        this.robos.ensureCapacity(this.robos.size() + novos.size());
+        this.robosLigados.ensureCapacity(this.robosLigados.size() + novos.size());
+        for (Robo robo : novos) {
+            int x = robo.getX(), y = robo.getY(), z = robo.getZ();
+            this.mapa.definir(x, y, z, robo.getTipo());
+            this.entidades.add(robo);
+            this.robos.add(robo);
+            if (robo instanceof RoboAereo)
+                this.robosAereos.add((RoboAereo) robo);
+            if (robo instanceof RoboTerrestre)
+                this.robosTerrestres.add((RoboTerrestre) robo);
+            if (robo.isLigado())
+                this.robosLigados.add(robo);
+            this.alturas.adicionar(robo, z, x, y, x, y);
+            if (contexto != null)
+                robo.setContexto(contexto); // Vincula o robô ao mundo deste ambiente.
+        }
+        this.hashRobos.carregar(novos);
+    }
+
     /**
      * Remove uma entidade do ambiente.
-     * A posição da entidade no mapa é marcada como VAZIO, e a entidade é movida
-     * da lista de entidades ativas para a lista de entidades removidas.
+     * A posição da entidade no mapa é marcada como VAZIO (para obstáculos, toda a
+     * sua área e altura), e a entidade é movida da lista de entidades ativas para
+     * a lista de entidades removidas. Entidades que não estão ativas neste
+     * ambiente são ignoradas.
      *
      * @param entidade A entidade a ser removida.
      */
     public void removerEntidade(Entidade entidade) {
-        // Marca a posição antiga da entidade como VAZIO no mapa.
-        // É importante usar as coordenadas atuais da entidade.
-        if (entidade.getX() >= 0 && entidade.getX() < comprimento &&
-            entidade.getY() >= 0 && entidade.getY() < largura &&
-            entidade.getZ() >= 0 && entidade.getZ() < altura) {
-            this.mapa[entidade.getX()][entidade.getY()][entidade.getZ()] = TipoEntidade.VAZIO;
+        if (!this.entidades.remove(entidade)) // Remove a entidade da lista de entidades ativas.
+            return;
+
+        // Marca a posição atual da entidade como VAZIO no mapa.
+        if (entidade instanceof Obstaculo) {
+            marcarVolume((Obstaculo) entidade, TipoEntidade.OBSTACULO, TipoEntidade.VAZIO);
+        } else {
+            liberarCelula(entidade, entidade.getX(), entidade.getY(), entidade.getZ());
         }
-        this.entidades.remove(entidade); // Remove a entidade da lista de entidades ativas.
+        int[] area = areaOcupada(entidade, entidade.getX(), entidade.getY());
+        this.alturas.remover(entidade, area[0], area[1], area[2], area[3]);
+        desregistrarTipo(entidade);
         this.entidadesRemovidas.add(entidade); // Adiciona a entidade à lista de entidades removidas.
     }
 
+    /**
+     * Verifica se o volume de um obstáculo cabe no ambiente sem sobrepor outras
+     * entidades.
+     *
+     * @throws IndexOutOfBoundsException se a área do obstáculo sair do ambiente.
+     * @throws ColisaoException          se alguma célula do volume já estiver ocupada.
+     */
+    private void verificarVolume(Obstaculo obstaculo) throws ColisaoException {
+        if (!dentroDoMapa(obstaculo.getInferiorX(), obstaculo.getInferiorY(), 0)
+                || !dentroDoMapa(obstaculo.getSuperiorX(), obstaculo.getSuperiorY(), 0)) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "A área do obstáculo (%d, %d)-(%d, %d) está fora dos limites do ambiente [%d, %d, %d].",
+                    obstaculo.getInferiorX(), obstaculo.getInferiorY(), obstaculo.getSuperiorX(),
+                    obstaculo.getSuperiorY(), this.comprimento, this.largura, this.altura));
+        }
+        int zMaximo = Math.min(obstaculo.getZ(), this.altura - 1);
+        for (int x = obstaculo.getInferiorX(); x <= obstaculo.getSuperiorX(); x++) {
+            for (int y = obstaculo.getInferiorY(); y <= obstaculo.getSuperiorY(); y++) {
+                for (int z = 0; z <= zMaximo; z++) {
+                    if (this.mapa.obter(x, y, z) != TipoEntidade.VAZIO)
+                        throw new ColisaoException("Posição (" + x + "," + y + "," + z + ") já está ocupada.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Troca o tipo das células do volume de um obstáculo (área × altura) que
+     * estejam marcadas com {@code de} para {@code para}. Células com outro tipo
+     * são preservadas.
+     */
+    private void marcarVolume(Obstaculo obstaculo, TipoEntidade de, TipoEntidade para) {
+        int zMaximo = Math.min(obstaculo.getZ(), this.altura - 1);
+        for (int x = Math.max(obstaculo.getInferiorX(), 0); x <= Math.min(obstaculo.getSuperiorX(), comprimento - 1); x++) {
+            for (int y = Math.max(obstaculo.getInferiorY(), 0); y <= Math.min(obstaculo.getSuperiorY(), largura - 1); y++) {
+                for (int z = 0; z <= zMaximo; z++) {
+                    if (this.mapa.obter(x, y, z) == de)
+                        this.mapa.definir(x, y, z, para);
+                }
+            }
+        }
+    }
+
+    /**
+     * Atualiza a lista de robôs ligados após uma mudança de estado de um robô.
+     * Chamado pelo próprio {@link Robo} quando seu estado é alterado; robôs que
+     * não pertencem a este ambiente são ignorados.
+     *
+     * @param robo O robô cujo estado mudou.
+     */
+    public void atualizarEstado(Robo robo) {
+        boolean estavaLigado = this.robosLigados.remove(robo);
+        if (robo.isLigado() && (estavaLigado || this.robos.contains(robo)))
+            this.robosLigados.add(robo);
+    }
+
+    /**
+     * Inclui uma entidade recém-adicionada nas listas tipadas.
+     */
+    private void registrarTipo(Entidade entidade) {
+        if (entidade instanceof Obstaculo) {
+            this.obstaculos.add((Obstaculo) entidade);
+            this.indiceObstaculos.adicionar((Obstaculo) entidade);
+            this.campoDistancia.adicionar((Obstaculo) entidade);
+            if (this.espacoLivre != null)
+                this.espacoLivre.adicionar((Obstaculo) entidade);
+        } else if (entidade instanceof Robo) {
+            Robo robo = (Robo) entidade;
+            this.robos.add(robo);
+            this.hashRobos.adicionar(robo);
+            if (robo instanceof RoboAereo)
+                this.robosAereos.add((RoboAereo) robo);
+            if (robo instanceof RoboTerrestre)
+                this.robosTerrestres.add((RoboTerrestre) robo);
+            if (robo.isLigado())
+                this.robosLigados.add(robo);
+        }
+    }
+
+    /**
+     * Retira uma entidade recém-removida das listas tipadas.
+     */
+    private void desregistrarTipo(Entidade entidade) {
+        if (entidade instanceof Obstaculo) {
+            this.obstaculos.remove(entidade);
+            this.indiceObstaculos.remover((Obstaculo) entidade);
+            this.campoDistancia.remover((Obstaculo) entidade, this.indiceObstaculos);
+            if (this.espacoLivre != null)
+                this.espacoLivre.remover((Obstaculo) entidade, this.indiceObstaculos);
+        } else if (entidade instanceof Robo) {
+            this.robos.remove(entidade);
+            this.hashRobos.remover((Robo) entidade);
+            if (entidade instanceof RoboAereo)
+                this.robosAereos.remove(entidade);
+            if (entidade instanceof RoboTerrestre)
+                this.robosTerrestres.remove(entidade);
+            this.robosLigados.remove(entidade);
+        }
+    }
+
     /**
      * Move uma entidade para uma nova posição (novoX, novoY, novoZ) no ambiente.
      * A posição antiga da entidade no mapa é marcada como VAZIO e a nova posição é marcada com o tipo da entidade.
-     * Assume-se que a validade da nova posição (limites e colisão) foi verificada antes de chamar este método.
+     * Deve ser chamado antes de a entidade atualizar suas próprias coordenadas.
+     * Assume-se que a validade da nova posição (colisão) foi verificada antes de chamar este método;
+     * coordenadas fora dos limites não são marcadas no mapa, e células de obstáculos nunca são sobrescritas.
+     * Entidades que não pertencem a este ambiente (ex: já removidas) são ignoradas.
      *
      * @param entidade A entidade a ser movida.
      * @param novoX    A nova coordenada X da entidade.
@@ -142,12 +549,49 @@ public class Ambiente {
      * @param novoZ    A nova coordenada Z da entidade.
      */
     public void moverEntidade(Entidade entidade, int novoX, int novoY, int novoZ) {
-        // Limpa a posição antiga da entidade no mapa.
-        this.mapa[entidade.getX()][entidade.getY()][entidade.getZ()] = TipoEntidade.VAZIO;
-        // Marca a nova posição da entidade no mapa.
-        this.mapa[novoX][novoY][novoZ] = entidade.getTipo();
-        // Atualiza as coordenadas da entidade (esta responsabilidade pode estar na própria entidade também).
-        // entidade.setPosicao(novoX, novoY, novoZ); // Se houver um método para isso na classe Entidade.
+        if (entidade instanceof Obstaculo)
+            return; // Obstáculos não se movem.
+        // As demais entidades ocupam uma única coluna.
+        if (!this.alturas.remover(entidade, entidade.getX(), entidade.getY(), entidade.getX(), entidade.getY()))
+            return; // A entidade não está registrada neste ambiente.
+        if (entidade instanceof Robo)
+            this.hashRobos.mover((Robo) entidade, novoX, novoY);
+
+        // Limpa a posição antiga da entidade no mapa, sem apagar células de obstáculos.
+        liberarCelula(entidade, entidade.getX(), entidade.getY(), entidade.getZ());
+        // Marca a nova posição da entidade no mapa, se estiver livre.
+        if (dentroDoMapa(novoX, novoY, novoZ) && this.mapa.obter(novoX, novoY, novoZ) == TipoEntidade.VAZIO)
+            this.mapa.definir(novoX, novoY, novoZ, entidade.getTipo());
+
+        this.alturas.adicionar(entidade, novoZ, novoX, novoY, novoX, novoY);
+    }
+
+    /**
+     * Marca como VAZIO a célula que uma entidade está deixando, desde que ela
+     * esteja marcada com o tipo da entidade e que nenhum outro robô continue
+     * nela (ex: um robô aéreo pousado sobre a célula de um terrestre).
+     */
+    private void liberarCelula(Entidade entidade, int x, int y, int z) {
+        if (!dentroDoMapa(x, y, z) || this.mapa.obter(x, y, z) != entidade.getTipo())
+            return;
+        if (this.hashRobos.primeiroNaCaixa(x, y, z, x, y, z, Robo.class, entidade) == null)
+            this.mapa.definir(x, y, z, TipoEntidade.VAZIO);
+    }
+
+    /**
+     * Calcula o retângulo de colunas (vista de cima) ocupado por uma entidade
+     * centrada em (x, y). Obstáculos ocupam a área pré-calculada do seu tipo
+     * (obstáculos não se movem); as demais entidades ocupam uma única coluna.
+     *
+     * @return Um arranjo {x0, y0, x1, y1} com os cantos do retângulo.
+     */
+    private static int[] areaOcupada(Entidade entidade, int x, int y) {
+        if (entidade instanceof Obstaculo) {
+            Obstaculo obstaculo = (Obstaculo) entidade;
+            return new int[] { obstaculo.getInferiorX(), obstaculo.getInferiorY(), obstaculo.getSuperiorX(),
+                    obstaculo.getSuperiorY() };
+        }
+        return new int[] { x, y, x, y };
     }
 
     /**
@@ -155,18 +599,13 @@ public class Ambiente {
      * Este método é chamado durante a construção do ambiente.
      */
     void inicializarMapa() {
-        for (int i = 0; i < comprimento; i++) {
-            for (int j = 0; j < largura; j++) {
-                for (int k = 0; k < altura; k++) {
-                    this.mapa[i][j][k] = TipoEntidade.VAZIO; // Define cada célula como VAZIO.
-                }
-            }
-        }
+        this.mapa.limpar(); // Define cada célula como VAZIO.
     }
 
     /**
      * Exibe uma representação textual 2D (vista de cima) do ambiente no console.
-     * Mostra a representação da entidade que está na maior altitude (Z) em cada coordenada (X, Y).
+     * Mostra a representação da entidade que está na maior altitude (Z) em cada coordenada (X, Y),
+     * consultando o {@link MapaAlturas} mantido a cada adição, movimento ou remoção.
      * Se não houver entidade em uma coordenada (X,Y) em nenhuma altitude, exibe ".".
      */
     public void visualizarAmbiente() {
@@ -174,24 +613,9 @@ public class Ambiente {
         // Itera sobre a largura (Y) e o comprimento (X) para formar a grade 2D.
         for (int y = 0; y < largura; y++) {
             for (int x = 0; x < comprimento; x++) {
-                Entidade entidadeNoTopo = null;
-                // Procura a entidade com a maior coordenada Z para a posição (x,y) atual.
-                int zMaior = 0; // Começa do topo (maior Z) e desce.
-                
-                for (Entidade entidade : entidades) {
-                    // Verifica se a entidade está na posição (x,y,z) atual.
-                    if(entidade instanceof Obstaculo) {
-                        if (entidade.getZ() > zMaior && Obstaculo.IsOccupied((Obstaculo) entidade, x, y)){
-                            entidadeNoTopo = entidade;
-                            zMaior = entidade.getZ(); // Atualiza a maior altura encontrada.         
-                        }
-                    }
-                    else if (entidade.getX() == x && entidade.getY() == y && entidade.getZ() >= zMaior) {
-                        entidadeNoTopo = entidade; // Encontrou a entidade mais alta nesta coluna (x,y).
-                        zMaior = entidade.getZ(); // Atualiza a maior altura encontrada.
-                    }
-                }
-                
+                // Consulta a entidade com a maior coordenada Z na coluna (x,y) atual.
+                Entidade entidadeNoTopo = alturas.obterTopo(x, y);
+
                 // Imprime a representação da entidade no topo ou "." se a coluna estiver vazia.
                 if (entidadeNoTopo != null) {
                     System.out.print(entidadeNoTopo.getRepresentacao());
@@ -231,13 +655,34 @@ public class Ambiente {
         return altura;
     }
 
+    /**
+     * Retorna o contexto (mundo) ao qual este ambiente pertence.
+     *
+     * @return O {@link SimulationContext} do ambiente, ou {@code null} se ainda não
+     *         foi vinculado.
+     */
+    public SimulationContext getContexto() {
+        return contexto;
+    }
+
+    /**
+     * Vincula este ambiente a um contexto. Chamado pelo construtor de
+     * {@link SimulationContext}.
+     *
+     * @param contexto O contexto ao qual o ambiente pertence.
+     */
+    public void setContexto(SimulationContext contexto) {
+        this.contexto = contexto;
+    }
+
     /**
      * Retorna a lista de todas as entidades atualmente ativas no ambiente.
+     * Assim como {@link #getRobos()}, é uma visão somente leitura e sempre atual.
      *
-     * @return Uma {@link ArrayList} contendo todas as entidades ativas.
+     * @return Uma {@link List} não modificável com todas as entidades ativas.
      */
-    public ArrayList<Entidade> getEntidades() {
-        return entidades;
+    public List<Entidade> getEntidades() {
+        return visaoEntidades;
     }
 
     /**
@@ -251,33 +696,252 @@ public class Ambiente {
 
     /**
      * Retorna uma lista contendo apenas os robôs ativos no ambiente.
-     * Filtra a lista de todas as entidades para incluir apenas instâncias de {@link Robo}.
+     * A lista é uma visão somente leitura, mantida pelo ambiente: ela reflete
+     * adições e remoções posteriores. Quem precisar remover robôs enquanto a
+     * percorre deve iterar sobre uma cópia. A ordem é a de adição até a
+     * primeira remoção, que coloca o último robô no lugar do removido.
      *
-     * @return Uma {@link ArrayList} contendo todos os robôs ativos.
+     * @return Uma {@link List} não modificável com todos os robôs ativos.
      */
-    public ArrayList<Robo> getRobos() {
-        ArrayList<Robo> robos = new ArrayList<>();
-        for (Entidade entidade : entidades) {
-            if (entidade instanceof Robo) { // Verifica se a entidade é uma instância de Robo.
-                robos.add((Robo) entidade); // Adiciona à lista de robôs.
-            }
-        }
-        return robos;
+    public List<Robo> getRobos() {
+        return visaoRobos;
     }
 
     /**
      * Retorna uma lista contendo apenas os obstáculos ativos no ambiente.
-     * Filtra a lista de todas as entidades para incluir apenas instâncias de {@link Obstaculo}.
+     * Assim como {@link #getRobos()}, é uma visão somente leitura e sempre atual.
      *
-     * @return Uma {@link ArrayList} contendo todos os obstáculos ativos.
+     * @return Uma {@link List} não modificável com todos os obstáculos ativos.
      */
-    public ArrayList<Obstaculo> getObstaculos() {
-        ArrayList<Obstaculo> obstaculos = new ArrayList<>();
-        for (Entidade entidade : entidades) {
-            if (entidade instanceof Obstaculo) { // Verifica se a entidade é uma instância de Obstaculo.
-                obstaculos.add((Obstaculo) entidade); // Adiciona à lista de obstáculos.
+    public List<Obstaculo> getObstaculos() {
+        return visaoObstaculos;
+    }
+
+    /**
+     * Retorna uma visão somente leitura dos robôs aéreos ativos no ambiente.
+     *
+     * @return Uma {@link List} não modificável com os robôs aéreos ativos.
+     */
+    public List<RoboAereo> getRobosAereos() {
+        return visaoRobosAereos;
+    }
+
+    /**
+     * Retorna uma visão somente leitura dos robôs terrestres ativos no ambiente.
+     *
+     * @return Uma {@link List} não modificável com os robôs terrestres ativos.
+     */
+    public List<RoboTerrestre> getRobosTerrestres() {
+        return visaoRobosTerrestres;
+    }
+
+    /**
+     * Retorna uma visão somente leitura dos robôs ativos que estão ligados.
+     *
+     * @return Uma {@link List} não modificável com os robôs ligados.
+     */
+    public List<Robo> getRobosLigados() {
+        return visaoRobosLigados;
+    }
+
+    /**
+     * Retorna o índice espacial das áreas dos obstáculos deste ambiente, usado
+     * para consultas por ponto, caixa ou segmento.
+     *
+     * @return O {@link IndiceObstaculos} do ambiente.
+     */
+    public IndiceObstaculos getIndiceObstaculos() {
+        return indiceObstaculos;
+    }
+
+    /**
+     * Retorna a distância euclidiana (vista de cima) entre a coluna (x, y) e a
+     * área do obstáculo mais próximo. A consulta usa o campo de distâncias
+     * mantido a cada adição ou remoção de obstáculo e não percorre a lista.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @return A distância, 0 dentro de um obstáculo, ou
+     *         {@link Double#POSITIVE_INFINITY} se nenhum obstáculo estiver a até
+     *         {@value #ALCANCE_CAMPO_DISTANCIA} colunas.
+     */
+    public double distanciaAoObstaculo(int x, int y) {
+        return campoDistancia.distancia(x, y);
+    }
+
+    /**
+     * Retorna o obstáculo cuja área está mais próxima da coluna (x, y). Para uma
+     * coluna dentro de um obstáculo, é o próprio obstáculo.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @return O obstáculo mais próximo, ou {@code null} se nenhum estiver a até
+     *         {@value #ALCANCE_CAMPO_DISTANCIA} colunas.
+     */
+    public Obstaculo obstaculoMaisProximo(int x, int y) {
+        return campoDistancia.obstaculoMaisProximo(x, y);
+    }
+
+    /**
+     * Sorteia um centro candidato para um novo obstáculo do tipo informado. O
+     * candidato ainda deve ser confirmado por
+     * {@link Obstaculo#boaPosicao(Ambiente, TipoObstaculo, int, int)}, que também
+     * considera os robôs.
+     * <p>
+     * Os primeiros sorteios são feitos diretamente sobre o mapa, o que basta em
+     * ambientes pouco ocupados. Se eles falharem, é criado um
+     * {@link IndiceEspacoLivre}, mantido a partir de então a cada adição ou
+     * remoção de obstáculo, e os candidatos passam a ser sorteados apenas entre
+     * os centros em que o tipo cabe sem sobrepor outros obstáculos. Ambientes
+     * maiores que {@value #AREA_MAXIMA_ESPACO_LIVRE} colunas não são indexados e
+     * continuam com sorteios diretos.
+     *
+     * @param tipo O tipo do obstáculo a posicionar.
+     * @param rand O gerador de números aleatórios.
+     * @return Um arranjo {x, y} com o centro candidato, ou {@code null} se o
+     *         índice indicar que não há mais espaço para o tipo.
+     */
+    public int[] sortearCentroObstaculo(TipoObstaculo tipo, Random rand) {
+        if (this.espacoLivre == null) {
+            if ((long) comprimento * largura > AREA_MAXIMA_ESPACO_LIVRE) // Grande demais para indexar.
+                return new int[] { rand.nextInt(comprimento), rand.nextInt(largura) };
+            for (int i = 0; i < SORTEIOS_DIRETOS; i++) {
+                int x = rand.nextInt(comprimento);
+                int y = rand.nextInt(largura);
+                if (Obstaculo.boaPosicao(this, tipo, x, y))
+                    return new int[] { x, y };
             }
+            this.espacoLivre = new IndiceEspacoLivre(comprimento, largura);
+            for (Obstaculo obstaculo : this.obstaculos)
+                this.espacoLivre.adicionar(obstaculo);
         }
-        return obstaculos;
+        return this.espacoLivre.sortear(tipo, rand);
+    }
+
+    /**
+     * Retorna o primeiro robô da classe informada que está na caixa (limites
+     * inclusivos), ignorando um robô específico. Não aloca listas.
+     *
+     * @param x0      Menor coordenada X.
+     * @param y0      Menor coordenada Y.
+     * @param z0      Menor coordenada Z.
+     * @param x1      Maior coordenada X.
+     * @param y1      Maior coordenada Y.
+     * @param z1      Maior coordenada Z.
+     * @param classe  A classe que o robô deve ter (ex: {@code RoboAereo.class}).
+     * @param ignorar O robô a desconsiderar, ou {@code null}.
+     * @return O robô encontrado, ou {@code null}.
+     */
+    public Robo primeiroRoboNaCaixa(int x0, int y0, int z0, int x1, int y1, int z1, Class<? extends Robo> classe,
+            Robo ignorar) {
+        return hashRobos.primeiroNaCaixa(x0, y0, z0, x1, y1, z1, classe, ignorar);
+    }
+
+    /**
+     * Retorna os robôs que estão exatamente na posição (x, y, z).
+     * A consulta usa o hash espacial de robôs e não percorre a lista inteira.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @param z Coordenada no eixo Z.
+     * @return Uma nova lista com os robôs da posição.
+     */
+    public List<Robo> robosNaCelula(int x, int y, int z) {
+        return hashRobos.naCelula(x, y, z);
+    }
+
+    /**
+     * Retorna os robôs a uma distância euclidiana (em 3D) menor ou igual a
+     * {@code raio} do ponto (x, y, z).
+     *
+     * @param x    Coordenada X do centro.
+     * @param y    Coordenada Y do centro.
+     * @param z    Coordenada Z do centro.
+     * @param raio O raio da busca.
+     * @return Uma nova lista com os robôs dentro do raio.
+     */
+    public List<Robo> robosNoRaio(int x, int y, int z, double raio) {
+        return hashRobos.noRaio(x, y, z, raio);
+    }
+
+    /**
+     * Retorna os robôs dentro de uma caixa alinhada aos eixos, com limites
+     * inclusivos.
+     *
+     * @param x0 Menor coordenada X.
+     * @param y0 Menor coordenada Y.
+     * @param z0 Menor coordenada Z.
+     * @param x1 Maior coordenada X.
+     * @param y1 Maior coordenada Y.
+     * @param z1 Maior coordenada Z.
+     * @return Uma nova lista com os robôs dentro da caixa.
+     */
+    public List<Robo> robosNaCaixa(int x0, int y0, int z0, int x1, int y1, int z1) {
+        return hashRobos.naCaixa(x0, y0, z0, x1, y1, z1);
+    }
+
+    /**
+     * Retorna os robôs com Z entre {@code z0} e {@code z1} cuja célula, expandida
+     * por {@code margem}, é cruzada pelo segmento de (x0, y0) a (x1, y1). Usado
+     * na fase ampla da colisão por varredura.
+     *
+     * @param x0     Coordenada X de origem.
+     * @param y0     Coordenada Y de origem.
+     * @param x1     Coordenada X de destino.
+     * @param y1     Coordenada Y de destino.
+     * @param z0     Menor coordenada Z.
+     * @param z1     Maior coordenada Z.
+     * @param margem Expansão aplicada à célula de cada robô.
+     * @return Uma nova lista com os robôs cruzados pelo segmento.
+     */
+    public List<Robo> robosNoSegmento(double x0, double y0, double x1, double y1, int z0, int z1, double margem) {
+        return hashRobos.noSegmento(x0, y0, x1, y1, z0, z1, margem);
+    }
+
+    /**
+     * Entrega ao visitante os robôs que
+     * {@link #robosNoSegmento(double, double, double, double, int, int, double)}
+     * retornaria, sem montar uma lista. Usado na fase ampla da colisão por
+     * varredura.
+     *
+     * @param x0        Coordenada X de origem.
+     * @param y0        Coordenada Y de origem.
+     * @param x1        Coordenada X de destino.
+     * @param y1        Coordenada Y de destino.
+     * @param z0        Menor coordenada Z.
+     * @param z1        Maior coordenada Z.
+     * @param margem    Expansão aplicada à célula de cada robô.
+     * @param visitante Recebe cada robô cruzado pelo segmento. Não deve
+     *                  adicionar, remover nem mover robôs.
+     */
+    public void visitarRobosNoSegmento(double x0, double y0, double x1, double y1, int z0, int z1, double margem,
+            Consumer<? super Robo> visitante) {
+        hashRobos.visitarNoSegmento(x0, y0, x1, y1, z0, z1, margem, visitante);
+    }
+
+    /**
+     * Retorna a maior altitude ocupada na coluna (x, y), desconsiderando uma
+     * entidade. Para obstáculos, é a altura do obstáculo. A consulta usa o mapa de
+     * alturas e não percorre a coluna.
+     *
+     * @param x       Coordenada no eixo X.
+     * @param y       Coordenada no eixo Y.
+     * @param ignorar A entidade a desconsiderar (ex: o robô que está se movendo),
+     *                ou {@code null}.
+     * @return A maior altitude ocupada, ou -1 se a coluna estiver vazia.
+     */
+    public int alturaDaColuna(int x, int y, Entidade ignorar) {
+        return alturas.alturaMaxima(x, y, ignorar);
+    }
+
+    /**
+     * Verifica se um robô está ativo neste ambiente. A consulta usa o hash
+     * espacial de robôs e não percorre a lista de entidades.
+     *
+     * @param robo O robô a verificar.
+     * @return {@code true} se o robô está no ambiente.
+     */
+    public boolean contemRobo(Robo robo) {
+        return hashRobos.contem(robo);
     }
 }
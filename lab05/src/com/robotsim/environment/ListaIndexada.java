@@ -0,0 +1,100 @@
+package com.robotsim.environment;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.RandomAccess;
+
+/**
+ * Lista de elementos distintos que guarda a posição de cada um, usada pelo
+ * {@link Ambiente} para as listas de entidades que muda a cada adição, remoção
+ * ou mudança de estado.
+ * <p>
+ * {@link #contains(Object)}, {@link #indexOf(Object)} e
+ * {@link #remove(Object)} custam O(1): a remoção move o último elemento para a
+ * posição do removido em vez de deslocar os seguintes. Por isso, a ordem é a
+ * de inserção apenas até a primeira remoção. Os elementos são comparados por
+ * identidade, como as entidades do ambiente.
+ *
+ * @param <T> O tipo dos elementos.
+ */
+final class ListaIndexada<T> extends AbstractList<T> implements RandomAccess {
+    private final ArrayList<T> elementos = new ArrayList<>(); // Elementos na ordem da lista.
+    private IdentityHashMap<T, Integer> posicoes = new IdentityHashMap<>(); // Índice de cada elemento.
+
+    /**
+     * Acrescenta um elemento ao fim da lista, se ele ainda não estiver nela.
+     *
+     * @param elemento O elemento a acrescentar.
+     * @return {@code true} se o elemento foi acrescentado.
+     */
+    @Override
+    public boolean add(T elemento) {
+        if (posicoes.putIfAbsent(elemento, elementos.size()) != null)
+            return false;
+        elementos.add(elemento);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Remove um elemento, colocando o último da lista em seu lugar.
+     *
+     * @param elemento O elemento a remover.
+     * @return {@code true} se o elemento estava na lista.
+     */
+    @Override
+    public boolean remove(Object elemento) {
+        Integer posicao = posicoes.remove(elemento);
+        if (posicao == null)
+            return false;
+        T ultimo = elementos.remove(elementos.size() - 1);
+        if (ultimo != elemento) {
+            elementos.set(posicao, ultimo);
+            posicoes.put(ultimo, posicao);
+        }
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object elemento) {
+        return posicoes.containsKey(elemento);
+    }
+
+    @Override
+    public int indexOf(Object elemento) {
+        Integer posicao = posicoes.get(elemento);
+        return posicao == null ? -1 : posicao;
+    }
+
+    @Override
+    public int lastIndexOf(Object elemento) {
+        return indexOf(elemento);
+    }
+
+    @Override
+    public T get(int indice) {
+        return elementos.get(indice);
+    }
+
+    @Override
+    public int size() {
+        return elementos.size();
+    }
+
+    /**
+     * Reserva espaço para que a lista chegue ao tamanho informado sem realocar
+     * os elementos nem refazer o índice a cada crescimento.
+     *
+     * @param capacidade O número de elementos esperado.
+     */
+    void ensureCapacity(int capacidade) {
+        elementos.ensureCapacity(capacidade);
+        if (capacidade <= 2 * posicoes.size())
+            return; // O índice chega lá dobrando no máximo uma vez; copiá-lo não compensa.
+        IdentityHashMap<T, Integer> maior = new IdentityHashMap<>(capacidade);
+        maior.putAll(posicoes);
+        posicoes = maior;
+    }
+}
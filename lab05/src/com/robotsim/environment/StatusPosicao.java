@@ -0,0 +1,16 @@
+package com.robotsim.environment;
+
+/**
+ * Resultado da validação de uma posição do ambiente por
+ * {@link Ambiente#validarPosicao(int, int, int)}. Permite verificar posições
+ * em laços sem criar exceções; {@link Ambiente#dentroDosLimites(int, int, int)}
+ * converte os status inválidos nas exceções correspondentes.
+ */
+public enum StatusPosicao {
+    /** A posição está dentro dos limites do ambiente e livre. */
+    VALIDA,
+    /** A posição está fora das dimensões físicas do ambiente. */
+    FORA_DOS_LIMITES,
+    /** A posição está dentro dos limites, mas já ocupada por outra entidade. */
+    OCUPADA
+}
@@ -0,0 +1,380 @@
+package com.robotsim.environment.map;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.robotsim.environment.entity.Entidade;
+
+/**
+ * Hash espacial de grade uniforme para consultas de posição sobre entidades
+ * pontuais (ex: robôs).
+ * <p>
+ * O plano (x, y) é dividido em baldes quadrados de {@code ladoBalde} células, e
+ * cada entidade fica no balde da sua coluna. Consultas por célula, caixa ou raio
+ * visitam apenas os baldes que intersectam a região consultada, de modo que o
+ * custo depende da densidade local e não do total de entidades no ambiente. A
+ * coordenada Z é filtrada dentro de cada balde.
+ * <p>
+ * Assim como os demais mapas, o hash não sabe quando uma entidade se move:
+ * cabe ao {@link com.robotsim.environment.Ambiente} chamar
+ * {@link #mover(Entidade, int, int)} antes de a entidade atualizar suas
+ * coordenadas.
+ *
+ * @param <T> O tipo de entidade indexada.
+ */
+public class HashEspacial<T extends Entidade> {
+    /** Lado padrão dos baldes, em células. */
+    public static final int LADO_BALDE_PADRAO = 8;
+
+    private final int ladoBalde; // Lado de cada balde, em células.
+    private final HashMap<Long, ArrayList<T>> baldes = new HashMap<>(); // Entidades de cada balde ocupado.
+
+    /**
+     * Cria um hash espacial com baldes de {@value #LADO_BALDE_PADRAO} células.
+     */
+    public HashEspacial() {
+        this(LADO_BALDE_PADRAO);
+    }
+
+    /**
+     * Cria um hash espacial com baldes do tamanho informado.
+     *
+     * @param ladoBalde O lado de cada balde, em células. Deve ser positivo.
+     */
+    public HashEspacial(int ladoBalde) {
+        if (ladoBalde <= 0)
+            throw new IllegalArgumentException("O lado do balde deve ser positivo.");
+        this.ladoBalde = ladoBalde;
+    }
+
+    /**
+     * Insere uma entidade no balde da sua posição atual.
+     *
+     * @param entidade A entidade a inserir.
+     */
+    public void adicionar(T entidade) {
+        baldes.computeIfAbsent(chave(entidade.getX(), entidade.getY()), k -> new ArrayList<>()).add(entidade);
+    }
+
+    /**
+     * Insere várias entidades de uma só vez, por exemplo ao criar muitos robôs.
+     * Equivale a chamar {@link #adicionar(Entidade)} para cada uma, mas
+     * reaproveita o balde quando entidades consecutivas caem no mesmo.
+     *
+     * @param entidades As entidades a inserir.
+     */
+    public void carregar(Collection<? extends T> entidades) {
+        long chaveAnterior = 0;
+        ArrayList<T> balde = null;
+        for (T entidade : entidades) {
+            long chave = chave(entidade.getX(), entidade.getY());
+            if (balde == null || chave != chaveAnterior) {
+                balde = baldes.computeIfAbsent(chave, k -> new ArrayList<>());
+                chaveAnterior = chave;
+            }
+            balde.add(entidade);
+        }
+    }
+
+    /**
+     * Remove uma entidade do balde da sua posição atual.
+     *
+     * @param entidade A entidade a remover.
+     * @return {@code true} se a entidade estava no hash.
+     */
+    public boolean remover(T entidade) {
+        long chave = chave(entidade.getX(), entidade.getY());
+        ArrayList<T> balde = baldes.get(chave);
+        if (balde == null || !balde.remove(entidade))
+            return false;
+        if (balde.isEmpty())
+            baldes.remove(chave);
+        return true;
+    }
+
+    /**
+     * Verifica se uma entidade está no hash, consultando apenas o balde da sua
+     * posição atual.
+     *
+     * @param entidade A entidade a verificar.
+     * @return {@code true} se a entidade está no hash.
+     */
+    public boolean contem(T entidade) {
+        ArrayList<T> balde = baldes.get(chave(entidade.getX(), entidade.getY()));
+        return balde != null && balde.contains(entidade);
+    }
+
+    /**
+     * Move uma entidade para o balde da nova coluna. Deve ser chamado enquanto a
+     * entidade ainda guarda as coordenadas antigas. Mudanças apenas em Z não
+     * trocam a entidade de balde.
+     *
+     * @param entidade A entidade que está se movendo.
+     * @param novoX    A nova coordenada X.
+     * @param novoY    A nova coordenada Y.
+     */
+    public void mover(T entidade, int novoX, int novoY) {
+        long antiga = chave(entidade.getX(), entidade.getY());
+        long nova = chave(novoX, novoY);
+        if (antiga == nova)
+            return;
+        ArrayList<T> balde = baldes.get(antiga);
+        if (balde == null || !balde.remove(entidade))
+            return; // A entidade não está no hash.
+        if (balde.isEmpty())
+            baldes.remove(antiga);
+        baldes.computeIfAbsent(nova, k -> new ArrayList<>()).add(entidade);
+    }
+
+    /**
+     * Retorna as entidades que estão exatamente na célula informada.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @param z Coordenada no eixo Z.
+     * @return Uma nova lista com as entidades da célula.
+     */
+    public List<T> naCelula(int x, int y, int z) {
+        return naCaixa(x, y, z, x, y, z);
+    }
+
+    /**
+     * Retorna as entidades dentro de uma caixa alinhada aos eixos, com limites
+     * inclusivos.
+     *
+     * @param x0 Menor coordenada X.
+     * @param y0 Menor coordenada Y.
+     * @param z0 Menor coordenada Z.
+     * @param x1 Maior coordenada X.
+     * @param y1 Maior coordenada Y.
+     * @param z1 Maior coordenada Z.
+     * @return Uma nova lista com as entidades dentro da caixa.
+     */
+    public List<T> naCaixa(int x0, int y0, int z0, int x1, int y1, int z1) {
+        ArrayList<T> resultado = new ArrayList<>();
+        int bx0 = Math.floorDiv(x0, ladoBalde), bx1 = Math.floorDiv(x1, ladoBalde);
+        int by0 = Math.floorDiv(y0, ladoBalde), by1 = Math.floorDiv(y1, ladoBalde);
+
+        // Caixas maiores do que o número de baldes ocupados são mais baratas de
+        // resolver percorrendo os baldes existentes.
+        if ((long) (bx1 - bx0 + 1) * (by1 - by0 + 1) > baldes.size()) {
+            for (ArrayList<T> balde : baldes.values())
+                filtrarCaixa(balde, x0, y0, z0, x1, y1, z1, resultado);
+            return resultado;
+        }
+
+        for (int bx = bx0; bx <= bx1; bx++) {
+            for (int by = by0; by <= by1; by++) {
+                ArrayList<T> balde = baldes.get(empacotar(bx, by));
+                if (balde != null)
+                    filtrarCaixa(balde, x0, y0, z0, x1, y1, z1, resultado);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna a primeira entidade dentro da caixa (limites inclusivos) que seja
+     * instância de {@code classe} e diferente de {@code ignorar}. Não aloca
+     * listas, e é usado nos testes de colisão feitos a cada passo de movimento.
+     *
+     * @param x0      Menor coordenada X.
+     * @param y0      Menor coordenada Y.
+     * @param z0      Menor coordenada Z.
+     * @param x1      Maior coordenada X.
+     * @param y1      Maior coordenada Y.
+     * @param z1      Maior coordenada Z.
+     * @param classe  A classe que a entidade deve ter.
+     * @param ignorar Uma entidade a desconsiderar (ex: a que está se movendo), ou
+     *                {@code null}.
+     * @return A entidade encontrada, ou {@code null}.
+     */
+    public T primeiroNaCaixa(int x0, int y0, int z0, int x1, int y1, int z1, Class<?> classe, Object ignorar) {
+        for (int bx = Math.floorDiv(x0, ladoBalde); bx <= Math.floorDiv(x1, ladoBalde); bx++) {
+            for (int by = Math.floorDiv(y0, ladoBalde); by <= Math.floorDiv(y1, ladoBalde); by++) {
+                ArrayList<T> balde = baldes.get(empacotar(bx, by));
+                if (balde == null)
+                    continue;
+                for (int i = 0; i < balde.size(); i++) {
+                    T entidade = balde.get(i);
+                    int x = entidade.getX(), y = entidade.getY(), z = entidade.getZ();
+                    if (entidade != ignorar && classe.isInstance(entidade)
+                            && x >= x0 && x <= x1 && y >= y0 && y <= y1 && z >= z0 && z <= z1)
+                        return entidade;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna as entidades com Z entre {@code z0} e {@code z1} cuja célula,
+     * expandida por {@code margem} em todas as direções, é cruzada pelo segmento
+     * de (x0, y0) a (x1, y1). As extremidades podem ser fracionárias.
+     * <p>
+     * Com margem 0.5, cada célula é tratada como um quadrado unitário e o
+     * resultado contém todas as entidades que uma varredura célula a célula (ex:
+     * Bresenham) sobre o mesmo segmento poderia encontrar. Apenas os baldes
+     * atravessados pelo segmento são visitados, então o custo não cresce com a
+     * área da caixa que envolve movimentos diagonais longos.
+     *
+     * @param x0     Coordenada X de origem.
+     * @param y0     Coordenada Y de origem.
+     * @param x1     Coordenada X de destino.
+     * @param y1     Coordenada Y de destino.
+     * @param z0     Menor coordenada Z.
+     * @param z1     Maior coordenada Z.
+     * @param margem Expansão aplicada à célula de cada entidade.
+     * @return Uma nova lista com as entidades cruzadas.
+     * @see #visitarNoSegmento(double, double, double, double, int, int, double, Consumer)
+     */
+    public List<T> noSegmento(double x0, double y0, double x1, double y1, int z0, int z1, double margem) {
+        ArrayList<T> resultado = new ArrayList<>();
+        visitarNoSegmento(x0, y0, x1, y1, z0, z1, margem, resultado::add);
+        return resultado;
+    }
+
+    /**
+     * Versão de {@link #noSegmento(double, double, double, double, int, int, double)}
+     * que entrega cada entidade encontrada ao visitante, percorrendo os baldes
+     * diretamente, sem montar uma lista. É usada na fase ampla da colisão por
+     * varredura, chamada a cada bloco de passos de um movimento.
+     *
+     * @param x0        Coordenada X de origem.
+     * @param y0        Coordenada Y de origem.
+     * @param x1        Coordenada X de destino.
+     * @param y1        Coordenada Y de destino.
+     * @param z0        Menor coordenada Z.
+     * @param z1        Maior coordenada Z.
+     * @param margem    Expansão aplicada à célula de cada entidade.
+     * @param visitante Recebe cada entidade cruzada, uma única vez. Não deve
+     *                  adicionar, remover nem mover entidades do hash.
+     */
+    public void visitarNoSegmento(double x0, double y0, double x1, double y1, int z0, int z1, double margem,
+            Consumer<? super T> visitante) {
+        double xMin = Math.min(x0, x1) - margem, xMax = Math.max(x0, x1) + margem;
+
+        // Percorre as colunas de baldes ao longo de X e, em cada uma, apenas os
+        // baldes que o segmento (expandido pela margem) atravessa em Y.
+        for (int bx = Math.floorDiv((int) Math.floor(xMin), ladoBalde); bx <= Math
+                .floorDiv((int) Math.ceil(xMax), ladoBalde); bx++) {
+            double inicioColuna = Math.max(xMin, (double) bx * ladoBalde - margem);
+            double fimColuna = Math.min(xMax, (double) bx * ladoBalde + ladoBalde - 1 + margem);
+            double yA = x0 == x1 ? y0 : yNaReta(x0, y0, x1, y1, inicioColuna);
+            double yB = x0 == x1 ? y1 : yNaReta(x0, y0, x1, y1, fimColuna);
+            int byInicio = Math.floorDiv((int) Math.floor(Math.min(yA, yB) - margem), ladoBalde);
+            int byFim = Math.floorDiv((int) Math.ceil(Math.max(yA, yB) + margem), ladoBalde);
+
+            for (int by = byInicio; by <= byFim; by++) {
+                ArrayList<T> balde = baldes.get(empacotar(bx, by));
+                if (balde == null)
+                    continue;
+                for (int i = 0; i < balde.size(); i++) {
+                    T entidade = balde.get(i);
+                    int z = entidade.getZ();
+                    if (z >= z0 && z <= z1
+                            && cruzaCelula(entidade.getX(), entidade.getY(), x0, y0, x1, y1, margem))
+                        visitante.accept(entidade);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retorna as entidades cuja distância euclidiana (em 3D) até o ponto
+     * informado é menor ou igual ao raio.
+     *
+     * @param x    Coordenada X do centro.
+     * @param y    Coordenada Y do centro.
+     * @param z    Coordenada Z do centro.
+     * @param raio O raio da consulta.
+     * @return Uma nova lista com as entidades dentro do raio.
+     */
+    public List<T> noRaio(int x, int y, int z, double raio) {
+        int r = (int) Math.ceil(raio);
+        List<T> candidatas = naCaixa(x - r, y - r, z - r, x + r, y + r, z + r);
+        double raioQuadrado = raio * raio;
+        candidatas.removeIf(e -> {
+            long dx = e.getX() - x, dy = e.getY() - y, dz = e.getZ() - z;
+            return dx * dx + dy * dy + dz * dz > raioQuadrado;
+        });
+        return candidatas;
+    }
+
+    /**
+     * Esvazia o hash.
+     */
+    public void limpar() {
+        baldes.clear();
+    }
+
+    /**
+     * Adiciona ao resultado as entidades do balde que estão dentro da caixa.
+     */
+    private static <T extends Entidade> void filtrarCaixa(ArrayList<T> balde, int x0, int y0, int z0, int x1, int y1,
+            int z1, ArrayList<T> resultado) {
+        for (T entidade : balde) {
+            int x = entidade.getX(), y = entidade.getY(), z = entidade.getZ();
+            if (x >= x0 && x <= x1 && y >= y0 && y <= y1 && z >= z0 && z <= z1)
+                resultado.add(entidade);
+        }
+    }
+
+    /**
+     * Teste de interseção entre o segmento e a célula (x, y) expandida pela
+     * margem, pelo método das placas (slabs), um eixo de cada vez.
+     */
+    private static boolean cruzaCelula(int x, int y, double x0, double y0, double x1, double y1, double margem) {
+        double direcaoX = x1 - x0, direcaoY = y1 - y0;
+        double tEntrada = 0.0, tSaida = 1.0;
+
+        if (direcaoX == 0) {
+            // Segmento paralelo ao eixo Y: precisa estar dentro da placa em X.
+            if (Math.abs(x0 - x) > margem)
+                return false;
+        } else {
+            double t1 = (x - margem - x0) / direcaoX;
+            double t2 = (x + margem - x0) / direcaoX;
+            tEntrada = Math.max(tEntrada, Math.min(t1, t2));
+            tSaida = Math.min(tSaida, Math.max(t1, t2));
+            if (tEntrada > tSaida)
+                return false;
+        }
+
+        if (direcaoY == 0) {
+            // Segmento paralelo ao eixo X: precisa estar dentro da placa em Y.
+            return Math.abs(y0 - y) <= margem;
+        }
+        double t1 = (y - margem - y0) / direcaoY;
+        double t2 = (y + margem - y0) / direcaoY;
+        return Math.max(tEntrada, Math.min(t1, t2)) <= Math.min(tSaida, Math.max(t1, t2));
+    }
+
+    /**
+     * Calcula o Y do segmento (não vertical) na abscissa x, limitada aos extremos.
+     */
+    private static double yNaReta(double x0, double y0, double x1, double y1, double x) {
+        double t = Math.max(0.0, Math.min(1.0, (x - x0) / (x1 - x0)));
+        return y0 + t * (y1 - y0);
+    }
+
+    /**
+     * Calcula a chave do balde que contém a coluna (x, y).
+     */
+    private long chave(int x, int y) {
+        return empacotar(Math.floorDiv(x, ladoBalde), Math.floorDiv(y, ladoBalde));
+    }
+
+    /**
+     * Empacota os índices de um balde em uma única chave. O valor empacotado é
+     * multiplicado por uma constante ímpar (o que mantém as chaves distintas)
+     * para espalhar os bits: o hashCode de um Long é a combinação XOR das suas
+     * metades, e sem a mistura todos os baldes com o mesmo bx ^ by colidiriam.
+     */
+    private static long empacotar(int bx, int by) {
+        return (((long) bx << 32) | (by & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+    }
+}
@@ -0,0 +1,148 @@
+package com.robotsim.environment.map;
+
+import java.util.ArrayList;
+
+import com.robotsim.environment.entity.Entidade;
+
+/**
+ * Mapa bidimensional (vista de cima) que guarda, para cada coluna (x, y) do
+ * ambiente, a entidade de maior altitude (Z) que a ocupa.
+ * <p>
+ * O mapa é atualizado incrementalmente quando entidades são adicionadas, movidas
+ * ou removidas, de modo que consultar o topo de uma coluna custa O(1) e
+ * desenhar a vista de cima inteira custa O(comprimento × largura),
+ * independentemente do número de entidades.
+ * <p>
+ * As linhas (eixo X) só são alocadas quando alguma coluna delas é ocupada, para
+ * não pesar em ambientes grandes e esparsos.
+ */
+public class MapaAlturas {
+    private final int comprimento; // Dimensão do mapa no eixo X.
+    private final int largura; // Dimensão do mapa no eixo Y.
+    private final Entidade[][] topo; // Entidade mais alta de cada coluna, por linha X.
+    private final ArrayList<Entidade>[][] ocupantes; // Entidades que ocupam cada coluna, por linha X.
+
+    /**
+     * Cria um mapa de alturas vazio com as dimensões informadas.
+     *
+     * @param comprimento A dimensão do mapa no eixo X.
+     * @param largura     A dimensão do mapa no eixo Y.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public MapaAlturas(int comprimento, int largura) {
+        this.comprimento = comprimento;
+        this.largura = largura;
+        this.topo = new Entidade[comprimento][];
+        this.ocupantes = new ArrayList[comprimento][];
+    }
+
+    /**
+     * Registra uma entidade em todas as colunas do retângulo informado. As
+     * coordenadas são recortadas aos limites do mapa.
+     *
+     * @param entidade A entidade a registrar.
+     * @param z        A altitude da entidade. Informada à parte porque, durante
+     *                 um movimento, a entidade ainda guarda a altitude antiga.
+     * @param x0       Menor coordenada X ocupada.
+     * @param y0       Menor coordenada Y ocupada.
+     * @param x1       Maior coordenada X ocupada.
+     * @param y1       Maior coordenada Y ocupada.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void adicionar(Entidade entidade, int z, int x0, int y0, int x1, int y1) {
+        for (int x = Math.max(x0, 0); x <= Math.min(x1, comprimento - 1); x++) {
+            if (ocupantes[x] == null) {
+                ocupantes[x] = new ArrayList[largura];
+                topo[x] = new Entidade[largura];
+            }
+            for (int y = Math.max(y0, 0); y <= Math.min(y1, largura - 1); y++) {
+                if (ocupantes[x][y] == null)
+                    ocupantes[x][y] = new ArrayList<>(2);
+                ocupantes[x][y].add(entidade);
+
+                // Em caso de empate na altitude, a entidade mais recente fica no topo.
+                Entidade atual = topo[x][y];
+                if (atual == null || z >= atual.getZ())
+                    topo[x][y] = entidade;
+            }
+        }
+    }
+
+    /**
+     * Remove uma entidade de todas as colunas do retângulo informado e recalcula
+     * o topo das colunas afetadas.
+     *
+     * @param entidade A entidade a remover.
+     * @param x0       Menor coordenada X ocupada.
+     * @param y0       Menor coordenada Y ocupada.
+     * @param x1       Maior coordenada X ocupada.
+     * @param y1       Maior coordenada Y ocupada.
+     * @return {@code true} se a entidade estava registrada em alguma das colunas.
+     */
+    public boolean remover(Entidade entidade, int x0, int y0, int x1, int y1) {
+        boolean removida = false;
+        for (int x = Math.max(x0, 0); x <= Math.min(x1, comprimento - 1); x++) {
+            if (ocupantes[x] == null)
+                continue;
+            for (int y = Math.max(y0, 0); y <= Math.min(y1, largura - 1); y++) {
+                ArrayList<Entidade> coluna = ocupantes[x][y];
+                if (coluna == null || !coluna.remove(entidade))
+                    continue;
+                removida = true;
+                if (topo[x][y] == entidade)
+                    topo[x][y] = maisAlta(coluna);
+            }
+        }
+        return removida;
+    }
+
+    /**
+     * Retorna a entidade de maior altitude em uma coluna.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @return A entidade no topo da coluna, ou {@code null} se ela estiver vazia.
+     */
+    public Entidade obterTopo(int x, int y) {
+        Entidade[] linha = topo[x];
+        return linha == null ? null : linha[y];
+    }
+
+    /**
+     * Retorna a maior altitude ocupada em uma coluna, desconsiderando uma
+     * entidade (ex: o robô que está se movendo). Custa O(1), exceto quando a
+     * entidade ignorada é o topo da coluna.
+     *
+     * @param x        Coordenada no eixo X.
+     * @param y        Coordenada no eixo Y.
+     * @param ignorar  A entidade a desconsiderar, ou {@code null}.
+     * @return A maior altitude ocupada, ou -1 se a coluna estiver vazia.
+     */
+    public int alturaMaxima(int x, int y, Entidade ignorar) {
+        Entidade[] linha = topo[x];
+        if (linha == null || linha[y] == null)
+            return -1;
+        if (linha[y] != ignorar)
+            return linha[y].getZ();
+
+        int maior = -1;
+        for (Entidade entidade : ocupantes[x][y]) {
+            if (entidade != ignorar)
+                maior = Math.max(maior, entidade.getZ());
+        }
+        return maior;
+    }
+
+    /**
+     * Encontra a entidade mais alta de uma coluna. Em caso de empate, vence a
+     * registrada por último.
+     */
+    private static Entidade maisAlta(ArrayList<Entidade> coluna) {
+        Entidade maisAlta = null;
+        for (Entidade entidade : coluna) {
+            if (maisAlta == null || entidade.getZ() >= maisAlta.getZ())
+                maisAlta = entidade;
+        }
+        return maisAlta;
+    }
+}
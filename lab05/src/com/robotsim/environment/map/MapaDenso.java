@@ -0,0 +1,47 @@
+package com.robotsim.environment.map;
+
+import java.util.Arrays;
+
+import com.robotsim.environment.entity.TipoEntidade;
+
+/**
+ * Mapa de ocupação denso, que guarda uma referência de {@link TipoEntidade}
+ * para cada célula do ambiente em um arranjo tridimensional.
+ * <p>
+ * É a representação original do ambiente: acesso direto e simples, mas com
+ * memória proporcional ao volume do mundo.
+ */
+public class MapaDenso implements MapaOcupacao {
+    private final TipoEntidade[][][] mapa; // Tipo de entidade em cada coordenada.
+
+    /**
+     * Cria um mapa denso com as dimensões informadas, inicialmente vazio.
+     *
+     * @param comprimento A dimensão do mapa no eixo X.
+     * @param largura     A dimensão do mapa no eixo Y.
+     * @param altura      A dimensão do mapa no eixo Z.
+     */
+    public MapaDenso(int comprimento, int largura, int altura) {
+        this.mapa = new TipoEntidade[comprimento][largura][altura];
+        limpar();
+    }
+
+    @Override
+    public TipoEntidade obter(int x, int y, int z) {
+        return mapa[x][y][z];
+    }
+
+    @Override
+    public void definir(int x, int y, int z, TipoEntidade tipo) {
+        mapa[x][y][z] = tipo;
+    }
+
+    @Override
+    public void limpar() {
+        for (TipoEntidade[][] plano : mapa) {
+            for (TipoEntidade[] coluna : plano) {
+                Arrays.fill(coluna, TipoEntidade.VAZIO);
+            }
+        }
+    }
+}
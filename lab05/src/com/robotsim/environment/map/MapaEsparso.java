@@ -0,0 +1,135 @@
+package com.robotsim.environment.map;
+
+import java.util.HashMap;
+
+import com.robotsim.environment.entity.TipoEntidade;
+
+/**
+ * Mapa de ocupação esparso, dividido em blocos (chunks) cúbicos de
+ * {@value #LADO_BLOCO} células de lado.
+ * <p>
+ * Um bloco só é alocado quando alguma de suas células recebe uma entidade, e é
+ * descartado assim que volta a ficar totalmente vazio. Assim, a memória usada
+ * cresce com o número de entidades e não com o volume do mundo, o que permite
+ * ambientes muito grandes (ex: 4000×4000×200) com poucas entidades.
+ * <p>
+ * Cada célula de um bloco guarda apenas o ordinal do {@link TipoEntidade} em um
+ * byte.
+ */
+public class MapaEsparso implements MapaOcupacao {
+    /** Quantidade de células em cada lado de um bloco. */
+    public static final int LADO_BLOCO = 16;
+    private static final int BITS_LADO = 4; // log2(LADO_BLOCO)
+    private static final int MASCARA = LADO_BLOCO - 1;
+    private static final TipoEntidade[] TIPOS = TipoEntidade.values(); // Cache para converter ordinais.
+
+    private final HashMap<Long, Bloco> blocos = new HashMap<>(); // Blocos materializados, por chave.
+    private Bloco ultimoBloco; // Último bloco acessado, evita consultas repetidas ao HashMap.
+
+    /**
+     * Bloco cúbico de células, materializado apenas quando ocupado.
+     */
+    private static final class Bloco {
+        final long chave; // Chave do bloco no HashMap.
+        final byte[] celulas = new byte[LADO_BLOCO * LADO_BLOCO * LADO_BLOCO]; // Ordinais por célula.
+        int ocupadas; // Quantidade de células diferentes de VAZIO.
+
+        Bloco(long chave) {
+            this.chave = chave;
+        }
+    }
+
+    /**
+     * Cria um mapa esparso vazio. As dimensões do ambiente não são necessárias,
+     * pois nenhum bloco é alocado antecipadamente.
+     */
+    public MapaEsparso() {
+    }
+
+    @Override
+    public TipoEntidade obter(int x, int y, int z) {
+        Bloco bloco = buscarBloco(chave(x, y, z));
+        if (bloco == null)
+            return TipoEntidade.VAZIO;
+        return TIPOS[bloco.celulas[indice(x, y, z)]];
+    }
+
+    @Override
+    public void definir(int x, int y, int z, TipoEntidade tipo) {
+        long chave = chave(x, y, z);
+        Bloco bloco = buscarBloco(chave);
+        boolean vazio = tipo == TipoEntidade.VAZIO;
+
+        if (bloco == null) {
+            if (vazio)
+                return; // Nada a limpar em um bloco que não existe.
+            bloco = new Bloco(chave);
+            blocos.put(chave, bloco);
+            ultimoBloco = bloco;
+        }
+
+        int indice = indice(x, y, z);
+        boolean estavaVazio = bloco.celulas[indice] == 0;
+        bloco.celulas[indice] = (byte) tipo.ordinal();
+
+        if (estavaVazio && !vazio) {
+            bloco.ocupadas++;
+        } else if (!estavaVazio && vazio && --bloco.ocupadas == 0) {
+            // O bloco voltou a ficar vazio: libera sua memória.
+            blocos.remove(chave);
+            if (ultimoBloco == bloco)
+                ultimoBloco = null;
+        }
+    }
+
+    @Override
+    public void limpar() {
+        blocos.clear();
+        ultimoBloco = null;
+    }
+
+    /**
+     * Retorna quantos blocos estão materializados no momento.
+     *
+     * @return O número de blocos alocados.
+     */
+    public int getBlocosAlocados() {
+        return blocos.size();
+    }
+
+    /**
+     * Busca um bloco pela chave, consultando primeiro o último bloco acessado.
+     *
+     * @param chave A chave do bloco.
+     * @return O bloco, ou {@code null} se ele não estiver materializado.
+     */
+    private Bloco buscarBloco(long chave) {
+        Bloco ultimo = ultimoBloco; // Leitura única: o campo pode mudar entre as verificações.
+        if (ultimo != null && ultimo.chave == chave)
+            return ultimo;
+        Bloco bloco = blocos.get(chave);
+        if (bloco != null)
+            ultimoBloco = bloco;
+        return bloco;
+    }
+
+    /**
+     * Calcula a chave do bloco que contém a coordenada, empacotando os índices
+     * do bloco em 21 bits por eixo. Assim como em {@link HashEspacial}, o valor
+     * empacotado é multiplicado por uma constante ímpar para espalhar os bits
+     * antes do hashCode do Long, que combina as duas metades por XOR.
+     */
+    private static long chave(int x, int y, int z) {
+        long bx = x >>> BITS_LADO;
+        long by = y >>> BITS_LADO;
+        long bz = z >>> BITS_LADO;
+        return ((bx << 42) | (by << 21) | bz) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Calcula o índice da coordenada dentro do seu bloco.
+     */
+    private static int indice(int x, int y, int z) {
+        return ((x & MASCARA) << (2 * BITS_LADO)) | ((y & MASCARA) << BITS_LADO) | (z & MASCARA);
+    }
+}
@@ -0,0 +1,42 @@
+package com.robotsim.environment.map;
+
+import com.robotsim.environment.entity.TipoEntidade;
+
+/**
+ * Interface para as estruturas que armazenam a ocupação tridimensional do
+ * {@link com.robotsim.environment.Ambiente}, isto é, o {@link TipoEntidade}
+ * presente em cada coordenada (x, y, z).
+ * <p>
+ * As implementações assumem que as coordenadas recebidas já estão dentro dos
+ * limites do ambiente; essa verificação é responsabilidade do
+ * {@code Ambiente}.
+ *
+ * @see TipoMapa
+ */
+public interface MapaOcupacao {
+    /**
+     * Retorna o tipo de entidade que ocupa uma coordenada.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @param z Coordenada no eixo Z.
+     * @return O {@link TipoEntidade} da posição ({@link TipoEntidade#VAZIO} se
+     *         estiver livre).
+     */
+    TipoEntidade obter(int x, int y, int z);
+
+    /**
+     * Define o tipo de entidade que ocupa uma coordenada.
+     *
+     * @param x    Coordenada no eixo X.
+     * @param y    Coordenada no eixo Y.
+     * @param z    Coordenada no eixo Z.
+     * @param tipo O {@link TipoEntidade} a ser armazenado.
+     */
+    void definir(int x, int y, int z, TipoEntidade tipo);
+
+    /**
+     * Marca todas as posições do mapa como {@link TipoEntidade#VAZIO}.
+     */
+    void limpar();
+}
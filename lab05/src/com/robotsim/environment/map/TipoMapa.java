@@ -0,0 +1,41 @@
+package com.robotsim.environment.map;
+
+/**
+ * Enumeração das estruturas disponíveis para armazenar a ocupação do
+ * {@link com.robotsim.environment.Ambiente}. O tipo é escolhido na construção
+ * do ambiente.
+ */
+public enum TipoMapa {
+    /** Arranjo tridimensional de referências; indicado para mapas pequenos. */
+    DENSO,
+    /**
+     * Um byte por célula em memória fora do heap; indicado para mapas grandes
+     * e densamente ocupados.
+     */
+    COMPACTO,
+    /**
+     * Blocos alocados sob demanda; indicado para mapas grandes com poucas
+     * entidades.
+     */
+    ESPARSO;
+
+    /**
+     * Cria um mapa de ocupação deste tipo com as dimensões informadas.
+     *
+     * @param comprimento A dimensão do mapa no eixo X.
+     * @param largura     A dimensão do mapa no eixo Y.
+     * @param altura      A dimensão do mapa no eixo Z.
+     * @return Um novo {@link MapaOcupacao} vazio.
+     */
+    public MapaOcupacao criar(int comprimento, int largura, int altura) {
+        switch (this) {
+            case COMPACTO:
+                return new MapaCompacto(comprimento, largura, altura);
+            case ESPARSO:
+                return new MapaEsparso();
+            case DENSO:
+            default:
+                return new MapaDenso(comprimento, largura, altura);
+        }
+    }
+}
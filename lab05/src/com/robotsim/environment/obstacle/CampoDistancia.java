@@ -0,0 +1,237 @@
+package com.robotsim.environment.obstacle;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Campo de distâncias (vista de cima) que guarda, para cada coluna (x, y) do
+ * ambiente, o obstáculo cuja área está mais próxima dela.
+ * <p>
+ * Junto com o obstáculo, cada coluna guarda o quadrado da distância até a área
+ * dele, então consultar a folga de uma coluna custa O(1), sem percorrer a
+ * lista de obstáculos, e a frente de onda compara distâncias sem consultar os
+ * obstáculos guardados nos vizinhos.
+ * <p>
+ * O campo é mantido incrementalmente e é exato: cada coluna guarda um dos
+ * obstáculos a menor distância dela. Ao adicionar um obstáculo, uma frente de
+ * onda (brushfire) parte da sua área pelos 8 vizinhos de cada coluna. A onda
+ * não para nas colunas que o novo obstáculo não conquista: ela segue por todas
+ * em que ele fica a menos de √2 da distância guardada. Sem essa tolerância, a
+ * região discreta de um obstáculo pode ser desconexa e a onda perderia colunas.
+ * Com ela, o caminho em linha reta de cada coluna até o ponto mais próximo da
+ * área do seu obstáculo sempre é percorrido. Ao remover um obstáculo, apenas as
+ * colunas que eram dele mudam, e cada uma é recalculada a partir dos obstáculos
+ * ao redor, consultados no {@link IndiceObstaculos}.
+ * <p>
+ * Colunas a mais de {@code alcance} de todos os obstáculos ficam vazias, e as
+ * linhas (eixo X) só são alocadas quando alguma coluna delas é alcançada, para
+ * não pesar em ambientes grandes e esparsos.
+ */
+public class CampoDistancia {
+    private final int comprimento; // Dimensão do campo no eixo X.
+    private final int largura; // Dimensão do campo no eixo Y.
+    private final int alcance; // Distância máxima propagada a partir de cada obstáculo.
+    private final long alcanceQuadrado; // Quadrado do alcance, comparado às distâncias quadradas.
+    private final Obstaculo[][] maisProximo; // Obstáculo mais próximo de cada coluna, por linha X.
+    private final int[][] distancias; // Quadrado da distância até o obstáculo guardado, por linha X.
+    private final int[][] visitas; // Última onda que passou por cada coluna, por linha X.
+    private int onda; // Número da onda atual.
+    // Fila da frente de onda, reaproveitada entre as atualizações.
+    private int[] filaX = new int[64];
+    private int[] filaY = new int[64];
+    private int tamanhoFila;
+
+    /**
+     * Cria um campo vazio com as dimensões informadas.
+     *
+     * @param comprimento A dimensão do campo no eixo X.
+     * @param largura     A dimensão do campo no eixo Y.
+     * @param alcance     A distância máxima, a partir da área de um obstáculo,
+     *                    até onde ele é registrado.
+     */
+    public CampoDistancia(int comprimento, int largura, int alcance) {
+        this.comprimento = comprimento;
+        this.largura = largura;
+        this.alcance = alcance;
+        this.alcanceQuadrado = (long) alcance * alcance;
+        this.maisProximo = new Obstaculo[comprimento][];
+        this.distancias = new int[comprimento][];
+        this.visitas = new int[comprimento][];
+    }
+
+    /**
+     * Registra um obstáculo, propagando uma onda a partir da sua área pelas
+     * colunas que ficaram mais próximas dele do que do obstáculo que guardavam.
+     *
+     * @param obstaculo O obstáculo adicionado ao ambiente.
+     */
+    public void adicionar(Obstaculo obstaculo) {
+        novaOnda();
+        tamanhoFila = 0;
+        for (int x = Math.max(obstaculo.getInferiorX(), 0); x <= Math.min(obstaculo.getSuperiorX(), comprimento - 1); x++) {
+            for (int y = Math.max(obstaculo.getInferiorY(), 0); y <= Math.min(obstaculo.getSuperiorY(), largura - 1); y++) {
+                definir(x, y, obstaculo, 0);
+                visitas[x][y] = onda;
+                enfileirar(x, y);
+            }
+        }
+        propagar(obstaculo);
+    }
+
+    /**
+     * Retira um obstáculo do campo. Apenas as colunas que o tinham como mais
+     * próximo mudam; cada uma passa a guardar o mais próximo entre os
+     * obstáculos do índice que estão a até {@code alcance} dela.
+     *
+     * @param obstaculo O obstáculo removido do ambiente.
+     * @param indice    O índice com os obstáculos restantes, já sem o removido.
+     */
+    public void remover(Obstaculo obstaculo, IndiceObstaculos indice) {
+        // Só as colunas dentro do alcance da área do obstáculo podem ser dele.
+        int x0 = Math.max(obstaculo.getInferiorX() - alcance, 0);
+        int y0 = Math.max(obstaculo.getInferiorY() - alcance, 0);
+        int x1 = Math.min(obstaculo.getSuperiorX() + alcance, comprimento - 1);
+        int y1 = Math.min(obstaculo.getSuperiorY() + alcance, largura - 1);
+        List<Obstaculo> candidatos = null;
+        for (int x = x0; x <= x1; x++) {
+            Obstaculo[] linha = maisProximo[x];
+            if (linha == null)
+                continue;
+            for (int y = y0; y <= y1; y++) {
+                if (linha[y] != obstaculo)
+                    continue;
+                if (candidatos == null) // Quem pode guardar essas colunas está a até alcance delas.
+                    candidatos = indice.naCaixa(x0 - alcance, y0 - alcance, x1 + alcance, y1 + alcance);
+                linha[y] = null;
+                for (int i = 0; i < candidatos.size(); i++) {
+                    Obstaculo candidato = candidatos.get(i);
+                    long distancia = candidato.distanciaQuadrada(x, y);
+                    // Em caso de empate, vale o primeiro candidato.
+                    if (distancia <= alcanceQuadrado && (linha[y] == null || distancia < distancias[x][y]))
+                        definir(x, y, candidato, (int) distancia); // Limitada ao alcance, cabe em um int.
+                }
+            }
+        }
+    }
+
+    /**
+     * Retorna o obstáculo cuja área está mais próxima da coluna (x, y).
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @return O obstáculo mais próximo, ou {@code null} se nenhum estiver dentro
+     *         do alcance ou se a coluna estiver fora do campo.
+     */
+    public Obstaculo obstaculoMaisProximo(int x, int y) {
+        if (x < 0 || x >= comprimento || y < 0 || y >= largura || maisProximo[x] == null)
+            return null;
+        return maisProximo[x][y];
+    }
+
+    /**
+     * Retorna a distância euclidiana entre a coluna (x, y) e a área do obstáculo
+     * mais próximo. Colunas dentro de um obstáculo estão a distância 0.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @return A distância, ou {@link Double#POSITIVE_INFINITY} se nenhum
+     *         obstáculo estiver dentro do alcance.
+     */
+    public double distancia(int x, int y) {
+        Obstaculo obstaculo = obstaculoMaisProximo(x, y);
+        return obstaculo == null ? Double.POSITIVE_INFINITY : Math.sqrt(distancias[x][y]);
+    }
+
+    /**
+     * Retorna a distância máxima registrada a partir da área de cada obstáculo.
+     *
+     * @return O alcance do campo.
+     */
+    public int getAlcance() {
+        return alcance;
+    }
+
+    /**
+     * Avança a frente de onda de um obstáculo: cada coluna da fila oferece o
+     * obstáculo aos 8 vizinhos, que o adotam se ele estiver dentro do alcance e
+     * mais próximo do que o obstáculo que guardam. A onda também passa, sem
+     * alterá-los, pelos vizinhos em que o obstáculo fica a menos de √2 da
+     * distância guardada. Cada coluna entra na fila uma única vez por onda.
+     */
+    private void propagar(Obstaculo obstaculo) {
+        for (int i = 0; i < tamanhoFila; i++) {
+            int x = filaX[i];
+            int y = filaY[i];
+            for (int vx = Math.max(x - 1, 0); vx <= Math.min(x + 1, comprimento - 1); vx++) {
+                for (int vy = Math.max(y - 1, 0); vy <= Math.min(y + 1, largura - 1); vy++) {
+                    if (visitas[vx] != null && visitas[vx][vy] == onda)
+                        continue;
+                    long distancia = obstaculo.distanciaQuadrada(vx, vy);
+                    if (distancia > alcanceQuadrado)
+                        continue;
+                    Obstaculo[] linha = maisProximo[vx];
+                    if (linha == null || linha[vy] == null || distancia < distancias[vx][vy]) {
+                        // Em caso de empate, a coluna mantém o obstáculo que já guardava.
+                        definir(vx, vy, obstaculo, (int) distancia); // Limitada ao alcance, cabe em um int.
+                    } else if (!quaseTaoProximo(distancia, distancias[vx][vy])) {
+                        continue;
+                    }
+                    visitas[vx][vy] = onda;
+                    enfileirar(vx, vy);
+                }
+            }
+        }
+        tamanhoFila = 0;
+    }
+
+    /**
+     * Indica se uma distância fica a menos de √2 (a diagonal de uma coluna) da
+     * distância guardada, ambas ao quadrado. Uma pequena folga absorve o
+     * arredondamento da raiz.
+     */
+    private static boolean quaseTaoProximo(long distancia, int guardada) {
+        double limite = Math.sqrt(guardada) + Math.sqrt(2) + 1e-9;
+        return distancia < limite * limite;
+    }
+
+    /**
+     * Começa uma nova onda. As marcas de visita são zeradas quando o contador
+     * dá a volta, para que marcas antigas não sejam confundidas com a nova onda.
+     */
+    private void novaOnda() {
+        if (++onda == 0) {
+            for (int[] linha : visitas) {
+                if (linha != null)
+                    Arrays.fill(linha, 0);
+            }
+            onda = 1;
+        }
+    }
+
+    /**
+     * Guarda o obstáculo mais próximo de uma coluna e o quadrado da distância
+     * até ele, alocando a linha se necessário.
+     */
+    private void definir(int x, int y, Obstaculo obstaculo, int distancia) {
+        if (maisProximo[x] == null) {
+            maisProximo[x] = new Obstaculo[largura];
+            distancias[x] = new int[largura];
+            visitas[x] = new int[largura];
+        }
+        maisProximo[x][y] = obstaculo;
+        distancias[x][y] = distancia;
+    }
+
+    /**
+     * Acrescenta uma coluna ao fim da fila da frente de onda.
+     */
+    private void enfileirar(int x, int y) {
+        if (tamanhoFila == filaX.length) {
+            filaX = Arrays.copyOf(filaX, tamanhoFila * 2);
+            filaY = Arrays.copyOf(filaY, tamanhoFila * 2);
+        }
+        filaX[tamanhoFila] = x;
+        filaY[tamanhoFila] = y;
+        tamanhoFila++;
+    }
+}
@@ -0,0 +1,184 @@
+package com.robotsim.environment.obstacle;
+
+import java.util.Random;
+
+/**
+ * Índice das posições centrais em que cada {@link TipoObstaculo} ainda cabe no
+ * ambiente, usado para sortear a posição de novos obstáculos sem tentativa e
+ * erro.
+ * <p>
+ * Para cada tipo, um mapa de bits marca os centros (x, y) cuja área fica
+ * dentro do ambiente e não sobrepõe nenhum obstáculo registrado. Um obstáculo
+ * bloqueia, para um tipo, a sua área expandida pela metade das dimensões desse
+ * tipo (soma de Minkowski), então registrá-lo apenas zera faixas de bits. Uma
+ * árvore de Fenwick sobre a contagem de bits de cada palavra permite sortear
+ * uniformemente um centro livre em O(log n), mesmo com o mapa quase cheio.
+ * <p>
+ * Ao remover um obstáculo, a região que ele bloqueava é liberada e os
+ * obstáculos vizinhos, obtidos do {@link IndiceObstaculos}, voltam a bloquear
+ * a parte que também cobriam.
+ */
+public class IndiceEspacoLivre {
+    private static final TipoObstaculo[] TIPOS = TipoObstaculo.values();
+
+    private final int comprimento; // Dimensão do ambiente no eixo X.
+    private final int largura; // Dimensão do ambiente no eixo Y.
+    private final long[][] livres; // Centros livres de cada tipo, um bit por coluna, linha a linha (eixo Y).
+    private final int[][] arvores; // Árvores de Fenwick com a contagem de bits das palavras de cada tipo.
+    private final int[] totais; // Quantidade de centros livres de cada tipo.
+
+    /**
+     * Cria um índice para um ambiente sem obstáculos, com todos os centros em
+     * que cada tipo cabe marcados como livres.
+     *
+     * @param comprimento A dimensão do ambiente no eixo X.
+     * @param largura     A dimensão do ambiente no eixo Y.
+     */
+    public IndiceEspacoLivre(int comprimento, int largura) {
+        this.comprimento = comprimento;
+        this.largura = largura;
+        int palavras = (int) (((long) comprimento * largura + 63) / 64);
+        this.livres = new long[TIPOS.length][palavras];
+        this.arvores = new int[TIPOS.length][palavras + 1];
+        this.totais = new int[TIPOS.length];
+        for (TipoObstaculo tipo : TIPOS) {
+            int mx = metadeX(tipo);
+            int my = metadeY(tipo);
+            for (int y = my; y < largura - my; y++)
+                definirFaixa(tipo.ordinal(), y, mx, comprimento - 1 - mx, true);
+        }
+    }
+
+    /**
+     * Marca como bloqueados, para todos os tipos, os centros em que um novo
+     * obstáculo sobreporia a área do obstáculo informado.
+     *
+     * @param obstaculo O obstáculo adicionado ao ambiente.
+     */
+    public void adicionar(Obstaculo obstaculo) {
+        for (TipoObstaculo tipo : TIPOS)
+            bloquear(tipo, obstaculo, 0, 0, comprimento - 1, largura - 1);
+    }
+
+    /**
+     * Libera os centros que o obstáculo bloqueava e que não são bloqueados por
+     * nenhum outro obstáculo do índice informado. O obstáculo já deve ter sido
+     * retirado do {@code indice}.
+     *
+     * @param obstaculo O obstáculo removido do ambiente.
+     * @param indice    O índice com os obstáculos que permanecem no ambiente.
+     */
+    public void remover(Obstaculo obstaculo, IndiceObstaculos indice) {
+        for (TipoObstaculo tipo : TIPOS) {
+            int mx = metadeX(tipo);
+            int my = metadeY(tipo);
+            int x0 = Math.max(obstaculo.getInferiorX() - mx, mx);
+            int y0 = Math.max(obstaculo.getInferiorY() - my, my);
+            int x1 = Math.min(obstaculo.getSuperiorX() + mx, comprimento - 1 - mx);
+            int y1 = Math.min(obstaculo.getSuperiorY() + my, largura - 1 - my);
+            if (x0 > x1 || y0 > y1)
+                continue;
+            for (int y = y0; y <= y1; y++)
+                definirFaixa(tipo.ordinal(), y, x0, x1, true);
+            // Os vizinhos cujas áreas expandidas alcançam a região liberada voltam a bloqueá-la.
+            for (Obstaculo vizinho : indice.naCaixa(x0 - mx, y0 - my, x1 + mx, y1 + my))
+                bloquear(tipo, vizinho, x0, y0, x1, y1);
+        }
+    }
+
+    /**
+     * Sorteia uniformemente um centro em que um obstáculo do tipo informado cabe
+     * sem sobrepor outros obstáculos.
+     *
+     * @param tipo O tipo do obstáculo a posicionar.
+     * @param rand O gerador de números aleatórios.
+     * @return Um arranjo {x, y} com o centro sorteado, ou {@code null} se não
+     *         houver espaço para o tipo.
+     */
+    public int[] sortear(TipoObstaculo tipo, Random rand) {
+        int t = tipo.ordinal();
+        if (totais[t] == 0)
+            return null;
+        int[] arvore = arvores[t];
+        int restante = rand.nextInt(totais[t]);
+
+        // Desce a árvore de Fenwick até a palavra que contém o bit sorteado.
+        int palavra = 0;
+        for (int passo = Integer.highestOneBit(arvore.length - 1); passo > 0; passo >>= 1) {
+            int proxima = palavra + passo;
+            if (proxima < arvore.length && arvore[proxima] <= restante) {
+                palavra = proxima;
+                restante -= arvore[proxima];
+            }
+        }
+        // Descarta os bits anteriores ao sorteado dentro da palavra.
+        long bits = livres[t][palavra];
+        for (int i = 0; i < restante; i++)
+            bits &= bits - 1;
+        long indice = (long) palavra * 64 + Long.numberOfTrailingZeros(bits);
+        return new int[] { (int) (indice % comprimento), (int) (indice / comprimento) };
+    }
+
+    /**
+     * Retorna a quantidade de centros em que o tipo informado ainda cabe.
+     *
+     * @param tipo O tipo do obstáculo.
+     * @return O número de centros livres.
+     */
+    public int getLivres(TipoObstaculo tipo) {
+        return totais[tipo.ordinal()];
+    }
+
+    /**
+     * Zera os centros em que um obstáculo do tipo informado sobreporia a área de
+     * {@code obstaculo}, limitados ao retângulo (x0, y0)-(x1, y1).
+     */
+    private void bloquear(TipoObstaculo tipo, Obstaculo obstaculo, int x0, int y0, int x1, int y1) {
+        int mx = metadeX(tipo);
+        int my = metadeY(tipo);
+        int bx0 = Math.max(obstaculo.getInferiorX() - mx, Math.max(x0, mx));
+        int by0 = Math.max(obstaculo.getInferiorY() - my, Math.max(y0, my));
+        int bx1 = Math.min(obstaculo.getSuperiorX() + mx, Math.min(x1, comprimento - 1 - mx));
+        int by1 = Math.min(obstaculo.getSuperiorY() + my, Math.min(y1, largura - 1 - my));
+        for (int y = by0; y <= by1; y++)
+            definirFaixa(tipo.ordinal(), y, bx0, bx1, false);
+    }
+
+    /**
+     * Define os bits das colunas x0..x1 da linha y de um tipo, atualizando a
+     * árvore de Fenwick das palavras alteradas.
+     */
+    private void definirFaixa(int t, int y, int x0, int x1, boolean livre) {
+        if (x0 > x1)
+            return;
+        long[] bits = livres[t];
+        long inicio = (long) y * comprimento + x0;
+        long fim = (long) y * comprimento + x1;
+        for (int palavra = (int) (inicio >>> 6); palavra <= (int) (fim >>> 6); palavra++) {
+            long mascara = -1L;
+            if (palavra == (int) (inicio >>> 6))
+                mascara &= -1L << (inicio & 63);
+            if (palavra == (int) (fim >>> 6))
+                mascara &= -1L >>> (63 - (fim & 63));
+            long antes = bits[palavra];
+            long depois = livre ? antes | mascara : antes & ~mascara;
+            int diferenca = Long.bitCount(depois) - Long.bitCount(antes);
+            if (diferenca == 0)
+                continue;
+            bits[palavra] = depois;
+            totais[t] += diferenca;
+            for (int i = palavra + 1; i < arvores[t].length; i += i & -i)
+                arvores[t][i] += diferenca;
+        }
+    }
+
+    /** Metade da extensão de um tipo no eixo X, como em {@link Obstaculo}. */
+    private static int metadeX(TipoObstaculo tipo) {
+        return (tipo.comprimento - 1) / 2;
+    }
+
+    /** Metade da extensão de um tipo no eixo Y, como em {@link Obstaculo}. */
+    private static int metadeY(TipoObstaculo tipo) {
+        return (tipo.largura - 1) / 2;
+    }
+}
@@ -0,0 +1,342 @@
+package com.robotsim.environment.obstacle;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Índice espacial das áreas (AABB) ocupadas pelos {@link Obstaculo}s de um
+ * ambiente, organizado como uma grade uniforme estática sobre o plano (x, y).
+ * <p>
+ * Cada obstáculo é registrado em todas as células da grade que sua área
+ * intersecta. Assim, consultas por ponto, caixa ou segmento visitam apenas as
+ * células da região consultada e testam somente os obstáculos dessas células,
+ * usando os limites já calculados em cada {@link Obstaculo}. Como os obstáculos
+ * não se movem, a grade não precisa de rebalanceamento, e o custo de cada
+ * consulta não depende do número total de obstáculos.
+ *
+ * @see Obstaculo#contem(int, int)
+ */
+public class IndiceObstaculos {
+    /** Lado padrão das células da grade, em unidades do ambiente. */
+    public static final int LADO_CELULA_PADRAO = 16;
+
+    private final int ladoCelula; // Lado de cada célula da grade.
+    private final HashMap<Long, ArrayList<Obstaculo>> celulas = new HashMap<>(); // Obstáculos de cada célula ocupada.
+    private int quantidade; // Número de obstáculos indexados.
+
+    /**
+     * Cria um índice vazio com células de {@value #LADO_CELULA_PADRAO} unidades.
+     */
+    public IndiceObstaculos() {
+        this(LADO_CELULA_PADRAO);
+    }
+
+    /**
+     * Cria um índice vazio com células do tamanho informado.
+     *
+     * @param ladoCelula O lado de cada célula da grade. Deve ser positivo.
+     */
+    public IndiceObstaculos(int ladoCelula) {
+        if (ladoCelula <= 0)
+            throw new IllegalArgumentException("O lado da célula deve ser positivo.");
+        this.ladoCelula = ladoCelula;
+    }
+
+    /**
+     * Registra um obstáculo em todas as células que sua área intersecta.
+     *
+     * @param obstaculo O obstáculo a indexar.
+     */
+    public void adicionar(Obstaculo obstaculo) {
+        for (int cx = celula(obstaculo.getInferiorX()); cx <= celula(obstaculo.getSuperiorX()); cx++) {
+            for (int cy = celula(obstaculo.getInferiorY()); cy <= celula(obstaculo.getSuperiorY()); cy++) {
+                celulas.computeIfAbsent(chave(cx, cy), k -> new ArrayList<>()).add(obstaculo);
+            }
+        }
+        quantidade++;
+    }
+
+    /**
+     * Carrega vários obstáculos de uma só vez, por exemplo ao montar um mapa
+     * grande. Equivale a chamar {@link #adicionar(Obstaculo)} para cada um.
+     *
+     * @param obstaculos Os obstáculos a indexar.
+     */
+    public void carregar(Collection<? extends Obstaculo> obstaculos) {
+        for (Obstaculo obstaculo : obstaculos)
+            adicionar(obstaculo);
+    }
+
+    /**
+     * Remove um obstáculo de todas as células em que foi registrado.
+     *
+     * @param obstaculo O obstáculo a remover.
+     * @return {@code true} se o obstáculo estava no índice.
+     */
+    public boolean remover(Obstaculo obstaculo) {
+        boolean removido = false;
+        for (int cx = celula(obstaculo.getInferiorX()); cx <= celula(obstaculo.getSuperiorX()); cx++) {
+            for (int cy = celula(obstaculo.getInferiorY()); cy <= celula(obstaculo.getSuperiorY()); cy++) {
+                long chave = chave(cx, cy);
+                ArrayList<Obstaculo> lista = celulas.get(chave);
+                if (lista != null && lista.remove(obstaculo)) {
+                    removido = true;
+                    if (lista.isEmpty())
+                        celulas.remove(chave);
+                }
+            }
+        }
+        if (removido)
+            quantidade--;
+        return removido;
+    }
+
+    /**
+     * Esvazia o índice.
+     */
+    public void limpar() {
+        celulas.clear();
+        quantidade = 0;
+    }
+
+    /**
+     * Retorna o número de obstáculos indexados.
+     *
+     * @return A quantidade de obstáculos.
+     */
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Retorna os obstáculos cuja área contém a coluna (x, y).
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @return Uma nova lista com os obstáculos que ocupam a posição.
+     */
+    public List<Obstaculo> noPonto(int x, int y) {
+        ArrayList<Obstaculo> resultado = new ArrayList<>(1);
+        ArrayList<Obstaculo> lista = celulas.get(chave(celula(x), celula(y)));
+        if (lista != null) {
+            for (Obstaculo obstaculo : lista) {
+                if (obstaculo.contem(x, y))
+                    resultado.add(obstaculo);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna o primeiro obstáculo cuja área contém a coluna (x, y) e cuja altura
+     * alcança a altitude z, sem alocar listas.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @param z Altitude a ser testada.
+     * @return O obstáculo encontrado, ou {@code null}.
+     */
+    public Obstaculo primeiroNoPonto(int x, int y, int z) {
+        ArrayList<Obstaculo> lista = celulas.get(chave(celula(x), celula(y)));
+        if (lista == null)
+            return null;
+        for (int i = 0; i < lista.size(); i++) {
+            Obstaculo obstaculo = lista.get(i);
+            if (obstaculo.contem(x, y) && z <= obstaculo.getTipoObstaculo().getAltura())
+                return obstaculo;
+        }
+        return null;
+    }
+
+    /**
+     * Retorna os obstáculos cuja área intersecta a caixa informada (limites
+     * inclusivos).
+     *
+     * @param x0 Menor coordenada X da caixa.
+     * @param y0 Menor coordenada Y da caixa.
+     * @param x1 Maior coordenada X da caixa.
+     * @param y1 Maior coordenada Y da caixa.
+     * @return Uma nova lista, sem repetições, com os obstáculos encontrados.
+     */
+    public List<Obstaculo> naCaixa(int x0, int y0, int x1, int y1) {
+        ArrayList<Obstaculo> resultado = new ArrayList<>();
+        HashSet<Obstaculo> vistos = new HashSet<>(); // Um obstáculo pode estar em várias células.
+        for (int cx = celula(x0); cx <= celula(x1); cx++) {
+            for (int cy = celula(y0); cy <= celula(y1); cy++) {
+                ArrayList<Obstaculo> lista = celulas.get(chave(cx, cy));
+                if (lista == null)
+                    continue;
+                for (Obstaculo obstaculo : lista) {
+                    if (intersectaCaixa(obstaculo, x0, y0, x1, y1) && vistos.add(obstaculo))
+                        resultado.add(obstaculo);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Verifica se algum obstáculo intersecta a caixa informada (limites
+     * inclusivos). Não aloca listas, e é usado na escolha da posição de novos
+     * obstáculos.
+     *
+     * @param x0 Menor coordenada X da caixa.
+     * @param y0 Menor coordenada Y da caixa.
+     * @param x1 Maior coordenada X da caixa.
+     * @param y1 Maior coordenada Y da caixa.
+     * @return {@code true} se houver sobreposição com algum obstáculo.
+     */
+    public boolean existeNaCaixa(int x0, int y0, int x1, int y1) {
+        for (int cx = celula(x0); cx <= celula(x1); cx++) {
+            for (int cy = celula(y0); cy <= celula(y1); cy++) {
+                ArrayList<Obstaculo> lista = celulas.get(chave(cx, cy));
+                if (lista == null)
+                    continue;
+                for (Obstaculo obstaculo : lista) {
+                    if (intersectaCaixa(obstaculo, x0, y0, x1, y1))
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna os obstáculos cuja área, expandida por {@code margem} em todas as
+     * direções, é cruzada pelo segmento de (x0, y0) a (x1, y1). As extremidades
+     * podem ser fracionárias.
+     * <p>
+     * Com margem 0.5, cada coordenada inteira ocupada é tratada como um quadrado
+     * unitário. Nesse caso, o resultado contém todos os obstáculos que uma
+     * varredura célula a célula (ex: Bresenham) sobre o mesmo segmento poderia
+     * encontrar.
+     *
+     * @param x0     Coordenada X de origem.
+     * @param y0     Coordenada Y de origem.
+     * @param x1     Coordenada X de destino.
+     * @param y1     Coordenada Y de destino.
+     * @param margem Expansão aplicada à área de cada obstáculo.
+     * @return Uma nova lista, sem repetições, com os obstáculos cruzados.
+     * @see #visitarNoSegmento(double, double, double, double, double, Consumer)
+     */
+    public List<Obstaculo> noSegmento(double x0, double y0, double x1, double y1, double margem) {
+        ArrayList<Obstaculo> resultado = new ArrayList<>();
+        HashSet<Obstaculo> vistos = new HashSet<>();
+        visitarNoSegmento(x0, y0, x1, y1, margem, obstaculo -> {
+            if (vistos.add(obstaculo))
+                resultado.add(obstaculo);
+        });
+        return resultado;
+    }
+
+    /**
+     * Versão de {@link #noSegmento(double, double, double, double, double)} que
+     * entrega cada obstáculo encontrado ao visitante, percorrendo as células da
+     * grade diretamente, sem montar listas nem conjuntos. É usada na fase ampla
+     * da colisão por varredura, chamada a cada bloco de passos de um movimento.
+     * <p>
+     * Um obstáculo registrado em várias células atravessadas pelo segmento é
+     * entregue uma vez por célula; o visitante deve tolerar repetições.
+     *
+     * @param x0        Coordenada X de origem.
+     * @param y0        Coordenada Y de origem.
+     * @param x1        Coordenada X de destino.
+     * @param y1        Coordenada Y de destino.
+     * @param margem    Expansão aplicada à área de cada obstáculo.
+     * @param visitante Recebe cada obstáculo cruzado. Não deve alterar o índice.
+     */
+    public void visitarNoSegmento(double x0, double y0, double x1, double y1, double margem,
+            Consumer<? super Obstaculo> visitante) {
+        // Percorre as colunas da grade ao longo de X e, em cada uma, apenas as
+        // células que o segmento (expandido pela margem) atravessa em Y.
+        double xMin = Math.min(x0, x1) - margem, xMax = Math.max(x0, x1) + margem;
+        for (int cx = celula((int) Math.floor(xMin)); cx <= celula((int) Math.ceil(xMax)); cx++) {
+            double inicioColuna = Math.max(xMin, (double) cx * ladoCelula - margem);
+            double fimColuna = Math.min(xMax, (double) cx * ladoCelula + ladoCelula - 1 + margem);
+            double yA = x0 == x1 ? y0 : yNaReta(x0, y0, x1, y1, inicioColuna);
+            double yB = x0 == x1 ? y1 : yNaReta(x0, y0, x1, y1, fimColuna);
+            int cyInicio = celula((int) Math.floor(Math.min(yA, yB) - margem));
+            int cyFim = celula((int) Math.ceil(Math.max(yA, yB) + margem));
+
+            for (int cy = cyInicio; cy <= cyFim; cy++) {
+                ArrayList<Obstaculo> lista = celulas.get(chave(cx, cy));
+                if (lista == null)
+                    continue;
+                for (int i = 0; i < lista.size(); i++) {
+                    Obstaculo obstaculo = lista.get(i);
+                    if (cruzaSegmento(obstaculo, x0, y0, x1, y1, margem))
+                        visitante.accept(obstaculo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifica se a área do obstáculo intersecta a caixa.
+     */
+    private static boolean intersectaCaixa(Obstaculo obstaculo, int x0, int y0, int x1, int y1) {
+        return obstaculo.getInferiorX() <= x1 && obstaculo.getSuperiorX() >= x0
+                && obstaculo.getInferiorY() <= y1 && obstaculo.getSuperiorY() >= y0;
+    }
+
+    /**
+     * Teste de interseção entre segmento e AABB pelo método das placas (slabs),
+     * um eixo de cada vez.
+     */
+    private static boolean cruzaSegmento(Obstaculo obstaculo, double x0, double y0, double x1, double y1,
+            double margem) {
+        double minimoX = obstaculo.getInferiorX() - margem, maximoX = obstaculo.getSuperiorX() + margem;
+        double minimoY = obstaculo.getInferiorY() - margem, maximoY = obstaculo.getSuperiorY() + margem;
+        double direcaoX = x1 - x0, direcaoY = y1 - y0;
+        double tEntrada = 0.0, tSaida = 1.0;
+
+        if (direcaoX == 0) {
+            // Segmento paralelo ao eixo Y: precisa estar dentro da placa em X.
+            if (x0 < minimoX || x0 > maximoX)
+                return false;
+        } else {
+            double t1 = (minimoX - x0) / direcaoX;
+            double t2 = (maximoX - x0) / direcaoX;
+            tEntrada = Math.max(tEntrada, Math.min(t1, t2));
+            tSaida = Math.min(tSaida, Math.max(t1, t2));
+            if (tEntrada > tSaida)
+                return false;
+        }
+
+        if (direcaoY == 0) {
+            // Segmento paralelo ao eixo X: precisa estar dentro da placa em Y.
+            return y0 >= minimoY && y0 <= maximoY;
+        }
+        double t1 = (minimoY - y0) / direcaoY;
+        double t2 = (maximoY - y0) / direcaoY;
+        return Math.max(tEntrada, Math.min(t1, t2)) <= Math.min(tSaida, Math.max(t1, t2));
+    }
+
+    /**
+     * Calcula o Y do segmento (não vertical) na abscissa x, limitada aos extremos.
+     */
+    private static double yNaReta(double x0, double y0, double x1, double y1, double x) {
+        double t = Math.max(0.0, Math.min(1.0, (x - x0) / (x1 - x0)));
+        return y0 + t * (y1 - y0);
+    }
+
+    /**
+     * Calcula o índice da célula da grade que contém a coordenada.
+     */
+    private int celula(int coordenada) {
+        return Math.floorDiv(coordenada, ladoCelula);
+    }
+
+    /**
+     * Empacota os índices de uma célula em uma única chave, misturando os bits
+     * como em {@link com.robotsim.environment.map.HashEspacial} para que células
+     * com o mesmo cx ^ cy não colidam no HashMap.
+     */
+    private static long chave(int cx, int cy) {
+        return (((long) cx << 32) | (cy & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+    }
+}
@@ -1,10 +1,10 @@
 package com.robotsim.environment.obstacle;
 
 import java.util.Random;
-import com.robotsim.Controlador;
+import com.robotsim.environment.Ambiente;
+import com.robotsim.environment.StatusPosicao;
 import com.robotsim.environment.entity.Entidade;
 import com.robotsim.environment.entity.TipoEntidade;
-import com.robotsim.exceptions.ColisaoException;
 
 /**
 k * Representa um obstáculo no ambiente de simulação.
@@ -18,60 +18,85 @@ k * Representa um obstáculo no ambiente de simulação.
  *
  * @see Entidade
  * @see TipoObstaculo
- * @see Controlador
  */
 public class Obstaculo implements Entidade {
+    private static final int TENTATIVAS_MAXIMAS = 100_000; // Sorteios por tipo antes de desistir de posicioná-lo.
     private int posX; // Coordenada X da posição central do obstáculo
     private int posY; // Coordenada Y da posição central do obstáculo
     protected final TipoObstaculo tipo; // O tipo específico deste obstáculo (e.g., PEDRA, ARVORE)
+    // Limites da área ocupada (inclusivos), calculados uma única vez a partir do tipo e do centro.
+    private final int inferiorX; // Menor coordenada X ocupada.
+    private final int inferiorY; // Menor coordenada Y ocupada.
+    private final int superiorX; // Maior coordenada X ocupada.
+    private final int superiorY; // Maior coordenada Y ocupada.
     private final TipoObstaculo[] tipos = TipoObstaculo.values(); // Cache dos tipos de obstáculos possíveis para
                                                                   // seleção aleatória
 
     /**
-     * Constrói um novo obstáculo com um tipo e posição aleatórios.
-     * <p>
-     * O tipo do obstáculo é selecionado aleatoriamente dentre os definidos em
-     * {@link TipoObstaculo}.
-     * A posição (posX, posY) é determinada aleatoriamente dentro dos limites do
-     * ambiente,
-     * garantindo que a posição seja válida
-     * ({@link #boaPosicao(TipoObstaculo, int, int)})
-     * para evitar colisões com outros obstáculos existentes ou posicionamento fora
-     * dos limites.
+     * Constrói um novo obstáculo com um tipo e posição aleatórios dentro do
+     * ambiente informado.
+     *
+     * @param ambiente O ambiente no qual o obstáculo será posicionado.
+     * @throws IllegalStateException Se nenhum tipo de obstáculo couber mais no
+     *                               ambiente.
      */
-    public Obstaculo() {
+    public Obstaculo(Ambiente ambiente) {
         Random rand = new Random();
-        // Seleciona um tipo de obstáculo aleatoriamente
-        this.tipo = tipos[rand.nextInt(tipos.length)];
+        // Seleciona um tipo de obstáculo aleatoriamente; se ele não couber mais no
+        // ambiente, tenta os demais tipos em sequência.
+        int inicio = rand.nextInt(tipos.length);
+        TipoObstaculo escolhido = null;
+        int[] centro = null;
+        for (int i = 0; i < tipos.length && centro == null; i++) {
+            escolhido = tipos[(inicio + i) % tipos.length];
+            centro = sortearCentro(ambiente, escolhido, rand);
+        }
+        if (centro == null)
+            throw new IllegalStateException("Não há espaço livre no ambiente para um novo obstáculo.");
 
-        // Loop para encontrar uma posição válida para o obstáculo
-        do {
-            // Gera coordenadas X e Y aleatórias dentro das dimensões do ambiente
-            this.posX = rand.nextInt(Controlador.getAmbiente().getComprimento());
-            this.posY = rand.nextInt(Controlador.getAmbiente().getLargura());
-        } while (!boaPosicao(tipo, posX, posY)); // Continua até encontrar uma posição que não cause colisão e esteja
-                                                 // nos limites
+        this.tipo = escolhido;
+        this.posX = centro[0];
+        this.posY = centro[1];
+        this.inferiorX = posX - (tipo.comprimento - 1) / 2;
+        this.inferiorY = posY - (tipo.largura - 1) / 2;
+        this.superiorX = posX + (tipo.comprimento - 1) / 2;
+        this.superiorY = posY + (tipo.largura - 1) / 2;
+    }
+
+    /**
+     * Sorteia uma posição central válida
+     * ({@link #boaPosicao(Ambiente, TipoObstaculo, int, int)}) para um obstáculo
+     * do tipo informado. Os candidatos vêm de
+     * {@link Ambiente#sortearCentroObstaculo(TipoObstaculo, Random)}, que em
+     * ambientes cheios já descarta os centros bloqueados por outros obstáculos,
+     * então poucas tentativas são rejeitadas mesmo com o mapa quase lotado.
+     *
+     * @return Um arranjo {x, y} com o centro, ou {@code null} se o tipo não couber
+     *         no ambiente.
+     */
+    private static int[] sortearCentro(Ambiente ambiente, TipoObstaculo tipo, Random rand) {
+        for (int tentativa = 0; tentativa < TENTATIVAS_MAXIMAS; tentativa++) {
+            int[] centro = ambiente.sortearCentroObstaculo(tipo, rand);
+            if (centro == null)
+                return null; // Nenhum centro livre para este tipo.
+            if (boaPosicao(ambiente, tipo, centro[0], centro[1]))
+                return centro;
+        }
+        return null;
     }
 
     /**
      * Verifica se uma determinada posição (testeX, testeY) é válida para um
-     * obstáculo de um dado tipo.
-     * <p>
-     * Uma posição é considerada válida se o obstáculo, quando colocado nela:
-     * <ul>
-     * <li>Estiver completamente dentro dos limites do ambiente.</li>
-     * <li>Não colidir com nenhum outro obstáculo já existente no ambiente.</li>
-     * </ul>
-     * A verificação de colisão e limites leva em conta as dimensões (comprimento e
-     * largura) do tipo de obstáculo.
+     * obstáculo de um dado tipo no ambiente informado.
      *
-     * @param tipo   O {@link TipoObstaculo} para o qual a posição está sendo
-     *               testada.
-     * @param testeX A coordenada X central da posição a ser testada.
-     * @param testeY A coordenada Y central da posição a ser testada.
+     * @param ambiente O ambiente onde a posição está sendo testada.
+     * @param tipo     O {@link TipoObstaculo} para o qual a posição está sendo
+     *                 testada.
+     * @param testeX   A coordenada X central da posição a ser testada.
+     * @param testeY   A coordenada Y central da posição a ser testada.
      * @return {@code true} se a posição for válida; {@code false} caso contrário.
      */
-    public static boolean boaPosicao(TipoObstaculo tipo, int testeX, int testeY) {
+    public static boolean boaPosicao(Ambiente ambiente, TipoObstaculo tipo, int testeX, int testeY) {
         // Calcula a metade do comprimento e da largura para determinar os limites do
         // obstáculo a partir do centro
         int metadeComprimento = (tipo.comprimento - 1) / 2;
@@ -84,39 +109,16 @@ public class Obstaculo implements Entidade {
         int inferiorX = testeX - metadeComprimento;
         int inferiorY = testeY - metadeLargura;
 
-        try {
-            // Verifica se os cantos superior e inferior do obstáculo estão dentro dos
-            // limites do ambiente
-            boolean dentroDosLimitesSuperior = Controlador.getAmbiente().dentroDosLimites(superiorX, superiorY, 0); // Z=0
-                                                                                                                    // para
-                                                                                                                    // obstáculos
-            boolean dentroDosLimitesInferior = Controlador.getAmbiente().dentroDosLimites(inferiorX, inferiorY, 0); // Z=0
-                                                                                                                    // para
-                                                                                                                    // obstáculos
-
-            // Verifica se não há colisão com outros obstáculos existentes
-            boolean semColisEntreObst = !IsColidido(superiorX, superiorY, inferiorX, inferiorY);
-
-            // A posição é boa se estiver dentro dos limites e não colidir com outros
-            // obstáculos
-            return dentroDosLimitesSuperior && dentroDosLimitesInferior && semColisEntreObst;
-
-        } catch (ColisaoException e) {
-            // Se dentroDosLimites lançar ColisaoException (o que não deveria ocorrer aqui,
-            // mas por segurança)
-            // ou se ocorrer qualquer outro problema inesperado que resulte em exceção,
-            // considera a posição inválida.
-            // Nota: A lógica de ColisaoException em dentroDosLimites pode precisar ser
-            // revisada se for para colisões com robôs.
-            // Aqui, o foco é a validade da posição do obstáculo em si.
+        // Verifica se os cantos superior e inferior do obstáculo estão dentro dos
+        // limites do ambiente e livres. A validação por status não lança exceções,
+        // o que importa porque esta verificação roda a cada sorteio de posição.
+        if (ambiente.validarPosicao(superiorX, superiorY, 0) != StatusPosicao.VALIDA) // Z=0 para obstáculos
             return false;
-        } catch (IndexOutOfBoundsException e) { // Adicionado para capturar exceções de limites
-            // Se ocorrer uma IndexOutOfBoundsException (por exemplo, ao chamar dentroDosLimites),
-            // significa que a posição calculada para o obstáculo (considerando seu tamanho)
-            // está fora dos limites físicos do ambiente.
-            // System.err.println("IndexOutOfBoundsException em boaPosicao: " + e.getMessage()); // Opcional: para debug
-            return false; // Posição é inválida se causa esta exceção.
-        }
+        if (ambiente.validarPosicao(inferiorX, inferiorY, 0) != StatusPosicao.VALIDA)
+            return false;
+
+        // A posição é boa se, além disso, não colidir com outros obstáculos
+        return !IsColidido(ambiente, superiorX, superiorY, inferiorX, inferiorY);
     }
 
     /**
@@ -125,8 +127,10 @@ public class Obstaculo implements Entidade {
      * <p>
      * Este método é usado para garantir que um novo obstáculo (ret1) não se
      * sobreponha a obstáculos já posicionados (ret2).
-     * A colisão é detectada usando o algoritmo de Axis-Aligned Bounding Box (AABB).
+     * A colisão é detectada usando o algoritmo de Axis-Aligned Bounding Box (AABB),
+     * consultando o {@link IndiceObstaculos} do ambiente.
      *
+     * @param ambiente      O ambiente cujos obstáculos serão verificados.
      * @param ret1SuperiorX Coordenada X do canto superior direito do primeiro
      *                      retângulo (novo obstáculo).
      * @param ret1SuperiorY Coordenada Y do canto superior direito do primeiro
@@ -138,41 +142,11 @@ public class Obstaculo implements Entidade {
      * @return {@code true} se houver colisão com algum obstáculo existente;
      *         {@code false} caso contrário.
      */
-    private static boolean IsColidido(int ret1SuperiorX, int ret1SuperiorY, int ret1InferiorX,
+    private static boolean IsColidido(Ambiente ambiente, int ret1SuperiorX, int ret1SuperiorY, int ret1InferiorX,
             int ret1InferiorY) {
-        // Itera sobre todos os obstáculos já presentes no ambiente
-        for (Obstaculo obstaculoExistente : Controlador.getAmbiente().getObstaculos()) {
-            // Calcula as coordenadas dos cantos do obstáculo existente (ret2)
-            // Ajuste: as dimensões devem ser usadas para calcular os limites a partir do
-            // centro (posX, posY)
-            int metadeCompExistente = (obstaculoExistente.getTipoObstaculo().comprimento - 1) / 2;
-            int metadeLargExistente = (obstaculoExistente.getTipoObstaculo().largura - 1) / 2;
-
-            int ret2SuperiorX = obstaculoExistente.getX() + metadeCompExistente;
-            int ret2SuperiorY = obstaculoExistente.getY() + metadeLargExistente;
-            int ret2InferiorX = obstaculoExistente.getX() - metadeCompExistente;
-            int ret2InferiorY = obstaculoExistente.getY() - metadeLargExistente;
-
-            // Verifica a não colisão (separação) nos eixos X e Y
-            // Se ret1 está à esquerda de ret2 OU ret2 está à esquerda de ret1, não há
-            // colisão no eixo X.
-            boolean semSobreposicaoX = ret1SuperiorX < ret2InferiorX || ret2SuperiorX < ret1InferiorX;
-            // Se ret1 está abaixo de ret2 OU ret2 está abaixo de ret1, não há colisão no
-            // eixo Y.
-            boolean semSobreposicaoY = ret1SuperiorY < ret2InferiorY || ret2SuperiorY < ret1InferiorY;
-
-            // Se não há sobreposição em X OU não há sobreposição em Y, então não há colisão
-            // com este obstáculo.
-            if (semSobreposicaoX || semSobreposicaoY) {
-                continue; // Passa para o próximo obstáculo
-            }
-
-            // Se chegou aqui, significa que há sobreposição em ambos os eixos, logo, há
-            // colisão.
-            return true;
-        }
-        // Se o loop terminar sem encontrar colisões, retorna false.
-        return false;
+        // Consulta apenas os obstáculos cujas áreas (AABB) intersectam o retângulo do novo obstáculo.
+        return ambiente.getIndiceObstaculos().existeNaCaixa(ret1InferiorX, ret1InferiorY, ret1SuperiorX,
+                ret1SuperiorY);
     }
 
     /**
@@ -238,19 +212,79 @@ public class Obstaculo implements Entidade {
         return this.tipo.getAltura(); // Obstáculos são sempre terrestres, no nível Z = 0
     }
 
+    /**
+     * Verifica se a coluna (x, y) está dentro da área ocupada pelo obstáculo.
+     *
+     * @param obs O obstáculo a ser testado.
+     * @param x   Coordenada no eixo X.
+     * @param y   Coordenada no eixo Y.
+     * @return {@code true} se a posição estiver dentro dos limites do obstáculo.
+     */
     public static boolean IsOccupied(Obstaculo obs, int x, int y) {
-        int metadeCompExistente = (obs.getTipoObstaculo().comprimento - 1) / 2;
-        int metadeLargExistente = (obs.getTipoObstaculo().largura - 1) / 2;
-        
-        int SuperiorX = obs.getX() + metadeCompExistente;
-        int SuperiorY = obs.getY() + metadeLargExistente;
-        int InferiorX = obs.getX() - metadeCompExistente;
-        int InferiorY = obs.getY() - metadeLargExistente;
+        return obs.contem(x, y);
+    }
+
+    /**
+     * Verifica se a coluna (x, y) está dentro da área ocupada por este obstáculo,
+     * usando os limites pré-calculados.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @return {@code true} se a posição estiver dentro dos limites do obstáculo.
+     */
+    public boolean contem(int x, int y) {
+        return x >= inferiorX && x <= superiorX && y >= inferiorY && y <= superiorY;
+    }
+
+    /**
+     * Calcula o quadrado da distância euclidiana entre a coluna (x, y) e a
+     * coluna mais próxima da área ocupada pelo obstáculo. Colunas dentro da área
+     * estão a distância 0.
+     *
+     * @param x Coordenada no eixo X.
+     * @param y Coordenada no eixo Y.
+     * @return O quadrado da distância até a área do obstáculo.
+     */
+    public long distanciaQuadrada(int x, int y) {
+        long dx = Math.max(0, Math.max(inferiorX - x, x - superiorX));
+        long dy = Math.max(0, Math.max(inferiorY - y, y - superiorY));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Retorna a menor coordenada X ocupada pelo obstáculo.
+     *
+     * @return O limite inferior da área no eixo X.
+     */
+    public int getInferiorX() {
+        return inferiorX;
+    }
 
-        boolean dentroDosLimitesX = x >= InferiorX && x <= SuperiorX;
-        boolean dentroDosLimitesY = y >= InferiorY && y <= SuperiorY;
+    /**
+     * Retorna a menor coordenada Y ocupada pelo obstáculo.
+     *
+     * @return O limite inferior da área no eixo Y.
+     */
+    public int getInferiorY() {
+        return inferiorY;
+    }
 
-        return dentroDosLimitesX && dentroDosLimitesY; // Retorna true se a posição (x, y) está dentro dos limites do obstáculo
+    /**
+     * Retorna a maior coordenada X ocupada pelo obstáculo.
+     *
+     * @return O limite superior da área no eixo X.
+     */
+    public int getSuperiorX() {
+        return superiorX;
+    }
+
+    /**
+     * Retorna a maior coordenada Y ocupada pelo obstáculo.
+     *
+     * @return O limite superior da área no eixo Y.
+     */
+    public int getSuperiorY() {
+        return superiorY;
     }
 
     /**
@@ -1,5 +1,9 @@
 package com.robotsim.etc;
 
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -19,6 +23,10 @@ import com.robotsim.robots.Robo;
  * <li>Obter uma lista de robôs registrados em uma categoria específica.</li>
  * <li>Criar instâncias de robôs com base nas classes registradas.</li>
  * </ul>
+ * <p>
+ * O construtor {@code (String, int, int)} de cada classe é resolvido uma única
+ * vez em uma {@link FabricaRobo}, gerada com {@link LambdaMetafactory}, então
+ * criar robôs em massa custa o mesmo que chamar o construtor diretamente.
  */
 public class CatalogoRobos {
     // Armazena as classes de robôs por categoria.
@@ -28,6 +36,22 @@ public class CatalogoRobos {
     // e o valor é a própria classe do robô (Class<? extends Robo>).
     private static final HashMap<String, HashMap<String, Class<? extends Robo>>> catalogo = new HashMap<>();
 
+    // Tipos do construtor resolvido e do método da fábrica.
+    private static final MethodType TIPO_CONSTRUTOR = MethodType.methodType(void.class, String.class, int.class,
+            int.class);
+    private static final MethodType TIPO_CRIAR = MethodType.methodType(Robo.class, String.class, int.class,
+            int.class);
+
+    // Fábrica de cada classe de robô, resolvida na primeira vez em que é pedida.
+    // O ClassValue guarda a fábrica junto da própria classe, sem impedir que ela
+    // seja descarregada.
+    private static final ClassValue<FabricaRobo> fabricas = new ClassValue<>() {
+        @Override
+        protected FabricaRobo computeValue(Class<?> classe) {
+            return resolverFabrica(classe.asSubclass(Robo.class));
+        }
+    };
+
     /**
      * Registra uma classe de robô em uma categoria específica.
      * Se a categoria não existir, ela será criada.
@@ -36,8 +60,13 @@ public class CatalogoRobos {
      *                   "Aéreo", "Terrestre").
      * @param classeRobo A classe do robô a ser registrada (deve estender
      *                   {@link Robo}).
+     * @throws RuntimeException Se a classe não tiver um construtor público
+     *                          {@code (String, int, int)}.
      */
     public static void registrarRobo(String categoria, Class<? extends Robo> classeRobo) {
+        // Resolve a fábrica já no registro, para que uma classe sem o construtor
+        // esperado seja recusada aqui e não no primeiro spawn.
+        getFabrica(classeRobo);
         // Utiliza computeIfAbsent para obter o HashMap interno da categoria.
         // Se a categoria (chave k) não existir no 'catalogo', um novo HashMap é criado
         // e associado a ela.
@@ -87,25 +116,77 @@ public class CatalogoRobos {
      * @param posicaoX   A coordenada X inicial da instância do robô.
      * @param posicaoY   A coordenada Y inicial da instância do robô.
      * @return Uma nova instância do robô especificado.
-     * @throws RuntimeException Se ocorrer um erro durante a criação do robô (ex:
-     *                          classe não encontrada,
-     *                          problema na instanciação).
+     * @throws RuntimeException Se a classe não estiver registrada na categoria.
      */
     public static Robo criarRobo(String categoria, String nomeClasse, String nome, int posicaoX, int posicaoY) {
+        // Busca a classe do robô no catálogo com base na categoria e no nome da classe.
+        Class<? extends Robo> classe = catalogo.getOrDefault(categoria, new HashMap<>()).get(nomeClasse);
+        if (classe == null)
+            throw new RuntimeException("Erro ao criar robô: Categoria='" + categoria + "', Classe='" + nomeClasse + "'");
+        return getFabrica(classe).criar(nome, posicaoX, posicaoY);
+    }
+
+    /**
+     * Cria uma nova instância de uma classe de robô, registrada ou não no
+     * catálogo, com o nome e a posição informados.
+     *
+     * @param classe   A classe do robô, que deve ter um construtor público
+     *                 {@code (String nome, int posicaoX, int posicaoY)}.
+     * @param nome     O nome a ser atribuído à instância do robô.
+     * @param posicaoX A coordenada X inicial da instância do robô.
+     * @param posicaoY A coordenada Y inicial da instância do robô.
+     * @return Uma nova instância do robô.
+     * @throws RuntimeException Se a classe não tiver o construtor esperado.
+     */
+    public static Robo criarRobo(Class<? extends Robo> classe, String nome, int posicaoX, int posicaoY) {
+        return getFabrica(classe).criar(nome, posicaoX, posicaoY);
+    }
+
+    /**
+     * Obtém a fábrica que chama o construtor {@code (String, int, int)} da classe
+     * informada. A fábrica é resolvida uma vez por classe e reaproveitada; quem
+     * cria muitos robôs da mesma classe pode guardá-la e chamá-la diretamente.
+     *
+     * @param classe A classe do robô, registrada ou não no catálogo.
+     * @return A fábrica da classe.
+     * @throws RuntimeException Se a classe não tiver um construtor público
+     *                          {@code (String, int, int)}.
+     */
+    public static FabricaRobo getFabrica(Class<? extends Robo> classe) {
+        return fabricas.get(classe);
+    }
+
+    /**
+     * Resolve o construtor de uma classe em uma fábrica. A implementação gerada
+     * pelo {@link LambdaMetafactory} chama o construtor como um lambda comum; se
+     * a classe não puder ser ligada assim (por exemplo, por vir de outro class
+     * loader), a fábrica invoca o {@link MethodHandle} do construtor.
+     */
+    private static FabricaRobo resolverFabrica(Class<? extends Robo> classe) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle construtor;
         try {
-            // Busca a classe do robô no catálogo com base na categoria e no nome da classe.
-            Class<? extends Robo> classe = catalogo.get(categoria).get(nomeClasse);
-            // Obtém o construtor da classe que aceita String (nome) e dois ints (posicaoX,
-            // posicaoY).
-            // Cria uma nova instância usando o construtor encontrado e os parâmetros
-            // fornecidos.
-            return classe.getConstructor(String.class, int.class, int.class)
-                    .newInstance(nome, posicaoX, posicaoY);
-        } catch (Exception e) {
-            // Lança uma RuntimeException se qualquer etapa da criação falhar.
-            throw new RuntimeException("Erro ao criar robô: Categoria='" + categoria + "', Classe='" + nomeClasse + "'",
+            construtor = lookup.findConstructor(classe, TIPO_CONSTRUTOR);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Erro ao resolver construtor do robô: Classe='" + classe.getSimpleName() + "'",
                     e);
         }
+        try {
+            return (FabricaRobo) LambdaMetafactory.metafactory(lookup, "criar",
+                    MethodType.methodType(FabricaRobo.class), TIPO_CRIAR, construtor, construtor.type())
+                    .getTarget().invokeExact();
+        } catch (Throwable e) {
+            MethodHandle handle = construtor.asType(TIPO_CRIAR);
+            return (nome, posicaoX, posicaoY) -> {
+                try {
+                    return (Robo) handle.invokeExact(nome, posicaoX, posicaoY);
+                } catch (RuntimeException | Error erro) {
+                    throw erro;
+                } catch (Throwable erro) {
+                    throw new RuntimeException("Erro ao criar robô: Classe='" + classe.getSimpleName() + "'", erro);
+                }
+            };
+        }
     }
 
     /**
@@ -0,0 +1,22 @@
+package com.robotsim.etc;
+
+import com.robotsim.robots.Robo;
+
+/**
+ * A interface FabricaRobo representa o construtor {@code (String, int, int)}
+ * de uma classe de robô já resolvido. As fábricas são obtidas com
+ * {@link CatalogoRobos#getFabrica(Class)} e criam robôs sem passar pela API de
+ * reflexão a cada chamada.
+ */
+@FunctionalInterface
+public interface FabricaRobo {
+    /**
+     * Cria uma nova instância do robô.
+     *
+     * @param nome     O nome a ser atribuído à instância do robô.
+     * @param posicaoX A coordenada X inicial da instância do robô.
+     * @param posicaoY A coordenada Y inicial da instância do robô.
+     * @return Uma nova instância do robô.
+     */
+    Robo criar(String nome, int posicaoX, int posicaoY);
+}
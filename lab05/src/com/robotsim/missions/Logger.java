@@ -1,13 +1,18 @@
 package com.robotsim.missions;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import com.robotsim.environment.obstacle.Obstaculo;
+import com.robotsim.missions.log.CodificadorLog;
+import com.robotsim.missions.log.EscritorLog;
+import com.robotsim.missions.log.NivelLog;
+import com.robotsim.missions.log.RotacaoLog;
+import com.robotsim.missions.log.TextoEventos;
 import com.robotsim.robots.Robo;
 
 /**
@@ -15,10 +20,46 @@ import com.robotsim.robots.Robo;
  * Registra detalhes como posições visitadas, sensores ativados, obstáculos
  * detectados
  * e outros eventos importantes durante a execução das missões.
+ * <p>
+ * As linhas não são gravadas por quem registra: elas são entregues a um
+ * {@link EscritorLog}, que as grava em {@code missao.log} a partir de uma
+ * thread de fundo. A fila do escritor pode ser ajustada pelas propriedades de
+ * sistema {@code robotsim.log.capacidade} (registros na fila, padrão 65536),
+ * {@code robotsim.log.intervalo} (milissegundos entre descargas, padrão 200) e
+ * {@code robotsim.log.politica} ({@code DESCARTAR}, o padrão, ou
+ * {@code BLOQUEAR}, para o caso de a fila encher). Os registros pendentes são
+ * gravados quando a JVM termina.
+ * <p>
+ * O arquivo ativo é rotacionado ao passar de
+ * {@code robotsim.log.rotacao.tamanho} MiB (padrão 100; 0 desativa) ou de
+ * {@code robotsim.log.rotacao.intervalo} minutos (padrão 0, desativado). Os
+ * arquivos encerrados são comprimidos com gzip e apenas os
+ * {@code robotsim.log.rotacao.retencao} mais recentes (padrão 10; 0 mantém
+ * todos) são mantidos.
+ * <p>
+ * Com {@code -Drobotsim.log.formato=binario}, os eventos são gravados em
+ * {@code missao.bin} pelo {@link CodificadorLog}, como códigos e campos
+ * primitivos, sem formatar nenhuma frase. O texto equivalente é obtido com o
+ * {@link com.robotsim.missions.log.DecodificadorLog}.
+ * <p>
+ * Cada evento tem um {@link NivelLog}. A propriedade {@code robotsim.log.nivel}
+ * ({@code MISSAO}, {@code DETALHE} ou {@code RASTRO}, o padrão) define o nível
+ * mais detalhado gravado; eventos acima dele custam apenas uma comparação.
  */
 public class Logger {
     private static final String LOG_FILE = "missao.log";
-    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String LOG_FILE_BINARIO = "missao.bin";
+    private static final boolean BINARIO = "binario".equalsIgnoreCase(System.getProperty("robotsim.log.formato"));
+
+    // Escritor compartilhado por todas as missões, ou null se o arquivo não puder ser aberto.
+    private static final EscritorLog escritor = abrirEscritor();
+    // Codificador do formato binário, ou null no formato de texto.
+    private static final CodificadorLog binario = BINARIO && escritor != null ? new CodificadorLog(escritor) : null;
+    // Nível mais detalhado registrado e o seu ordinal, ou -1 se o log não puder ser gravado.
+    private static volatile NivelLog nivel = nivelDoSistema();
+    private static volatile int nivelMaximo = escritor == null ? -1 : nivel.ordinal();
+    // Último carimbo de tempo formatado; o texto só muda uma vez por segundo.
+    private static volatile Carimbo carimbo = new Carimbo(Long.MIN_VALUE, "");
 
     /**
      * Registra uma mensagem geral no log.
@@ -27,31 +68,108 @@ public class Logger {
      * @param mensagem Mensagem a ser registrada
      */
     public static void registrar(String mission, String mensagem) {
-        try (FileWriter fw = new FileWriter(LOG_FILE, true);
-                PrintWriter pw = new PrintWriter(fw)) {
-            String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
-            pw.println(String.format("[%s] [%s] %s", timestamp, mission, mensagem));
-        } catch (IOException e) {
-            System.err.println("Erro ao escrever no log: " + e.getMessage());
+        if (!estaAtivo(NivelLog.MISSAO))
+            return;
+        escreverMensagem(mission, mensagem);
+    }
+
+    /**
+     * Registra uma mensagem construída apenas se o nível informado estiver
+     * ativo. Com o nível desativado, o fornecedor não é chamado e o registro
+     * custa uma única comparação.
+     * <p>
+     * Exemplo: {@code Logger.registrar(NivelLog.RASTRO, "MISSAO_X", () -> "passo " + i)}.
+     *
+     * @param nivel    Nível da mensagem
+     * @param mission  Nome da missão
+     * @param mensagem Fornecedor da mensagem a ser registrada
+     */
+    public static void registrar(NivelLog nivel, String mission, Supplier<String> mensagem) {
+        if (!estaAtivo(nivel))
+            return;
+        escreverMensagem(mission, mensagem.get());
+    }
+
+    /**
+     * Informa se eventos do nível informado estão sendo registrados. Útil para
+     * evitar preparar argumentos caros que só serviriam ao log.
+     *
+     * @param nivel O nível a consultar
+     * @return {@code true} se o nível está ativo e o log está aberto
+     */
+    public static boolean estaAtivo(NivelLog nivel) {
+        return nivel.ordinal() <= nivelMaximo;
+    }
+
+    /**
+     * Retorna o nível mais detalhado registrado.
+     *
+     * @return O nível configurado
+     */
+    public static NivelLog getNivel() {
+        return nivel;
+    }
+
+    /**
+     * Define o nível mais detalhado registrado. Eventos de níveis mais
+     * detalhados passam a ser ignorados sem nenhuma formatação.
+     *
+     * @param nivel O novo nível
+     */
+    public static void setNivel(NivelLog nivel) {
+        Logger.nivel = nivel;
+        nivelMaximo = escritor == null ? -1 : nivel.ordinal();
+    }
+
+    /**
+     * Grava uma mensagem geral no formato configurado, sem verificar o nível.
+     */
+    private static void escreverMensagem(String mission, String mensagem) {
+        if (binario != null) {
+            binario.mensagem(mission, mensagem);
+            return;
         }
+        String linha = "[" + carimboAtual() + "] [" + mission + "] " + mensagem + System.lineSeparator();
+        escritor.escrever(linha.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Grava várias linhas de texto da mesma missão como um único registro, para
+     * que fiquem juntas no arquivo mesmo com outras missões registrando ao
+     * mesmo tempo.
+     */
+    private static void registrarBloco(String mission, List<String> mensagens) {
+        String prefixo = "[" + carimboAtual() + "] [" + mission + "] ";
+        StringBuilder bloco = new StringBuilder();
+        for (String mensagem : mensagens)
+            bloco.append(prefixo).append(mensagem).append(System.lineSeparator());
+        escritor.escrever(bloco.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     /**
      * Registra o início de uma missão com detalhes do robô.
      * 
+     * Nível: {@link NivelLog#MISSAO}.
+     * 
      * @param missaoTipo Tipo da missão sendo iniciada
      * @param robo       Robô executando a missão
      */
     public static void iniciarMissao(String missaoTipo, Robo robo) {
-        String mensagem = String.format("INÍCIO - Robô %s (%s) iniciou missão na posição (%d, %d, %d)",
-                robo.getNome(), robo.getClass().getSimpleName(),
-                robo.getX(), robo.getY(), robo.getZ());
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.MISSAO))
+            return;
+        if (binario != null) {
+            binario.inicio(missaoTipo, robo);
+            return;
+        }
+        escreverMensagem(missaoTipo, TextoEventos.inicio(robo.getNome(), robo.getClass().getSimpleName(),
+                robo.getX(), robo.getY(), robo.getZ()));
     }
 
     /**
      * Registra uma mudança de posição do robô.
      * 
+     * Nível: {@link NivelLog#RASTRO}.
+     * 
      * @param missaoTipo       Tipo da missão
      * @param robo             Robô que se moveu
      * @param posicaoAnteriorX Posição anterior X
@@ -60,144 +178,202 @@ public class Logger {
      */
     public static void registrarMovimento(String missaoTipo, Robo robo,
             int posicaoAnteriorX, int posicaoAnteriorY, int posicaoAnteriorZ) {
-        String mensagem = String.format("MOVIMENTO - Robô %s moveu de (%d, %d, %d) para (%d, %d, %d)",
-                robo.getNome(), posicaoAnteriorX, posicaoAnteriorY, posicaoAnteriorZ,
-                robo.getX(), robo.getY(), robo.getZ());
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.RASTRO))
+            return;
+        if (binario != null) {
+            binario.movimento(missaoTipo, robo, posicaoAnteriorX, posicaoAnteriorY, posicaoAnteriorZ);
+            return;
+        }
+        escreverMensagem(missaoTipo, TextoEventos.movimento(robo.getNome(), posicaoAnteriorX, posicaoAnteriorY,
+                posicaoAnteriorZ, robo.getX(), robo.getY(), robo.getZ()));
     }
 
     /**
      * Registra a ativação de um sensor.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo  Tipo da missão
      * @param robo        Robô que ativou o sensor
      * @param tipoSensor  Tipo do sensor ativado
      * @param raioAlcance Raio de alcance do sensor
      */
     public static void registrarSensorAtivado(String missaoTipo, Robo robo, String tipoSensor, double raioAlcance) {
-        String mensagem = String.format(
-                "SENSOR ATIVADO - Robô %s ativou sensor %s com raio %.2f na posição (%d, %d, %d)",
-                robo.getNome(), tipoSensor, raioAlcance, robo.getX(), robo.getY(), robo.getZ());
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.sensorAtivado(missaoTipo, robo, tipoSensor, raioAlcance);
+            return;
+        }
+        escreverMensagem(missaoTipo, TextoEventos.sensorAtivado(robo.getNome(), tipoSensor, raioAlcance,
+                robo.getX(), robo.getY(), robo.getZ()));
     }
 
     /**
      * Registra a detecção de obstáculos.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo           Tipo da missão
      * @param robo                 Robô que detectou
      * @param obstaculosDetectados Lista de obstáculos detectados
      */
     public static void registrarObstaculosDetectados(String missaoTipo, Robo robo,
             List<Obstaculo> obstaculosDetectados) {
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.deteccao(missaoTipo, robo, obstaculosDetectados);
+            return;
+        }
         if (obstaculosDetectados.isEmpty()) {
-            String mensagem = String.format("DETECÇÃO - Robô %s não detectou obstáculos na posição (%d, %d, %d)",
-                    robo.getNome(), robo.getX(), robo.getY(), robo.getZ());
-            registrar(missaoTipo, mensagem);
+            escreverMensagem(missaoTipo,
+                    TextoEventos.semObstaculos(robo.getNome(), robo.getX(), robo.getY(), robo.getZ()));
         } else {
-            String mensagem = String.format("DETECÇÃO - Robô %s detectou %d obstáculo(s) na posição (%d, %d, %d):",
-                    robo.getNome(), obstaculosDetectados.size(), robo.getX(), robo.getY(), robo.getZ());
-            registrar(missaoTipo, mensagem);
+            ArrayList<String> mensagens = new ArrayList<>(obstaculosDetectados.size() + 1);
+            mensagens.add(TextoEventos.deteccao(robo.getNome(), obstaculosDetectados.size(),
+                    robo.getX(), robo.getY(), robo.getZ()));
 
             for (Obstaculo obstaculo : obstaculosDetectados) {
-                String detalhes = String.format("  - Obstáculo: %s (%s) em (%d, %d) - Distância: %.2f",
-                        obstaculo.getNome(), obstaculo.getTipoObstaculo().name(),
-                        obstaculo.getX(), obstaculo.getY(),
-                        calcularDistancia(robo.getX(), robo.getY(), obstaculo.getX(), obstaculo.getY()));
-                registrar(missaoTipo, detalhes);
+                mensagens.add(TextoEventos.obstaculoDaDeteccao(obstaculo.getNome(),
+                        obstaculo.getTipoObstaculo().name(), obstaculo.getX(), obstaculo.getY(),
+                        TextoEventos.distancia(robo.getX(), robo.getY(), obstaculo.getX(), obstaculo.getY())));
             }
+            registrarBloco(missaoTipo, mensagens);
         }
     }
 
     /**
      * Registra a detecção de um único obstáculo.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo Tipo da missão
      * @param robo       Robô que detectou
      * @param obstaculo  Obstáculo detectado
      */
     public static void registrarObstaculoDetectado(String missaoTipo, Robo robo, Obstaculo obstaculo) {
-        double distancia = calcularDistancia(robo.getX(), robo.getY(), obstaculo.getX(), obstaculo.getY());
-        String mensagem = String.format("OBSTÁCULO DETECTADO - Robô %s detectou %s (%s) em (%d, %d) - Distância: %.2f",
-                robo.getNome(), obstaculo.getNome(), obstaculo.getTipoObstaculo().name(),
-                obstaculo.getX(), obstaculo.getY(), distancia);
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.obstaculoDetectado(missaoTipo, robo, obstaculo);
+            return;
+        }
+        double distancia = TextoEventos.distancia(robo.getX(), robo.getY(), obstaculo.getX(), obstaculo.getY());
+        escreverMensagem(missaoTipo, TextoEventos.obstaculoDetectado(robo.getNome(), obstaculo.getNome(),
+                obstaculo.getTipoObstaculo().name(), obstaculo.getX(), obstaculo.getY(), distancia));
     }
 
     /**
      * Registra a detecção de outros robôs.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo    Tipo da missão
      * @param roboDetector  Robô que fez a detecção
      * @param roboDetectado Robô detectado
      */
     public static void registrarRoboDetectado(String missaoTipo, Robo roboDetector, Robo roboDetectado) {
-        double distancia = calcularDistancia(roboDetector.getX(), roboDetector.getY(),
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.roboDetectado(missaoTipo, roboDetector, roboDetectado);
+            return;
+        }
+        double distancia = TextoEventos.distancia(roboDetector.getX(), roboDetector.getY(),
                 roboDetectado.getX(), roboDetectado.getY());
-        String mensagem = String.format("ROBÔ DETECTADO - Robô %s detectou %s (%s) em (%d, %d, %d) - Distância: %.2f",
-                roboDetector.getNome(), roboDetectado.getNome(), roboDetectado.getClass().getSimpleName(),
-                roboDetectado.getX(), roboDetectado.getY(), roboDetectado.getZ(), distancia);
-        registrar(missaoTipo, mensagem);
+        escreverMensagem(missaoTipo, TextoEventos.roboDetectado(roboDetector.getNome(), roboDetectado.getNome(),
+                roboDetectado.getClass().getSimpleName(), roboDetectado.getX(), roboDetectado.getY(),
+                roboDetectado.getZ(), distancia));
     }
 
     /**
      * Registra um evento de colisão.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo  Tipo da missão
      * @param robo        Robô que colidiu
      * @param tipoColisao Tipo da colisão (obstáculo, robô, limite)
      * @param detalhes    Detalhes adicionais da colisão
      */
     public static void registrarColisao(String missaoTipo, Robo robo, String tipoColisao, String detalhes) {
-        String mensagem = String.format("COLISÃO - Robô %s colidiu com %s na posição (%d, %d, %d) - %s",
-                robo.getNome(), tipoColisao, robo.getX(), robo.getY(), robo.getZ(), detalhes);
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.colisao(missaoTipo, robo, tipoColisao, detalhes);
+            return;
+        }
+        escreverMensagem(missaoTipo, TextoEventos.colisao(robo.getNome(), tipoColisao,
+                robo.getX(), robo.getY(), robo.getZ(), detalhes));
     }
 
     /**
      * Registra o final de uma missão.
      * 
+     * Nível: {@link NivelLog#MISSAO}.
+     * 
      * @param missaoTipo Tipo da missão
      * @param robo       Robô que concluiu a missão
      * @param resultado  Resultado da missão (sucesso, falha, etc.)
      */
     public static void finalizarMissao(String missaoTipo, Robo robo, String resultado) {
-        String mensagem = String.format("FIM - Robô %s finalizou missão na posição (%d, %d, %d) - Resultado: %s",
-                robo.getNome(), robo.getX(), robo.getY(), robo.getZ(), resultado);
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.MISSAO))
+            return;
+        if (binario != null) {
+            binario.fim(missaoTipo, robo, resultado);
+            return;
+        }
+        escreverMensagem(missaoTipo,
+                TextoEventos.fim(robo.getNome(), robo.getX(), robo.getY(), robo.getZ(), resultado));
     }
 
     /**
      * Registra uma ação específica de ataque durante missões de combate.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo Tipo da missão
      * @param atacante   Robô atacante
      * @param alvo       Robô alvo
      * @param dano       Dano aplicado
      */
     public static void registrarAtaque(String missaoTipo, Robo atacante, Robo alvo, int dano) {
-        String mensagem = String.format("ATAQUE - Robô %s atacou %s causando %d de dano na posição (%d, %d, %d)",
-                atacante.getNome(), alvo.getNome(), dano, alvo.getX(), alvo.getY(), alvo.getZ());
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.ataque(missaoTipo, atacante, alvo, dano);
+            return;
+        }
+        escreverMensagem(missaoTipo, TextoEventos.ataque(atacante.getNome(), alvo.getNome(), dano,
+                alvo.getX(), alvo.getY(), alvo.getZ()));
     }
 
     /**
      * Registra a destruição de um obstáculo.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo Tipo da missão
      * @param robo       Robô que destruiu o obstáculo
      * @param obstaculo  Obstáculo destruído
      */
     public static void registrarDestruicaoObstaculo(String missaoTipo, Robo robo, Obstaculo obstaculo) {
-        String mensagem = String.format("DESTRUIÇÃO - Robô %s destruiu obstáculo %s (%s) na posição (%d, %d)",
-                robo.getNome(), obstaculo.getNome(), obstaculo.getTipoObstaculo().name(),
-                obstaculo.getX(), obstaculo.getY());
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.destruicao(missaoTipo, robo, obstaculo);
+            return;
+        }
+        escreverMensagem(missaoTipo, TextoEventos.destruicao(robo.getNome(), obstaculo.getNome(),
+                obstaculo.getTipoObstaculo().name(), obstaculo.getX(), obstaculo.getY()));
     }
 
     /**
      * Registra informações sobre o planejamento de rota.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo           Tipo da missão
      * @param robo                 Robô que está planejando
      * @param origem               Posição de origem
@@ -206,47 +382,117 @@ public class Logger {
      */
     public static void registrarPlanejamentoRota(String missaoTipo, Robo robo, String origem, String destino,
             List<Obstaculo> obstaculosNoPercurso) {
-        String mensagem = String.format("PLANEJAMENTO - Robô %s planeja rota de %s para %s",
-                robo.getNome(), origem, destino);
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.planejamento(missaoTipo, robo, origem, destino, obstaculosNoPercurso);
+            return;
+        }
+        ArrayList<String> mensagens = new ArrayList<>(obstaculosNoPercurso.size() + 2);
+        mensagens.add(TextoEventos.planejamento(robo.getNome(), origem, destino));
 
         if (!obstaculosNoPercurso.isEmpty()) {
-            String obstaculos = String.format("  - %d obstáculos detectados no percurso:", obstaculosNoPercurso.size());
-            registrar(missaoTipo, obstaculos);
+            mensagens.add(TextoEventos.obstaculosNoPercurso(obstaculosNoPercurso.size()));
 
             for (Obstaculo obs : obstaculosNoPercurso) {
-                String detalhe = String.format("    * %s (%s) em (%d, %d)",
-                        obs.getNome(), obs.getTipoObstaculo().name(),
-                        obs.getX(), obs.getY());
-                registrar(missaoTipo, detalhe);
+                mensagens.add(TextoEventos.obstaculoNoPercurso(obs.getNome(), obs.getTipoObstaculo().name(),
+                        obs.getX(), obs.getY()));
             }
         }
+        registrarBloco(missaoTipo, mensagens);
     }
 
     /**
      * Registra mudanças no estado do robô.
      * 
+     * Nível: {@link NivelLog#DETALHE}.
+     * 
      * @param missaoTipo     Tipo da missão
      * @param robo           Robô que mudou de estado
      * @param estadoAnterior Estado anterior
      * @param novoEstado     Novo estado
      */
     public static void registrarMudancaEstado(String missaoTipo, Robo robo, String estadoAnterior, String novoEstado) {
-        String mensagem = String.format("ESTADO - Robô %s mudou estado de %s para %s na posição (%d, %d, %d)",
-                robo.getNome(), estadoAnterior, novoEstado, robo.getX(), robo.getY(), robo.getZ());
-        registrar(missaoTipo, mensagem);
+        if (!estaAtivo(NivelLog.DETALHE))
+            return;
+        if (binario != null) {
+            binario.estado(missaoTipo, robo, estadoAnterior, novoEstado);
+            return;
+        }
+        escreverMensagem(missaoTipo, TextoEventos.estado(robo.getNome(), estadoAnterior, novoEstado,
+                robo.getX(), robo.getY(), robo.getZ()));
     }
 
     /**
-     * Calcula a distância euclidiana entre duas posições 2D.
-     * 
-     * @param x1 Coordenada X do primeiro ponto
-     * @param y1 Coordenada Y do primeiro ponto
-     * @param x2 Coordenada X do segundo ponto
-     * @param y2 Coordenada Y do segundo ponto
-     * @return Distância euclidiana
+     * Retorna o carimbo de tempo da linha, formatando a data apenas quando o
+     * segundo muda.
+     *
+     * @return A data e a hora atuais no formato do log.
+     */
+    private static String carimboAtual() {
+        long segundo = System.currentTimeMillis() / 1000;
+        Carimbo atual = carimbo;
+        if (atual.segundo != segundo) {
+            atual = new Carimbo(segundo, TextoEventos.carimbo(segundo));
+            carimbo = atual;
+        }
+        return atual.texto;
+    }
+
+    /**
+     * Lê o nível da propriedade {@code robotsim.log.nivel}, usando
+     * {@link NivelLog#RASTRO} se ela não estiver definida ou for inválida.
+     *
+     * @return O nível inicial do log.
+     */
+    private static NivelLog nivelDoSistema() {
+        String propriedade = System.getProperty("robotsim.log.nivel", "RASTRO");
+        for (NivelLog candidato : NivelLog.values()) {
+            if (candidato.name().equalsIgnoreCase(propriedade))
+                return candidato;
+        }
+        System.err.println("Nível de log desconhecido: " + propriedade + ". Usando RASTRO.");
+        return NivelLog.RASTRO;
+    }
+
+    /**
+     * Cria o escritor do log com a configuração das propriedades de sistema e
+     * registra o gancho que grava os registros pendentes ao fim da JVM.
+     *
+     * @return O escritor, ou {@code null} se o arquivo não puder ser aberto.
      */
-    private static double calcularDistancia(int x1, int y1, int x2, int y2) {
-        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
+    private static EscritorLog abrirEscritor() {
+        try {
+            EscritorLog novo = new EscritorLog(Path.of(BINARIO ? LOG_FILE_BINARIO : LOG_FILE),
+                    Integer.getInteger("robotsim.log.capacidade", 65536),
+                    Long.getLong("robotsim.log.intervalo", 200),
+                    "bloquear".equalsIgnoreCase(System.getProperty("robotsim.log.politica"))
+                            ? EscritorLog.Politica.BLOQUEAR
+                            : EscritorLog.Politica.DESCARTAR,
+                    BINARIO ? CodificadorLog.ASSINATURA : null,
+                    new RotacaoLog(Long.getLong("robotsim.log.rotacao.tamanho", 100) * 1024 * 1024,
+                            Long.getLong("robotsim.log.rotacao.intervalo", 0) * 60 * 1000,
+                            Integer.getInteger("robotsim.log.rotacao.retencao", 10)));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                novo.close();
+                if (novo.getDescartados() > 0)
+                    System.err.println(novo.getDescartados() + " registro(s) do log descartado(s) com a fila cheia.");
+            }, "robotsim-log-fechamento"));
+            return novo;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erro ao abrir o log: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Segundo e texto do último carimbo de tempo formatado. */
+    private static final class Carimbo {
+        private final long segundo; // Segundos desde a época.
+        private final String texto; // Data e hora formatadas.
+
+        private Carimbo(long segundo, String texto) {
+            this.segundo = segundo;
+            this.texto = texto;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,419 @@
+package com.robotsim.missions.log;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Arquivo gzip formado por vários membros independentes, cada um com um bloco
+ * de até {@link #TAMANHO_BLOCO} bytes do conteúdo original, como os gravados
+ * pela {@link RotacaoLog}. Continua sendo um gzip comum (o {@code gunzip} e o
+ * {@link java.util.zip.GZIPInputStream} leem os membros em sequência), mas cada
+ * bloco pode ser descomprimido sozinho a partir da sua posição no arquivo.
+ * <p>
+ * A leitura completa ({@link #trechos()}) descomprime o arquivo um bloco por
+ * vez e anota onde começa cada membro. O {@link IndiceLog} guarda essas
+ * posições para que as consultas seguintes descomprimam, com
+ * {@link #abrir(Path, long[], int[])}, apenas os blocos dos eventos
+ * encontrados. Um arquivo com um único membro, como os comprimidos por versões
+ * anteriores, é um único bloco.
+ * <p>
+ * O conteúdo descomprimido deve caber em 2 GiB, assim como as posições do
+ * {@link LeitorLog}.
+ */
+final class BlocosGzip implements Closeable {
+    /** Bytes do conteúdo original em cada membro gravado por {@link #comprimir}. */
+    static final int TAMANHO_BLOCO = 1 << 20;
+
+    private static final String EXTENSAO = ".gz";
+    // Cabeçalho de um membro: identificação, método deflate, sem opções, data e sistema zerados.
+    private static final byte[] CABECALHO = { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0 };
+    private static final int OPCAO_EXTRA = 4; // Bits das opções do cabeçalho.
+    private static final int OPCAO_NOME = 8;
+    private static final int OPCAO_COMENTARIO = 16;
+    private static final int OPCAO_VERIFICACAO = 2;
+
+    private final FileChannel canal; // Arquivo comprimido.
+    private final ByteBuffer entrada = ByteBuffer.allocate(1 << 16).flip(); // Bytes lidos e ainda não usados.
+    private final Inflater inflater = new Inflater(true); // Sem o envelope, lido aqui.
+    private final CRC32 crc = new CRC32(); // Verificação do membro atual.
+    private long posicaoCanal; // Próxima posição a ler do arquivo.
+    private boolean dentroDoMembro; // Se o membro atual ainda tem conteúdo.
+    // Membros: posição de cada um no arquivo e início do seu conteúdo, mais o tamanho total no fim.
+    private long[] deslocamentos;
+    private int[] inicios;
+    private int membros;
+    private long descomprimidos; // Bytes descomprimidos pela leitura completa.
+
+    private BlocosGzip(Path arquivo, long[] deslocamentos, int[] inicios) throws IOException {
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        this.deslocamentos = deslocamentos;
+        this.inicios = inicios;
+        this.membros = deslocamentos.length;
+    }
+
+    /**
+     * Indica se o arquivo está comprimido com gzip, pela extensão.
+     *
+     * @param arquivo O arquivo.
+     * @return {@code true} se o nome terminar em {@code .gz}.
+     */
+    static boolean comprimido(Path arquivo) {
+        return arquivo.getFileName().toString().endsWith(EXTENSAO);
+    }
+
+    /**
+     * Abre um arquivo para ser lido inteiro por {@link #trechos()}.
+     *
+     * @param arquivo O arquivo comprimido.
+     * @return O arquivo aberto.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    static BlocosGzip abrir(Path arquivo) throws IOException {
+        return new BlocosGzip(arquivo, new long[16], new int[17]);
+    }
+
+    /**
+     * Abre um arquivo cujos membros já são conhecidos, para ler blocos
+     * avulsos com {@link #bloco(int)}.
+     *
+     * @param arquivo       O arquivo comprimido.
+     * @param deslocamentos A posição de cada membro no arquivo, como em
+     *                      {@link #getDeslocamentos()}.
+     * @param inicios       O início do conteúdo de cada membro e o tamanho
+     *                      total, como em {@link #getInicios()}.
+     * @return O arquivo aberto.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    static BlocosGzip abrir(Path arquivo, long[] deslocamentos, int[] inicios) throws IOException {
+        return new BlocosGzip(arquivo, deslocamentos, inicios);
+    }
+
+    /**
+     * Comprime o conteúdo da entrada em membros independentes de
+     * {@link #TAMANHO_BLOCO} bytes.
+     *
+     * @param entrada O conteúdo original.
+     * @param saida   Onde gravar o arquivo comprimido.
+     * @throws IOException Se a entrada não puder ser lida ou a saída escrita.
+     */
+    static void comprimir(InputStream entrada, OutputStream saida) throws IOException {
+        byte[] bloco = new byte[TAMANHO_BLOCO];
+        byte[] comprimido = new byte[1 << 16];
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        CRC32 verificacao = new CRC32();
+        try {
+            boolean primeiro = true;
+            int lidos;
+            // Um arquivo vazio ainda recebe um membro, para continuar sendo um gzip válido.
+            while ((lidos = entrada.readNBytes(bloco, 0, bloco.length)) > 0 || primeiro) {
+                primeiro = false;
+                deflater.reset();
+                deflater.setInput(bloco, 0, lidos);
+                deflater.finish();
+                verificacao.reset();
+                verificacao.update(bloco, 0, lidos);
+                saida.write(CABECALHO);
+                while (!deflater.finished())
+                    saida.write(comprimido, 0, deflater.deflate(comprimido));
+                escreverInt(saida, (int) verificacao.getValue());
+                escreverInt(saida, lidos);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Percorre o arquivo do início, descomprimindo um bloco por vez. Cada
+     * trecho tem no máximo {@link #TAMANHO_BLOCO} bytes e não passa do fim de
+     * um membro. Ao fim, {@link #getDeslocamentos()} e {@link #getInicios()}
+     * descrevem os membros encontrados.
+     * <p>
+     * Erros de leitura são lançados como {@link UncheckedIOException}.
+     *
+     * @return Os trechos do conteúdo, em ordem.
+     */
+    Iterator<ByteBuffer> trechos() {
+        posicionar(0);
+        membros = 0;
+        descomprimidos = 0;
+        return new Iterator<>() {
+            private ByteBuffer proximo;
+            private boolean fim;
+
+            @Override
+            public boolean hasNext() {
+                if (proximo == null && !fim) {
+                    try {
+                        proximo = proximoTrecho();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    fim = proximo == null;
+                }
+                return !fim;
+            }
+
+            @Override
+            public ByteBuffer next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                ByteBuffer trecho = proximo;
+                proximo = null;
+                return trecho;
+            }
+        };
+    }
+
+    /**
+     * Retorna os blocos a partir do informado, descomprimindo cada um apenas
+     * quando pedido. Erros de leitura são lançados como
+     * {@link UncheckedIOException}.
+     *
+     * @param primeiro O número do primeiro bloco.
+     * @return Os blocos, em ordem.
+     */
+    Iterator<ByteBuffer> blocos(int primeiro) {
+        return new Iterator<>() {
+            private int seguinte = primeiro;
+
+            @Override
+            public boolean hasNext() {
+                return seguinte < membros;
+            }
+
+            @Override
+            public ByteBuffer next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                try {
+                    return bloco(seguinte++);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Descomprime um bloco inteiro.
+     *
+     * @param numero O número do bloco.
+     * @return O conteúdo do bloco.
+     * @throws IOException Se o bloco não puder ser lido ou estiver corrompido.
+     */
+    ByteBuffer bloco(int numero) throws IOException {
+        posicionar(deslocamentos[numero]);
+        if (!iniciarMembro())
+            throw new EOFException("Bloco além do fim do arquivo gzip.");
+        byte[] conteudo = new byte[inicios[numero + 1] - inicios[numero]];
+        int n = 0;
+        int lidos;
+        while (n < conteudo.length && (lidos = inflar(conteudo, n, conteudo.length - n)) >= 0)
+            n += lidos;
+        if (n < conteudo.length)
+            throw new ZipException("O bloco " + numero + " do arquivo gzip é menor que o esperado.");
+        return ByteBuffer.wrap(conteudo);
+    }
+
+    /**
+     * Retorna o número do bloco que contém a posição informada do conteúdo.
+     *
+     * @param posicao Uma posição do conteúdo descomprimido.
+     * @return O número do bloco.
+     */
+    int blocoDe(int posicao) {
+        int bloco = Arrays.binarySearch(inicios, 0, membros, posicao);
+        return bloco >= 0 ? bloco : -bloco - 2;
+    }
+
+    /** @return A posição de cada membro no arquivo. */
+    long[] getDeslocamentos() {
+        return Arrays.copyOf(deslocamentos, membros);
+    }
+
+    /** @return O início do conteúdo de cada membro, seguido do tamanho total do conteúdo. */
+    int[] getInicios() {
+        return Arrays.copyOf(inicios, membros + 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        canal.close();
+    }
+
+    /** Descomprime o próximo trecho da leitura completa, ou retorna {@code null} no fim do arquivo. */
+    private ByteBuffer proximoTrecho() throws IOException {
+        byte[] trecho = null;
+        while (true) {
+            if (!dentroDoMembro) {
+                long deslocamento = posicaoAtual();
+                if (!iniciarMembro())
+                    return null;
+                anotarMembro(deslocamento);
+            }
+            if (trecho == null)
+                trecho = new byte[TAMANHO_BLOCO];
+            int n = 0;
+            while (n < trecho.length) {
+                int lidos = inflar(trecho, n, trecho.length - n);
+                if (lidos < 0)
+                    break;
+                n += lidos;
+            }
+            if (n > 0) {
+                descomprimidos += n;
+                if (descomprimidos > Integer.MAX_VALUE)
+                    throw new IllegalArgumentException("O arquivo descomprimido tem mais de 2 GiB.");
+                inicios[membros] = (int) descomprimidos;
+                return ByteBuffer.wrap(trecho, 0, n);
+            }
+        }
+    }
+
+    /** Anota o início de um membro encontrado pela leitura completa. */
+    private void anotarMembro(long deslocamento) {
+        if (membros == deslocamentos.length) {
+            deslocamentos = Arrays.copyOf(deslocamentos, membros * 2);
+            inicios = Arrays.copyOf(inicios, membros * 2 + 1);
+        }
+        deslocamentos[membros] = deslocamento;
+        inicios[membros] = (int) descomprimidos;
+        membros++;
+        inicios[membros] = (int) descomprimidos;
+    }
+
+    /**
+     * Lê o cabeçalho do membro na posição atual e prepara a descompressão.
+     *
+     * @return {@code false} se não houver mais membros.
+     */
+    private boolean iniciarMembro() throws IOException {
+        if (!entrada.hasRemaining() && !preencher())
+            return false;
+        if (lerByte() != 0x1f || lerByte() != 0x8b || lerByte() != 8)
+            throw new ZipException("O arquivo não está no formato gzip.");
+        int opcoes = lerByte();
+        for (int i = 0; i < 6; i++)
+            lerByte(); // Data, compressão e sistema.
+        if ((opcoes & OPCAO_EXTRA) != 0) {
+            int tamanho = lerByte() | lerByte() << 8;
+            for (int i = 0; i < tamanho; i++)
+                lerByte();
+        }
+        if ((opcoes & OPCAO_NOME) != 0)
+            while (lerByte() != 0)
+                ;
+        if ((opcoes & OPCAO_COMENTARIO) != 0)
+            while (lerByte() != 0)
+                ;
+        if ((opcoes & OPCAO_VERIFICACAO) != 0) {
+            lerByte();
+            lerByte();
+        }
+        inflater.reset();
+        crc.reset();
+        dentroDoMembro = true;
+        return true;
+    }
+
+    /**
+     * Descomprime bytes do membro atual. No fim do membro, confere a
+     * verificação gravada depois dele.
+     *
+     * @return Quantos bytes foram descomprimidos, ou -1 no fim do membro.
+     */
+    private int inflar(byte[] destino, int inicio, int tamanho) throws IOException {
+        if (!dentroDoMembro)
+            return -1;
+        while (true) {
+            if (inflater.finished()) {
+                terminarMembro();
+                return -1;
+            }
+            if (inflater.needsInput()) {
+                if (!entrada.hasRemaining() && !preencher())
+                    throw new EOFException("O arquivo gzip termina no meio de um membro.");
+                inflater.setInput(entrada); // Avança a posição da entrada conforme a consome.
+            }
+            int lidos;
+            try {
+                lidos = inflater.inflate(destino, inicio, tamanho);
+            } catch (DataFormatException e) {
+                throw new ZipException("Arquivo gzip corrompido: " + e.getMessage());
+            }
+            if (lidos > 0) {
+                crc.update(destino, inicio, lidos);
+                return lidos;
+            }
+            if (inflater.needsDictionary())
+                throw new ZipException("Arquivo gzip corrompido.");
+        }
+    }
+
+    /** Confere a verificação e o tamanho gravados no fim do membro atual. */
+    private void terminarMembro() throws IOException {
+        dentroDoMembro = false;
+        int verificacao = lerInt();
+        int tamanho = lerInt();
+        if (verificacao != (int) crc.getValue() || tamanho != (int) inflater.getBytesWritten())
+            throw new ZipException("Arquivo gzip corrompido: a verificação de um membro não confere.");
+    }
+
+    /** Passa a ler o arquivo a partir da posição informada. */
+    private void posicionar(long deslocamento) {
+        posicaoCanal = deslocamento;
+        entrada.clear().flip();
+        dentroDoMembro = false;
+    }
+
+    /** @return A posição, no arquivo, do próximo byte ainda não usado. */
+    private long posicaoAtual() {
+        return posicaoCanal - entrada.remaining();
+    }
+
+    /** Lê mais bytes do arquivo para a entrada, mantendo os ainda não usados. */
+    private boolean preencher() throws IOException {
+        entrada.compact();
+        int lidos = canal.read(entrada, posicaoCanal);
+        if (lidos > 0)
+            posicaoCanal += lidos;
+        entrada.flip();
+        return lidos > 0;
+    }
+
+    private int lerByte() throws IOException {
+        if (!entrada.hasRemaining() && !preencher())
+            throw new EOFException("O arquivo gzip termina no meio de um membro.");
+        return entrada.get() & 0xFF;
+    }
+
+    /** Lê um inteiro de 4 bytes em little-endian, como no fim de cada membro. */
+    private int lerInt() throws IOException {
+        return lerByte() | lerByte() << 8 | lerByte() << 16 | lerByte() << 24;
+    }
+
+    private static void escreverInt(OutputStream saida, int valor) throws IOException {
+        saida.write(valor);
+        saida.write(valor >>> 8);
+        saida.write(valor >>> 16);
+        saida.write(valor >>> 24);
+    }
+}
@@ -0,0 +1,301 @@
+package com.robotsim.missions.log;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.robotsim.environment.obstacle.Obstaculo;
+import com.robotsim.robots.Robo;
+
+/**
+ * Codifica os eventos de missão no formato binário do log e os entrega a um
+ * {@link EscritorLog}. Nenhum texto é formatado ao registrar: o
+ * {@link DecodificadorLog} reproduz as frases de {@link TextoEventos} quando o
+ * log é lido.
+ * <p>
+ * Formato do arquivo: a {@link #ASSINATURA} seguida de registros. Cada
+ * registro é o seu tamanho (varint, sem contar a si mesmo), o
+ * {@link CodigoEvento} (um byte) e os campos do tipo. Inteiros são varints,
+ * com zigzag para coordenadas e outros valores que podem ser negativos.
+ * <ul>
+ * <li>{@code SESSAO}: instante de início da execução, um {@code long} fixo de
+ * 8 bytes (little-endian) em nanossegundos desde a época. Zera a tabela de
+ * textos.</li>
+ * <li>{@code TEXTO}: índice, tamanho em bytes e o texto em UTF-8. Define uma
+ * entrada da tabela de textos, sempre antes do primeiro uso.</li>
+ * <li>Eventos: nanossegundos desde o início da sessão, missão (índice de texto)
+ * e ID do robô em duas partes, o código da classe e o contador (contador 0 em
+ * {@code MENSAGEM}, que não tem robô). Com robô, seguem o nome (índice de
+ * texto) e a posição x, y e z do robô, e depois os campos próprios do tipo,
+ * na ordem em que aparecem nos métodos desta classe. O movimento guarda a
+ * posição anterior como diferença em relação à atual.</li>
+ * </ul>
+ * Textos que se repetem (missões, nomes, classes, tipos) vão para a tabela e
+ * custam apenas o índice em cada evento; textos livres, como resultados e
+ * mensagens, são gravados no próprio evento.
+ */
+public class CodificadorLog {
+    /** Bytes no início de todo arquivo de log binário: "RSLG" e a versão. */
+    public static final byte[] ASSINATURA = { 'R', 'S', 'L', 'G', 1 };
+
+    private static final int RESERVA_TAMANHO = 5; // Bytes reservados para o tamanho do registro.
+
+    private final EscritorLog escritor; // Destino dos registros.
+    private final ConcurrentHashMap<String, Integer> textos = new ConcurrentHashMap<>(); // Tabela da sessão.
+    private final ThreadLocal<Registro> registros = ThreadLocal.withInitial(Registro::new); // Buffer por thread.
+    private final long inicioSessao; // Instante da sessão, em nanossegundos desde a época.
+
+    /**
+     * Cria um codificador que grava no escritor informado e inicia uma nova
+     * sessão no log.
+     *
+     * @param escritor O escritor do arquivo binário.
+     */
+    public CodificadorLog(EscritorLog escritor) {
+        this.escritor = escritor;
+        this.inicioSessao = agora();
+        Registro registro = registros.get().iniciar(CodigoEvento.SESSAO);
+        registro.fixo64(inicioSessao);
+        escritor.escreverObrigatorio(registro.concluir());
+    }
+
+    /** Mensagem livre, sem robô. */
+    public void mensagem(String missao, String mensagem) {
+        Registro registro = evento(CodigoEvento.MENSAGEM, missao, null);
+        registro.textoLivre(mensagem);
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Início de uma missão. */
+    public void inicio(String missao, Robo robo) {
+        Registro registro = evento(CodigoEvento.INICIO, missao, robo);
+        registro.varint(texto(robo.getClass().getSimpleName()));
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Movimento de um robô a partir da posição anterior. */
+    public void movimento(String missao, Robo robo, int anteriorX, int anteriorY, int anteriorZ) {
+        Registro registro = evento(CodigoEvento.MOVIMENTO, missao, robo);
+        registro.zigzag(anteriorX - robo.getX());
+        registro.zigzag(anteriorY - robo.getY());
+        registro.zigzag(anteriorZ - robo.getZ());
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Ativação de um sensor. */
+    public void sensorAtivado(String missao, Robo robo, String tipoSensor, double raioAlcance) {
+        Registro registro = evento(CodigoEvento.SENSOR_ATIVADO, missao, robo);
+        registro.varint(texto(tipoSensor));
+        registro.fixo64(Double.doubleToRawLongBits(raioAlcance));
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Resultado de uma varredura, com os obstáculos detectados. */
+    public void deteccao(String missao, Robo robo, List<Obstaculo> obstaculos) {
+        Registro registro = evento(CodigoEvento.DETECCAO, missao, robo);
+        obstaculos(registro, obstaculos);
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Detecção de um único obstáculo. */
+    public void obstaculoDetectado(String missao, Robo robo, Obstaculo obstaculo) {
+        Registro registro = evento(CodigoEvento.OBSTACULO_DETECTADO, missao, robo);
+        obstaculo(registro, obstaculo);
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Detecção de outro robô. */
+    public void roboDetectado(String missao, Robo detector, Robo detectado) {
+        Registro registro = evento(CodigoEvento.ROBO_DETECTADO, missao, detector);
+        robo(registro, detectado);
+        registro.varint(texto(detectado.getClass().getSimpleName()));
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Colisão de um robô. */
+    public void colisao(String missao, Robo robo, String tipoColisao, String detalhes) {
+        Registro registro = evento(CodigoEvento.COLISAO, missao, robo);
+        registro.varint(texto(tipoColisao));
+        registro.textoLivre(detalhes);
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Fim de uma missão. */
+    public void fim(String missao, Robo robo, String resultado) {
+        Registro registro = evento(CodigoEvento.FIM, missao, robo);
+        registro.textoLivre(resultado);
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Ataque de um robô a outro. */
+    public void ataque(String missao, Robo atacante, Robo alvo, int dano) {
+        Registro registro = evento(CodigoEvento.ATAQUE, missao, atacante);
+        robo(registro, alvo);
+        registro.zigzag(dano);
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Destruição de um obstáculo. */
+    public void destruicao(String missao, Robo robo, Obstaculo obstaculo) {
+        Registro registro = evento(CodigoEvento.DESTRUICAO, missao, robo);
+        obstaculo(registro, obstaculo);
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Planejamento de uma rota, com os obstáculos no percurso. */
+    public void planejamento(String missao, Robo robo, String origem, String destino, List<Obstaculo> obstaculos) {
+        Registro registro = evento(CodigoEvento.PLANEJAMENTO, missao, robo);
+        registro.textoLivre(origem);
+        registro.textoLivre(destino);
+        obstaculos(registro, obstaculos);
+        escritor.escrever(registro.concluir());
+    }
+
+    /** Mudança de estado de um robô. */
+    public void estado(String missao, Robo robo, String anterior, String novo) {
+        Registro registro = evento(CodigoEvento.ESTADO, missao, robo);
+        registro.varint(texto(anterior));
+        registro.varint(texto(novo));
+        escritor.escrever(registro.concluir());
+    }
+
+    /**
+     * Inicia um evento com os campos comuns: instante, missão e, se houver, o
+     * robô principal.
+     */
+    private Registro evento(CodigoEvento codigo, String missao, Robo robo) {
+        Registro registro = registros.get().iniciar(codigo);
+        registro.varint(Math.max(agora() - inicioSessao, 0));
+        registro.varint(texto(missao));
+        if (robo == null) {
+            registro.varint(0);
+            registro.varint(0);
+        } else {
+            robo(registro, robo);
+        }
+        return registro;
+    }
+
+    /** ID numérico (código da classe e contador), nome e posição de um robô. */
+    private void robo(Registro registro, Robo robo) {
+        registro.varint(robo.getIdNumerico() >>> 32);
+        registro.varint(robo.getIdNumerico() & 0xFFFFFFFFL);
+        registro.varint(texto(robo.getNome()));
+        registro.zigzag(robo.getX());
+        registro.zigzag(robo.getY());
+        registro.zigzag(robo.getZ());
+    }
+
+    /** Nome, tipo e posição de um obstáculo. */
+    private void obstaculo(Registro registro, Obstaculo obstaculo) {
+        registro.varint(texto(obstaculo.getNome()));
+        registro.varint(texto(obstaculo.getTipoObstaculo().name()));
+        registro.zigzag(obstaculo.getX());
+        registro.zigzag(obstaculo.getY());
+    }
+
+    /** Quantidade e lista de obstáculos. */
+    private void obstaculos(Registro registro, List<Obstaculo> obstaculos) {
+        registro.varint(obstaculos.size());
+        for (Obstaculo obstaculo : obstaculos)
+            obstaculo(registro, obstaculo);
+    }
+
+    /**
+     * Retorna o índice de um texto na tabela da sessão. Na primeira vez que um
+     * texto aparece, a sua definição é entregue ao escritor antes que o índice
+     * fique visível a outras threads, então ela sempre precede no arquivo os
+     * eventos que a usam.
+     */
+    private int texto(String texto) {
+        if (texto == null)
+            texto = "null"; // Como o texto formatado exibiria.
+        Integer indice = textos.get(texto);
+        if (indice != null)
+            return indice;
+        synchronized (textos) {
+            indice = textos.get(texto);
+            if (indice != null)
+                return indice;
+            indice = textos.size();
+            Registro definicao = new Registro().iniciar(CodigoEvento.TEXTO);
+            definicao.varint(indice);
+            definicao.textoLivre(texto);
+            escritor.escreverObrigatorio(definicao.concluir());
+            textos.put(texto, indice);
+            return indice;
+        }
+    }
+
+    /** Instante atual em nanossegundos desde a época. */
+    private static long agora() {
+        Instant agora = Instant.now();
+        return agora.getEpochSecond() * 1_000_000_000L + agora.getNano();
+    }
+
+    /**
+     * Buffer de montagem de um registro, reaproveitado pela thread que o usa. Os
+     * primeiros bytes ficam reservados para o tamanho, que só é conhecido no fim.
+     */
+    private static final class Registro {
+        private byte[] dados = new byte[256];
+        private int tamanho;
+
+        private Registro iniciar(CodigoEvento codigo) {
+            tamanho = RESERVA_TAMANHO;
+            dados[tamanho++] = (byte) codigo.getCodigo();
+            return this;
+        }
+
+        private void varint(long valor) {
+            garantir(10);
+            while ((valor & ~0x7FL) != 0) {
+                dados[tamanho++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            dados[tamanho++] = (byte) valor;
+        }
+
+        private void zigzag(int valor) {
+            varint(((valor << 1) ^ (valor >> 31)) & 0xFFFFFFFFL);
+        }
+
+        private void fixo64(long valor) {
+            garantir(8);
+            for (int i = 0; i < 8; i++, valor >>>= 8)
+                dados[tamanho++] = (byte) valor;
+        }
+
+        private void textoLivre(String texto) {
+            byte[] bytes = String.valueOf(texto).getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            garantir(bytes.length);
+            System.arraycopy(bytes, 0, dados, tamanho, bytes.length);
+            tamanho += bytes.length;
+        }
+
+        /** Copia o registro, precedido do seu tamanho, para um arranjo próprio. */
+        private byte[] concluir() {
+            int conteudo = tamanho - RESERVA_TAMANHO;
+            int inicio = RESERVA_TAMANHO;
+            for (int resto = conteudo >>> 7; resto != 0; resto >>>= 7)
+                inicio--;
+            inicio--;
+            int posicao = inicio;
+            int valor = conteudo;
+            while ((valor & ~0x7F) != 0) {
+                dados[posicao++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            dados[posicao] = (byte) valor;
+            return Arrays.copyOfRange(dados, inicio, tamanho);
+        }
+
+        private void garantir(int bytes) {
+            if (tamanho + bytes > dados.length)
+                dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + bytes));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.robotsim.missions.log;
+
+/**
+ * Tipos de registro do log binário de missões. O código numérico de cada tipo
+ * é gravado no arquivo e não deve mudar; novos tipos recebem novos códigos.
+ * <p>
+ * {@link #SESSAO} e {@link #TEXTO} não são eventos: o primeiro marca o início
+ * de uma execução (e zera a tabela de textos) e o segundo define um texto da
+ * tabela. Os demais correspondem aos métodos de registro do {@code Logger}.
+ */
+public enum CodigoEvento {
+    SESSAO(0),
+    TEXTO(1),
+    MENSAGEM(2),
+    INICIO(3),
+    MOVIMENTO(4),
+    SENSOR_ATIVADO(5),
+    DETECCAO(6),
+    OBSTACULO_DETECTADO(7),
+    ROBO_DETECTADO(8),
+    COLISAO(9),
+    FIM(10),
+    ATAQUE(11),
+    DESTRUICAO(12),
+    PLANEJAMENTO(13),
+    ESTADO(14);
+
+    private static final CodigoEvento[] POR_CODIGO = new CodigoEvento[256];
+
+    static {
+        for (CodigoEvento evento : values())
+            POR_CODIGO[evento.codigo] = evento;
+    }
+
+    private final int codigo; // Código gravado no arquivo.
+
+    CodigoEvento(int codigo) {
+        this.codigo = codigo;
+    }
+
+    /**
+     * Retorna o código gravado no arquivo para este tipo.
+     *
+     * @return O código, entre 0 e 255.
+     */
+    public int getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Obtém o tipo correspondente a um código lido do arquivo.
+     *
+     * @param codigo O código lido.
+     * @return O tipo, ou {@code null} se o código for desconhecido.
+     */
+    public static CodigoEvento deCodigo(int codigo) {
+        return codigo >= 0 && codigo < POR_CODIGO.length ? POR_CODIGO[codigo] : null;
+    }
+}
@@ -0,0 +1,192 @@
+package com.robotsim.missions.log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ferramenta de linha de comando que consulta logs binários de missões pelo
+ * tipo de missão, nome do robô, tipo de evento e intervalo de tempo, usando um
+ * {@link IndiceLog} em vez de percorrer o log.
+ * <p>
+ * Uso: {@code java -cp bin com.robotsim.missions.log.ConsultaLog [opções] <log binário>...}.
+ * Opções:
+ * <ul>
+ * <li>{@code --missao <tipo>}: apenas eventos da missão, como
+ * {@code MISSAO_EXPLORACAO};</li>
+ * <li>{@code --robo <nome>}: apenas eventos do robô com esse nome;</li>
+ * <li>{@code --evento <tipo>}: apenas eventos do tipo, como {@code ATAQUE}
+ * (veja {@link CodigoEvento});</li>
+ * <li>{@code --de <data>} e {@code --ate <data>}: intervalo de tempo, inclusive,
+ * no formato do log ({@code 2026-10-18 15:30:00}) ou ISO
+ * ({@code 2026-10-18T15:30});</li>
+ * <li>{@code --limite <n>}: exibe no máximo os {@code n} primeiros eventos; o
+ * resumo no fim ainda informa quantos foram encontrados ao todo.</li>
+ * </ul>
+ * Vários logs podem ser informados, como os arquivos encerrados pela rotação;
+ * os eventos de todos eles são exibidos em ordem de instante, com as mesmas
+ * linhas que o log em texto teria. Na primeira consulta a um log, o índice é
+ * construído e gravado em {@code <log>.idx}; as seguintes o reaproveitam.
+ * <p>
+ * Exemplo: todos os ataques de um robô em um intervalo:
+ * {@code ConsultaLog --robo RoboAtacante03 --evento ATAQUE --de "2026-10-18 15:00:00" --ate "2026-10-18 15:30:00" missao.bin*}.
+ */
+public class ConsultaLog {
+    /**
+     * Ponto de entrada da ferramenta.
+     *
+     * @param args As opções seguidas dos logs a consultar.
+     */
+    public static void main(String[] args) {
+        String missao = null;
+        String robo = null;
+        CodigoEvento codigo = null;
+        long de = Long.MIN_VALUE;
+        long ate = Long.MAX_VALUE;
+        long limite = Long.MAX_VALUE;
+        List<Path> logs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String argumento = args[i];
+                if (!argumento.startsWith("--")) {
+                    if (!argumento.endsWith(IndiceLog.EXTENSAO)) // Índices trazidos por um curinga como missao.bin*.
+                        logs.add(Path.of(argumento));
+                    continue;
+                }
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("Falta o valor de " + argumento + ".");
+                String valor = args[++i];
+                switch (argumento) {
+                    case "--missao":
+                        missao = valor;
+                        break;
+                    case "--robo":
+                        robo = valor;
+                        break;
+                    case "--evento":
+                        codigo = lerCodigo(valor);
+                        break;
+                    case "--de":
+                        de = lerInstante(valor, false);
+                        break;
+                    case "--ate":
+                        ate = lerInstante(valor, true);
+                        break;
+                    case "--limite":
+                        limite = Long.parseLong(valor);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opção desconhecida: " + argumento + ".");
+                }
+            }
+            if (logs.isEmpty())
+                throw new IllegalArgumentException("Informe ao menos um log binário.");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: ConsultaLog [--missao <tipo>] [--robo <nome>] [--evento <tipo>] [--de <data>]"
+                    + " [--ate <data>] [--limite <n>] <log binário>...");
+            System.exit(2);
+        }
+
+        long inicio = System.nanoTime();
+        try (Writer saida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+            List<Encontrado> encontrados = new ArrayList<>();
+            long total = 0; // Todos os eventos encontrados, inclusive os além do limite.
+            for (Path log : logs)
+                total += consultar(log, missao, robo, codigo, de, ate, limite, encontrados);
+            encontrados.sort(Comparator.comparingLong(encontrado -> encontrado.nanos));
+            String quebra = System.lineSeparator();
+            long exibidos = Math.min(encontrados.size(), limite);
+            for (int i = 0; i < exibidos; i++) {
+                for (String linha : encontrados.get(i).linhas)
+                    saida.write(linha + quebra);
+            }
+            saida.flush();
+            String exibicao = exibidos < total ? ", " + exibidos + " exibido(s)," : "";
+            System.err.println(total + " evento(s) encontrado(s)" + exibicao + " em "
+                    + (System.nanoTime() - inicio) / 1_000_000 + " ms.");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erro ao consultar o log: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Consulta um log pelo seu índice e acrescenta à lista as linhas dos
+     * primeiros eventos encontrados, até o limite. Os demais logs podem ter
+     * eventos anteriores, então o limite só é aplicado de novo no fim.
+     *
+     * @return O número de eventos do log que atendem à consulta, inclusive os
+     *         que passaram do limite e não foram lidos.
+     */
+    private static int consultar(Path log, String missao, String robo, CodigoEvento codigo, long de, long ate,
+            long limite, List<Encontrado> encontrados) throws IOException {
+        IndiceLog indice = IndiceLog.carregar(log);
+        int[] eventos = indice.consultar(missao, robo, codigo, de, ate);
+        if (eventos.length == 0)
+            return 0; // O log só é aberto quando há o que ler.
+        int total = eventos.length;
+        if (eventos.length > limite)
+            eventos = Arrays.copyOf(eventos, (int) limite);
+        // Os eventos chegam na ordem do log; a lista é ordenada pelo instante no fim.
+        indice.ler(log, eventos,
+                (leitor, evento) -> encontrados.add(new Encontrado(indice.getNanos(evento), leitor.linhas())));
+        return total;
+    }
+
+    /** Converte o nome de um tipo de evento, sem diferenciar maiúsculas. */
+    private static CodigoEvento lerCodigo(String valor) {
+        for (CodigoEvento codigo : CodigoEvento.values()) {
+            if (codigo != CodigoEvento.SESSAO && codigo != CodigoEvento.TEXTO && codigo.name().equalsIgnoreCase(valor))
+                return codigo;
+        }
+        throw new IllegalArgumentException("Tipo de evento desconhecido: " + valor + ".");
+    }
+
+    /**
+     * Converte uma data no formato do log ou ISO em nanossegundos desde a
+     * época. No fim do intervalo, a unidade informada é incluída inteira: o dia,
+     * o minuto ou o segundo.
+     */
+    private static long lerInstante(String valor, boolean fimDoIntervalo) {
+        String iso = valor.trim().replace(' ', 'T');
+        Duration unidade = iso.length() == 10 ? Duration.ofDays(1)
+                : iso.length() == 16 ? Duration.ofMinutes(1)
+                : iso.contains(".") ? Duration.ofNanos(1) : Duration.ofSeconds(1);
+        if (iso.length() == 10)
+            iso += "T00:00"; // Apenas a data.
+        LocalDateTime data;
+        try {
+            data = LocalDateTime.parse(iso);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida: " + valor + ".");
+        }
+        if (fimDoIntervalo)
+            data = data.plus(unidade).minusNanos(1);
+        Instant instante = data.atZone(ZoneId.systemDefault()).toInstant();
+        return instante.getEpochSecond() * 1_000_000_000L + instante.getNano();
+    }
+
+    /** Instante e linhas de um evento encontrado. */
+    private static final class Encontrado {
+        private final long nanos;
+        private final List<String> linhas;
+
+        private Encontrado(long nanos, List<String> linhas) {
+            this.nanos = nanos;
+            this.linhas = linhas;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.robotsim.missions.log;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Ferramenta de linha de comando que converte um log binário de missões no
+ * mesmo texto que o {@code Logger} gravaria em {@code missao.log}.
+ * <p>
+ * Uso: {@code java -cp bin com.robotsim.missions.log.DecodificadorLog <log binário> [saída]}.
+ * Sem o arquivo de saída, o texto é escrito na saída padrão. Arquivos
+ * encerrados pela rotação do log, comprimidos com gzip ({@code .gz}), são lidos
+ * diretamente, descomprimidos um bloco por vez.
+ */
+public class DecodificadorLog {
+    /**
+     * Ponto de entrada da ferramenta.
+     *
+     * @param args O arquivo binário e, opcionalmente, o arquivo de texto a
+     *             gerar.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Uso: DecodificadorLog <log binário> [saída]");
+            System.exit(2);
+        }
+        try (OutputStream saida = args.length == 2 ? new FileOutputStream(args[1]) : System.out;
+                Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), 1 << 16)) {
+            long eventos = decodificar(Path.of(args[0]), escritor);
+            if (args.length == 2)
+                System.out.println(eventos + " evento(s) decodificado(s).");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erro ao decodificar o log: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Decodifica um log binário, escrevendo uma linha de texto por linha do log
+     * original.
+     *
+     * @param arquivo O log binário, comprimido ou não.
+     * @param saida   Onde escrever o texto.
+     * @return A quantidade de eventos decodificados.
+     * @throws IOException              Se o arquivo não puder ser lido ou a
+     *                                  saída não puder ser escrita.
+     * @throws IllegalArgumentException Se o arquivo não for um log binário.
+     */
+    public static long decodificar(Path arquivo, Writer saida) throws IOException {
+        if (!BlocosGzip.comprimido(arquivo))
+            return decodificar(new LeitorLog(mapear(arquivo)), saida);
+        try (BlocosGzip blocos = BlocosGzip.abrir(arquivo)) {
+            return decodificar(new LeitorLog(blocos.trechos()), saida);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Escreve as linhas de todos os eventos do leitor. */
+    private static long decodificar(LeitorLog leitor, Writer saida) throws IOException {
+        long eventos = 0;
+        String quebra = System.lineSeparator();
+        while (leitor.proximo()) {
+            for (String linha : leitor.linhas())
+                saida.write(linha + quebra);
+            eventos++;
+        }
+        saida.flush();
+        return eventos;
+    }
+
+    /**
+     * Mapeia em memória um log binário sem compressão.
+     *
+     * @param arquivo O log.
+     * @return O conteúdo do arquivo.
+     * @throws IOException Se o arquivo não puder ser lido.
+     */
+    static ByteBuffer mapear(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("O arquivo tem mais de 2 GiB.");
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+    }
+}
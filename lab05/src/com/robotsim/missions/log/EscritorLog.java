@@ -0,0 +1,425 @@
+package com.robotsim.missions.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escreve registros de log em um arquivo a partir de uma thread de fundo.
+ * <p>
+ * Quem registra apenas coloca o registro, já codificado em bytes, em uma fila
+ * circular limitada ({@link ArrayBlockingQueue}) e segue em frente, sem tocar
+ * no disco. A thread de fundo acorda a cada intervalo de descarga (ou antes,
+ * quando a fila passa da metade), esvazia a fila e grava todos os registros
+ * pendentes com uma única escrita sequencial em um {@link FileChannel} que
+ * fica aberto durante toda a execução. Cada registro entra inteiro na fila,
+ * então registros de threads diferentes nunca se misturam no arquivo.
+ * <p>
+ * Quando a fila está cheia, o comportamento depende da {@link Politica}: o
+ * registro é descartado (e contado) ou quem registra espera a thread de fundo
+ * abrir espaço. Registros dos quais outros dependem, como as definições da
+ * tabela de textos do log binário, são entregues com
+ * {@link #escreverObrigatorio(byte[])} e nunca são descartados.
+ * <p>
+ * Com uma {@link RotacaoLog} ativa, a thread de fundo encerra o arquivo entre
+ * dois registros quando ele passa do tamanho ou do tempo máximo, entrega-o
+ * para ser comprimido por uma segunda thread e continua em um arquivo novo. O
+ * arquivo novo começa com o cabeçalho e com todos os registros obrigatórios já
+ * gravados, na mesma ordem, então cada arquivo pode ser lido sozinho.
+ * <p>
+ * Com cabeçalho, o arquivo é um log binário do {@link CodificadorLog}, em que
+ * cada registro começa pelo seu tamanho. Ao abrir um arquivo existente, um
+ * registro deixado incompleto por uma execução interrompida é descartado antes
+ * de a nova sessão ser acrescentada.
+ */
+public class EscritorLog implements AutoCloseable {
+    /** O que fazer com um registro quando a fila está cheia. */
+    public enum Politica {
+        /** Quem registra espera até haver espaço na fila. */
+        BLOQUEAR,
+        /** O registro é descartado e contado em {@link EscritorLog#getDescartados()}. */
+        DESCARTAR
+    }
+
+    private static final int TAMANHO_INICIAL_BUFFER = 64 * 1024; // Bytes do buffer de escrita.
+
+    private final Path arquivo; // Caminho do arquivo ativo.
+    private final byte[] cabecalho; // Bytes do início de cada arquivo novo, ou null.
+    private final RotacaoLog rotacao; // Quando encerrar o arquivo ativo.
+    private final ExecutorService compressor; // Comprime os arquivos encerrados, ou null sem rotação.
+    private final ArrayBlockingQueue<byte[]> fila; // Registros ainda não gravados.
+    private final int limiteDespertar; // Tamanho da fila que acorda a thread antes do intervalo.
+    private final long intervaloNanos; // Intervalo máximo entre descargas.
+    private final Politica politica; // Comportamento com a fila cheia.
+    private final Thread thread; // Thread de fundo que grava os registros.
+    private final AtomicLong descartados = new AtomicLong(); // Registros perdidos com a fila cheia.
+    // Registros obrigatórios ainda na fila; um byte[] é comparado por identidade.
+    private final Set<byte[]> obrigatoriosNaFila = ConcurrentHashMap.newKeySet();
+    // Os campos abaixo só são usados pela thread de fundo e, depois que ela termina, por close().
+    private final ArrayList<byte[]> lote = new ArrayList<>(); // Registros retirados da fila.
+    private final ArrayList<byte[]> preambulo = new ArrayList<>(); // Registros obrigatórios já gravados.
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_INICIAL_BUFFER); // Bytes a gravar.
+    private FileChannel canal; // Arquivo ativo, aberto para acréscimo, ou null se não pôde ser aberto.
+    private long tamanhoArquivo; // Bytes do arquivo ativo, contando os que estão no buffer.
+    private long abertura; // Instante (System.nanoTime()) em que o arquivo ativo foi aberto.
+    private boolean comEventos; // Se o arquivo ativo tem algo além do cabeçalho e do preâmbulo.
+    private volatile boolean ativo = true; // Falso depois de close().
+
+    /**
+     * Abre (ou cria) o arquivo de log para acréscimo e inicia a thread de fundo.
+     *
+     * @param arquivo           O arquivo de log.
+     * @param capacidade        Quantos registros cabem na fila.
+     * @param intervaloDescarga Intervalo máximo, em milissegundos, entre a
+     *                          chegada de um registro e a sua gravação.
+     * @param politica          O comportamento quando a fila está cheia.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public EscritorLog(Path arquivo, int capacidade, long intervaloDescarga, Politica politica) throws IOException {
+        this(arquivo, capacidade, intervaloDescarga, politica, null);
+    }
+
+    /**
+     * Abre (ou cria) o arquivo de log para acréscimo, gravando um cabeçalho se
+     * o arquivo estiver vazio, e inicia a thread de fundo.
+     *
+     * @param arquivo           O arquivo de log.
+     * @param capacidade        Quantos registros cabem na fila.
+     * @param intervaloDescarga Intervalo máximo, em milissegundos, entre a
+     *                          chegada de um registro e a sua gravação.
+     * @param politica          O comportamento quando a fila está cheia.
+     * @param cabecalho         Bytes gravados no início de um arquivo novo, ou
+     *                          {@code null} para nenhum.
+     * @throws IOException Se o arquivo não puder ser aberto ou o cabeçalho não
+     *                     puder ser gravado.
+     */
+    public EscritorLog(Path arquivo, int capacidade, long intervaloDescarga, Politica politica, byte[] cabecalho)
+            throws IOException {
+        this(arquivo, capacidade, intervaloDescarga, politica, cabecalho, RotacaoLog.NENHUMA);
+    }
+
+    /**
+     * Abre (ou cria) o arquivo de log para acréscimo, gravando um cabeçalho se
+     * o arquivo estiver vazio, e inicia a thread de fundo, que rotaciona o
+     * arquivo de acordo com a política informada.
+     *
+     * @param arquivo           O arquivo de log ativo.
+     * @param capacidade        Quantos registros cabem na fila.
+     * @param intervaloDescarga Intervalo máximo, em milissegundos, entre a
+     *                          chegada de um registro e a sua gravação.
+     * @param politica          O comportamento quando a fila está cheia.
+     * @param cabecalho         Bytes gravados no início de cada arquivo novo,
+     *                          ou {@code null} para nenhum.
+     * @param rotacao           Quando encerrar o arquivo ativo e quantos
+     *                          arquivos encerrados manter.
+     * @throws IOException Se o arquivo não puder ser aberto ou o cabeçalho não
+     *                     puder ser gravado.
+     */
+    public EscritorLog(Path arquivo, int capacidade, long intervaloDescarga, Politica politica, byte[] cabecalho,
+            RotacaoLog rotacao) throws IOException {
+        if (capacidade < 1 || intervaloDescarga < 1)
+            throw new IllegalArgumentException("A capacidade e o intervalo de descarga devem ser positivos.");
+        this.arquivo = arquivo;
+        this.cabecalho = cabecalho;
+        this.rotacao = rotacao;
+        abrir();
+        this.compressor = rotacao.isAtiva() ? Executors.newSingleThreadExecutor(tarefa -> {
+            Thread compressao = new Thread(tarefa, "robotsim-log-compressao");
+            compressao.setDaemon(true);
+            return compressao;
+        }) : null;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.limiteDespertar = Math.max(capacidade / 2, 1);
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloDescarga);
+        this.politica = politica;
+        this.thread = new Thread(this::executar, "robotsim-log");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Coloca um registro na fila de gravação. Não espera pelo disco; com a
+     * política {@link Politica#BLOQUEAR}, espera apenas se a fila estiver cheia.
+     *
+     * @param registro Os bytes do registro, gravados exatamente como estão. O
+     *                 arranjo não deve ser alterado depois da chamada.
+     * @return {@code true} se o registro foi aceito, {@code false} se foi
+     *         descartado ou se o escritor já foi fechado.
+     */
+    public boolean escrever(byte[] registro) {
+        if (!ativo)
+            return false;
+        boolean aceito = fila.offer(registro);
+        if (!aceito && politica == Politica.BLOQUEAR) {
+            LockSupport.unpark(thread); // Esvazia a fila sem esperar o intervalo.
+            try {
+                fila.put(registro);
+                aceito = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!aceito) {
+            descartados.incrementAndGet();
+            return false;
+        }
+        if (!gravacaoGarantida(registro))
+            return false;
+        if (fila.size() >= limiteDespertar)
+            LockSupport.unpark(thread);
+        return true;
+    }
+
+    /**
+     * Coloca na fila um registro que não pode ser perdido, esperando por espaço
+     * se a fila estiver cheia, qualquer que seja a política. Depois de gravado,
+     * o registro é repetido no início de cada arquivo aberto por uma rotação.
+     *
+     * @param registro Os bytes do registro, gravados exatamente como estão. O
+     *                 arranjo não deve ser alterado depois da chamada.
+     * @return {@code true} se o registro foi aceito, {@code false} se o escritor
+     *         já foi fechado ou a thread foi interrompida.
+     */
+    public boolean escreverObrigatorio(byte[] registro) {
+        if (!ativo)
+            return false;
+        obrigatoriosNaFila.add(registro);
+        if (!fila.offer(registro)) {
+            LockSupport.unpark(thread);
+            try {
+                fila.put(registro);
+            } catch (InterruptedException e) {
+                obrigatoriosNaFila.remove(registro);
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (!gravacaoGarantida(registro)) {
+            obrigatoriosNaFila.remove(registro);
+            return false;
+        }
+        if (fila.size() >= limiteDespertar)
+            LockSupport.unpark(thread);
+        return true;
+    }
+
+    /**
+     * Confere, depois de um registro entrar na fila, se ele ainda será gravado.
+     * Quem registra pode passar pela verificação de {@code ativo} pouco antes de
+     * close() desativar o escritor e só colocar o registro na fila depois da
+     * última descarga, em que ele ficaria para sempre. Por isso, se o escritor
+     * já foi fechado, o registro é retirado da fila; se ele não estiver mais lá,
+     * foi levado por uma descarga e será gravado.
+     *
+     * @return {@code true} se o registro será gravado, {@code false} se foi
+     *         retirado por causa do fechamento.
+     */
+    private boolean gravacaoGarantida(byte[] registro) {
+        return ativo || !fila.remove(registro); // Um byte[] é comparado por identidade.
+    }
+
+    /**
+     * Retorna quantos registros foram descartados por encontrarem a fila cheia.
+     *
+     * @return O número de registros descartados.
+     */
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    /**
+     * Para de aceitar registros, grava os que ainda estão na fila e fecha o
+     * arquivo.
+     */
+    @Override
+    public void close() {
+        if (!ativo)
+            return;
+        ativo = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        descarregar(); // Registros aceitos enquanto a thread terminava.
+        try {
+            if (canal != null)
+                canal.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar o log: " + e.getMessage());
+        }
+        if (compressor != null) {
+            compressor.shutdown(); // Termina as compressões já iniciadas.
+            try {
+                compressor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Laço da thread de fundo: espera o intervalo de descarga (ou um aviso de
+     * fila cheia ou de fechamento) e grava tudo o que estiver pendente.
+     */
+    private void executar() {
+        while (ativo) {
+            if (fila.size() < limiteDespertar)
+                LockSupport.parkNanos(this, intervaloNanos);
+            descarregar();
+        }
+        descarregar(); // Registros que chegaram durante o fechamento.
+    }
+
+    /**
+     * Retira todos os registros da fila e os grava com escritas sequenciais,
+     * rotacionando o arquivo entre dois registros quando a política pedir.
+     */
+    private void descarregar() {
+        while (fila.drainTo(lote) > 0) {
+            if (comEventos && rotacao.venceu(abertura))
+                rotacionar();
+            for (byte[] registro : lote) {
+                boolean obrigatorio = !obrigatoriosNaFila.isEmpty() && obrigatoriosNaFila.remove(registro);
+                if (!obrigatorio && comEventos && rotacao.excede(tamanhoArquivo + registro.length))
+                    rotacionar();
+                colocar(registro);
+                if (obrigatorio)
+                    preambulo.add(registro);
+                else
+                    comEventos = true;
+            }
+            gravar();
+            lote.clear();
+        }
+    }
+
+    /**
+     * Abre o arquivo ativo. Se ele estiver vazio, grava o cabeçalho e o
+     * preâmbulo, para que o arquivo possa ser lido sem os anteriores. Com
+     * cabeçalho, um arquivo existente é antes preparado por
+     * {@link #repararFim()}.
+     */
+    private void abrir() throws IOException {
+        if (cabecalho != null)
+            repararFim();
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        tamanhoArquivo = canal.size();
+        abertura = System.nanoTime();
+        comEventos = tamanhoArquivo > 0; // Um arquivo de execuções anteriores pode ser rotacionado.
+        if (tamanhoArquivo > 0)
+            return;
+        if (cabecalho != null)
+            colocar(cabecalho);
+        for (byte[] registro : preambulo)
+            colocar(registro);
+        buffer.flip();
+        while (buffer.hasRemaining())
+            canal.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Encerra o arquivo ativo, entrega-o ao compressor e abre um arquivo novo.
+     * Se o arquivo não puder ser renomeado, a gravação continua nele.
+     */
+    private void rotacionar() {
+        gravar();
+        if (canal != null) {
+            try {
+                canal.close();
+                Path arquivado = rotacao.arquivar(arquivo);
+                compressor.execute(() -> rotacao.comprimir(arquivado, arquivo));
+            } catch (IOException e) {
+                System.err.println("Erro ao rotacionar o log: " + e.getMessage());
+            }
+        }
+        try {
+            abrir();
+        } catch (IOException e) {
+            System.err.println("Erro ao abrir o log: " + e.getMessage());
+            canal = null; // Os registros são perdidos até a próxima rotação.
+            buffer.clear();
+            abertura = System.nanoTime();
+        }
+    }
+
+    /**
+     * Prepara um log binário existente para receber uma nova sessão. Uma
+     * execução interrompida no meio de uma gravação pode deixar um registro
+     * incompleto no fim do arquivo; como cada registro começa pelo seu tamanho,
+     * tudo o que fosse acrescentado depois dele seria lido fora de sincronia.
+     * O arquivo é então truncado no fim do último registro completo (veja
+     * {@link LeitorLog#fimLegivel(FileChannel, long)}). Um arquivo que não
+     * começa com o cabeçalho, como o de outra versão do formato, é arquivado
+     * com a data no nome, e o log recomeça em um arquivo novo.
+     */
+    private void repararFim() throws IOException {
+        boolean valido;
+        try (FileChannel existente = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanho = existente.size();
+            ByteBuffer inicio = ByteBuffer.allocate(cabecalho.length);
+            while (inicio.hasRemaining() && existente.read(inicio) > 0)
+                ;
+            int lidos = inicio.position();
+            valido = Arrays.equals(cabecalho, 0, lidos, inicio.array(), 0, lidos);
+            if (valido) {
+                // Um cabeçalho incompleto também é descartado e gravado de novo.
+                long fim = lidos < cabecalho.length ? 0 : LeitorLog.fimLegivel(existente, lidos);
+                if (fim < tamanho) {
+                    existente.truncate(fim);
+                    System.err.println("Registro incompleto descartado do fim do log " + arquivo + " ("
+                            + (tamanho - fim) + " bytes).");
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return; // Arquivo novo.
+        }
+        if (!valido) {
+            Path arquivado = rotacao.arquivar(arquivo);
+            System.err.println("O log " + arquivo + " não é um log binário desta versão e foi renomeado para "
+                    + arquivado.getFileName() + ".");
+        }
+    }
+
+    /** Coloca um registro no buffer, gravando o buffer antes se ele não couber. */
+    private void colocar(byte[] registro) {
+        if (registro.length > buffer.remaining()) {
+            gravar();
+            if (registro.length > buffer.capacity())
+                buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(registro.length) * 2);
+        }
+        buffer.put(registro);
+        tamanhoArquivo += registro.length;
+    }
+
+    /**
+     * Grava o conteúdo do buffer no arquivo e o deixa pronto para ser preenchido
+     * de novo. Em caso de erro, o conteúdo é perdido e o erro é exibido.
+     */
+    private void gravar() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining() && canal != null)
+                canal.write(buffer);
+        } catch (IOException e) {
+            System.err.println("Erro ao escrever no log: " + e.getMessage());
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,496 @@
+package com.robotsim.missions.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Índice de um log binário de missões por tipo de missão, nome do robô e
+ * instante, usado pelo {@link ConsultaLog}.
+ * <p>
+ * O índice é construído por uma única leitura do log e gravado ao lado dele,
+ * no arquivo {@code <log>.idx}, que é reaproveitado enquanto o log não mudar de
+ * tamanho nem de data de modificação. Ele guarda, para cada evento, o instante,
+ * a posição no log, o tipo, a missão e o robô, em colunas ordenadas pelo
+ * instante, além de uma lista de eventos por robô e outra por missão, também
+ * em ordem de instante. Uma consulta escolhe a menor lista que atende aos
+ * filtros, localiza o início do intervalo de tempo por busca binária e lê do
+ * log apenas os eventos encontrados. O arquivo do índice é mapeado em memória
+ * e consultado sem ser carregado.
+ * <p>
+ * Para logs comprimidos pela {@link RotacaoLog}, o índice também guarda onde
+ * começa cada bloco comprimido ({@link BlocosGzip}). A construção descomprime
+ * o log um bloco por vez, e a leitura dos eventos encontrados descomprime
+ * apenas os blocos que os contêm, sem trazer o log inteiro para a memória.
+ * <p>
+ * Cada arquivo de log é indexado separadamente, e o índice de um arquivo deve
+ * caber em 2 GiB; logs longos devem ser divididos pela {@link RotacaoLog}.
+ */
+public final class IndiceLog {
+    /** Sufixo acrescentado ao nome do log para formar o nome do índice. */
+    public static final String EXTENSAO = ".idx";
+
+    private static final byte[] ASSINATURA = { 'R', 'S', 'I', 'X', 2 };
+
+    private final ByteBuffer dados; // Conteúdo do índice.
+    private final long tamanhoLog; // Tamanho do log quando foi indexado.
+    private final long modificacaoLog; // Data de modificação do log, em milissegundos.
+    private final long[] iniciosSessao; // Instante de início de cada sessão.
+    private final int[] posicoesSessao; // Posição do primeiro evento de cada sessão.
+    private final List<List<String>> textosSessao; // Tabela de textos de cada sessão.
+    // Blocos de um log comprimido: posição de cada um no arquivo e início do seu conteúdo, mais o
+    // tamanho total. Vazios se o log não estiver comprimido.
+    private final long[] deslocamentosBloco;
+    private final int[] iniciosBloco;
+    private final Map<String, Integer> missoes = new HashMap<>(); // Tipo da missão -> número.
+    private final Map<String, Integer> robos = new HashMap<>(); // Nome do robô -> número.
+    private final int eventos; // Quantidade de eventos.
+    // Posição, no índice, de cada coluna e lista.
+    private final int colunaNanos;
+    private final int colunaPosicao;
+    private final int colunaMissao;
+    private final int colunaRobo;
+    private final int colunaCodigo;
+    private final int inicioListasRobo;
+    private final int listasRobo;
+    private final int inicioListasMissao;
+    private final int listasMissao;
+
+    /** Lê o cabeçalho de um índice e calcula onde começa cada coluna. */
+    private IndiceLog(ByteBuffer dados) {
+        this.dados = dados;
+        for (byte esperado : ASSINATURA) {
+            if (dados.get() != esperado)
+                throw new IllegalArgumentException("O arquivo não é um índice de log ou é de outra versão.");
+        }
+        tamanhoLog = dados.getLong();
+        modificacaoLog = dados.getLong();
+        int sessoes = dados.getInt();
+        iniciosSessao = new long[sessoes];
+        posicoesSessao = new int[sessoes];
+        textosSessao = new ArrayList<>(sessoes);
+        for (int i = 0; i < sessoes; i++) {
+            iniciosSessao[i] = dados.getLong();
+            posicoesSessao[i] = dados.getInt();
+            textosSessao.add(lerTextos(dados));
+        }
+        deslocamentosBloco = new long[dados.getInt()];
+        for (int i = 0; i < deslocamentosBloco.length; i++)
+            deslocamentosBloco[i] = dados.getLong();
+        iniciosBloco = new int[dados.getInt()];
+        for (int i = 0; i < iniciosBloco.length; i++)
+            iniciosBloco[i] = dados.getInt();
+        List<String> nomes = lerTextos(dados);
+        for (int i = 0; i < nomes.size(); i++)
+            missoes.put(nomes.get(i), i);
+        nomes = lerTextos(dados);
+        for (int i = 0; i < nomes.size(); i++)
+            robos.put(nomes.get(i), i);
+        eventos = dados.getInt();
+        colunaNanos = dados.position();
+        colunaPosicao = colunaNanos + 8 * eventos;
+        colunaMissao = colunaPosicao + 4 * eventos;
+        colunaRobo = colunaMissao + 4 * eventos;
+        colunaCodigo = colunaRobo + 4 * eventos;
+        inicioListasRobo = colunaCodigo + eventos;
+        listasRobo = inicioListasRobo + 4 * (robos.size() + 1);
+        inicioListasMissao = listasRobo + 4 * dados.getInt(listasRobo - 4);
+        listasMissao = inicioListasMissao + 4 * (missoes.size() + 1);
+    }
+
+    /**
+     * Obtém o índice de um log, reaproveitando o arquivo {@code <log>.idx} se
+     * ele corresponder ao log atual, ou construindo-o e gravando-o. Se o índice
+     * não puder ser gravado, ele é usado apenas em memória.
+     *
+     * @param log O log binário, comprimido ou não.
+     * @return O índice do log.
+     * @throws IOException              Se o log não puder ser lido.
+     * @throws IllegalArgumentException Se o arquivo não for um log binário ou
+     *                                  for grande demais para ser indexado.
+     */
+    public static IndiceLog carregar(Path log) throws IOException {
+        long tamanho = Files.size(log);
+        long modificacao = Files.getLastModifiedTime(log).toMillis();
+        Path arquivo = log.resolveSibling(log.getFileName() + EXTENSAO);
+        if (Files.isRegularFile(arquivo)) {
+            try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+                IndiceLog existente = new IndiceLog(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+                if (existente.tamanhoLog == tamanho && existente.modificacaoLog == modificacao)
+                    return existente;
+            } catch (IOException | RuntimeException e) {
+                // Índice de outra versão ou incompleto: é reconstruído abaixo.
+            }
+        }
+        ByteBuffer construido;
+        if (BlocosGzip.comprimido(log)) {
+            try (BlocosGzip blocos = BlocosGzip.abrir(log)) {
+                construido = construir(new LeitorLog(blocos.trechos()), blocos, tamanho, modificacao);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } else {
+            construido = construir(new LeitorLog(DecodificadorLog.mapear(log)), null, tamanho, modificacao);
+        }
+        try {
+            Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = construido.duplicate();
+                while (bytes.hasRemaining())
+                    canal.write(bytes);
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Não foi possível gravar o índice " + arquivo + ": " + e.getMessage());
+        }
+        return new IndiceLog(construido);
+    }
+
+    /**
+     * Procura os eventos que atendem a todos os filtros informados.
+     *
+     * @param missao O tipo da missão, ou {@code null} para qualquer uma.
+     * @param robo   O nome do robô, ou {@code null} para qualquer um.
+     * @param codigo O tipo do evento, ou {@code null} para qualquer um.
+     * @param de     O instante inicial, inclusive, em nanossegundos desde a
+     *               época.
+     * @param ate    O instante final, inclusive, em nanossegundos desde a época.
+     * @return Os números dos eventos encontrados, em ordem de instante.
+     */
+    public int[] consultar(String missao, String robo, CodigoEvento codigo, long de, long ate) {
+        Integer numeroMissao = missao == null ? null : missoes.get(missao);
+        Integer numeroRobo = robo == null ? null : robos.get(robo);
+        if ((missao != null && numeroMissao == null) || (robo != null && numeroRobo == null))
+            return new int[0];
+
+        // Percorre a menor lista disponível: a do robô, a da missão ou todos os eventos.
+        int lista = -1;
+        int inicio = 0;
+        int fim = eventos;
+        if (numeroRobo != null) {
+            lista = listasRobo;
+            inicio = dados.getInt(inicioListasRobo + 4 * numeroRobo);
+            fim = dados.getInt(inicioListasRobo + 4 * (numeroRobo + 1));
+        }
+        if (numeroMissao != null) {
+            int inicioMissao = dados.getInt(inicioListasMissao + 4 * numeroMissao);
+            int fimMissao = dados.getInt(inicioListasMissao + 4 * (numeroMissao + 1));
+            if (lista < 0 || fimMissao - inicioMissao < fim - inicio) {
+                lista = listasMissao;
+                inicio = inicioMissao;
+                fim = fimMissao;
+            }
+        }
+
+        // Primeiro item da lista com instante >= de.
+        int baixo = inicio;
+        int alto = fim;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (getNanos(evento(lista, meio)) < de)
+                baixo = meio + 1;
+            else
+                alto = meio;
+        }
+
+        int[] encontrados = new int[16];
+        int quantidade = 0;
+        for (int i = baixo; i < fim; i++) {
+            int evento = evento(lista, i);
+            if (getNanos(evento) > ate)
+                break;
+            if (numeroMissao != null && dados.getInt(colunaMissao + 4 * evento) != numeroMissao)
+                continue;
+            if (numeroRobo != null && dados.getInt(colunaRobo + 4 * evento) != numeroRobo)
+                continue;
+            if (codigo != null && (dados.get(colunaCodigo + evento) & 0xFF) != codigo.getCodigo())
+                continue;
+            if (quantidade == encontrados.length)
+                encontrados = Arrays.copyOf(encontrados, quantidade * 2);
+            encontrados[quantidade++] = evento;
+        }
+        return Arrays.copyOf(encontrados, quantidade);
+    }
+
+    /**
+     * Lê do log os eventos encontrados por {@link #consultar} e entrega cada
+     * um ao destino, com o leitor posicionado nele. Os eventos são lidos na
+     * ordem em que aparecem no log, não na ordem informada. Em um log
+     * comprimido, apenas os blocos que contêm os eventos são descomprimidos,
+     * um de cada vez.
+     *
+     * @param log     O log que gerou este índice.
+     * @param eventos Os números dos eventos.
+     * @param destino Recebe o leitor e o número de cada evento lido.
+     * @throws IOException Se o log não puder ser lido.
+     */
+    public void ler(Path log, int[] eventos, ObjIntConsumer<LeitorLog> destino) throws IOException {
+        // Ordena pela posição no log, guardando o número do evento nos bits de baixo.
+        long[] ordem = new long[eventos.length];
+        for (int i = 0; i < eventos.length; i++)
+            ordem[i] = (long) getPosicao(eventos[i]) << 32 | eventos[i];
+        Arrays.sort(ordem);
+        if (deslocamentosBloco.length == 0) {
+            LeitorLog leitor = new LeitorLog(DecodificadorLog.mapear(log));
+            for (long item : ordem)
+                ler(leitor, (int) item, destino);
+            return;
+        }
+        try (BlocosGzip blocos = BlocosGzip.abrir(log, deslocamentosBloco, iniciosBloco)) {
+            LeitorLog leitor = null;
+            for (long item : ordem) {
+                int posicao = (int) (item >>> 32);
+                if (leitor == null || !leitor.contem(posicao)) {
+                    int bloco = blocos.blocoDe(posicao);
+                    leitor = new LeitorLog(blocos.bloco(bloco), iniciosBloco[bloco], blocos.blocos(bloco + 1));
+                }
+                ler(leitor, (int) item, destino);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Posiciona o leitor em um evento e o entrega ao destino, se ele puder ser lido. */
+    private void ler(LeitorLog leitor, int evento, ObjIntConsumer<LeitorLog> destino) {
+        int posicao = getPosicao(evento);
+        int sessao = Arrays.binarySearch(posicoesSessao, posicao);
+        if (sessao < 0)
+            sessao = -sessao - 2; // Última sessão que começa antes do evento.
+        if (leitor.lerEm(posicao, iniciosSessao[sessao], textosSessao.get(sessao)))
+            destino.accept(leitor, evento);
+    }
+
+    /** Posição do registro de um evento no log descomprimido. */
+    private int getPosicao(int evento) {
+        return dados.getInt(colunaPosicao + 4 * evento);
+    }
+
+    /**
+     * Retorna o instante de um evento.
+     *
+     * @param evento O número do evento.
+     * @return O instante, em nanossegundos desde a época.
+     */
+    public long getNanos(int evento) {
+        return dados.getLong(colunaNanos + 8 * evento);
+    }
+
+    /** @return A quantidade de eventos indexados. */
+    public int getEventos() {
+        return eventos;
+    }
+
+    /** Número do evento na posição {@code i} de uma lista, ou {@code i} sem lista. */
+    private int evento(int lista, int i) {
+        return lista < 0 ? i : dados.getInt(lista + 4 * i);
+    }
+
+    /**
+     * Percorre um log binário e monta o conteúdo do seu índice.
+     *
+     * @param leitor       Um leitor no início do log.
+     * @param blocos       Os blocos lidos pelo leitor, se o log estiver
+     *                     comprimido, ou {@code null}.
+     * @param tamanho      O tamanho do arquivo do log.
+     * @param modificacao  A data de modificação do log, em milissegundos.
+     * @return O conteúdo do índice, pronto para ser gravado.
+     */
+    private static ByteBuffer construir(LeitorLog leitor, BlocosGzip blocos, long tamanho, long modificacao) {
+        ArrayList<Long> iniciosSessao = new ArrayList<>();
+        ArrayList<Integer> posicoesSessao = new ArrayList<>();
+        ArrayList<List<String>> textosSessao = new ArrayList<>();
+        HashMap<String, Integer> missoes = new HashMap<>();
+        HashMap<String, Integer> robos = new HashMap<>();
+        List<String> nomesMissao = new ArrayList<>();
+        List<String> nomesRobo = new ArrayList<>();
+
+        long[] nanos = new long[1024];
+        int[] posicoes = new int[1024];
+        int[] missaoDe = new int[1024];
+        int[] roboDe = new int[1024];
+        byte[] codigos = new byte[1024];
+        int n = 0;
+        while (leitor.proximo()) {
+            if (iniciosSessao.isEmpty() || iniciosSessao.get(iniciosSessao.size() - 1) != leitor.getInicioSessao()) {
+                iniciosSessao.add(leitor.getInicioSessao());
+                posicoesSessao.add(leitor.getPosicao());
+                textosSessao.add(leitor.getTextos()); // Continua crescendo até o fim da sessão.
+            }
+            if (n == nanos.length) {
+                int capacidade = n * 2;
+                nanos = Arrays.copyOf(nanos, capacidade);
+                posicoes = Arrays.copyOf(posicoes, capacidade);
+                missaoDe = Arrays.copyOf(missaoDe, capacidade);
+                roboDe = Arrays.copyOf(roboDe, capacidade);
+                codigos = Arrays.copyOf(codigos, capacidade);
+            }
+            nanos[n] = leitor.getNanos();
+            posicoes[n] = leitor.getPosicao();
+            missaoDe[n] = numero(missoes, nomesMissao, leitor.getMissao());
+            roboDe[n] = leitor.getNomeRobo() == null ? -1 : numero(robos, nomesRobo, leitor.getNomeRobo());
+            codigos[n] = (byte) leitor.getCodigo().getCodigo();
+            n++;
+        }
+        int[] ordem = ordenarPorInstante(nanos, n);
+        long[] deslocamentosBloco = blocos == null ? new long[0] : blocos.getDeslocamentos();
+        int[] iniciosBloco = blocos == null ? new int[0] : blocos.getInicios();
+
+        // Listas por robô e por missão: contagens, inícios acumulados e preenchimento em ordem de instante.
+        int[] inicioRobo = new int[nomesRobo.size() + 1];
+        int[] inicioMissao = new int[nomesMissao.size() + 1];
+        for (int i = 0; i < n; i++) {
+            if (roboDe[i] >= 0)
+                inicioRobo[roboDe[i] + 1]++;
+            inicioMissao[missaoDe[i] + 1]++;
+        }
+        for (int i = 1; i < inicioRobo.length; i++)
+            inicioRobo[i] += inicioRobo[i - 1];
+        for (int i = 1; i < inicioMissao.length; i++)
+            inicioMissao[i] += inicioMissao[i - 1];
+        int[] listaRobo = new int[inicioRobo[inicioRobo.length - 1]];
+        int[] listaMissao = new int[n];
+        int[] proximoRobo = Arrays.copyOf(inicioRobo, inicioRobo.length - 1);
+        int[] proximoMissao = Arrays.copyOf(inicioMissao, inicioMissao.length - 1);
+        for (int i = 0; i < n; i++) {
+            int original = ordem[i];
+            if (roboDe[original] >= 0)
+                listaRobo[proximoRobo[roboDe[original]]++] = i;
+            listaMissao[proximoMissao[missaoDe[original]]++] = i;
+        }
+
+        long bytes = ASSINATURA.length + 8 + 8 + 4;
+        for (List<String> textos : textosSessao)
+            bytes += 8 + 4 + tamanhoTextos(textos);
+        bytes += 4 + 8L * deslocamentosBloco.length + 4 + 4L * iniciosBloco.length;
+        bytes += tamanhoTextos(nomesMissao) + tamanhoTextos(nomesRobo) + 4;
+        bytes += (long) n * (8 + 4 + 4 + 4 + 1) + 4L * (inicioRobo.length + listaRobo.length)
+                + 4L * (inicioMissao.length + listaMissao.length);
+        if (bytes > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("O índice passaria de 2 GiB; divida o log com a rotação.");
+
+        ByteBuffer indice = ByteBuffer.allocate((int) bytes);
+        indice.put(ASSINATURA).putLong(tamanho).putLong(modificacao).putInt(iniciosSessao.size());
+        for (int i = 0; i < iniciosSessao.size(); i++) {
+            indice.putLong(iniciosSessao.get(i)).putInt(posicoesSessao.get(i));
+            escreverTextos(indice, textosSessao.get(i));
+        }
+        indice.putInt(deslocamentosBloco.length);
+        for (long deslocamento : deslocamentosBloco)
+            indice.putLong(deslocamento);
+        indice.putInt(iniciosBloco.length);
+        for (int inicio : iniciosBloco)
+            indice.putInt(inicio);
+        escreverTextos(indice, nomesMissao);
+        escreverTextos(indice, nomesRobo);
+        indice.putInt(n);
+        for (int i = 0; i < n; i++)
+            indice.putLong(nanos[ordem[i]]);
+        for (int i = 0; i < n; i++)
+            indice.putInt(posicoes[ordem[i]]);
+        for (int i = 0; i < n; i++)
+            indice.putInt(missaoDe[ordem[i]]);
+        for (int i = 0; i < n; i++)
+            indice.putInt(roboDe[ordem[i]]);
+        for (int i = 0; i < n; i++)
+            indice.put(codigos[ordem[i]]);
+        for (int valor : inicioRobo)
+            indice.putInt(valor);
+        for (int valor : listaRobo)
+            indice.putInt(valor);
+        for (int valor : inicioMissao)
+            indice.putInt(valor);
+        for (int valor : listaMissao)
+            indice.putInt(valor);
+        return indice.flip();
+    }
+
+    /** Número de um nome, acrescentando-o à tabela na primeira vez. */
+    private static int numero(Map<String, Integer> numeros, List<String> nomes, String nome) {
+        Integer numero = numeros.get(nome);
+        if (numero == null) {
+            numero = nomes.size();
+            numeros.put(nome, numero);
+            nomes.add(nome);
+        }
+        return numero;
+    }
+
+    /**
+     * Ordena os eventos pelo instante, mantendo a ordem do arquivo entre
+     * eventos do mesmo instante. Os eventos chegam quase ordenados (threads
+     * diferentes podem se intercalar dentro de um lote), então o caso comum
+     * termina após uma única verificação.
+     *
+     * @return Os números originais dos eventos, em ordem de instante.
+     */
+    private static int[] ordenarPorInstante(long[] nanos, int n) {
+        int[] ordem = new int[n];
+        boolean ordenado = true;
+        for (int i = 0; i < n; i++) {
+            ordem[i] = i;
+            if (i > 0 && nanos[i] < nanos[i - 1])
+                ordenado = false;
+        }
+        if (ordenado)
+            return ordem;
+        // Intercalação de baixo para cima, estável.
+        int[] auxiliar = new int[n];
+        for (int largura = 1; largura < n; largura *= 2) {
+            for (int esquerda = 0; esquerda < n; esquerda += 2 * largura) {
+                int meio = Math.min(esquerda + largura, n);
+                int fim = Math.min(esquerda + 2 * largura, n);
+                int a = esquerda, b = meio, k = esquerda;
+                while (a < meio && b < fim)
+                    auxiliar[k++] = nanos[ordem[b]] < nanos[ordem[a]] ? ordem[b++] : ordem[a++];
+                while (a < meio)
+                    auxiliar[k++] = ordem[a++];
+                while (b < fim)
+                    auxiliar[k++] = ordem[b++];
+            }
+            int[] troca = ordem;
+            ordem = auxiliar;
+            auxiliar = troca;
+        }
+        return ordem;
+    }
+
+    private static long tamanhoTextos(List<String> textos) {
+        long bytes = 4;
+        for (String texto : textos)
+            bytes += 4 + (texto == null ? 0 : texto.getBytes(StandardCharsets.UTF_8).length);
+        return bytes;
+    }
+
+    private static void escreverTextos(ByteBuffer destino, List<String> textos) {
+        destino.putInt(textos.size());
+        for (String texto : textos) {
+            byte[] bytes = (texto == null ? "" : texto).getBytes(StandardCharsets.UTF_8);
+            destino.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static List<String> lerTextos(ByteBuffer origem) {
+        int quantidade = origem.getInt();
+        ArrayList<String> textos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            byte[] bytes = new byte[origem.getInt()];
+            origem.get(bytes);
+            textos.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return textos;
+    }
+}
@@ -0,0 +1,482 @@
+package com.robotsim.missions.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Percorre os registros de um log binário gravado pelo {@link CodificadorLog}.
+ * <p>
+ * {@link #proximo()} avança evento a evento, processando pelo caminho as
+ * definições de texto e os inícios de sessão. Os campos comuns do evento atual
+ * (tipo, instante, missão, robô e posição) ficam disponíveis nos getters; os
+ * campos próprios do tipo só são lidos quando o evento é convertido em texto
+ * por {@link #linhas()}. Um registro incompleto no fim do arquivo, deixado por
+ * uma execução interrompida, encerra a leitura.
+ * <p>
+ * Quem já conhece a posição de um evento, como o {@link IndiceLog}, pode lê-lo
+ * diretamente com {@link #lerEm(int, long, List)}, informando o instante e a
+ * tabela de textos da sessão a que ele pertence.
+ * <p>
+ * O conteúdo pode chegar em trechos, como os blocos de um log comprimido
+ * ({@link BlocosGzip}): um registro que continua no trecho seguinte é emendado
+ * a ele, e apenas o trecho atual fica em memória. As posições são sempre as do
+ * arquivo descomprimido inteiro, que deve caber em 2 GiB.
+ */
+public class LeitorLog {
+    private ByteBuffer dados; // Trecho atual do arquivo.
+    private int base; // Posição do trecho atual no arquivo.
+    private final Iterator<ByteBuffer> seguintes; // Trechos ainda não lidos.
+    private ArrayList<String> textos = new ArrayList<>(); // Tabela de textos da sessão atual.
+    private List<String> origemTextos; // Tabela recebida no último lerEm(), ou null.
+    private long inicioSessao; // Instante da sessão atual, em nanossegundos desde a época.
+
+    // Campos comuns do evento atual.
+    private CodigoEvento codigo;
+    private long nanos;
+    private String missao;
+    private long roboId;
+    private String nomeRobo;
+    private int x;
+    private int y;
+    private int z;
+    private int posicao; // Início do registro no arquivo.
+    private int inicioCampos; // Início dos campos próprios do tipo, no trecho atual.
+    // Último carimbo de tempo formatado; o texto só muda uma vez por segundo.
+    private long segundoCarimbo = Long.MIN_VALUE;
+    private String carimbo;
+
+    /**
+     * Cria um leitor sobre o conteúdo de um arquivo de log binário. A leitura
+     * começa na posição atual do buffer, que deve apontar para a assinatura.
+     *
+     * @param dados O conteúdo do arquivo.
+     * @throws IllegalArgumentException Se o conteúdo não começar com a
+     *                                  {@link CodificadorLog#ASSINATURA}.
+     */
+    public LeitorLog(ByteBuffer dados) {
+        this(dados, 0, Collections.emptyIterator());
+        verificarAssinatura();
+    }
+
+    /**
+     * Cria um leitor sobre um log entregue em trechos, como os de
+     * {@link BlocosGzip#trechos()}. O conteúdo deve começar com a assinatura.
+     *
+     * @param trechos O conteúdo do arquivo, em ordem.
+     * @throws IllegalArgumentException Se o conteúdo não começar com a
+     *                                  {@link CodificadorLog#ASSINATURA}.
+     */
+    LeitorLog(Iterator<ByteBuffer> trechos) {
+        this(trechos.hasNext() ? trechos.next() : ByteBuffer.allocate(0), 0, trechos);
+        verificarAssinatura();
+    }
+
+    /**
+     * Cria um leitor sobre um trecho do meio de um log, para ler com
+     * {@link #lerEm(int, long, List)} os eventos que começam nele. Registros que
+     * continuam depois do trecho são completados com os trechos seguintes.
+     *
+     * @param trecho    O trecho, a partir da sua posição atual.
+     * @param inicio    A posição do trecho no arquivo.
+     * @param seguintes Os trechos que vêm depois dele, em ordem.
+     */
+    LeitorLog(ByteBuffer trecho, int inicio, Iterator<ByteBuffer> seguintes) {
+        this.dados = trecho.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.base = inicio;
+        this.seguintes = seguintes;
+    }
+
+    /** Confere a assinatura no início do arquivo. */
+    private void verificarAssinatura() {
+        byte[] assinatura = CodificadorLog.ASSINATURA;
+        while (dados.remaining() < assinatura.length && seguintes.hasNext())
+            emendar(dados.position());
+        if (this.dados.remaining() < assinatura.length)
+            throw new IllegalArgumentException("O arquivo não é um log binário do RoboSim.");
+        for (byte esperado : assinatura) {
+            if (this.dados.get() != esperado)
+                throw new IllegalArgumentException("O arquivo não é um log binário do RoboSim ou é de outra versão.");
+        }
+    }
+
+    /**
+     * Percorre os registros de um arquivo de log binário, sem decodificá-los, e
+     * retorna onde termina o último registro completo. Um registro incompleto,
+     * deixado por uma execução interrompida no meio da gravação, e tudo o que
+     * vem depois dele ficam além da posição retornada, assim como na leitura.
+     *
+     * @param canal  O arquivo.
+     * @param inicio A posição do primeiro registro, logo após a assinatura.
+     * @return A posição logo após o último registro completo.
+     * @throws IOException Se o arquivo não puder ser lido.
+     */
+    static long fimLegivel(FileChannel canal, long inicio) throws IOException {
+        long tamanho = canal.size();
+        ByteBuffer janela = ByteBuffer.allocate(1 << 16); // Trecho do arquivo a partir de base.
+        janela.limit(0);
+        long base = inicio;
+        long posicao = inicio;
+        while (posicao < tamanho) {
+            // O tamanho de um registro ocupa até 5 bytes, que devem estar na janela.
+            if (posicao + 5 > base + janela.limit() && base + janela.limit() < tamanho) {
+                base = posicao;
+                janela.clear();
+                while (janela.hasRemaining() && canal.read(janela, base + janela.position()) > 0)
+                    ;
+                janela.flip();
+            }
+            int indice = (int) (posicao - base);
+            int registro = -1;
+            int valor = 0;
+            for (int deslocamento = 0; deslocamento < 35 && indice < janela.limit(); deslocamento += 7) {
+                int b = janela.get(indice++) & 0xFF;
+                valor |= (b & 0x7F) << deslocamento;
+                if ((b & 0x80) == 0) {
+                    registro = valor;
+                    break;
+                }
+            }
+            long fim = base + indice + registro;
+            if (registro < 1 || fim > tamanho)
+                break; // Registro incompleto: fim da parte legível.
+            posicao = fim;
+        }
+        return posicao;
+    }
+
+    /**
+     * Avança para o próximo evento.
+     *
+     * @return {@code true} se há um evento, {@code false} no fim do arquivo.
+     */
+    public boolean proximo() {
+        while (dados.hasRemaining() || seguintes.hasNext()) {
+            int inicio = dados.position();
+            if (!dados.hasRemaining()) {
+                emendar(inicio); // O trecho terminou junto com um registro.
+                continue;
+            }
+            int tamanho = lerTamanho();
+            if ((tamanho < 0 || tamanho > dados.remaining()) && seguintes.hasNext()) {
+                emendar(inicio); // O registro continua no próximo trecho.
+                continue;
+            }
+            if (tamanho < 1 || tamanho > dados.remaining()) {
+                dados.position(dados.limit()); // Registro incompleto: fim da parte legível.
+                return false;
+            }
+            int fim = dados.position() + tamanho;
+            CodigoEvento lido = CodigoEvento.deCodigo(dados.get() & 0xFF);
+            if (lido == CodigoEvento.SESSAO) {
+                inicioSessao = dados.getLong();
+                textos = new ArrayList<>(); // A tabela anterior continua válida para quem a obteve.
+                origemTextos = null;
+            } else if (lido == CodigoEvento.TEXTO) {
+                origemTextos = null;
+                int indice = (int) varint();
+                while (textos.size() <= indice)
+                    textos.add(null);
+                textos.set(indice, textoLivre());
+            } else if (lido != null) {
+                codigo = lido;
+                posicao = base + inicio;
+                nanos = inicioSessao + varint();
+                missao = texto();
+                roboId = lerRoboId();
+                if (roboId != 0) {
+                    nomeRobo = texto();
+                    x = zigzag();
+                    y = zigzag();
+                    z = zigzag();
+                } else {
+                    nomeRobo = null;
+                    x = y = z = 0;
+                }
+                inicioCampos = dados.position();
+                dados.position(fim);
+                return true;
+            }
+            dados.position(fim); // Tipos desconhecidos são ignorados.
+        }
+        return false;
+    }
+
+    /**
+     * Lê o evento que começa na posição informada, sem percorrer os registros
+     * anteriores. Como os textos e o instante do evento dependem da sessão, o
+     * instante de início e a tabela de textos dela devem ser informados.
+     * Depois, {@link #proximo()} continua a partir do evento lido.
+     * <p>
+     * Em um leitor por trechos, a posição deve estar no trecho atual (veja
+     * {@link #contem(int)}).
+     *
+     * @param posicao      A posição do registro no arquivo, como retornada por
+     *                     {@link #getPosicao()}.
+     * @param inicioSessao O instante de início da sessão do evento, como
+     *                     retornado por {@link #getInicioSessao()}.
+     * @param textos       A tabela de textos da sessão, como retornada por
+     *                     {@link #getTextos()}.
+     * @return {@code true} se havia um evento na posição.
+     */
+    public boolean lerEm(int posicao, long inicioSessao, List<String> textos) {
+        if (textos != origemTextos) { // Evita copiar a tabela a cada evento da mesma sessão.
+            this.textos = new ArrayList<>(textos);
+            origemTextos = textos;
+        }
+        this.inicioSessao = inicioSessao;
+        dados.position(posicao - base);
+        return proximo();
+    }
+
+    /**
+     * Indica se a posição informada está no trecho atual, e pode ser lida por
+     * {@link #lerEm(int, long, List)}.
+     *
+     * @param posicao Uma posição do arquivo.
+     * @return {@code true} se a posição estiver no trecho atual.
+     */
+    boolean contem(int posicao) {
+        return posicao >= base && posicao - base < dados.limit();
+    }
+
+    /**
+     * Passa ao trecho seguinte, juntando a ele o registro incompleto que começa
+     * na posição informada do trecho atual, se houver.
+     */
+    private void emendar(int inicio) {
+        ByteBuffer seguinte = seguintes.next();
+        int pendentes = dados.limit() - inicio;
+        ByteBuffer juntos = seguinte.slice();
+        if (pendentes > 0) {
+            juntos = ByteBuffer.allocate(pendentes + seguinte.remaining());
+            juntos.put(dados.position(inicio)).put(seguinte.duplicate()).flip();
+        }
+        base += inicio;
+        dados = juntos.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Converte o evento atual nas mesmas linhas que o log em texto teria
+     * gravado, sem as quebras de linha.
+     *
+     * @return As linhas do evento (mais de uma nas varreduras e planejamentos
+     *         com obstáculos).
+     */
+    public List<String> linhas() {
+        int retorno = dados.position();
+        dados.position(inicioCampos);
+        ArrayList<String> mensagens = new ArrayList<>(1);
+        switch (codigo) {
+            case MENSAGEM:
+                mensagens.add(textoLivre());
+                break;
+            case INICIO:
+                mensagens.add(TextoEventos.inicio(nomeRobo, texto(), x, y, z));
+                break;
+            case MOVIMENTO: {
+                int ax = x + zigzag(), ay = y + zigzag(), az = z + zigzag();
+                mensagens.add(TextoEventos.movimento(nomeRobo, ax, ay, az, x, y, z));
+                break;
+            }
+            case SENSOR_ATIVADO: {
+                String tipo = texto();
+                mensagens.add(TextoEventos.sensorAtivado(nomeRobo, tipo, Double.longBitsToDouble(dados.getLong()),
+                        x, y, z));
+                break;
+            }
+            case DETECCAO: {
+                int quantidade = (int) varint();
+                if (quantidade == 0) {
+                    mensagens.add(TextoEventos.semObstaculos(nomeRobo, x, y, z));
+                    break;
+                }
+                mensagens.add(TextoEventos.deteccao(nomeRobo, quantidade, x, y, z));
+                for (int i = 0; i < quantidade; i++) {
+                    String nome = texto(), tipo = texto();
+                    int ox = zigzag(), oy = zigzag();
+                    mensagens.add(TextoEventos.obstaculoDaDeteccao(nome, tipo, ox, oy,
+                            TextoEventos.distancia(x, y, ox, oy)));
+                }
+                break;
+            }
+            case OBSTACULO_DETECTADO: {
+                String nome = texto(), tipo = texto();
+                int ox = zigzag(), oy = zigzag();
+                mensagens.add(TextoEventos.obstaculoDetectado(nomeRobo, nome, tipo, ox, oy,
+                        TextoEventos.distancia(x, y, ox, oy)));
+                break;
+            }
+            case ROBO_DETECTADO: {
+                lerRoboId(); // ID do robô detectado.
+                String alvo = texto();
+                int ax = zigzag(), ay = zigzag(), az = zigzag();
+                String classe = texto();
+                mensagens.add(TextoEventos.roboDetectado(nomeRobo, alvo, classe, ax, ay, az,
+                        TextoEventos.distancia(x, y, ax, ay)));
+                break;
+            }
+            case COLISAO: {
+                String tipo = texto();
+                mensagens.add(TextoEventos.colisao(nomeRobo, tipo, x, y, z, textoLivre()));
+                break;
+            }
+            case FIM:
+                mensagens.add(TextoEventos.fim(nomeRobo, x, y, z, textoLivre()));
+                break;
+            case ATAQUE: {
+                lerRoboId(); // ID do alvo.
+                String alvo = texto();
+                int ax = zigzag(), ay = zigzag(), az = zigzag();
+                mensagens.add(TextoEventos.ataque(nomeRobo, alvo, zigzag(), ax, ay, az));
+                break;
+            }
+            case DESTRUICAO: {
+                String nome = texto(), tipo = texto();
+                mensagens.add(TextoEventos.destruicao(nomeRobo, nome, tipo, zigzag(), zigzag()));
+                break;
+            }
+            case PLANEJAMENTO: {
+                String origem = textoLivre(), destino = textoLivre();
+                mensagens.add(TextoEventos.planejamento(nomeRobo, origem, destino));
+                int quantidade = (int) varint();
+                if (quantidade > 0)
+                    mensagens.add(TextoEventos.obstaculosNoPercurso(quantidade));
+                for (int i = 0; i < quantidade; i++) {
+                    String nome = texto(), tipo = texto();
+                    mensagens.add(TextoEventos.obstaculoNoPercurso(nome, tipo, zigzag(), zigzag()));
+                }
+                break;
+            }
+            case ESTADO: {
+                String anterior = texto(), novo = texto();
+                mensagens.add(TextoEventos.estado(nomeRobo, anterior, novo, x, y, z));
+                break;
+            }
+            default:
+                break;
+        }
+        dados.position(retorno);
+
+        long segundo = Math.floorDiv(nanos, 1_000_000_000L);
+        if (segundo != segundoCarimbo) {
+            carimbo = TextoEventos.carimbo(segundo);
+            segundoCarimbo = segundo;
+        }
+        for (int i = 0; i < mensagens.size(); i++)
+            mensagens.set(i, TextoEventos.linha(carimbo, missao, mensagens.get(i)));
+        return mensagens;
+    }
+
+    /** @return O instante de início da sessão atual, em nanossegundos desde a época. */
+    public long getInicioSessao() {
+        return inicioSessao;
+    }
+
+    /**
+     * Retorna a tabela de textos da sessão atual. A lista cresce enquanto a
+     * sessão é lida e não é mais alterada quando outra sessão começa.
+     *
+     * @return A tabela de textos, somente para leitura.
+     */
+    public List<String> getTextos() {
+        return Collections.unmodifiableList(textos);
+    }
+
+    /** @return O tipo do evento atual. */
+    public CodigoEvento getCodigo() {
+        return codigo;
+    }
+
+    /** @return O instante do evento atual, em nanossegundos desde a época. */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /** @return O tipo da missão do evento atual. */
+    public String getMissao() {
+        return missao;
+    }
+
+    /** @return O ID numérico do robô do evento atual, ou 0 se não houver robô. */
+    public long getRoboId() {
+        return roboId;
+    }
+
+    /** @return O nome do robô do evento atual, ou {@code null} se não houver robô. */
+    public String getNomeRobo() {
+        return nomeRobo;
+    }
+
+    /** @return A coordenada X do robô no evento atual. */
+    public int getX() {
+        return x;
+    }
+
+    /** @return A coordenada Y do robô no evento atual. */
+    public int getY() {
+        return y;
+    }
+
+    /** @return A coordenada Z do robô no evento atual. */
+    public int getZ() {
+        return z;
+    }
+
+    /** @return A posição, no arquivo, do início do registro do evento atual. */
+    public int getPosicao() {
+        return posicao;
+    }
+
+    /** Lê o tamanho de um registro, ou -1 se o varint estiver incompleto. */
+    private int lerTamanho() {
+        int valor = 0;
+        for (int deslocamento = 0; deslocamento < 35 && dados.hasRemaining(); deslocamento += 7) {
+            int b = dados.get() & 0xFF;
+            valor |= (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0)
+                return valor;
+        }
+        return -1;
+    }
+
+    /** Lê o ID de um robô, gravado como código da classe e contador. */
+    private long lerRoboId() {
+        long classe = varint();
+        long contador = varint();
+        return contador == 0 ? 0 : classe << 32 | contador;
+    }
+
+    private long varint() {
+        long valor = 0;
+        for (int deslocamento = 0;; deslocamento += 7) {
+            int b = dados.get() & 0xFF;
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0)
+                return valor;
+        }
+    }
+
+    private int zigzag() {
+        int valor = (int) varint();
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private String texto() {
+        int indice = (int) varint();
+        return indice < textos.size() ? textos.get(indice) : "?";
+    }
+
+    private String textoLivre() {
+        int tamanho = (int) varint();
+        byte[] bytes = new byte[tamanho];
+        dados.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
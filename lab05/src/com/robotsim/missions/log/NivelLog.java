@@ -0,0 +1,18 @@
+package com.robotsim.missions.log;
+
+/**
+ * Níveis de detalhe do log de missões, do mais geral ao mais detalhado. O
+ * {@code Logger} grava apenas os eventos de nível igual ou mais geral que o
+ * configurado; os demais são descartados antes de qualquer formatação.
+ */
+public enum NivelLog {
+    /** Início, fim e mensagens gerais das missões. */
+    MISSAO,
+    /**
+     * Mudanças de estado, detecções, sensores, planejamentos, ataques (e as
+     * suas falhas), colisões e destruições.
+     */
+    DETALHE,
+    /** Cada movimento dos robôs. */
+    RASTRO
+}
@@ -0,0 +1,149 @@
+package com.robotsim.missions.log;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Política de rotação de um arquivo de log usada pelo {@link EscritorLog}.
+ * <p>
+ * O arquivo ativo é encerrado quando passa do tamanho máximo ou quando fica
+ * aberto por mais que o intervalo de rotação. Ele é então renomeado com a data
+ * e a hora da rotação (por exemplo, {@code missao.log.20261018-153000-123}),
+ * comprimido com gzip em segundo plano e substituído por um arquivo novo. A
+ * compressão é feita em blocos independentes ({@link BlocosGzip}), para que o
+ * {@link IndiceLog} leia um evento sem descomprimir o arquivo inteiro. Dos
+ * arquivos encerrados, apenas os mais recentes, até o limite de retenção, são
+ * mantidos. Como o nome leva a data, a ordem alfabética dos arquivos é a ordem
+ * em que foram gravados.
+ */
+public final class RotacaoLog {
+    /** Política que nunca rotaciona o arquivo. */
+    public static final RotacaoLog NENHUMA = new RotacaoLog(0, 0, 0);
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final String EXTENSAO_GZIP = ".gz";
+
+    private final long tamanhoMaximo; // Bytes do arquivo ativo, ou 0 sem limite.
+    private final long intervaloNanos; // Tempo máximo do arquivo ativo, ou 0 sem limite.
+    private final int retencao; // Arquivos encerrados mantidos, ou 0 para todos.
+
+    /**
+     * Cria uma política de rotação.
+     *
+     * @param tamanhoMaximo Tamanho, em bytes, a partir do qual o arquivo ativo
+     *                      é encerrado, ou 0 para não limitar o tamanho.
+     * @param intervalo     Tempo máximo, em milissegundos, de um arquivo ativo,
+     *                      ou 0 para não rotacionar por tempo.
+     * @param retencao      Quantos arquivos encerrados manter, ou 0 para manter
+     *                      todos.
+     */
+    public RotacaoLog(long tamanhoMaximo, long intervalo, int retencao) {
+        if (tamanhoMaximo < 0 || intervalo < 0 || retencao < 0)
+            throw new IllegalArgumentException("O tamanho, o intervalo e a retenção não podem ser negativos.");
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervalo);
+        this.retencao = retencao;
+    }
+
+    /**
+     * Indica se esta política rotaciona o arquivo em algum momento.
+     *
+     * @return {@code true} se houver limite de tamanho ou de tempo.
+     */
+    public boolean isAtiva() {
+        return tamanhoMaximo > 0 || intervaloNanos > 0;
+    }
+
+    /** Indica se um arquivo com o tamanho informado passa do limite. */
+    boolean excede(long tamanho) {
+        return tamanhoMaximo > 0 && tamanho > tamanhoMaximo;
+    }
+
+    /** Indica se um arquivo aberto no instante informado ({@link System#nanoTime()}) já venceu. */
+    boolean venceu(long abertura) {
+        return intervaloNanos > 0 && System.nanoTime() - abertura >= intervaloNanos;
+    }
+
+    /**
+     * Renomeia o arquivo ativo, já fechado, com a data e a hora atuais.
+     *
+     * @param ativo O arquivo ativo.
+     * @return O novo nome do arquivo.
+     * @throws IOException Se o arquivo não puder ser renomeado.
+     */
+    Path arquivar(Path ativo) throws IOException {
+        LocalDateTime agora = LocalDateTime.now();
+        Path destino;
+        do {
+            // Avança um milissegundo em caso de colisão, preservando a ordem dos nomes.
+            destino = ativo.resolveSibling(ativo.getFileName() + "." + FORMATO_DATA.format(agora));
+            agora = agora.plusNanos(1_000_000);
+        } while (Files.exists(destino)
+                || Files.exists(destino.resolveSibling(destino.getFileName() + EXTENSAO_GZIP)));
+        return Files.move(ativo, destino);
+    }
+
+    /**
+     * Comprime um arquivo encerrado em blocos independentes, apaga a versão sem compressão e remove os
+     * arquivos encerrados além do limite de retenção. Erros são exibidos e não
+     * interrompem o log.
+     *
+     * @param arquivado O arquivo encerrado por {@link #arquivar(Path)}.
+     * @param ativo     O arquivo ativo, cujo nome é o prefixo dos encerrados.
+     */
+    void comprimir(Path arquivado, Path ativo) {
+        Path comprimido = arquivado.resolveSibling(arquivado.getFileName() + EXTENSAO_GZIP);
+        try (InputStream entrada = Files.newInputStream(arquivado);
+                OutputStream saida = new BufferedOutputStream(Files.newOutputStream(comprimido), 1 << 16)) {
+            BlocosGzip.comprimir(entrada, saida);
+        } catch (IOException e) {
+            System.err.println("Erro ao comprimir o log " + arquivado + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.delete(arquivado);
+        } catch (IOException e) {
+            System.err.println("Erro ao apagar o log " + arquivado + ": " + e.getMessage());
+        }
+        aplicarRetencao(ativo);
+    }
+
+    /** Apaga os arquivos encerrados mais antigos além do limite de retenção. */
+    private void aplicarRetencao(Path ativo) {
+        if (retencao == 0)
+            return;
+        String prefixo = ativo.getFileName() + ".";
+        List<Path> encerrados = new ArrayList<>();
+        Path pasta = ativo.toAbsolutePath().getParent();
+        // Só conta os já comprimidos; os que aguardam compressão entram na próxima vez.
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(pasta, prefixo + "*" + EXTENSAO_GZIP)) {
+            for (Path arquivo : arquivos)
+                encerrados.add(arquivo);
+        } catch (IOException e) {
+            System.err.println("Erro ao listar os logs encerrados: " + e.getMessage());
+            return;
+        }
+        Collections.sort(encerrados);
+        for (int i = 0; i < encerrados.size() - retencao; i++) {
+            Path encerrado = encerrados.get(i);
+            try {
+                Files.deleteIfExists(encerrado);
+                // O índice do ConsultaLog, se houver, não serve sem o arquivo.
+                Files.deleteIfExists(encerrado.resolveSibling(encerrado.getFileName() + IndiceLog.EXTENSAO));
+            } catch (IOException e) {
+                System.err.println("Erro ao apagar o log " + encerrado + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.robotsim.missions.log;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Frases legíveis dos eventos de missão. O {@code Logger} as usa para gravar o
+ * log em texto e o {@link DecodificadorLog} para reproduzir o mesmo texto a
+ * partir do log binário, então as duas saídas são idênticas.
+ * <p>
+ * Os métodos recebem apenas valores primitivos e textos, e devolvem a mensagem
+ * sem o carimbo de tempo e a missão, que são acrescentados por
+ * {@link #linha(String, String, String)}.
+ */
+public final class TextoEventos {
+    private static final DateTimeFormatter FORMATO_CARIMBO = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private TextoEventos() {
+    }
+
+    /**
+     * Monta uma linha completa do log, sem a quebra de linha final.
+     *
+     * @param carimbo  A data e a hora formatadas por {@link #carimbo(long)}.
+     * @param missao   O tipo da missão.
+     * @param mensagem A mensagem do evento.
+     * @return A linha no formato {@code [carimbo] [missao] mensagem}.
+     */
+    public static String linha(String carimbo, String missao, String mensagem) {
+        return "[" + carimbo + "] [" + missao + "] " + mensagem;
+    }
+
+    /**
+     * Formata o instante de um evento com a precisão de segundos, no fuso da JVM.
+     *
+     * @param segundo Segundos desde a época (1970-01-01T00:00:00Z).
+     * @return A data e a hora no formato {@code yyyy-MM-dd HH:mm:ss}.
+     */
+    public static String carimbo(long segundo) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(segundo), ZoneId.systemDefault()).format(FORMATO_CARIMBO);
+    }
+
+    /** Início de uma missão. */
+    public static String inicio(String nome, String classe, int x, int y, int z) {
+        return String.format("INÍCIO - Robô %s (%s) iniciou missão na posição (%d, %d, %d)", nome, classe, x, y, z);
+    }
+
+    /** Movimento de um robô da posição anterior para a atual. */
+    public static String movimento(String nome, int anteriorX, int anteriorY, int anteriorZ, int x, int y, int z) {
+        return String.format("MOVIMENTO - Robô %s moveu de (%d, %d, %d) para (%d, %d, %d)",
+                nome, anteriorX, anteriorY, anteriorZ, x, y, z);
+    }
+
+    /** Ativação de um sensor. */
+    public static String sensorAtivado(String nome, String tipoSensor, double raioAlcance, int x, int y, int z) {
+        return String.format("SENSOR ATIVADO - Robô %s ativou sensor %s com raio %.2f na posição (%d, %d, %d)",
+                nome, tipoSensor, raioAlcance, x, y, z);
+    }
+
+    /** Varredura sem nenhum obstáculo detectado. */
+    public static String semObstaculos(String nome, int x, int y, int z) {
+        return String.format("DETECÇÃO - Robô %s não detectou obstáculos na posição (%d, %d, %d)", nome, x, y, z);
+    }
+
+    /** Cabeçalho de uma varredura com obstáculos detectados. */
+    public static String deteccao(String nome, int quantidade, int x, int y, int z) {
+        return String.format("DETECÇÃO - Robô %s detectou %d obstáculo(s) na posição (%d, %d, %d):",
+                nome, quantidade, x, y, z);
+    }
+
+    /** Linha de detalhe de um obstáculo encontrado em uma varredura. */
+    public static String obstaculoDaDeteccao(String obstaculo, String tipo, int x, int y, double distancia) {
+        return String.format("  - Obstáculo: %s (%s) em (%d, %d) - Distância: %.2f", obstaculo, tipo, x, y, distancia);
+    }
+
+    /** Detecção de um único obstáculo. */
+    public static String obstaculoDetectado(String nome, String obstaculo, String tipo, int x, int y,
+            double distancia) {
+        return String.format("OBSTÁCULO DETECTADO - Robô %s detectou %s (%s) em (%d, %d) - Distância: %.2f",
+                nome, obstaculo, tipo, x, y, distancia);
+    }
+
+    /** Detecção de outro robô. */
+    public static String roboDetectado(String nome, String alvo, String classeAlvo, int x, int y, int z,
+            double distancia) {
+        return String.format("ROBÔ DETECTADO - Robô %s detectou %s (%s) em (%d, %d, %d) - Distância: %.2f",
+                nome, alvo, classeAlvo, x, y, z, distancia);
+    }
+
+    /** Colisão de um robô. */
+    public static String colisao(String nome, String tipoColisao, int x, int y, int z, String detalhes) {
+        return String.format("COLISÃO - Robô %s colidiu com %s na posição (%d, %d, %d) - %s",
+                nome, tipoColisao, x, y, z, detalhes);
+    }
+
+    /** Fim de uma missão. */
+    public static String fim(String nome, int x, int y, int z, String resultado) {
+        return String.format("FIM - Robô %s finalizou missão na posição (%d, %d, %d) - Resultado: %s",
+                nome, x, y, z, resultado);
+    }
+
+    /** Ataque de um robô a outro, na posição do alvo. */
+    public static String ataque(String nome, String alvo, int dano, int x, int y, int z) {
+        return String.format("ATAQUE - Robô %s atacou %s causando %d de dano na posição (%d, %d, %d)",
+                nome, alvo, dano, x, y, z);
+    }
+
+    /** Destruição de um obstáculo. */
+    public static String destruicao(String nome, String obstaculo, String tipo, int x, int y) {
+        return String.format("DESTRUIÇÃO - Robô %s destruiu obstáculo %s (%s) na posição (%d, %d)",
+                nome, obstaculo, tipo, x, y);
+    }
+
+    /** Cabeçalho do planejamento de uma rota. */
+    public static String planejamento(String nome, String origem, String destino) {
+        return String.format("PLANEJAMENTO - Robô %s planeja rota de %s para %s", nome, origem, destino);
+    }
+
+    /** Quantidade de obstáculos no percurso planejado. */
+    public static String obstaculosNoPercurso(int quantidade) {
+        return String.format("  - %d obstáculos detectados no percurso:", quantidade);
+    }
+
+    /** Linha de detalhe de um obstáculo no percurso planejado. */
+    public static String obstaculoNoPercurso(String obstaculo, String tipo, int x, int y) {
+        return String.format("    * %s (%s) em (%d, %d)", obstaculo, tipo, x, y);
+    }
+
+    /** Mudança de estado de um robô. */
+    public static String estado(String nome, String anterior, String novo, int x, int y, int z) {
+        return String.format("ESTADO - Robô %s mudou estado de %s para %s na posição (%d, %d, %d)",
+                nome, anterior, novo, x, y, z);
+    }
+
+    /**
+     * Calcula a distância euclidiana entre duas posições 2D.
+     *
+     * @param x1 Coordenada X do primeiro ponto
+     * @param y1 Coordenada Y do primeiro ponto
+     * @param x2 Coordenada X do segundo ponto
+     * @param y2 Coordenada Y do segundo ponto
+     * @return Distância euclidiana
+     */
+    public static double distancia(int x1, int y1, int x2, int y2) {
+        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
+    }
+}
@@ -3,11 +3,11 @@ package com.robotsim.missions.missionTypes;
 import com.robotsim.environment.Ambiente;
 import com.robotsim.missions.Missao;
 import com.robotsim.missions.Logger;
+import com.robotsim.missions.log.NivelLog;
 import com.robotsim.robots.Robo;
 import com.robotsim.robots.EstadoRobo;
 import com.robotsim.robots.intelligent.types.RoboAtacante;
 
-import java.util.concurrent.TimeUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -43,7 +43,7 @@ public class MissaoDanoGlobal implements Missao {
             com.robotsim.missions.Logger.iniciarMissao("MISSAO_DANO_GLOBAL", robo);
 
             System.out.println("Robô " + robo.getNome() + " iniciando MissaoDanoGlobal.");
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
             RoboAtacante roboAtacante = (RoboAtacante) robo; // Renamed variable to avoid shadowing class name
 
             // Criar uma cópia da lista de robôs para evitar problemas se a lista original
@@ -68,12 +68,12 @@ public class MissaoDanoGlobal implements Missao {
 
                 System.out.println(roboAtacante.getNome() + " tentando se mover para atacar " + alvo.getNome() + " em ("
                         + alvo.getX() + ", " + alvo.getY() + ").");
-                TimeUnit.MILLISECONDS.sleep(1000);
+                robo.getContexto().getRelogio().esperar(1000);
 
                 try {
                     System.out.println(roboAtacante.getNome() + " chegou em (" + alvo.getX() + ", " + alvo.getY()
                             + ") para atacar " + alvo.getNome());
-                    TimeUnit.MILLISECONDS.sleep(1000);
+                    robo.getContexto().getRelogio().esperar(1000);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt(); // Restore interrupted status
                     System.err.println("A espera foi interrompida: " + e.getMessage());
@@ -94,7 +94,7 @@ public class MissaoDanoGlobal implements Missao {
                 }
 
                 System.out.println(roboAtacante.getNome() + " tentando atacar " + alvo.getNome() + ".");
-                TimeUnit.MILLISECONDS.sleep(1000);
+                robo.getContexto().getRelogio().esperar(1000);
                 try {
                     int dano = RoboAtacante.getDanoAtacante();
                     alvo.tomarDano(dano);
@@ -107,13 +107,14 @@ public class MissaoDanoGlobal implements Missao {
                 } catch (IllegalStateException e) {
                     System.out.println(
                             roboAtacante.getNome() + " falhou ao atacar " + alvo.getNome() + ": " + e.getMessage());
-                    com.robotsim.missions.Logger.registrar("MISSAO_DANO_GLOBAL", "Falha no ataque: "
-                            + roboAtacante.getNome() + " -> " + alvo.getNome() + " - " + e.getMessage());
+                    com.robotsim.missions.Logger.registrar(NivelLog.DETALHE, "MISSAO_DANO_GLOBAL",
+                            () -> "Falha no ataque: " + roboAtacante.getNome() + " -> " + alvo.getNome() + " - "
+                                    + e.getMessage());
                 } catch (Exception e) {
                     System.out.println("Erro inesperado ao tentar atacar " + alvo.getNome() + " com "
                             + roboAtacante.getNome() + ": " + e.getMessage());
-                    com.robotsim.missions.Logger.registrar("MISSAO_DANO_GLOBAL",
-                            "Erro inesperado no ataque: " + e.getMessage());
+                    com.robotsim.missions.Logger.registrar(NivelLog.DETALHE, "MISSAO_DANO_GLOBAL",
+                            () -> "Erro inesperado no ataque: " + e.getMessage());
                 }
             }
 
@@ -127,7 +128,7 @@ public class MissaoDanoGlobal implements Missao {
 
             System.out.println(
                     roboAtacante.getNome() + " completou a fase de ataques. Movendo para uma posição aleatória.");
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
 
             int larguraMapa = ambiente.getLargura();
             int alturaMapa = ambiente.getAltura();
@@ -6,10 +6,8 @@ import com.robotsim.missions.Missao;
 import com.robotsim.missions.Logger;
 import com.robotsim.robots.Robo;
 import com.robotsim.robots.EstadoRobo;
-import com.robotsim.util.GeometryMath; // Certifique-se que esta classe e o método de distância estão acessíveis
 
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 public class MissaoDestruirObstaculo implements Missao {
 
@@ -32,7 +30,7 @@ public class MissaoDestruirObstaculo implements Missao {
             Logger.iniciarMissao("MISSAO_DESTRUIR_OBSTACULO", robo);
 
             System.out.println("Robô " + robo.getNome() + " iniciando MissaoDestruirObstaculo.");
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
 
             List<Obstaculo> obstaculos = ambiente.getObstaculos();
 
@@ -46,18 +44,21 @@ public class MissaoDestruirObstaculo implements Missao {
             // Registrar obstáculos detectados no ambiente
             Logger.registrarObstaculosDetectados("MISSAO_DESTRUIR_OBSTACULO", robo, obstaculos);
 
-            Obstaculo obstaculoMaisProximo = null;
-            double menorDistancia = Double.MAX_VALUE;
+            // O campo de distâncias do ambiente já guarda o obstáculo mais próximo de cada
+            // coluna; a lista só é percorrida se nenhum estiver dentro do alcance do campo.
+            Obstaculo obstaculoMaisProximo = ambiente.obstaculoMaisProximo(robo.getX(), robo.getY());
+            double menorDistancia = ambiente.distanciaAoObstaculo(robo.getX(), robo.getY());
 
-            for (Obstaculo obs : obstaculos) {
-                // Usando uma forma comum para distância euclidiana.
-                // Ajuste se o método em GeometryMath tiver uma assinatura diferente (ex:
-                // aceitando Entidades).
-                double distancia = GeometryMath.distanciaEuclidiana(robo, obs.getX(), obs.getY());
-
-                if (distancia < menorDistancia) {
-                    menorDistancia = distancia;
-                    obstaculoMaisProximo = obs;
+            if (obstaculoMaisProximo == null) {
+                menorDistancia = Double.MAX_VALUE;
+                for (Obstaculo obs : obstaculos) {
+                    // Distância até a área do obstáculo, como no campo de distâncias.
+                    double distancia = Math.sqrt(obs.distanciaQuadrada(robo.getX(), robo.getY()));
+
+                    if (distancia < menorDistancia) {
+                        menorDistancia = distancia;
+                        obstaculoMaisProximo = obs;
+                    }
                 }
             }
 
@@ -78,7 +79,7 @@ public class MissaoDestruirObstaculo implements Missao {
             // Registrar obstáculo alvo identificado
             Logger.registrarObstaculoDetectado("MISSAO_DESTRUIR_OBSTACULO", robo, obstaculoMaisProximo);
 
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
 
             int xAlvoObstaculo = obstaculoMaisProximo.getX();
             int yAlvoObstaculo = obstaculoMaisProximo.getY();
@@ -103,9 +104,9 @@ public class MissaoDestruirObstaculo implements Missao {
             // Registrar destruição do obstáculo
             Logger.registrarDestruicaoObstaculo("MISSAO_DESTRUIR_OBSTACULO", robo, obstaculoMaisProximo);
 
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
             System.out.println("Obstáculo " + obstaculoMaisProximo.getNome() + " destruído completamente!");
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
 
             robo.setX(xAlvoObstaculo);
             robo.setY(yAlvoObstaculo);
@@ -113,14 +114,14 @@ public class MissaoDestruirObstaculo implements Missao {
             // antigo centro do obstáculo.
             System.out.println(robo.getNome() + " finalizou a ação na posição (" + robo.getX() + ", " + robo.getY() +
                     "), que era o local do obstáculo " + obstaculoMaisProximo.getNome() + ".");
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
 
             System.out.println("MissaoDestruirObstaculo concluída para " + robo.getNome() + ".");
 
             // Registrar finalização da missão
             Logger.finalizarMissao("MISSAO_DESTRUIR_OBSTACULO", robo, "Sucesso - Obstáculo destruído");
 
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Restore interrupted status
             System.err.println("A espera foi interrompida: " + e.getMessage());
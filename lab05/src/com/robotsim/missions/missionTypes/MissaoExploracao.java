@@ -2,7 +2,6 @@ package com.robotsim.missions.missionTypes;
 
 import com.robotsim.environment.Ambiente;
 import com.robotsim.environment.obstacle.Obstaculo;
-import com.robotsim.environment.obstacle.TipoObstaculo;
 import com.robotsim.missions.Missao;
 import com.robotsim.missions.Logger;
 import com.robotsim.robots.Robo;
@@ -13,7 +12,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Missão que faz o robô tentar andar em uma direção aleatória até um ponto
@@ -41,7 +39,7 @@ public class MissaoExploracao implements Missao {
 
             System.out.println(
                     "Robô " + robo.getNome() + " iniciando Missão de Exploração Direta com Lista de Obstáculos.");
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
 
             double anguloAleatorio = random.nextDouble() * 2 * Math.PI; // Ângulo em radianos
 
@@ -63,12 +61,12 @@ public class MissaoExploracao implements Missao {
             String origem = "(" + xInicial + "," + yInicial + ")";
             String destino = "(" + xDestinoFinal + "," + yDestinoFinal + ")";
 
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
 
             // 1. Listar obstáculos na reta da direção aleatória (até
             // DISTANCIA_MAX_EXPLORACAO)
             System.out.println("Verificando obstáculos na trajetória reta...");
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
             List<Obstaculo> obstaculosNaReta = new ArrayList<>();
             Set<Obstaculo> obstaculosJaAdicionados = new HashSet<>();
 
@@ -82,13 +80,15 @@ public class MissaoExploracao implements Missao {
             int err = dx_abs - dy_abs;
 
             while (true) {
-                for (Obstaculo obs : ambiente.getObstaculos()) {
-                    if (pontoEstaNoObstaculo(atualX, atualY, obs, robo) && !obstaculosJaAdicionados.contains(obs)) {
-                        obstaculosNaReta.add(obs);
-                        obstaculosJaAdicionados.add(obs);
-                        // Registrar obstáculo detectado durante planejamento
-                        Logger.registrarObstaculoDetectado("MISSAO_EXPLORACAO", robo, obs);
-                    }
+                // Dentro de um obstáculo, o mais próximo do campo de distâncias é o próprio
+                // obstáculo, então cada passo custa uma única consulta.
+                Obstaculo obs = ambiente.obstaculoMaisProximo(atualX, atualY);
+                if (obs != null && pontoEstaNoObstaculo(atualX, atualY, obs, robo)
+                        && !obstaculosJaAdicionados.contains(obs)) {
+                    obstaculosNaReta.add(obs);
+                    obstaculosJaAdicionados.add(obs);
+                    // Registrar obstáculo detectado durante planejamento
+                    Logger.registrarObstaculoDetectado("MISSAO_EXPLORACAO", robo, obs);
                 }
 
                 if (atualX == xDestinoFinal && atualY == yDestinoFinal) {
@@ -130,15 +130,15 @@ public class MissaoExploracao implements Missao {
 
             if (obstaculosNaReta.isEmpty()) {
                 System.out.println("Nenhum obstáculo interceptaria a trajetória reta.");
-                TimeUnit.MILLISECONDS.sleep(1000);
+                robo.getContexto().getRelogio().esperar(1000);
             } else {
                 System.out.println("Obstáculos que interceptariam a trajetória reta:");
-                TimeUnit.MILLISECONDS.sleep(1000);
+                robo.getContexto().getRelogio().esperar(1000);
                 for (Obstaculo obs : obstaculosNaReta) {
                     System.out.println("- Obstáculo: " + obs.getNome() + " (" + obs.getTipoObstaculo().name() + ") em ("
                             + obs.getX() + ", " + obs.getY() + ")");
                 }
-                TimeUnit.MILLISECONDS.sleep(1000);
+                robo.getContexto().getRelogio().esperar(1000);
             }
 
             // Registrar planejamento de rota com obstáculos encontrados
@@ -159,16 +159,16 @@ public class MissaoExploracao implements Missao {
                 robo.setX(xDestinoFinal);
                 robo.setY(yDestinoFinal);
             }
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
 
             System.out.println("Missão de Exploração concluída para " + robo.getNome() + ".");
 
             // Registrar finalização da missão
             Logger.finalizarMissao("MISSAO_EXPLORACAO", robo, "Sucesso - Exploração completada");
 
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
             System.out.println("Posição final do robô: (" + robo.getX() + ", " + robo.getY() + ")");
-            TimeUnit.MILLISECONDS.sleep(1000);
+            robo.getContexto().getRelogio().esperar(1000);
         } catch (Exception e) {
             System.err.println("Erro ao executar Missão de Exploração: " + e.getMessage());
             Logger.finalizarMissao("MISSAO_EXPLORACAO", robo, "Falha - Erro durante execução: " + e.getMessage());
@@ -183,17 +183,7 @@ public class MissaoExploracao implements Missao {
      * uma classe utilitária.
      */
     private boolean pontoEstaNoObstaculo(int pontoX, int pontoY, Obstaculo obstaculo, Robo robo) {
-        TipoObstaculo tipoObs = obstaculo.getTipoObstaculo();
-        int obsX = obstaculo.getX();
-        int obsY = obstaculo.getY();
-
-        int obsSupX = obsX + (tipoObs.getComprimento() - 1) / 2;
-        int obsSupY = obsY + (tipoObs.getLargura() - 1) / 2;
-        int obsInfX = obsX - (tipoObs.getComprimento() - 1) / 2;
-        int obsInfY = obsY - (tipoObs.getLargura() - 1) / 2;
-
-        boolean colisao2D = (pontoX >= obsInfX && pontoX <= obsSupX &&
-                pontoY >= obsInfY && pontoY <= obsSupY);
+        boolean colisao2D = obstaculo.contem(pontoX, pontoY);
 
         if (!colisao2D) {
             return false;
@@ -0,0 +1,85 @@
+package com.robotsim.robots;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera os identificadores dos robôs. Cada classe concreta de robô tem o seu
+ * próprio contador atômico, então robôs criados em paralelo, por exemplo na
+ * geração de vários mundos, nunca recebem o mesmo ID.
+ * <p>
+ * O ID é alocado como um número compacto ({@code long}) que junta o código da
+ * classe e o valor do contador. O texto exibido (por exemplo, {@code "RTa01"}
+ * para o primeiro {@code RoboTanque}) é formado pelo prefixo da classe,
+ * calculado uma única vez, seguido do contador com ao menos dois dígitos, e só
+ * é montado quando alguém o pede.
+ */
+public final class AlocadorIds {
+    // Código da próxima classe de robô vista pelo alocador.
+    private static final AtomicInteger proximoCodigo = new AtomicInteger();
+
+    // Prefixo, código e contador de cada classe, calculados no primeiro robô dela.
+    private static final ClassValue<Sequencia> sequencias = new ClassValue<>() {
+        @Override
+        protected Sequencia computeValue(Class<?> classe) {
+            return new Sequencia(calcularPrefixo(classe), proximoCodigo.getAndIncrement());
+        }
+    };
+
+    private AlocadorIds() {
+    }
+
+    /**
+     * Aloca o próximo ID de uma classe de robô. Pode ser chamado por várias
+     * threads ao mesmo tempo.
+     *
+     * @param classe A classe concreta do robô.
+     * @return O ID numérico, com o código da classe nos 32 bits altos e o
+     *         contador (a partir de 1) nos 32 bits baixos.
+     */
+    public static long alocar(Class<? extends Robo> classe) {
+        Sequencia sequencia = sequencias.get(classe);
+        return ((long) sequencia.codigo << 32) | sequencia.contador.incrementAndGet();
+    }
+
+    /**
+     * Monta o texto de um ID alocado para a classe informada.
+     *
+     * @param classe A classe concreta do robô.
+     * @param id     O ID numérico devolvido por {@link #alocar(Class)}.
+     * @return O prefixo da classe seguido do contador com ao menos dois dígitos.
+     */
+    public static String formatar(Class<? extends Robo> classe, long id) {
+        int contador = (int) id;
+        String prefixo = sequencias.get(classe).prefixo;
+        return contador < 10 ? prefixo + '0' + contador : prefixo + contador;
+    }
+
+    /**
+     * Forma o prefixo de uma classe a partir da hierarquia até {@link Robo}: a
+     * inicial da classe logo abaixo de Robo, seguida de dois caracteres do nome
+     * de cada classe abaixo dela (depois do "Robo" inicial, quando houver).
+     */
+    private static String calcularPrefixo(Class<?> classe) {
+        StringBuilder prefixo = new StringBuilder();
+        for (Class<?> atual = classe; atual != Robo.class && atual != null; atual = atual.getSuperclass()) {
+            String nome = atual.getSimpleName();
+            if (atual.getSuperclass() == Robo.class)
+                prefixo.insert(0, nome.charAt(0));
+            else
+                prefixo.insert(0, nome.length() > 4 ? nome.substring(4, Math.min(6, nome.length())) : nome);
+        }
+        return prefixo.toString();
+    }
+
+    /** Estado de uma classe de robô no alocador. */
+    private static final class Sequencia {
+        private final String prefixo; // Prefixo textual dos IDs da classe.
+        private final int codigo; // Código numérico da classe.
+        private final AtomicInteger contador = new AtomicInteger(); // Último contador alocado.
+
+        private Sequencia(String prefixo, int codigo) {
+            this.prefixo = prefixo;
+            this.codigo = codigo;
+        }
+    }
+}
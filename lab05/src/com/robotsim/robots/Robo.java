@@ -3,16 +3,16 @@ package com.robotsim.robots;
 import java.util.ArrayList;
 import java.util.Scanner;
 
-import com.robotsim.Controlador;
 import com.robotsim.environment.entity.Comunicavel;
 import com.robotsim.environment.entity.Entidade;
 import com.robotsim.environment.entity.TipoEntidade;
+import com.robotsim.util.ResultadoColisao;
 import com.robotsim.util.TesteColisao;
 import com.robotsim.etc.Acao;
-import com.robotsim.exceptions.ColisaoException;
 import com.robotsim.exceptions.ErroComunicacaoException;
 import com.robotsim.exceptions.RoboDesligadoException;
 import com.robotsim.robots.sensors.Sensor;
+import com.robotsim.simulation.SimulationContext;
 
 /**
  * A classe Robo é a classe base para todos os tipos de robôs no simulador.
@@ -21,7 +21,9 @@ import com.robotsim.robots.sensors.Sensor;
 public abstract class Robo implements Comunicavel, Entidade {
     /** Nome identificador do robô. */
     private String nome; // Nome do robô.
-    /** Identificador único do robô, gerado automaticamente. */
+    /** Identificador único do robô, alocado pelo {@link AlocadorIds}. */
+    private final long idNumerico; // Id compacto do robô.
+    /** Texto do identificador, montado na primeira vez em que é pedido. */
     private String id; // Id do robô.
     /** Categoria da entidade (neste caso, ROBO). */
     private TipoEntidade tipo; // Tipo da entidade.
@@ -46,6 +48,20 @@ public abstract class Robo implements Comunicavel, Entidade {
      * Lista de sensores equipados no robô.
      */
     protected ArrayList<Sensor> sensores; // Sensores do robô
+    /**
+     * Contexto (mundo) ao qual o robô pertence, vinculado quando o robô é
+     * adicionado a um ambiente.
+     */
+    private SimulationContext contexto; // Mundo do robô.
+    /**
+     * Resultado do último teste de colisão, reaproveitado a cada movimento.
+     */
+    protected final ResultadoColisao resultadoColisao = new ResultadoColisao(); // Evita alocações ao mover.
+    /**
+     * Estado da busca de contato do modo de colisão por varredura, reiniciado a
+     * cada movimento.
+     */
+    private final TesteColisao.BuscaContato buscaContato = new TesteColisao.BuscaContato(); // Evita alocações ao mover.
 
     /**
      * Construtor para robôs, inicializando-os em uma posição 2D (z=0).
@@ -57,12 +73,6 @@ public abstract class Robo implements Comunicavel, Entidade {
      */
     public Robo(String nome, int x, int y, int HP) {
         this(nome, x, y, 0, HP);
-        this.id = criaID(getContador());
-        this.tipo = TipoEntidade.ROBO;
-        this.estado = EstadoRobo.LIGADO;
-        this.acoes = new ArrayList<>();
-        this.sensores = new ArrayList<>();
-        inicializarAcoes();
     }
 
     /**
@@ -79,7 +89,7 @@ public abstract class Robo implements Comunicavel, Entidade {
         this.x = x;
         this.y = y;
         this.HP = HP;
-        this.id = criaID(getContador());
+        this.idNumerico = AlocadorIds.alocar(getClass());
         this.tipo = TipoEntidade.ROBO;
         this.estado = EstadoRobo.LIGADO;
         this.acoes = new ArrayList<>();
@@ -98,6 +108,7 @@ public abstract class Robo implements Comunicavel, Entidade {
             this.estado = EstadoRobo.DESLIGADO;
         else
             this.estado = EstadoRobo.LIGADO;
+        notificarEstado();
         return (this.estado == EstadoRobo.LIGADO);
     }
 
@@ -138,38 +149,86 @@ public abstract class Robo implements Comunicavel, Entidade {
         }
     }
 
+    /**
+     * Move o robô sem depender de entrada do usuário, caso o robô esteja ligado.
+     * Utilizado por clientes programáticos do
+     * {@link com.robotsim.simulation.SimulationEngine}.
+     *
+     * @param deltaX Deslocamento no eixo X.
+     * @param deltaY Deslocamento no eixo Y.
+     * @throws RoboDesligadoException Se o robô estiver desligado.
+     */
+    public void executarMovimento(int deltaX, int deltaY) throws RoboDesligadoException {
+        if (this.estado != EstadoRobo.LIGADO) {
+            throw new RoboDesligadoException("O robô " + this.nome + " está desligado e não pode se mover.");
+        }
+        mover(deltaX, deltaY);
+    }
+
     /**
      * Move o robô para uma nova posição, considerando colisões e limites do
      * ambiente.
-     * 
+     *
      * @param deltaX Deslocamento no eixo X.
      * @param deltaY Deslocamento no eixo Y.
      */
 
     protected void mover(int deltaX, int deltaY) {
+        if (!prepararMovimento(deltaX, deltaY))
+            return;
+
         int xFinal = this.x + deltaX;
         int yFinal = this.y + deltaY;
 
-        try {
-            Controlador.getAmbiente()
-                    .dentroDosLimites(xFinal, yFinal, 0);
-
-            int[] dadosPossivelColisao = TesteColisao.dadosColisao(this, xFinal, yFinal);
-
-            this.x = dadosPossivelColisao[0];
-            this.y = dadosPossivelColisao[1];
-            if (TesteColisao.existeColisao(dadosPossivelColisao)) {
-                System.out.printf(
-                        "Colisão detectada! Parando na posição (%d, %d)\n", x, y);
-            }
-            if (dadosPossivelColisao[2] != 0) {
-                this.tomarDano(dadosPossivelColisao[2]);
-            }
-        } catch (ColisaoException e) {
+        // Apenas os limites do ambiente são verificados aqui; colisões com robôs e
+        // obstáculos ao longo do caminho são tratadas pelo TesteColisao.
+        if (!getContexto().getAmbiente().dentroDoMapa(xFinal, yFinal, 0)) {
             System.out.println("Você estará fora dos limites do ambiente. Ação cancelada!");
+            return;
+        }
+
+        // O resultado é reaproveitado entre movimentos, evitando alocações.
+        TesteColisao.calcularColisao(this, xFinal, yFinal, resultadoColisao);
 
+        reposicionar(resultadoColisao.getX(), resultadoColisao.getY(), this.z);
+        if (resultadoColisao.houveColisao()) {
+            System.out.printf(
+                    "Colisão detectada! Parando na posição (%d, %d)\n", x, y);
         }
+        if (resultadoColisao.getDano() != 0) {
+            this.tomarDano(resultadoColisao.getDano());
+        }
+    }
 
+    /**
+     * Aplica as regras próprias de cada tipo de robô antes de um movimento no
+     * plano (ex: velocidade máxima, consumo de bateria). É chamado por
+     * {@link #mover(int, int)} e pela fase de movimentos em lote do
+     * {@link com.robotsim.simulation.SimulationEngine}, antes de qualquer
+     * verificação de colisão.
+     *
+     * @param deltaX Deslocamento desejado no eixo X.
+     * @param deltaY Deslocamento desejado no eixo Y.
+     * @return {@code true} se o movimento pode prosseguir.
+     */
+    public boolean prepararMovimento(int deltaX, int deltaY) {
+        return true;
+    }
+
+    /**
+     * Conclui um movimento já resolvido fora do robô (ex: pela fase de
+     * movimentos em lote do {@link com.robotsim.simulation.SimulationEngine}),
+     * atualizando a posição e aplicando o dano da colisão, se houver.
+     *
+     * @param x    A coordenada X final.
+     * @param y    A coordenada Y final.
+     * @param dano O dano sofrido no caminho (0 se não houve colisão com obstáculo).
+     */
+    public void concluirMovimento(int x, int y, int dano) {
+        reposicionar(x, y, this.z);
+        if (dano != 0) {
+            this.tomarDano(dano);
+        }
     }
 
     /**
@@ -181,7 +240,7 @@ public abstract class Robo implements Comunicavel, Entidade {
         this.HP -= dano;
         System.out.printf("O robo %s foi atingido com sucesso!\n", this.nome);
         if (this.HP < 0)
-            Controlador.getAmbiente().removerEntidade(this);
+            getContexto().getAmbiente().removerEntidade(this);
     }
 
     /**
@@ -207,7 +266,7 @@ public abstract class Robo implements Comunicavel, Entidade {
             throw new RoboDesligadoException("O robô %s está desligado.".formatted(this.nome));
 
         comunicavel.receberMensagens(mensagem);
-        Controlador.getComunicacao().registrarMensagem(this.nome, mensagem);
+        getContexto().getComunicacao().registrarMensagem(this.nome, mensagem);
     }
 
     /**
@@ -259,7 +318,7 @@ public abstract class Robo implements Comunicavel, Entidade {
      * @param x A nova coordenada X.
      */
     public void setX(int x) {
-        this.x = x;
+        reposicionar(x, this.y, this.z);
     }
 
     /**
@@ -277,7 +336,7 @@ public abstract class Robo implements Comunicavel, Entidade {
      * @param y A nova coordenada Y.
      */
     public void setY(int y) {
-        this.y = y;
+        reposicionar(this.x, y, this.z);
     }
 
     /**
@@ -295,9 +354,58 @@ public abstract class Robo implements Comunicavel, Entidade {
      * @param z A nova coordenada Z.
      */
     public void setZ(int z) {
+        reposicionar(this.x, this.y, z);
+    }
+
+    /**
+     * Atualiza a posição do robô, avisando o ambiente ao qual ele pertence para
+     * que o mapa de ocupação e o mapa de alturas acompanhem o movimento.
+     *
+     * @param x A nova coordenada X.
+     * @param y A nova coordenada Y.
+     * @param z A nova coordenada Z.
+     */
+    protected void reposicionar(int x, int y, int z) {
+        if (contexto != null)
+            contexto.getAmbiente().moverEntidade(this, x, y, z);
+        this.x = x;
+        this.y = y;
         this.z = z;
     }
 
+    /**
+     * Obtém o contexto (mundo) ao qual o robô pertence.
+     *
+     * @return O {@link SimulationContext} do robô.
+     * @throws IllegalStateException Se o robô ainda não foi adicionado a nenhum
+     *                               ambiente.
+     */
+    public SimulationContext getContexto() {
+        if (contexto == null)
+            throw new IllegalStateException("O robô " + nome + " não pertence a nenhum ambiente.");
+        return contexto;
+    }
+
+    /**
+     * Obtém o estado reutilizado por {@link TesteColisao} para buscar o primeiro
+     * contato de um movimento no modo de colisão por varredura.
+     *
+     * @return A busca de contato do robô.
+     */
+    public TesteColisao.BuscaContato getBuscaContato() {
+        return buscaContato;
+    }
+
+    /**
+     * Vincula o robô a um contexto. Chamado pelo {@link
+     * com.robotsim.environment.Ambiente} quando o robô é adicionado.
+     *
+     * @param contexto O contexto do mundo ao qual o robô passa a pertencer.
+     */
+    public void setContexto(SimulationContext contexto) {
+        this.contexto = contexto;
+    }
+
     /**
      * Obtém o nome do robô.
      *
@@ -340,7 +448,23 @@ public abstract class Robo implements Comunicavel, Entidade {
      * @return O ID do robô.
      */
     public String getId() {
-        return id;
+        // O texto é sempre o mesmo, então uma corrida entre threads só o monta duas vezes.
+        String texto = id;
+        if (texto == null) {
+            texto = AlocadorIds.formatar(getClass(), idNumerico);
+            id = texto;
+        }
+        return texto;
+    }
+
+    /**
+     * Obtém o ID único do robô na forma numérica compacta, mais barata de
+     * comparar e de guardar do que o texto.
+     *
+     * @return O ID numérico do robô.
+     */
+    public long getIdNumerico() {
+        return idNumerico;
     }
 
     /**
@@ -368,6 +492,16 @@ public abstract class Robo implements Comunicavel, Entidade {
      */
     public void setEstado(EstadoRobo estado) {
         this.estado = estado;
+        notificarEstado();
+    }
+
+    /**
+     * Avisa o ambiente ao qual o robô pertence que seu estado mudou, para que a
+     * lista de robôs ligados seja atualizada.
+     */
+    private void notificarEstado() {
+        if (contexto != null)
+            contexto.getAmbiente().atualizarEstado(this);
     }
 
     /**
@@ -414,7 +548,7 @@ public abstract class Robo implements Comunicavel, Entidade {
          */
         @Override
         public void executar() {
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
 
             System.out.print("O quento quer andar no eixo X? ");
             int deltaX = scanner.nextInt();
@@ -426,43 +560,4 @@ public abstract class Robo implements Comunicavel, Entidade {
             robo.mover(deltaX, deltaY);
         }
     }
-
-    /**
-     * Cria um ID único para o robô.
-     * O ID é formado por caracteres do nome da classe e suas superclasses,
-     * concatenados com um contador formatado.
-     *
-     * @param contador Um número inteiro usado para diferenciar instâncias da mesma
-     *                 subclasse de robô.
-     * @return Uma string representando o ID único gerado para o robô.
-     */
-    protected String criaID(int contador) {
-        // Formata o contador para ter dois dígitos, adicionando um zero à esquerda se
-        // necessário.
-        // Exemplo: contador 1 se torna "01", contador 10 se torna "10".
-        String id = String.valueOf(contador);
-        if (contador < 10) {
-            id = '0' + id;
-        }
-
-        Class<?> classeAtual = this.getClass();
-        while (true) {
-            String specs = classeAtual.getSimpleName();
-            classeAtual = classeAtual.getSuperclass();
-            if (classeAtual == Robo.class) {
-                id = specs.charAt(0) + id;
-                break;
-            }
-            id = specs.charAt(4) + specs.charAt(5) + id;
-        }
-        return id;
-    }
-
-    /**
-     * Método abstrato que deve ser implementado pelas subclasses para fornecer
-     * um contador específico para a geração de IDs.
-     *
-     * @return O valor do contador da subclasse.
-     */
-    protected abstract int getContador();
 }
@@ -2,10 +2,10 @@ package com.robotsim.robots.aerials;
 
 import java.util.Scanner;
 
-import com.robotsim.Controlador;
+import com.robotsim.environment.Ambiente;
 import com.robotsim.etc.Acao;
-import com.robotsim.exceptions.ColisaoException;
 import com.robotsim.robots.Robo;
+import com.robotsim.util.TesteColisao;
 
 /**
  * Representa um robô aéreo genérico.
@@ -39,7 +39,7 @@ public abstract class RoboAereo extends Robo { // Implementa Atacante
 
     /**
      * Inicializa as ações específicas do RoboAereo.
-     * Adiciona as ações de "Subir" e "Descer" à lista de ações do robô.
+     * Adiciona as ações de "Subir", "Descer" e "Voar" à lista de ações do robô.
      * Chama o método da superclasse para inicializar ações comuns.
      */
     @Override
@@ -47,44 +47,80 @@ public abstract class RoboAereo extends Robo { // Implementa Atacante
         super.inicializarAcoes();
         acoes.add(new Subir(this));
         acoes.add(new Descer(this));
+        acoes.add(new Voar(this));
     }
 
     /**
      * Permite ao robô subir, aumentando sua altitude (coordenada Z).
-     * A subida é limitada pela {@link #altitudeMaxima} e pelos limites do ambiente.
+     * A subida é limitada pela {@link #altitudeMaxima} e pelos limites do
+     * ambiente, e é interrompida se houver um obstáculo ou robô no caminho.
      *
      * @param deltaZ A quantidade a ser adicionada à altitude atual.
      */
     public void subir(int deltaZ) {
-        try {
-            Controlador.getAmbiente()
-                    .dentroDosLimites(this.getX(), this.getY(),
-                            this.getZ() + deltaZ);
-            this.setZ(this.getZ() + deltaZ);
-        } catch (ColisaoException e) {
-
-            System.out.printf("\nVocê subiu... E subiu... Até atingir " +
-                    "os limites das máquinas modernas e parou na altura " +
-                    "máxima de %d", altitudeMaxima);
-        }
+        voar(0, 0, deltaZ);
     }
 
     /**
      * Método que permite ao robô descer uma determinada altitude.
      * <p>
      * O robô não pode descer abaixo de 0. Caso o decremento ultrapasse o limite, a
-     * altitude será ajustada para 0.
+     * altitude será ajustada para 0. A descida é interrompida se houver um
+     * obstáculo ou robô no caminho.
      *
      * @param deltaZ Valor a ser decrementado na altitude.
      */
     public void descer(int deltaZ) {
-        try {
-            Controlador.getAmbiente()
-                    .dentroDosLimites(this.getX(), this.getY(),
-                            this.getZ() - deltaZ);
-            this.setZ(this.getZ() - deltaZ);
-        } catch (ColisaoException e) {
-            this.setZ(0);
+        voar(0, 0, -deltaZ);
+    }
+
+    /**
+     * Move o robô nos três eixos ao mesmo tempo.
+     * <p>
+     * Toda a trajetória é verificada por
+     * {@link TesteColisao#calcularColisao3D(RoboAereo, int, int, int, com.robotsim.util.ResultadoColisao)},
+     * que considera a altura dos obstáculos e a altitude dos outros robôs. Em caso
+     * de colisão, o robô para no último voxel livre e sofre o dano do obstáculo,
+     * se houver. A altitude final é limitada entre 0 e a {@link #altitudeMaxima}
+     * (ou o teto do ambiente, se for menor).
+     * <p>
+     * Assim como em {@link #mover(int, int)}, as regras do tipo de robô
+     * ({@link #prepararMovimento(int, int)}, como o consumo de bateria do
+     * {@link RoboDrone}) são aplicadas antes de qualquer verificação.
+     *
+     * @param deltaX Deslocamento desejado no eixo X.
+     * @param deltaY Deslocamento desejado no eixo Y.
+     * @param deltaZ Deslocamento desejado no eixo Z.
+     */
+    public void voar(int deltaX, int deltaY, int deltaZ) {
+        if (!prepararMovimento(deltaX, deltaY))
+            return;
+
+        Ambiente ambiente = getContexto().getAmbiente();
+        int xFinal = this.getX() + deltaX;
+        int yFinal = this.getY() + deltaY;
+
+        if (!ambiente.dentroDoMapa(xFinal, yFinal, 0)) {
+            System.out.println("Você estará fora dos limites do ambiente. Ação cancelada!");
+            return;
+        }
+
+        int teto = Math.min(altitudeMaxima, ambiente.getAltura() - 1);
+        int zFinal = Math.max(0, Math.min(teto, this.getZ() + deltaZ));
+        if (this.getZ() + deltaZ > teto) {
+            System.out.printf("\nVocê subiu... E subiu... Até atingir " +
+                    "os limites das máquinas modernas e parou na altura " +
+                    "máxima de %d\n", teto);
+        }
+
+        TesteColisao.calcularColisao3D(this, xFinal, yFinal, zFinal, resultadoColisao);
+
+        reposicionar(resultadoColisao.getX(), resultadoColisao.getY(), resultadoColisao.getZ());
+        if (resultadoColisao.houveColisao()) {
+            System.out.printf("Colisão detectada! Parando na posição (%d, %d, %d)\n", getX(), getY(), getZ());
+        }
+        if (resultadoColisao.getDano() != 0) {
+            this.tomarDano(resultadoColisao.getDano());
         }
     }
 
@@ -130,7 +166,7 @@ public abstract class RoboAereo extends Robo { // Implementa Atacante
          */
         @Override
         public void executar() {
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
             System.out.print("Digite a altitude a descer: ");
             int deltaZ = scanner.nextInt();
 
@@ -176,7 +212,7 @@ public abstract class RoboAereo extends Robo { // Implementa Atacante
          */
         @Override
         public void executar() {
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
             System.out.print("Digite a altitude a subir: ");
             int deltaZ = scanner.nextInt();
 
@@ -190,4 +226,54 @@ public abstract class RoboAereo extends Robo { // Implementa Atacante
             robo.subir(deltaZ);
         }
     }
+
+    /**
+     * Classe interna que implementa a ação de voar para um {@link RoboAereo}.
+     * Permite mover o robô nos três eixos em um único movimento.
+     */
+    private class Voar implements Acao {
+        /** O robô aéreo que executará a ação de voar. */
+        RoboAereo robo;
+
+        /**
+         * Construtor para a ação Voar.
+         * 
+         * @param robo O {@link RoboAereo} associado a esta ação.
+         */
+        public Voar(RoboAereo robo) {
+            this.robo = robo;
+        }
+
+        /**
+         * Obtém o nome da ação.
+         * 
+         * @return O nome da ação ("Voar").
+         */
+        @Override
+        public String getNome() {
+            return "Voar";
+        }
+
+        /**
+         * Executa a ação de voar.
+         * Solicita ao usuário os deslocamentos nos três eixos e chama o método
+         * {@link RoboAereo#voar(int, int, int)}.
+         */
+        @Override
+        public void executar() {
+            Scanner scanner = robo.getContexto().getScanner();
+
+            System.out.print("O quanto quer voar no eixo X? ");
+            int deltaX = scanner.nextInt();
+
+            System.out.print("O quanto quer voar no eixo Y? ");
+            int deltaY = scanner.nextInt();
+
+            System.out.print("O quanto quer voar no eixo Z? ");
+            int deltaZ = scanner.nextInt();
+            scanner.nextLine(); // Consumir \n.
+
+            robo.voar(deltaX, deltaY, deltaZ);
+        }
+    }
 }
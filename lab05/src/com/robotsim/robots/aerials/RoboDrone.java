@@ -1,6 +1,6 @@
 package com.robotsim.robots.aerials;
 
-import com.robotsim.Controlador;
+import com.robotsim.environment.Ambiente;
 import com.robotsim.environment.entity.Entidade;
 import com.robotsim.robots.Robo;
 import com.robotsim.robots.abilities.Explorador;
@@ -23,8 +23,6 @@ import java.util.List;
 public class RoboDrone extends RoboAereo implements Explorador {
     /** Nível atual da bateria do drone. */
     private int bateria = 50;
-    /** Contador estático para gerar IDs únicos para instâncias de RoboDrone. */
-    private static int contador = 0;
 
     /**
      * Construtor para RoboDrone.
@@ -64,44 +62,36 @@ public class RoboDrone extends RoboAereo implements Explorador {
     }
 
     /**
-     * Move o RoboDrone, consumindo bateria proporcionalmente à distância percorrida.
+     * Consome bateria proporcionalmente à distância do movimento.
      * Se a bateria se esgotar (chegar a zero ou menos), o drone é removido do ambiente
-     * e causa dano de autodestruição a {@link Entidade} próximas (dentro de um raio de 5 unidades).
-     * Caso contrário, o movimento é realizado normalmente e o nível de bateria restante é exibido.
+     * e causa dano de autodestruição a {@link Entidade} próximas (dentro de um raio de 5 unidades),
+     * e o movimento não é realizado. Caso contrário, o nível de bateria restante é exibido.
      *
      * @param deltaX Deslocamento desejado no eixo X.
      * @param deltaY Deslocamento desejado no eixo Y.
+     * @return {@code true} se ainda há bateria para o movimento.
      */
-    protected void mover(int deltaX, int deltaY) {
+    @Override
+    public boolean prepararMovimento(int deltaX, int deltaY) {
         this.bateria -= Math.abs(deltaX) + Math.abs(deltaY);
 
         if (this.bateria <= 0) {
             System.out.println("Bateria esgotada! RoboDrone não pode mais exitir... Destruindo RoboDrone...");
-            for (Entidade entidade : Controlador.getAmbiente().getEntidades()) {
-                if (entidade instanceof Robo &&
-                        GeometryMath.distanciaEuclidiana((Robo) this, entidade.getX(), entidade.getY()) <= 5) {
-                    System.out.println(((Robo) entidade).getNome() + " está próximo demais! Tomou muito dano!!");
-                    ((Robo) entidade).tomarDano(100); // Causa dano ao robô próximo.
+            // Consulta apenas os robôs da vizinhança. A lista devolvida é uma cópia, então
+            // tomarDano pode remover robôs do ambiente durante a iteração.
+            Ambiente ambiente = getContexto().getAmbiente();
+            for (Robo robo : ambiente.robosNaCaixa(getX() - 5, getY() - 5, 0, getX() + 5, getY() + 5,
+                    ambiente.getAltura() - 1)) {
+                if (GeometryMath.distanciaEuclidiana((Robo) this, robo.getX(), robo.getY()) <= 5) {
+                    System.out.println(robo.getNome() + " está próximo demais! Tomou muito dano!!");
+                    robo.tomarDano(100); // Causa dano ao robô próximo.
                 }
             }
-            Controlador.getAmbiente().removerEntidade(this); // Remove o robô do ambiente.
-        } else {
-            super.mover(deltaX, deltaY); // Chama o método da superclasse para movimentação.
-            System.out.printf("Sua bateria está em %d%n", this.bateria);
+            getContexto().getAmbiente().removerEntidade(this); // Remove o robô do ambiente.
+            return false;
         }
-    }
-
-    /**
-     * Obtém o contador estático usado para gerar IDs únicos para instâncias de {@link RoboDrone}.
-     * Este método é chamado durante a criação do ID do robô na classe base {@link Robo}.
-     * Incrementa o contador a cada chamada para garantir a unicidade do próximo ID.
-     *
-     * @return O valor atualizado do contador específico para RoboDrone.
-     */
-    @Override
-    protected int getContador() {
-        contador++;
-        return contador;
+        System.out.printf("Sua bateria está em %d%n", this.bateria);
+        return super.prepararMovimento(deltaX, deltaY);
     }
 
     /**
@@ -114,7 +104,7 @@ public class RoboDrone extends RoboAereo implements Explorador {
     public List<Entidade> escanearArea() {
         System.out.println(this.getNome() + " escaneando área...");
         ArrayList<Entidade> entidadesDetectadas = new ArrayList<>();
-        for (Entidade entidade : Controlador.getAmbiente().getEntidades()) {
+        for (Entidade entidade : getContexto().getAmbiente().getEntidades()) {
             if (entidade != this && GeometryMath.distanciaEuclidiana(this, entidade.getX(), entidade.getY()) <= 30) {
                 entidadesDetectadas.add(entidade);
                 System.out.println("Entidade detectada: " + entidade.getClass().getSimpleName() + " em ("
@@ -3,7 +3,7 @@ package com.robotsim.robots.aerials;
 import java.util.ArrayList;
 import java.util.Scanner;
 
-import com.robotsim.Controlador;
+import com.robotsim.environment.Ambiente;
 import com.robotsim.environment.entity.Entidade;
 import com.robotsim.etc.Acao;
 import com.robotsim.robots.Robo;
@@ -35,8 +35,6 @@ public class RoboJato extends RoboAereo implements Atacante {
     private final int danoMissil = 250;
     /** Dano causado por cada rajada de metralhadora. */
     private final int danoMetralhadora = 180;
-    /** Contador estático para gerar IDs únicos para instâncias de RoboJato. */
-    private static int contador = 0;
 
     /**
      * Construtor para RoboJato.
@@ -225,7 +223,12 @@ public class RoboJato extends RoboAereo implements Atacante {
             ArrayList<Robo> alvosPossiveis = new ArrayList<>();
             System.out.println("Alvos disponíveis para " + robo.getNome() + ":");
             int i = 1;
-            for (Robo r : Controlador.getAmbiente().getRobos()) {
+            // Apenas robôs dentro do maior alcance entre as armas são candidatos; o alcance
+            // exato de cada arma é verificado no momento do ataque.
+            int alcanceMaximo = Math.max(robo.alcanceMissil, robo.alcanceMetralhadora);
+            Ambiente ambiente = robo.getContexto().getAmbiente();
+            for (Robo r : ambiente.robosNaCaixa(robo.getX() - alcanceMaximo, robo.getY() - alcanceMaximo, 0,
+                    robo.getX() + alcanceMaximo, robo.getY() + alcanceMaximo, ambiente.getAltura() - 1)) {
                 if (r != robo && robo.podeAtacar(r)) {
                     alvosPossiveis.add(r);
                     System.out.printf("[%d] %s (%s)\n", i, r.getNome(), r instanceof RoboAereo ? "Aéreo" : "Terrestre");
@@ -238,7 +241,7 @@ public class RoboJato extends RoboAereo implements Atacante {
                 return;
             }
 
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
             System.out.print("Escolha o índice do robô para atacar: ");
             int indice = scanner.nextInt() - 1;
             scanner.nextLine(); // Consumir \n
@@ -255,19 +258,4 @@ public class RoboJato extends RoboAereo implements Atacante {
             }
         }
     }
-
-    /**
-     * Obtém o contador estático usado para gerar IDs únicos para instâncias de
-     * {@link RoboJato}.
-     * Este método é chamado durante a criação do ID do robô na classe base
-     * {@link Robo}.
-     * Incrementa o contador a cada chamada para garantir a unicidade do próximo ID.
-     *
-     * @return O valor atualizado do contador específico para RoboJato.
-     */
-    @Override
-    protected int getContador() {
-        contador++;
-        return contador;
-    }
 }
\ No newline at end of file
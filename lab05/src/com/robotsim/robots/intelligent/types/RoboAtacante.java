@@ -6,12 +6,9 @@ import com.robotsim.etc.Acao;
 import com.robotsim.missions.missionTypes.MissaoDanoGlobal;
 
 import java.util.Scanner;
-import java.util.concurrent.TimeUnit;
 
-import com.robotsim.Controlador;
 
 public class RoboAtacante extends AgenteInteligente {
-    private static int contador = 0;
     private static int danoAtacante = 10;
 
     public RoboAtacante(String nome, int posicaoX, int posicaoY) {
@@ -36,12 +33,6 @@ public class RoboAtacante extends AgenteInteligente {
         return 'E';
     }
 
-    @Override
-    public int getContador() {
-        contador++;
-        return contador;
-    }
-
     public static int getDanoAtacante() {
         return danoAtacante;
     }
@@ -78,7 +69,7 @@ public class RoboAtacante extends AgenteInteligente {
         @Override
         public void executar() {
             System.out.println("As ações disponíveis para o robô " + robo.getNome() + " são:");
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
 
             if(robo.missao == null) {
                 System.out.println("[1] Definir Missão de Dano Global");
@@ -95,7 +86,7 @@ public class RoboAtacante extends AgenteInteligente {
                         System.out.println("Definindo missão de dano global...");
                         robo.definirMissao(new MissaoDanoGlobal());
                         try {
-                            TimeUnit.MILLISECONDS.sleep(1000);
+                            robo.getContexto().getRelogio().esperar(1000);
                         } catch (InterruptedException e) {
                             Thread.currentThread().interrupt(); // Restore interrupted status
                             System.err.println("A espera foi interrompida: " + e.getMessage());
@@ -120,7 +111,7 @@ public class RoboAtacante extends AgenteInteligente {
                 scanner.nextLine(); // Consumir \n
 
                 if (indice == 1) {
-                    robo.executarMissao(Controlador.getAmbiente());
+                    robo.executarMissao(robo.getContexto().getAmbiente());
                     acaoInvalida = false;
                 } else if (indice == 2) {
                     System.out.println("Rodada pulada.");
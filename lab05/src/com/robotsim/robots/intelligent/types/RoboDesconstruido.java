@@ -6,12 +6,9 @@ import com.robotsim.missions.missionTypes.MissaoDestruirObstaculo;
 import com.robotsim.robots.intelligent.AgenteInteligente;
 
 import java.util.Scanner;
-import java.util.concurrent.TimeUnit;
 
-import com.robotsim.Controlador;
 
 public class RoboDesconstruido extends AgenteInteligente {
-    private static int contador = 0;
     
     public RoboDesconstruido(String nome, int posicaoX, int posicaoY) {
         super(nome, posicaoX, posicaoY, 50); // Inicializando com energia e vida máximas
@@ -35,11 +32,6 @@ public class RoboDesconstruido extends AgenteInteligente {
         return 'E';
     }
 
-    @Override
-    public int getContador() {
-        contador++;
-        return contador;
-    }
     
     @Override
     protected void inicializarAcoes() {
@@ -73,7 +65,7 @@ public class RoboDesconstruido extends AgenteInteligente {
         @Override
         public void executar() {
             System.out.println("As ações disponíveis para o robô " + robo.getNome() + " são:");
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
 
             if(robo.missao == null) {
                 System.out.println("[1] Definir Missão de Destruir Obstáculo");
@@ -89,7 +81,7 @@ public class RoboDesconstruido extends AgenteInteligente {
                         System.out.println("Definindo missão de destruir obstáculo...");
                         robo.definirMissao(new MissaoDestruirObstaculo());
                         try {
-                            TimeUnit.MILLISECONDS.sleep(1000);
+                            robo.getContexto().getRelogio().esperar(1000);
                         } catch (InterruptedException e) {
                             Thread.currentThread().interrupt(); // Restore interrupted status
                             System.err.println("A espera foi interrompida: " + e.getMessage());
@@ -114,7 +106,7 @@ public class RoboDesconstruido extends AgenteInteligente {
                 scanner.nextLine(); // Consumir \n
 
                 if (indice == 1) {
-                    robo.executarMissao(Controlador.getAmbiente());
+                    robo.executarMissao(robo.getContexto().getAmbiente());
                     acaoInvalida = false;
                 } else if (indice == 2) {
                     System.out.println("Rodada pulada.");
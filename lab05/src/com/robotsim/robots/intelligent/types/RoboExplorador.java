@@ -1,9 +1,7 @@
 package com.robotsim.robots.intelligent.types;
 
 import java.util.Scanner;
-import java.util.concurrent.TimeUnit;
 
-import com.robotsim.Controlador;
 import com.robotsim.environment.Ambiente;
 import com.robotsim.etc.Acao;
 import com.robotsim.missions.missionTypes.MissaoExploracao;
@@ -11,7 +9,6 @@ import com.robotsim.robots.intelligent.AgenteInteligente;
 import com.robotsim.robots.sensors.SensorObstaculo;
 
 public class RoboExplorador  extends AgenteInteligente {
-    private static int contador = 0;
 
     public RoboExplorador(String nome, int posicaoX, int posicaoY) {
         super(nome, posicaoX, posicaoY, 100); // Inicializando com energia e vida máximas
@@ -37,11 +34,6 @@ public class RoboExplorador  extends AgenteInteligente {
         return 'E';
     }
 
-    @Override
-    public int getContador() {
-        contador++;
-        return contador;
-    }
     
     @Override
     protected void inicializarAcoes() {
@@ -75,7 +67,7 @@ public class RoboExplorador  extends AgenteInteligente {
         @Override
         public void executar() {
             System.out.println("As ações disponíveis para o robô " + robo.getNome() + " são:");
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
 
             if(robo.missao == null) {
                 System.out.println("[1] Definir Missão de Exploração");
@@ -91,7 +83,7 @@ public class RoboExplorador  extends AgenteInteligente {
                         System.out.println("Definindo missão de exploração...");
                         robo.definirMissao(new MissaoExploracao());
                         try {
-                            TimeUnit.MILLISECONDS.sleep(1000);
+                            robo.getContexto().getRelogio().esperar(1000);
                         } catch (InterruptedException e) {
                             Thread.currentThread().interrupt(); // Restore interrupted status
                             System.err.println("A espera foi interrompida: " + e.getMessage());
@@ -116,7 +108,7 @@ public class RoboExplorador  extends AgenteInteligente {
                 scanner.nextLine(); // Consumir \n
 
                 if (indice == 1) {
-                    robo.executarMissao(Controlador.getAmbiente());
+                    robo.executarMissao(robo.getContexto().getAmbiente());
                     acaoInvalida = false;
                 } else if (indice == 2) {
                     System.out.println("Rodada pulada.");
@@ -1,10 +1,8 @@
 package com.robotsim.robots.sensors;
 
-import java.util.concurrent.TimeUnit;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.robotsim.Controlador;
 import com.robotsim.environment.obstacle.Obstaculo;
 import com.robotsim.missions.Logger;
 import com.robotsim.robots.Robo;
@@ -82,14 +80,14 @@ public class SensorObstaculo extends Sensor {
 
             System.out.println("Iniciando o processo de detecção...");
 
-            for (Obstaculo obstaculo : Controlador.getAmbiente().getObstaculos()) {
+            for (Obstaculo obstaculo : this.sensor.getRobo().getContexto().getAmbiente().getObstaculos()) {
                 if (GeometryMath.distanciaEuclidiana(this.sensor.getRobo(), obstaculo.getX(),
                         obstaculo.getY()) <= this.sensor.getRaioDeAlcance()) {
                     counter++;
                     obstaculosDetectados.add(obstaculo);
 
                     try {
-                        TimeUnit.MILLISECONDS.sleep(1600); // Simula o tempo necessário para detecção.
+                        this.sensor.getRobo().getContexto().getRelogio().esperar(1600); // Simula o tempo necessário para detecção.
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt(); // Boa prática: reinterromper a thread.
                         System.out.println("A execução foi interrompida.");
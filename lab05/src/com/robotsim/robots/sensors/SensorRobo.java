@@ -1,8 +1,6 @@
 package com.robotsim.robots.sensors;
 
-import java.util.concurrent.TimeUnit;
 
-import com.robotsim.Controlador;
 import com.robotsim.etc.Acao;
 import com.robotsim.robots.Robo;
 import com.robotsim.robots.aerials.RoboAereo;
@@ -21,7 +19,7 @@ import com.robotsim.util.GeometryMath;
  *
  * @see Sensor
  * @see Robo
- * @see Controlador
+ * @see com.robotsim.simulation.SimulationContext
  */
 public class SensorRobo extends Sensor {
 
@@ -76,7 +74,7 @@ public class SensorRobo extends Sensor {
          * O método simula um tempo de processamento para a detecção. Em seguida, itera
          * sobre
          * todos os robôs presentes no ambiente (obtidos através do
-         * {@link Controlador}).
+         * contexto do robô, {@link Robo#getContexto()}).
          * Para cada robô encontrado (excluindo o próprio robô ao qual o sensor está
          * acoplado):
          * <ul>
@@ -100,7 +98,7 @@ public class SensorRobo extends Sensor {
 
             try {
                 // Simula o tempo necessário para o sensor realizar a varredura e detecção.
-                TimeUnit.MILLISECONDS.sleep(1600);
+                this.sensor.getRobo().getContexto().getRelogio().esperar(1600);
             } catch (InterruptedException e) {
                 // Se a thread for interrompida durante o sleep, restaura o status de
                 // interrupção.
@@ -112,8 +110,10 @@ public class SensorRobo extends Sensor {
             double distancia;
             boolean roboDetectado = false; // Flag para verificar se algum robô foi detectado
 
-            // Itera sobre todos os robôs no ambiente
-            for (Robo outro_robo : Controlador.getAmbiente().getRobos()) {
+            // Itera apenas sobre os robôs próximos, consultando o hash espacial do ambiente.
+            Robo roboSensor = this.sensor.getRobo();
+            for (Robo outro_robo : roboSensor.getContexto().getAmbiente().robosNoRaio(roboSensor.getX(),
+                    roboSensor.getY(), roboSensor.getZ(), this.sensor.getRaioDeAlcance())) {
                 // Garante que o sensor não detecte o próprio robô ao qual está acoplado
                 if (outro_robo == this.sensor.getRobo()) {
                     continue; // Pula para o próximo robô na lista
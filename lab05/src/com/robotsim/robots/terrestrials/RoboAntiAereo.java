@@ -3,7 +3,6 @@ package com.robotsim.robots.terrestrials;
 import java.util.ArrayList;
 import java.util.Scanner;
 
-import com.robotsim.Controlador;
 import com.robotsim.environment.entity.Entidade;
 import com.robotsim.etc.Acao;
 import com.robotsim.robots.Robo;
@@ -29,8 +28,6 @@ public class RoboAntiAereo extends RoboTerrestre implements Atacante, Autonomo {
     private int dano = 250;
     /** Alcance máximo dos ataques. */
     private int alcance = 35;
-    /** Contador estático para gerar IDs únicos para instâncias de RoboAntiAereo. */
-    private static int contador = 0;
     /** Flag que indica se o robô está operando em modo autônomo. */
     private boolean modoAutonomo = false; // Adicionado campo para modo autônomo
 
@@ -135,7 +132,7 @@ public class RoboAntiAereo extends RoboTerrestre implements Atacante, Autonomo {
         this.modoAutonomo = ativar;
         if (this.modoAutonomo) {
             System.out.println(this.getNome() + " entrou em modo autônomo.");
-            if (Controlador.getAmbiente().getRobos().stream().anyMatch(r -> r instanceof RoboAereo && r != this)) {
+            if (!getContexto().getAmbiente().getRobosAereos().isEmpty()) {
                 System.out.println(this.getNome() + " detectou alvos aéreos e está pronto para atacar autonomamente.");
             } else {
                 System.out.println(this.getNome() + " não detectou alvos aéreos no momento.");
@@ -201,12 +198,10 @@ public class RoboAntiAereo extends RoboTerrestre implements Atacante, Autonomo {
             ArrayList<RoboAereo> robosAlvos = new ArrayList<>();
             int i = 0;
 
-            for (Robo robo : Controlador.getAmbiente().getRobos()) {
-                if (robo instanceof RoboAereo) { // Apenas atacar robôs aéreos
-                    robosAlvos.add((RoboAereo) robo);
-                    System.out.printf("[%d] %s\n", (i + 1), robo.getNome());
-                    i++;
-                }
+            for (RoboAereo robo : this.robo.getContexto().getAmbiente().getRobosAereos()) { // Apenas atacar robôs aéreos
+                robosAlvos.add(robo);
+                System.out.printf("[%d] %s\n", (i + 1), robo.getNome());
+                i++;
             }
 
             if (robosAlvos.isEmpty()) {
@@ -214,7 +209,7 @@ public class RoboAntiAereo extends RoboTerrestre implements Atacante, Autonomo {
                 return;
             }
 
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
             System.out.print("Escolha o índice do robô aéreo para atacar: ");
             int indice = scanner.nextInt() - 1;
             scanner.nextLine(); // Consumir \n
@@ -269,16 +264,4 @@ public class RoboAntiAereo extends RoboTerrestre implements Atacante, Autonomo {
             robo.setModoAutonomo(!robo.isAutonomo());
         }
     }
-
-    /**
-     * Obtém o contador para gerar IDs únicos para {@link RoboAntiAereo}.
-     * Incrementa o contador a cada chamada.
-     *
-     * @return O valor atualizado do contador.
-     */
-    @Override
-    protected int getContador() {
-        contador++;
-        return contador;
-    }
 }
@@ -3,7 +3,7 @@ package com.robotsim.robots.terrestrials;
 import java.util.ArrayList;
 import java.util.Scanner;
 
-import com.robotsim.Controlador;
+import com.robotsim.environment.Ambiente;
 import com.robotsim.environment.entity.Entidade;
 import com.robotsim.etc.Acao;
 import com.robotsim.robots.Robo;
@@ -27,8 +27,6 @@ public class RoboTanque extends RoboTerrestre implements Atacante {
     private final int dano = 200;
     /** Alcance máximo dos ataques. */
     private final int alcance = 25;
-    /** Contador estático para gerar IDs únicos para instâncias de RoboTanque. */
-    private static int contador = 0;
 
     /**
      * Construtor para RoboTanque.
@@ -160,7 +158,12 @@ public class RoboTanque extends RoboTerrestre implements Atacante {
             ArrayList<RoboTerrestre> robosTerrestres = new ArrayList<>();
             int i = 0;
 
-            for (Robo robo : Controlador.getAmbiente().getRobos()) {
+            // Apenas robôs na vizinhança do alcance são candidatos; o alcance exato é
+            // verificado no momento do disparo.
+            int alcance = this.robo.alcance;
+            Ambiente ambiente = this.robo.getContexto().getAmbiente();
+            for (Robo robo : ambiente.robosNaCaixa(this.robo.getX() - alcance, this.robo.getY() - alcance, 0,
+                    this.robo.getX() + alcance, this.robo.getY() + alcance, ambiente.getAltura() - 1)) {
                 if (robo instanceof RoboTerrestre && robo != this.robo) {
                     robosTerrestres.add((RoboTerrestre) robo);
                     System.out.printf("[%d] %s\n", (i + 1), robo.getNome());
@@ -169,11 +172,11 @@ public class RoboTanque extends RoboTerrestre implements Atacante {
             }
 
             if (robosTerrestres.isEmpty()) {
-                System.out.println("Não há robôs terrestres para atacar.");
+                System.out.println("Não há robôs terrestres ao alcance para atacar.");
                 return;
             }
 
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
             System.out.print("Escolha o índice do robô terrestre para atacar: ");
             int indice = scanner.nextInt() - 1;
             scanner.nextLine(); // Consumir \n
@@ -187,16 +190,4 @@ public class RoboTanque extends RoboTerrestre implements Atacante {
             robo.executarAtaque(alvo);
         }
     }
-
-    /**
-     * Obtém o contador para gerar IDs únicos para {@link RoboTanque}.
-     * Incrementa o contador a cada chamada.
-     *
-     * @return O valor atualizado do contador.
-     */
-    @Override
-    protected int getContador() {
-        contador++;
-        return contador;
-    }
 }
@@ -44,22 +44,24 @@ public abstract class RoboTerrestre extends Robo {
     }
 
     /**
-     * Move o robô terrestre, respeitando sua {@link #velocidadeMaxima}.
+     * Verifica a {@link #velocidadeMaxima} do robô terrestre antes de um
+     * movimento.
      * Se a distância do movimento solicitado exceder a capacidade de movimento em
      * um {@link Controlador#DELTA_TIME},
      * o movimento não é realizado e uma mensagem é exibida.
      *
      * @param deltaX Deslocamento desejado no eixo X.
      * @param deltaY Deslocamento desejado no eixo Y.
+     * @return {@code true} se o movimento respeita a velocidade máxima.
      */
     @Override
-    protected void mover(int deltaX, int deltaY) {
+    public boolean prepararMovimento(int deltaX, int deltaY) {
         double distancia = GeometryMath.distanciaEuclidiana(this, this.getX() + deltaX, this.getY() + deltaY);
         if (distancia / Controlador.DELTA_TIME > this.velocidadeMaxima) {
             System.out.printf("%s tentou se mover rápido demais!", this.getNome());
-            return;
+            return false;
         }
-        super.mover(deltaX, deltaY);
+        return super.prepararMovimento(deltaX, deltaY);
     }
 
     /**
@@ -96,7 +98,7 @@ public abstract class RoboTerrestre extends Robo {
          */
         @Override
         public void executar() {
-            Scanner scanner = Controlador.getScanner();
+            Scanner scanner = robo.getContexto().getScanner();
 
             System.out.print("O quanto quer andar no eixo X? ");
             int deltaX = scanner.nextInt();
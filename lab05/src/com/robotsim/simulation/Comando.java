@@ -0,0 +1,49 @@
+package com.robotsim.simulation;
+
+import com.robotsim.etc.Acao;
+import com.robotsim.exceptions.RoboDesligadoException;
+import com.robotsim.robots.Robo;
+
+/**
+ * Representa um comando enfileirado no {@link SimulationEngine} para ser
+ * aplicado no próximo tick da simulação.
+ * <p>
+ * Comandos são a única forma de alterar o estado do mundo através do motor,
+ * seja a partir do menu interativo do {@link com.robotsim.Controlador} ou de
+ * um cliente programático (ex: execuções em lote).
+ *
+ * @see SimulationEngine
+ */
+@FunctionalInterface
+public interface Comando {
+    /**
+     * Aplica o comando sobre o mundo.
+     *
+     * @throws RoboDesligadoException Se o robô alvo do comando estiver desligado.
+     */
+    void aplicar() throws RoboDesligadoException;
+
+    /**
+     * Cria um comando que executa uma {@link Acao} de um robô, respeitando o
+     * estado (ligado/desligado) do robô.
+     *
+     * @param robo O robô que executará a ação.
+     * @param acao A ação a ser executada.
+     * @return O comando correspondente.
+     */
+    static Comando acao(Robo robo, Acao acao) {
+        return () -> robo.executarTarefa(acao);
+    }
+
+    /**
+     * Cria um comando de movimento que não depende de entrada do usuário.
+     *
+     * @param robo   O robô a ser movido.
+     * @param deltaX Deslocamento no eixo X.
+     * @param deltaY Deslocamento no eixo Y.
+     * @return O comando correspondente.
+     */
+    static Comando mover(Robo robo, int deltaX, int deltaY) {
+        return () -> robo.executarMovimento(deltaX, deltaY);
+    }
+}
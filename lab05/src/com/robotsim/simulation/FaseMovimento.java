@@ -0,0 +1,367 @@
+package com.robotsim.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import com.robotsim.environment.Ambiente;
+import com.robotsim.robots.Robo;
+import com.robotsim.robots.aerials.RoboAereo;
+import com.robotsim.robots.terrestrials.RoboTerrestre;
+import com.robotsim.util.ResultadoColisao;
+import com.robotsim.util.TesteColisao;
+import com.robotsim.util.TipoColisao;
+
+/**
+ * Fase de movimentos em lote de um tick do {@link SimulationEngine}.
+ * <p>
+ * Mover os robôs um a um contra o estado corrente do mundo torna o resultado
+ * dependente da ordem das chamadas e impede o uso de várias threads. Nesta
+ * fase, todos os movimentos enfileirados no tick são resolvidos juntos:
+ * <ol>
+ * <li>as intenções de movimento são coletadas e as regras de cada tipo de robô
+ * ({@link Robo#prepararMovimento(int, int)}) são aplicadas;</li>
+ * <li>o caminho de cada robô é traçado em paralelo contra o estado do mundo no
+ * início do tick: obstáculos e células ocupadas por outros robôs interrompem o
+ * caminho, como em {@link TesteColisao#testarPosicao};</li>
+ * <li>uma única varredura ordenada (sort-and-sweep) sobre as caixas dos
+ * caminhos encontra os pares de robôs da mesma camada cujos caminhos podem se
+ * cruzar;</li>
+ * <li>os conflitos são resolvidos em paralelo: o robô de menor prioridade para
+ * antes da primeira célula que tem em comum com o caminho traçado de um robô de
+ * maior prioridade;</li>
+ * <li>todas as posições finais são aplicadas de uma vez.</li>
+ * </ol>
+ * A prioridade depende apenas da posição inicial (menores X, Y e Z primeiro) e
+ * do ID do robô, então o resultado não depende da ordem em que os movimentos
+ * foram enfileirados nem do número de threads. A única exceção é um robô com
+ * mais de uma intenção no mesmo tick: vale a que chegou primeiro. Como cada robô evita as posições
+ * iniciais dos demais e os caminhos de maior prioridade, dois robôs nunca
+ * terminam o tick na mesma célula.
+ * <p>
+ * Ao contrário de {@link Robo#mover(int, int)}, a fase não imprime mensagens
+ * de colisão; apenas o dano dos obstáculos é aplicado.
+ */
+public class FaseMovimento {
+    // Camada dos robôs que não colidem com outros robôs (ex: agentes inteligentes).
+    private static final int SEM_CAMADA = Integer.MIN_VALUE;
+    // Camada comum a todos os robôs terrestres; robôs aéreos usam a sua altitude.
+    private static final int CAMADA_TERRESTRE = -1;
+    // Altura, em linhas, das faixas em que a fase ampla divide o plano.
+    private static final int ALTURA_FAIXA = 32;
+
+    // Prioridade entre robôs: posição inicial e, em caso de empate, o ID.
+    private static final Comparator<Intencao> PRIORIDADE = FaseMovimento::compararPrioridade;
+
+    private final Ambiente ambiente; // Mundo cujos robôs são movidos.
+    private final Queue<Intencao> pendentes = new ConcurrentLinkedQueue<>(); // Movimentos do próximo tick.
+
+    /**
+     * Cria a fase de movimentos de um ambiente.
+     *
+     * @param ambiente O ambiente cujos robôs serão movidos.
+     */
+    public FaseMovimento(Ambiente ambiente) {
+        this.ambiente = ambiente;
+    }
+
+    /**
+     * Registra a intenção de mover um robô no próximo tick. Pode ser chamado de
+     * qualquer thread.
+     *
+     * @param robo   O robô a ser movido.
+     * @param deltaX Deslocamento no eixo X.
+     * @param deltaY Deslocamento no eixo Y.
+     */
+    public void enfileirar(Robo robo, int deltaX, int deltaY) {
+        pendentes.add(new Intencao(robo, deltaX, deltaY));
+    }
+
+    /**
+     * Retorna a quantidade de movimentos aguardando o próximo tick.
+     *
+     * @return O número de intenções pendentes.
+     */
+    public int getPendentes() {
+        return pendentes.size();
+    }
+
+    /**
+     * Resolve e aplica todos os movimentos registrados até o início da chamada.
+     * Movimentos registrados durante a execução ficam para o tick seguinte.
+     */
+    public void executar() {
+        Intencao[] intencoes = coletar();
+        if (intencoes.length == 0)
+            return;
+
+        IntStream.range(0, intencoes.length).parallel().forEach(i -> tracarCaminho(intencoes[i]));
+        varrerConflitos(intencoes);
+        IntStream.range(0, intencoes.length).parallel().forEach(i -> resolverConflitos(intencoes, i));
+
+        for (Intencao intencao : intencoes) {
+            int passos = intencao.comprimentoFinal;
+            if (passos == 0 && intencao.dano == 0)
+                continue;
+            int x = passos == 0 ? intencao.robo.getX() : desempacotarX(intencao.caminho[passos - 1]);
+            int y = passos == 0 ? intencao.robo.getY() : desempacotarY(intencao.caminho[passos - 1]);
+            intencao.robo.concluirMovimento(x, y, intencao.dano);
+        }
+    }
+
+    /**
+     * Retira as intenções pendentes e descarta as que não podem ser executadas:
+     * repetidas (vale a primeira de cada robô), de robôs desligados ou fora
+     * deste ambiente, recusadas pelas regras do robô ou com destino fora do mapa.
+     * <p>
+     * As regras podem afetar outros robôs (um drone sem bateria se destrói e
+     * danifica os vizinhos), então são aplicadas na ordem de prioridade, e não
+     * na de chegada, e os robôs que saíram do ambiente nesse meio tempo são
+     * descartados no fim. As intenções são devolvidas em ordem de prioridade.
+     */
+    private Intencao[] coletar() {
+        ArrayList<Intencao> candidatas = new ArrayList<>();
+        Set<Robo> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        int quantidade = pendentes.size();
+        for (int i = 0; i < quantidade; i++) {
+            Intencao intencao = pendentes.poll();
+            if (intencao == null)
+                break;
+            Robo robo = intencao.robo;
+            if (!vistos.add(robo) || !robo.isLigado() || !ambiente.contemRobo(robo))
+                continue;
+            intencao.posicaoInicial = empacotar(robo.getX(), robo.getY());
+            candidatas.add(intencao);
+        }
+
+        Intencao[] ordenadas = candidatas.toArray(new Intencao[0]);
+        Arrays.parallelSort(ordenadas, PRIORIDADE);
+        ArrayList<Intencao> aceitas = new ArrayList<>(ordenadas.length);
+        for (Intencao intencao : ordenadas) {
+            Robo robo = intencao.robo;
+            if (!ambiente.contemRobo(robo)) // Destruído pelas regras de um robô anterior.
+                continue;
+            if (!robo.prepararMovimento(intencao.deltaX, intencao.deltaY) || !ambiente.contemRobo(robo))
+                continue;
+            if (!ambiente.dentroDoMapa(robo.getX() + intencao.deltaX, robo.getY() + intencao.deltaY, 0))
+                continue;
+            aceitas.add(intencao);
+        }
+        aceitas.removeIf(intencao -> !ambiente.contemRobo(intencao.robo)); // Destruídos por um robô seguinte.
+        return aceitas.toArray(new Intencao[0]);
+    }
+
+    /**
+     * Traça o caminho (Bresenham) de um robô contra o estado do mundo no início
+     * do tick, parando antes da primeira célula com obstáculo ou outro robô.
+     * Apenas lê o ambiente, e pode rodar em paralelo para robôs diferentes.
+     */
+    private static void tracarCaminho(Intencao intencao) {
+        Robo robo = intencao.robo;
+        intencao.camada = robo instanceof RoboTerrestre ? CAMADA_TERRESTRE
+                : robo instanceof RoboAereo ? robo.getZ() : SEM_CAMADA;
+
+        int xIni = robo.getX(), yIni = robo.getY();
+        int xFin = xIni + intencao.deltaX, yFin = yIni + intencao.deltaY;
+        int dx = Math.abs(intencao.deltaX), dy = Math.abs(intencao.deltaY);
+        int sx = xIni < xFin ? 1 : -1, sy = yIni < yFin ? 1 : -1;
+        int err = dx - dy;
+
+        intencao.caminho = new long[Math.max(dx, dy)];
+        intencao.xMin = intencao.xMax = xIni;
+        intencao.yMin = intencao.yMax = yIni;
+        ResultadoColisao resultado = new ResultadoColisao();
+
+        int atualX = xIni, atualY = yIni;
+        while (atualX != xFin || atualY != yFin) {
+            int e2 = 2 * err;
+            if (e2 > -dy) {
+                err -= dy;
+                atualX += sx;
+            }
+            if (e2 < dx) {
+                err += dx;
+                atualY += sy;
+            }
+            if (TesteColisao.testarPosicao(robo, atualX, atualY, resultado)) {
+                if (resultado.getTipo() == TipoColisao.OBSTACULO)
+                    intencao.dano = resultado.getDano();
+                break;
+            }
+            intencao.caminho[intencao.comprimento++] = empacotar(atualX, atualY);
+            intencao.xMin = Math.min(intencao.xMin, atualX);
+            intencao.xMax = Math.max(intencao.xMax, atualX);
+            intencao.yMin = Math.min(intencao.yMin, atualY);
+            intencao.yMax = Math.max(intencao.yMax, atualY);
+        }
+        intencao.comprimentoFinal = intencao.comprimento;
+    }
+
+    /**
+     * Fase ampla: uma varredura ordenada (sort-and-sweep) em X. Para que a lista
+     * de caixas abertas não cresça com a largura do mapa, o plano é dividido em
+     * faixas horizontais de {@value #ALTURA_FAIXA} linhas, e cada caixa entra em
+     * todas as faixas que toca. As entradas são ordenadas por camada, faixa e
+     * menor X, e a lista é varrida mantendo as caixas ainda abertas no eixo X.
+     * Cada par de caixas sobrepostas é registrado no robô de menor prioridade,
+     * apenas na primeira faixa que as duas têm em comum.
+     */
+    private static void varrerConflitos(Intencao[] intencoes) {
+        ArrayList<long[]> entradas = new ArrayList<>();
+        for (int i = 0; i < intencoes.length; i++) {
+            Intencao intencao = intencoes[i];
+            if (intencao.camada == SEM_CAMADA || intencao.comprimento == 0)
+                continue;
+            for (int faixa = faixa(intencao.yMin); faixa <= faixa(intencao.yMax); faixa++)
+                entradas.add(new long[] { intencao.camada, faixa, intencao.xMin, i });
+        }
+        long[][] ordem = entradas.toArray(new long[0][]);
+        Arrays.parallelSort(ordem, Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1])
+                .thenComparingLong(e -> e[2]));
+
+        int[] abertas = new int[16];
+        int quantidadeAbertas = 0;
+        long camadaAtual = SEM_CAMADA, faixaAtual = 0;
+        for (long[] entrada : ordem) {
+            int i = (int) entrada[3];
+            Intencao atual = intencoes[i];
+            if (entrada[0] != camadaAtual || entrada[1] != faixaAtual) {
+                camadaAtual = entrada[0];
+                faixaAtual = entrada[1];
+                quantidadeAbertas = 0;
+            }
+
+            // Fecha as caixas que terminam antes do início da atual e testa as demais.
+            int mantidas = 0;
+            for (int k = 0; k < quantidadeAbertas; k++) {
+                int j = abertas[k];
+                Intencao aberta = intencoes[j];
+                if (aberta.xMax < atual.xMin)
+                    continue;
+                abertas[mantidas++] = j;
+                if (aberta.yMin <= atual.yMax && aberta.yMax >= atual.yMin
+                        && faixa(Math.max(aberta.yMin, atual.yMin)) == faixaAtual) {
+                    if (i < j)
+                        aberta.adicionarRival(i);
+                    else
+                        atual.adicionarRival(j);
+                }
+            }
+            quantidadeAbertas = mantidas;
+
+            if (quantidadeAbertas == abertas.length)
+                abertas = Arrays.copyOf(abertas, abertas.length * 2);
+            abertas[quantidadeAbertas++] = i;
+        }
+    }
+
+    /**
+     * Calcula a faixa horizontal da fase ampla que contém a linha y.
+     */
+    private static int faixa(int y) {
+        return Math.floorDiv(y, ALTURA_FAIXA);
+    }
+
+    /**
+     * Fase estreita: encurta o caminho do robô até antes da primeira célula em
+     * comum com o caminho traçado de algum rival de maior prioridade. Lê apenas
+     * os caminhos traçados, que não mudam nesta fase, e pode rodar em paralelo.
+     */
+    private static void resolverConflitos(Intencao[] intencoes, int indice) {
+        Intencao intencao = intencoes[indice];
+        int fim = intencao.comprimento;
+        for (int r = 0; r < intencao.quantidadeRivais; r++) {
+            Intencao rival = intencoes[intencao.rivais[r]];
+            for (int k = 0; k < fim; k++) {
+                if (rival.contem(intencao.caminho[k])) {
+                    fim = k;
+                    break;
+                }
+            }
+        }
+        if (fim < intencao.comprimento)
+            intencao.dano = 0; // O robô parou antes de chegar ao obstáculo.
+        intencao.comprimentoFinal = fim;
+    }
+
+    /**
+     * Compara a prioridade de dois robôs: menores X, Y e Z iniciais primeiro e,
+     * em caso de empate, o menor ID.
+     */
+    private static int compararPrioridade(Intencao a, Intencao b) {
+        Robo roboA = a.robo, roboB = b.robo;
+        int comparacao = Long.compare(a.posicaoInicial, b.posicaoInicial);
+        if (comparacao == 0)
+            comparacao = Integer.compare(roboA.getZ(), roboB.getZ());
+        if (comparacao == 0)
+            comparacao = Long.compare(roboA.getIdNumerico(), roboB.getIdNumerico());
+        return comparacao;
+    }
+
+    /**
+     * Empacota as coordenadas de uma célula em um único valor.
+     */
+    private static long empacotar(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private static int desempacotarX(long celula) {
+        return (int) (celula >> 32);
+    }
+
+    private static int desempacotarY(long celula) {
+        return (int) celula;
+    }
+
+    /**
+     * Intenção de movimento de um robô e o caminho calculado para ela durante a
+     * fase.
+     */
+    private static final class Intencao {
+        private final Robo robo; // Robô que quer se mover.
+        private final int deltaX; // Deslocamento pedido no eixo X.
+        private final int deltaY; // Deslocamento pedido no eixo Y.
+        private long posicaoInicial; // X e Y iniciais empacotados, na ordem de prioridade.
+        private int camada; // Camada de colisão entre robôs.
+        private long[] caminho; // Células livres do caminho, a partir do primeiro passo.
+        private int comprimento; // Quantidade de células em caminho.
+        private int comprimentoFinal; // Células percorridas após resolver os conflitos.
+        private int dano; // Dano do obstáculo que interrompeu o caminho.
+        private int xMin, yMin, xMax, yMax; // Caixa que envolve o caminho (e a posição inicial).
+        private int[] rivais = new int[0]; // Índices dos robôs de maior prioridade com caixas sobrepostas.
+        private int quantidadeRivais;
+
+        Intencao(Robo robo, int deltaX, int deltaY) {
+            this.robo = robo;
+            this.deltaX = deltaX;
+            this.deltaY = deltaY;
+        }
+
+        void adicionarRival(int indice) {
+            if (quantidadeRivais == rivais.length)
+                rivais = Arrays.copyOf(rivais, Math.max(4, rivais.length * 2));
+            rivais[quantidadeRivais++] = indice;
+        }
+
+        /**
+         * Verifica se a célula faz parte do caminho traçado.
+         */
+        boolean contem(long celula) {
+            int x = desempacotarX(celula), y = desempacotarY(celula);
+            if (x < xMin || x > xMax || y < yMin || y > yMax)
+                return false;
+            for (int k = 0; k < comprimento; k++) {
+                if (caminho[k] == celula)
+                    return true;
+            }
+            return false;
+        }
+    }
+}
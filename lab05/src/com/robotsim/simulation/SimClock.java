@@ -0,0 +1,110 @@
+package com.robotsim.simulation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relógio da simulação, usado no lugar de chamadas diretas a
+ * {@link TimeUnit#sleep(long)}.
+ * <p>
+ * O relógio pode operar em dois modos:
+ * <ul>
+ * <li>{@link Modo#TEMPO_REAL}: as esperas bloqueiam a thread pelo tempo pedido,
+ * preservando o ritmo do menu interativo.</li>
+ * <li>{@link Modo#VIRTUAL}: as esperas apenas avançam o tempo simulado, sem
+ * custo de tempo real. Indicado para execuções em lote.</li>
+ * </ul>
+ * Em ambos os modos o tempo simulado acumulado pode ser consultado por
+ * {@link #getTempoSimuladoMillis()}.
+ * <p>
+ * O modo padrão pode ser escolhido pela propriedade de sistema
+ * {@code robotsim.relogio} ({@code virtual} ou {@code tempo-real}).
+ */
+public class SimClock {
+    /** Modos de operação do relógio. */
+    public enum Modo {
+        /** As esperas bloqueiam a thread pelo tempo real correspondente. */
+        TEMPO_REAL,
+        /** As esperas apenas avançam o tempo simulado. */
+        VIRTUAL
+    }
+
+    private volatile Modo modo; // Modo atual de operação.
+    private final AtomicLong tempoSimuladoMillis = new AtomicLong(); // Tempo simulado acumulado.
+
+    /**
+     * Cria um relógio no modo indicado.
+     *
+     * @param modo O modo de operação inicial.
+     */
+    public SimClock(Modo modo) {
+        this.modo = modo;
+    }
+
+    /**
+     * Cria um relógio no modo definido pela propriedade de sistema
+     * {@code robotsim.relogio}, ou em {@link Modo#TEMPO_REAL} caso ela não esteja
+     * definida.
+     *
+     * @return Um novo relógio.
+     */
+    public static SimClock doSistema() {
+        String propriedade = System.getProperty("robotsim.relogio", "tempo-real");
+        return new SimClock("virtual".equalsIgnoreCase(propriedade) ? Modo.VIRTUAL : Modo.TEMPO_REAL);
+    }
+
+    /**
+     * Espera uma quantidade de tempo simulado. Em {@link Modo#TEMPO_REAL} a
+     * thread é bloqueada; em {@link Modo#VIRTUAL} o retorno é imediato.
+     *
+     * @param millis Tempo a esperar, em milissegundos.
+     * @throws InterruptedException Se a thread for interrompida durante uma
+     *                              espera em tempo real.
+     */
+    public void esperar(long millis) throws InterruptedException {
+        if (millis <= 0)
+            return;
+        if (modo == Modo.TEMPO_REAL) {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+        tempoSimuladoMillis.addAndGet(millis);
+    }
+
+    /**
+     * Avança o tempo simulado sem nunca bloquear, independentemente do modo.
+     * Usado pelo {@link SimulationEngine} a cada tick.
+     *
+     * @param millis Tempo a avançar, em milissegundos.
+     */
+    public void avancar(long millis) {
+        if (millis > 0)
+            tempoSimuladoMillis.addAndGet(millis);
+    }
+
+    /**
+     * Retorna o tempo simulado acumulado desde a criação do relógio.
+     *
+     * @return O tempo simulado, em milissegundos.
+     */
+    public long getTempoSimuladoMillis() {
+        return tempoSimuladoMillis.get();
+    }
+
+    /**
+     * Retorna o modo atual do relógio.
+     *
+     * @return O {@link Modo} atual.
+     */
+    public Modo getModo() {
+        return modo;
+    }
+
+    /**
+     * Altera o modo do relógio.
+     *
+     * @param modo O novo {@link Modo}.
+     */
+    public void setModo(Modo modo) {
+        this.modo = modo;
+    }
+}
@@ -0,0 +1,120 @@
+package com.robotsim.simulation;
+
+import java.util.Scanner;
+
+import com.robotsim.communication.CentralComunicacao;
+import com.robotsim.environment.Ambiente;
+import com.robotsim.util.ModoColisao;
+
+/**
+ * Agrupa tudo o que pertence a um único mundo simulado: o {@link Ambiente}, a
+ * {@link CentralComunicacao}, o {@link SimClock}, o {@link SimulationEngine} e
+ * a entrada do usuário.
+ * <p>
+ * Cada entidade adicionada ao ambiente fica vinculada ao contexto do seu mundo,
+ * de modo que vários contextos independentes podem existir (e ser executados
+ * em threads diferentes) dentro da mesma JVM. O {@link com.robotsim.Controlador}
+ * mantém apenas o contexto do jogo interativo.
+ */
+public class SimulationContext {
+    private final Ambiente ambiente; // Mundo deste contexto.
+    private final CentralComunicacao comunicacao; // Mensagens trocadas neste mundo.
+    private final Scanner scanner; // Entrada do usuário (null em mundos headless).
+    private final SimClock relogio; // Relógio deste mundo.
+    private final SimulationEngine motor; // Motor que avança este mundo.
+    private ModoColisao modoColisao = ModoColisao.BRESENHAM; // Algoritmo de colisão dos movimentos.
+
+    /**
+     * Cria um contexto headless, com relógio virtual e sem entrada do usuário.
+     *
+     * @param comprimento A dimensão do ambiente no eixo X.
+     * @param largura     A dimensão do ambiente no eixo Y.
+     * @param altura      A dimensão do ambiente no eixo Z.
+     */
+    public SimulationContext(int comprimento, int largura, int altura) {
+        this(new Ambiente(comprimento, largura, altura), new CentralComunicacao(), null,
+                new SimClock(SimClock.Modo.VIRTUAL));
+    }
+
+    /**
+     * Cria um contexto a partir de seus componentes e vincula o ambiente a ele.
+     *
+     * @param ambiente    O ambiente do mundo.
+     * @param comunicacao A central de comunicação do mundo.
+     * @param scanner     A entrada do usuário, ou {@code null} para mundos
+     *                    headless.
+     * @param relogio     O relógio do mundo.
+     */
+    public SimulationContext(Ambiente ambiente, CentralComunicacao comunicacao, Scanner scanner,
+            SimClock relogio) {
+        this.ambiente = ambiente;
+        this.comunicacao = comunicacao;
+        this.scanner = scanner;
+        this.relogio = relogio;
+        this.motor = new SimulationEngine(ambiente, relogio);
+        ambiente.setContexto(this);
+    }
+
+    /**
+     * Retorna o ambiente deste contexto.
+     *
+     * @return O {@link Ambiente} do mundo.
+     */
+    public Ambiente getAmbiente() {
+        return ambiente;
+    }
+
+    /**
+     * Retorna a central de comunicação deste contexto.
+     *
+     * @return A {@link CentralComunicacao} do mundo.
+     */
+    public CentralComunicacao getComunicacao() {
+        return comunicacao;
+    }
+
+    /**
+     * Retorna a entrada do usuário deste contexto.
+     *
+     * @return O {@link Scanner} do mundo, ou {@code null} se o mundo for headless.
+     */
+    public Scanner getScanner() {
+        return scanner;
+    }
+
+    /**
+     * Retorna o relógio deste contexto.
+     *
+     * @return O {@link SimClock} do mundo.
+     */
+    public SimClock getRelogio() {
+        return relogio;
+    }
+
+    /**
+     * Retorna o motor de simulação deste contexto.
+     *
+     * @return O {@link SimulationEngine} do mundo.
+     */
+    public SimulationEngine getMotor() {
+        return motor;
+    }
+
+    /**
+     * Retorna o algoritmo de colisão usado nos movimentos deste mundo.
+     *
+     * @return O {@link ModoColisao} atual.
+     */
+    public ModoColisao getModoColisao() {
+        return modoColisao;
+    }
+
+    /**
+     * Altera o algoritmo de colisão usado nos movimentos deste mundo.
+     *
+     * @param modoColisao O novo {@link ModoColisao}.
+     */
+    public void setModoColisao(ModoColisao modoColisao) {
+        this.modoColisao = modoColisao;
+    }
+}
@@ -0,0 +1,186 @@
+package com.robotsim.simulation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.robotsim.Controlador;
+import com.robotsim.environment.Ambiente;
+import com.robotsim.exceptions.RoboDesligadoException;
+import com.robotsim.robots.Robo;
+
+/**
+ * Motor de simulação headless, desacoplado dos menus do {@link Controlador}.
+ * <p>
+ * O motor é dono do {@link Ambiente} e avança o mundo em ticks de duração fixa
+ * ({@link Controlador#DELTA_TIME}). A cada tick, todos os {@link Comando}s
+ * enfileirados até aquele momento são aplicados em ordem de chegada e, em
+ * seguida, os movimentos enfileirados com
+ * {@link #enfileirarMovimento(Robo, int, int)} são resolvidos juntos pela
+ * {@link FaseMovimento}, independentemente da ordem de chegada. O menu
+ * interativo é apenas mais um cliente do motor: ele enfileira comandos e pede
+ * um tick, assim como faria uma execução em lote.
+ * <p>
+ * O motor também mede quantos ticks por segundo (de tempo real) consegue
+ * processar, o que permite avaliar execuções em lote.
+ *
+ * @see Comando
+ */
+public class SimulationEngine {
+    private final Ambiente ambiente; // Mundo controlado por este motor.
+    private final SimClock relogio; // Relógio avançado a cada tick.
+    private final Queue<Comando> filaComandos = new ConcurrentLinkedQueue<>(); // Comandos pendentes.
+    private final FaseMovimento faseMovimento; // Movimentos em lote de cada tick.
+    private long tickAtual = 0; // Quantidade de ticks já processados.
+    private long nanosProcessando = 0; // Tempo real gasto dentro de tick(), em nanossegundos.
+
+    /**
+     * Cria um motor de simulação para o ambiente informado, com um relógio
+     * próprio em modo {@link SimClock.Modo#VIRTUAL}.
+     *
+     * @param ambiente O ambiente que será avançado pelo motor.
+     */
+    public SimulationEngine(Ambiente ambiente) {
+        this(ambiente, new SimClock(SimClock.Modo.VIRTUAL));
+    }
+
+    /**
+     * Cria um motor de simulação para o ambiente informado.
+     *
+     * @param ambiente O ambiente que será avançado pelo motor.
+     * @param relogio  O relógio da simulação, avançado em
+     *                 {@link Controlador#DELTA_TIME} a cada tick.
+     */
+    public SimulationEngine(Ambiente ambiente, SimClock relogio) {
+        this.ambiente = ambiente;
+        this.relogio = relogio;
+        this.faseMovimento = new FaseMovimento(ambiente);
+    }
+
+    /**
+     * Enfileira um comando para ser aplicado no próximo tick.
+     * Pode ser chamado de qualquer thread.
+     *
+     * @param comando O comando a ser enfileirado.
+     */
+    public void enfileirar(Comando comando) {
+        this.filaComandos.add(comando);
+    }
+
+    /**
+     * Enfileira um movimento para a fase de movimentos do próximo tick. Ao
+     * contrário de {@link Comando#mover(Robo, int, int)}, o resultado não depende
+     * da ordem em que os movimentos são enfileirados, e as colisões de todos os
+     * robôs são resolvidas em paralelo. Pode ser chamado de qualquer thread.
+     *
+     * @param robo   O robô a ser movido.
+     * @param deltaX Deslocamento no eixo X.
+     * @param deltaY Deslocamento no eixo Y.
+     */
+    public void enfileirarMovimento(Robo robo, int deltaX, int deltaY) {
+        this.faseMovimento.enfileirar(robo, deltaX, deltaY);
+    }
+
+    /**
+     * Avança a simulação em um tick de duração {@link Controlador#DELTA_TIME},
+     * aplicando todos os comandos que estavam enfileirados no início do tick e,
+     * depois, a fase de movimentos. Comandos e movimentos enfileirados durante o
+     * tick ficam para o tick seguinte.
+     */
+    public void tick() {
+        long inicio = System.nanoTime();
+
+        int pendentes = filaComandos.size();
+        for (int i = 0; i < pendentes; i++) {
+            Comando comando = filaComandos.poll();
+            if (comando == null)
+                break;
+            try {
+                comando.aplicar();
+            } catch (RoboDesligadoException e) {
+                System.out.println("Erro: " + e.getMessage());
+            }
+        }
+        faseMovimento.executar();
+
+        tickAtual++;
+        relogio.avancar(Controlador.DELTA_TIME * 1000L);
+        nanosProcessando += System.nanoTime() - inicio;
+    }
+
+    /**
+     * Executa uma quantidade fixa de ticks sem nenhuma interação com o usuário.
+     *
+     * @param quantidade Número de ticks a executar.
+     */
+    public void executar(long quantidade) {
+        for (long i = 0; i < quantidade; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Retorna a taxa média de ticks processados por segundo de tempo real.
+     *
+     * @return Ticks por segundo, ou 0 se nenhum tick foi processado.
+     */
+    public double getTicksPorSegundo() {
+        if (nanosProcessando == 0)
+            return 0;
+        return tickAtual / (nanosProcessando / 1_000_000_000.0);
+    }
+
+    /**
+     * Retorna o tempo simulado decorrido, em segundos.
+     *
+     * @return O número de ticks multiplicado por {@link Controlador#DELTA_TIME}.
+     */
+    public long getTempoSimulado() {
+        return tickAtual * Controlador.DELTA_TIME;
+    }
+
+    /**
+     * Retorna o número de ticks já processados.
+     *
+     * @return O tick atual.
+     */
+    public long getTickAtual() {
+        return tickAtual;
+    }
+
+    /**
+     * Retorna a quantidade de comandos aguardando o próximo tick.
+     *
+     * @return O tamanho da fila de comandos.
+     */
+    public int getComandosPendentes() {
+        return filaComandos.size();
+    }
+
+    /**
+     * Retorna a quantidade de movimentos aguardando a fase de movimentos do
+     * próximo tick.
+     *
+     * @return O número de movimentos pendentes.
+     */
+    public int getMovimentosPendentes() {
+        return faseMovimento.getPendentes();
+    }
+
+    /**
+     * Retorna o relógio da simulação.
+     *
+     * @return O {@link SimClock} avançado por este motor.
+     */
+    public SimClock getRelogio() {
+        return relogio;
+    }
+
+    /**
+     * Retorna o ambiente controlado por este motor.
+     *
+     * @return O {@link Ambiente} da simulação.
+     */
+    public Ambiente getAmbiente() {
+        return ambiente;
+    }
+}
@@ -0,0 +1,21 @@
+package com.robotsim.util;
+
+/**
+ * Enumeração dos algoritmos usados pelo {@link TesteColisao} para verificar a
+ * trajetória de um movimento. O modo é configurado por mundo, no
+ * {@link com.robotsim.simulation.SimulationContext}.
+ */
+public enum ModoColisao {
+    /**
+     * Percorre a trajetória célula a célula (Bresenham), consultando o mapa de
+     * ocupação em cada passo. Indicado para movimentos curtos.
+     */
+    BRESENHAM,
+    /**
+     * Busca primeiro, nos índices de robôs e obstáculos, os candidatos cujas
+     * áreas cruzam o segmento do movimento e calcula analiticamente o primeiro
+     * contato. Só as células próximas aos candidatos são verificadas, o que
+     * torna movimentos longos em mapas cheios baratos.
+     */
+    VARREDURA
+}
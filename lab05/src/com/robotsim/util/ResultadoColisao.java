@@ -0,0 +1,103 @@
+package com.robotsim.util;
+
+import com.robotsim.environment.entity.Entidade;
+
+/**
+ * Resultado mutável e reutilizável de uma verificação do {@link TesteColisao}.
+ * <p>
+ * Guarda o tipo de colisão, a entidade atingida, a posição em que o movimento
+ * parou (incluindo a altitude, alterada apenas nos movimentos em 3D) e o dano
+ * sofrido. Cada robô mantém uma instância própria, que é
+ * sobrescrita a cada movimento, de modo que o caminho de movimentação não
+ * aloca objetos.
+ */
+public class ResultadoColisao {
+    private TipoColisao tipo = TipoColisao.NULA; // Tipo da colisão detectada.
+    private Entidade entidade; // Entidade atingida (null se não houve colisão).
+    private int x; // Coordenada X em que o movimento parou.
+    private int y; // Coordenada Y em que o movimento parou.
+    private int z; // Coordenada Z em que o movimento parou.
+    private int dano; // Dano causado pela colisão.
+
+    /**
+     * Preenche o resultado. Usado pelo {@link TesteColisao}.
+     *
+     * @param tipo     O tipo da colisão.
+     * @param entidade A entidade atingida, ou {@code null}.
+     * @param x        A coordenada X em que o movimento parou.
+     * @param y        A coordenada Y em que o movimento parou.
+     * @param z        A coordenada Z em que o movimento parou.
+     * @param dano     O dano causado pela colisão.
+     */
+    void definir(TipoColisao tipo, Entidade entidade, int x, int y, int z, int dano) {
+        this.tipo = tipo;
+        this.entidade = entidade;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.dano = dano;
+    }
+
+    /**
+     * Verifica se houve colisão.
+     *
+     * @return {@code true} se o tipo for diferente de {@link TipoColisao#NULA}.
+     */
+    public boolean houveColisao() {
+        return tipo != TipoColisao.NULA;
+    }
+
+    /**
+     * Retorna o tipo da colisão.
+     *
+     * @return O {@link TipoColisao} detectado.
+     */
+    public TipoColisao getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Retorna a entidade atingida.
+     *
+     * @return A entidade atingida, ou {@code null} se não houve colisão.
+     */
+    public Entidade getEntidade() {
+        return entidade;
+    }
+
+    /**
+     * Retorna a coordenada X em que o movimento parou.
+     *
+     * @return A coordenada X final.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Retorna a coordenada Y em que o movimento parou.
+     *
+     * @return A coordenada Y final.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Retorna a coordenada Z em que o movimento parou.
+     *
+     * @return A coordenada Z final.
+     */
+    public int getZ() {
+        return z;
+    }
+
+    /**
+     * Retorna o dano causado pela colisão.
+     *
+     * @return O dano (0 se não houve colisão com obstáculo).
+     */
+    public int getDano() {
+        return dano;
+    }
+}
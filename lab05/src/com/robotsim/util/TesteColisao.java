@@ -1,6 +1,11 @@
 package com.robotsim.util;
 
-import com.robotsim.Controlador;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.robotsim.environment.Ambiente;
+import com.robotsim.environment.entity.Entidade;
+import com.robotsim.environment.entity.TipoEntidade;
 import com.robotsim.environment.obstacle.Obstaculo;
 import com.robotsim.environment.obstacle.TipoObstaculo;
 import com.robotsim.robots.Robo;
@@ -17,6 +22,19 @@ import com.robotsim.robots.terrestrials.RoboTerrestre;
  * trajetória de movimento
  * de um robô.
  * </p>
+ * <p>
+ * Os métodos {@link #calcularColisao(Robo, int, int, ResultadoColisao)} e
+ * {@link #testarPosicao(Robo, int, int, ResultadoColisao)} preenchem um
+ * {@link ResultadoColisao} reutilizável e não alocam objetos quando não há
+ * colisão. Os métodos baseados em {@code int[]} e {@code String} são mantidos
+ * por compatibilidade.
+ * </p>
+ * <p>
+ * Quando o contexto do robô está no modo {@link ModoColisao#VARREDURA}, a
+ * trajetória não é percorrida célula a célula: os candidatos são buscados nos
+ * índices de robôs e obstáculos e o primeiro passo de contato é calculado
+ * diretamente, com o mesmo resultado do Bresenham.
+ * </p>
  */
 public class TesteColisao {
     // Constantes para representar verdadeiro e falso, usadas na detecção de
@@ -25,6 +43,18 @@ public class TesteColisao {
     public static int True = 1;
     public static int False = 0;
 
+    // Número de passos da trajetória examinados na primeira e, no máximo, em cada
+    // consulta aos índices no modo VARREDURA. Os blocos dobram de tamanho a cada
+    // consulta sem contato.
+    private static final int PASSOS_BLOCO_INICIAL = 16;
+    private static final int PASSOS_BLOCO_MAXIMO = 512;
+    // Margem das consultas de varredura. Um pouco maior do que meia célula, para
+    // que erros de arredondamento não descartem candidatos na borda; candidatos a
+    // mais são descartados no cálculo exato do passo.
+    private static final double MARGEM_VARREDURA = 0.75;
+    // Intervalo vazio de passosNoEixo; os intervalos válidos nunca são negativos.
+    private static final long SEM_PASSOS = -1;
+
     /**
      * Verifica se houve uma colisão com base nos dados retornados por
      * {@link #dadosColisao(Robo, int, int)}.
@@ -49,19 +79,17 @@ public class TesteColisao {
      * @param roboMovendo O robô que está se movendo.
      * @param xFin        A coordenada X final do movimento.
      * @param yFin        A coordenada Y final do movimento.
-     * @return Um array de inteiros contendo:
-     *         <ul>
-     *         <li>Índice 0: A coordenada X da última posição segura antes da
-     *         colisão (ou a posição final se não houver colisão).</li>
-     *         <li>Índice 1: A coordenada Y da última posição segura antes da
-     *         colisão (ou a posição final se não houver colisão).</li>
-     *         <li>Índice 2: O dano causado pelo obstáculo, se a colisão foi com um
-     *         obstáculo (0 caso contrário).</li>
-     *         <li>Índice 3: {@code True} (1) se ocorreu uma colisão, {@code False}
-     *         (0) caso contrário.</li>
-     *         </ul>
+     * @param resultado   O resultado a ser preenchido com o tipo da colisão, a
+     *                    entidade atingida, a última posição segura antes da
+     *                    colisão (ou a posição final se não houver colisão) e o
+     *                    dano causado.
      */
-    public static int[] dadosColisao(Robo roboMovendo, int xFin, int yFin) {
+    public static void calcularColisao(Robo roboMovendo, int xFin, int yFin, ResultadoColisao resultado) {
+        if (roboMovendo.getContexto().getModoColisao() == ModoColisao.VARREDURA) {
+            calcularColisaoVarredura(roboMovendo, xFin, yFin, resultado);
+            return;
+        }
+
         int xIni = roboMovendo.getX();
         int yIni = roboMovendo.getY();
 
@@ -93,31 +121,414 @@ public class TesteColisao {
                 atualY += sy;
             }
 
-            String tipo = tipoDeColisao(roboMovendo, atualX, atualY);
-            switch (tipo) {
-                case "Nula": // Nenhuma colisão no ponto atual, continua a verificação.
+            testarPosicao(roboMovendo, atualX, atualY, resultado);
+            switch (resultado.getTipo()) {
+                case NULA: // Nenhuma colisão no ponto atual, continua a verificação.
                     continue;
-                case "Robo": // Colisão com outro robô.
+                case ROBO: // Colisão com outro robô.
                     System.out.printf("Colidiu com um robo em %d %d\n", atualX, atualY);
-                    return new int[] { antigoX, antigoY, 0, True }; // Retorna a posição anterior e indica colisão.
+                    // Retorna a posição anterior e indica colisão.
+                    resultado.definir(TipoColisao.ROBO, resultado.getEntidade(), antigoX, antigoY,
+                            roboMovendo.getZ(), 0);
+                    return;
                 default: // Colisão com um obstáculo.
-                    TipoObstaculo obstColidido = TipoObstaculo.valueOf(tipo);
-                    System.out.printf("Você colidiu com um %s\n", tipo);
+                    System.out.printf("Você colidiu com um %s\n", ((Obstaculo) resultado.getEntidade()).getNome());
                     // Retorna a posição anterior, o dano do obstáculo e indica colisão.
-                    return new int[] { antigoX, antigoY, obstColidido.getDano(), True };
+                    resultado.definir(TipoColisao.OBSTACULO, resultado.getEntidade(), antigoX, antigoY,
+                            roboMovendo.getZ(), resultado.getDano());
+                    return;
             }
         }
 
         // Se o loop terminar sem colisões, retorna a posição final e indica ausência de
         // colisão.
-        int[] dados = { atualX, atualY, 0, False };
-        return dados;
+        resultado.definir(TipoColisao.NULA, null, atualX, atualY, roboMovendo.getZ(), 0);
+    }
+
+    /**
+     * Versão de {@link #calcularColisao(Robo, int, int, ResultadoColisao)} usada
+     * no modo {@link ModoColisao#VARREDURA}.
+     * <p>
+     * Primeiro busca, nos índices do ambiente, os robôs e obstáculos que podem
+     * ser cruzados pelo segmento do movimento. Depois calcula, para cada
+     * candidato, o primeiro passo da trajetória de Bresenham que entra na sua
+     * área, sem percorrer as células intermediárias. O custo depende do número
+     * de candidatos, e não do comprimento do movimento.
+     *
+     * @param roboMovendo O robô que está se movendo.
+     * @param xFin        A coordenada X final do movimento.
+     * @param yFin        A coordenada Y final do movimento.
+     * @param resultado   O resultado a ser preenchido, como em
+     *                    {@link #calcularColisao(Robo, int, int, ResultadoColisao)}.
+     */
+    private static void calcularColisaoVarredura(Robo roboMovendo, int xFin, int yFin,
+            ResultadoColisao resultado) {
+        Ambiente ambiente = roboMovendo.getContexto().getAmbiente();
+        int xIni = roboMovendo.getX();
+        int yIni = roboMovendo.getY();
+
+        int dx = Math.abs(xFin - xIni);
+        int dy = Math.abs(yFin - yIni);
+        int sx = xIni < xFin ? 1 : -1;
+        int sy = yIni < yFin ? 1 : -1;
+        int passos = Math.max(dx, dy);
+
+        int zConsulta = roboMovendo instanceof RoboAereo ? roboMovendo.getZ() : 0;
+        Class<? extends Robo> classeAlvo = roboMovendo instanceof RoboTerrestre ? RoboTerrestre.class
+                : roboMovendo instanceof RoboAereo ? RoboAereo.class : null;
+        int zMin = roboMovendo instanceof RoboTerrestre ? 0 : zConsulta;
+        int zMax = roboMovendo instanceof RoboTerrestre ? ambiente.getAltura() - 1 : zConsulta;
+        // Os candidatos dos índices vão direto para a busca, sem listas intermediárias.
+        // A busca é do próprio robô e é reiniciada a cada movimento, sem alocações.
+        BuscaContato busca = roboMovendo.getBuscaContato();
+        busca.iniciar(roboMovendo, classeAlvo, zConsulta, xIni, yIni, sx, sy, dx, dy, passos);
+
+        // A trajetória é examinada em blocos de passos, do início para o fim, e a
+        // busca termina no primeiro bloco com contato. A célula do passo i contém o
+        // ponto da reta em t = i / passos, então o trecho da reta entre o primeiro e
+        // o último passo do bloco cruza todas as suas células.
+        int tamanhoBloco = PASSOS_BLOCO_INICIAL;
+        for (int inicioBloco = 1; inicioBloco <= passos; inicioBloco += tamanhoBloco, tamanhoBloco = Math
+                .min(2 * tamanhoBloco, PASSOS_BLOCO_MAXIMO)) {
+            int fimBloco = (int) Math.min(passos, (long) inicioBloco + tamanhoBloco - 1);
+            double xA = xIni + sx * ((double) inicioBloco * dx / passos);
+            double yA = yIni + sy * ((double) inicioBloco * dy / passos);
+            double xB = xIni + sx * ((double) fimBloco * dx / passos);
+            double yB = yIni + sy * ((double) fimBloco * dy / passos);
+
+            // Robôs candidatos: os do mesmo tipo cuja célula é cruzada pelo trecho.
+            // Vêm antes dos obstáculos porque, em empate, o robô tem prioridade,
+            // como em testarPosicao.
+            if (classeAlvo != null)
+                ambiente.visitarRobosNoSegmento(xA, yA, xB, yB, zMin, zMax, MARGEM_VARREDURA, busca);
+            ambiente.getIndiceObstaculos().visitarNoSegmento(xA, yA, xB, yB, MARGEM_VARREDURA, busca);
+
+            if (busca.melhorPasso <= fimBloco)
+                break;
+        }
+
+        int melhorPasso = busca.melhorPasso;
+        Entidade atingido = busca.atingido;
+        busca.atingido = null; // Não retém a entidade atingida até o próximo movimento.
+        if (atingido == null) {
+            resultado.definir(TipoColisao.NULA, null, xFin, yFin, roboMovendo.getZ(), 0);
+            return;
+        }
+
+        int deslocamentoX = deslocamentoNoPasso(melhorPasso, dx, passos);
+        int deslocamentoY = deslocamentoNoPasso(melhorPasso, dy, passos);
+        int atualX = xIni + sx * deslocamentoX;
+        int atualY = yIni + sy * deslocamentoY;
+        // Mesma posição de recuo do Bresenham: cada eixo volta uma unidade se já
+        // tiver avançado.
+        int antigoX = deslocamentoX == 0 ? xIni : atualX - sx;
+        int antigoY = deslocamentoY == 0 ? yIni : atualY - sy;
+
+        if (atingido instanceof Robo) {
+            System.out.printf("Colidiu com um robo em %d %d\n", atualX, atualY);
+            resultado.definir(TipoColisao.ROBO, atingido, antigoX, antigoY, roboMovendo.getZ(), 0);
+        } else {
+            Obstaculo obstaculo = (Obstaculo) atingido;
+            System.out.printf("Você colidiu com um %s\n", obstaculo.getNome());
+            resultado.definir(TipoColisao.OBSTACULO, obstaculo, antigoX, antigoY, roboMovendo.getZ(),
+                    obstaculo.getTipoObstaculo().getDano());
+        }
+    }
+
+    /**
+     * Calcula a trajetória em três dimensões de um robô aéreo da posição atual
+     * até (xFin, yFin, zFin) e detecta colisões com obstáculos (considerando a
+     * altura de cada um) e com outros robôs.
+     * <p>
+     * A trajetória percorre os voxels cruzados pela reta entre os centros das
+     * células de origem e destino (Amanatides–Woo), avançando um eixo por vez,
+     * de modo que o robô não passa pela quina entre dois voxels ocupados. A
+     * travessia é feita coluna a coluna: o mapa de alturas do ambiente informa a
+     * maior altitude ocupada em cada coluna (x, y), e os voxels acima dela são
+     * pulados sem consultas. Subidas e descidas por céu vazio custam O(1) por
+     * coluna, qualquer que seja a altitude.
+     *
+     * @param roboMovendo O robô aéreo que está se movendo.
+     * @param xFin        A coordenada X final do movimento.
+     * @param yFin        A coordenada Y final do movimento.
+     * @param zFin        A coordenada Z final do movimento.
+     * @param resultado   O resultado a ser preenchido com o tipo da colisão, a
+     *                    entidade atingida, o último voxel livre antes da
+     *                    colisão (ou o destino se não houver colisão) e o dano
+     *                    causado.
+     */
+    public static void calcularColisao3D(RoboAereo roboMovendo, int xFin, int yFin, int zFin,
+            ResultadoColisao resultado) {
+        Ambiente ambiente = roboMovendo.getContexto().getAmbiente();
+        int xIni = roboMovendo.getX();
+        int yIni = roboMovendo.getY();
+        int zIni = roboMovendo.getZ();
+
+        int dx = Math.abs(xFin - xIni);
+        int dy = Math.abs(yFin - yIni);
+        int dz = Math.abs(zFin - zIni);
+
+        int sx = xIni < xFin ? 1 : -1;
+        int sy = yIni < yFin ? 1 : -1;
+        int sz = zIni <= zFin ? 1 : -1;
+
+        int x = xIni, y = yIni, z = zIni;
+        int antigoX = x, antigoY = y, antigoZ = z; // Último voxel livre da coluna anterior.
+        boolean primeiraColuna = true;
+
+        while (true) {
+            int kx = Math.abs(x - xIni);
+            int ky = Math.abs(y - yIni);
+            int kz = Math.abs(z - zIni);
+
+            // Passos em Z dados nesta coluna antes do próximo passo em X ou Y. Em
+            // empates, X e Y avançam antes de Z.
+            int passosZ = dz - kz;
+            if (kx < dx)
+                passosZ = Math.min(passosZ, passosAntesDaBorda(kz, dz, kx, dx));
+            if (ky < dy)
+                passosZ = Math.min(passosZ, passosAntesDaBorda(kz, dz, ky, dy));
+
+            // Só os voxels até a maior altitude ocupada da coluna podem colidir. O
+            // voxel de origem é o próprio robô e não é testado.
+            int alturaColuna = ambiente.alturaDaColuna(x, y, roboMovendo);
+            int primeiro = primeiraColuna ? 1 : 0;
+            int ultimo = passosZ;
+            if (sz > 0)
+                ultimo = Math.min(ultimo, alturaColuna - z);
+            else
+                primeiro = Math.max(primeiro, z - alturaColuna);
+
+            for (int j = primeiro; j <= ultimo; j++) {
+                int zAtual = z + sz * j;
+                if (!testarVoxel(roboMovendo, ambiente, x, y, zAtual, resultado))
+                    continue;
+                if (j > 0) {
+                    antigoX = x;
+                    antigoY = y;
+                    antigoZ = zAtual - sz;
+                }
+                if (resultado.getTipo() == TipoColisao.ROBO) {
+                    System.out.printf("Colidiu com um robo em %d %d %d\n", x, y, zAtual);
+                    resultado.definir(TipoColisao.ROBO, resultado.getEntidade(), antigoX, antigoY, antigoZ, 0);
+                } else {
+                    System.out.printf("Você colidiu com um %s\n", ((Obstaculo) resultado.getEntidade()).getNome());
+                    resultado.definir(TipoColisao.OBSTACULO, resultado.getEntidade(), antigoX, antigoY, antigoZ,
+                            resultado.getDano());
+                }
+                return;
+            }
+
+            z += sz * passosZ;
+            if (x == xFin && y == yFin)
+                break;
+
+            // Avança para a próxima coluna pelo eixo cuja borda a reta cruza primeiro.
+            antigoX = x;
+            antigoY = y;
+            antigoZ = z;
+            primeiraColuna = false;
+            if (ky >= dy || (kx < dx && (2L * kx + 1) * dy <= (2L * ky + 1) * dx))
+                x += sx;
+            else
+                y += sy;
+        }
+
+        resultado.definir(TipoColisao.NULA, null, xFin, yFin, zFin, 0);
+    }
+
+    /**
+     * Conta os passos em Z dados antes de a reta cruzar a próxima borda de outro
+     * eixo. A reta cruza a k-ésima borda de um eixo com deslocamento d em
+     * t = (2k + 1) / (2d), então a comparação é feita só com inteiros.
+     *
+     * @param kz Passos já dados em Z.
+     * @param dz Deslocamento total em Z.
+     * @param k  Passos já dados no outro eixo.
+     * @param d  Deslocamento total no outro eixo (positivo).
+     * @return O número de passos em Z.
+     */
+    private static int passosAntesDaBorda(int kz, int dz, int k, int d) {
+        // Maior m com (2m + 1) * d < (2k + 1) * dz.
+        long numerador = (2L * k + 1) * dz - d;
+        long ultimoPasso = -Math.floorDiv(-numerador, 2L * d) - 1;
+        return (int) Math.max(0, Math.min(ultimoPasso, dz - 1) - kz + 1);
+    }
+
+    /**
+     * Testa um único voxel da trajetória em 3D. Consulta o mapa de ocupação e, se
+     * o voxel estiver ocupado, identifica o robô ou obstáculo atingido.
+     *
+     * @return {@code true} se houve colisão no voxel.
+     */
+    private static boolean testarVoxel(Robo roboMovendo, Ambiente ambiente, int x, int y, int z,
+            ResultadoColisao resultado) {
+        TipoEntidade tipoCelula = ambiente.tipoNaPosicao(x, y, z);
+        if (tipoCelula == TipoEntidade.ROBO) {
+            Robo atingido = ambiente.primeiroRoboNaCaixa(x, y, z, x, y, z, Robo.class, roboMovendo);
+            if (atingido != null) {
+                resultado.definir(TipoColisao.ROBO, atingido, x, y, z, 0);
+                return true;
+            }
+        } else if (tipoCelula == TipoEntidade.OBSTACULO) {
+            Obstaculo obstaculo = ambiente.getIndiceObstaculos().primeiroNoPonto(x, y, z);
+            if (obstaculo != null) {
+                resultado.definir(TipoColisao.OBSTACULO, obstaculo, x, y, z, obstaculo.getTipoObstaculo().getDano());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcula o primeiro passo (de 1 a {@code passos}) em que a trajetória de
+     * Bresenham entra na área [x0, x1] × [y0, y1].
+     *
+     * @return O passo encontrado, ou {@code passos + 1} se a trajetória não
+     *         entra na área.
+     */
+    private static int primeiroPassoNaArea(int x0, int y0, int x1, int y1, int xIni, int yIni, int sx, int sy,
+            int dx, int dy, int passos) {
+        // Em cada eixo, o deslocamento cresce com o passo; os passos dentro da área
+        // formam um intervalo, e a trajetória entra na área no início da interseção.
+        long intervaloX = passosNoEixo(x0, x1, xIni, sx, dx, passos);
+        if (intervaloX == SEM_PASSOS)
+            return passos + 1;
+        long intervaloY = passosNoEixo(y0, y1, yIni, sy, dy, passos);
+        if (intervaloY == SEM_PASSOS)
+            return passos + 1;
+        int inicio = Math.max(1, Math.max(primeiroPasso(intervaloX), primeiroPasso(intervaloY)));
+        int fim = Math.min(ultimoPasso(intervaloX), ultimoPasso(intervaloY));
+        return inicio <= fim ? inicio : passos + 1;
+    }
+
+    /**
+     * Calcula o intervalo de passos em que a coordenada de um eixo fica entre
+     * {@code minimo} e {@code maximo}.
+     *
+     * @return O primeiro e o último passo do intervalo, empacotados nas metades
+     *         alta e baixa de um {@code long}, ou {@link #SEM_PASSOS} se a
+     *         coordenada nunca fica no intervalo.
+     */
+    private static long passosNoEixo(int minimo, int maximo, int inicial, int sentido, int delta, int passos) {
+        long kMin = sentido > 0 ? (long) minimo - inicial : (long) inicial - maximo;
+        long kMax = sentido > 0 ? (long) maximo - inicial : (long) inicial - minimo;
+        kMin = Math.max(kMin, 0);
+        kMax = Math.min(kMax, delta);
+        if (kMin > kMax)
+            return SEM_PASSOS;
+        if (delta == 0) {
+            // Eixo parado: a coordenada fica no intervalo durante todo o movimento.
+            return (long) passos;
+        }
+        // Inverte deslocamentoNoPasso: primeiro passo com deslocamento >= kMin e
+        // último passo com deslocamento <= kMax. Ambos ficam entre 0 e passos.
+        long primeiro = kMin == 0 ? 0 : Math.floorDiv(2L * passos * kMin - passos, 2L * delta) + 1;
+        long ultimo = Math.min(passos, Math.floorDiv(2L * passos * kMax + passos, 2L * delta));
+        return primeiro << 32 | ultimo;
+    }
+
+    private static int primeiroPasso(long intervalo) {
+        return (int) (intervalo >>> 32);
+    }
+
+    private static int ultimoPasso(long intervalo) {
+        return (int) intervalo;
+    }
+
+    /**
+     * Deslocamento, em módulo, de um eixo após {@code passo} passos da trajetória
+     * de Bresenham. Equivale a arredondar {@code passo * delta / passos}, com
+     * empates arredondados para baixo.
+     */
+    private static int deslocamentoNoPasso(int passo, int delta, int passos) {
+        return (int) -Math.floorDiv(-(2L * passo * delta - passos), 2L * passos);
     }
 
     /**
-     * Determina o tipo de colisão em uma coordenada específica para um dado robô.
+     * Determina a colisão em uma coordenada específica para um dado robô.
      * Verifica colisões com outros robôs (do mesmo tipo, aéreo ou terrestre) e com
      * obstáculos.
+     * <p>
+     * A verificação consulta primeiro o mapa de ocupação do ambiente, sem alocar
+     * objetos. Os índices de robôs e obstáculos só são consultados quando a célula
+     * está ocupada, para descobrir qual entidade foi atingida.
+     *
+     * @param roboMovendo O robô para o qual a colisão está sendo verificada.
+     * @param xRobo       A coordenada X a ser verificada.
+     * @param yRobo       A coordenada Y a ser verificada.
+     * @param resultado   O resultado a ser preenchido com o tipo da colisão, a
+     *                    entidade atingida, a posição verificada e o dano do
+     *                    obstáculo (se houver).
+     * @return {@code true} se houve colisão na posição.
+     */
+    public static boolean testarPosicao(Robo roboMovendo, int xRobo, int yRobo, ResultadoColisao resultado) {
+        Ambiente ambiente = roboMovendo.getContexto().getAmbiente();
+        // Robôs terrestres ficam sempre no chão; aéreos são testados na sua altitude.
+        int zConsulta = roboMovendo instanceof RoboAereo ? roboMovendo.getZ() : 0;
+        boolean dentroDoMapa = ambiente.dentroDoMapa(xRobo, yRobo, zConsulta);
+        TipoEntidade tipoCelula = ambiente.tipoNaPosicao(xRobo, yRobo, zConsulta);
+
+        // Verifica colisão com outros robôs do mesmo tipo (terrestres no chão, aéreos na mesma altitude)
+        if (!dentroDoMapa || tipoCelula == TipoEntidade.ROBO) {
+            Robo atingido = null;
+            if (roboMovendo instanceof RoboTerrestre) {
+                atingido = ambiente.primeiroRoboNaCaixa(xRobo, yRobo, 0, xRobo, yRobo, ambiente.getAltura() - 1,
+                        RoboTerrestre.class, roboMovendo);
+            } else if (roboMovendo instanceof RoboAereo) {
+                atingido = ambiente.primeiroRoboNaCaixa(xRobo, yRobo, zConsulta, xRobo, yRobo, zConsulta,
+                        RoboAereo.class, roboMovendo);
+            }
+            if (atingido != null) {
+                resultado.definir(TipoColisao.ROBO, atingido, xRobo, yRobo, roboMovendo.getZ(), 0);
+                return true;
+            }
+        }
+
+        // Verifica colisão com obstáculos. Como os obstáculos são marcados no mapa em toda
+        // a sua área e altura, basta consultar a célula na altitude do robô.
+        if (!dentroDoMapa || tipoCelula == TipoEntidade.OBSTACULO) {
+            Obstaculo obstaculo = ambiente.getIndiceObstaculos().primeiroNoPonto(xRobo, yRobo, zConsulta);
+            if (obstaculo != null) {
+                resultado.definir(TipoColisao.OBSTACULO, obstaculo, xRobo, yRobo, roboMovendo.getZ(),
+                        obstaculo.getTipoObstaculo().getDano());
+                return true;
+            }
+        }
+
+        resultado.definir(TipoColisao.NULA, null, xRobo, yRobo, roboMovendo.getZ(), 0);
+        return false;
+    }
+
+    /**
+     * Versão de {@link #calcularColisao(Robo, int, int, ResultadoColisao)} que
+     * devolve os dados em um array, mantida por compatibilidade.
+     *
+     * @param roboMovendo O robô que está se movendo.
+     * @param xFin        A coordenada X final do movimento.
+     * @param yFin        A coordenada Y final do movimento.
+     * @return Um array de inteiros contendo:
+     *         <ul>
+     *         <li>Índice 0: A coordenada X da última posição segura antes da
+     *         colisão (ou a posição final se não houver colisão).</li>
+     *         <li>Índice 1: A coordenada Y da última posição segura antes da
+     *         colisão (ou a posição final se não houver colisão).</li>
+     *         <li>Índice 2: O dano causado pelo obstáculo, se a colisão foi com um
+     *         obstáculo (0 caso contrário).</li>
+     *         <li>Índice 3: {@code True} (1) se ocorreu uma colisão, {@code False}
+     *         (0) caso contrário.</li>
+     *         </ul>
+     */
+    public static int[] dadosColisao(Robo roboMovendo, int xFin, int yFin) {
+        ResultadoColisao resultado = new ResultadoColisao();
+        calcularColisao(roboMovendo, xFin, yFin, resultado);
+        return new int[] { resultado.getX(), resultado.getY(), resultado.getDano(),
+                resultado.houveColisao() ? True : False };
+    }
+
+    /**
+     * Versão de {@link #testarPosicao(Robo, int, int, ResultadoColisao)} que
+     * devolve o tipo da colisão como texto, mantida por compatibilidade.
      *
      * @param roboMovendo O robô para o qual a colisão está sendo verificada.
      * @param xRobo       A coordenada X a ser verificada.
@@ -131,54 +542,76 @@ public class TesteColisao {
      *         </ul>
      */
     public static String tipoDeColisao(Robo roboMovendo, int xRobo, int yRobo) {
-
-        // Verifica colisão com outros robôs terrestres
-        if (roboMovendo instanceof RoboTerrestre) {
-            for (Robo robo : Controlador.getAmbiente().getRobos()) {
-                if (robo instanceof RoboTerrestre && robo != roboMovendo &&
-                        robo.getX() == xRobo && robo.getY() == yRobo) {
-                    return "Robo";
-                }
-            }
-        } else if (roboMovendo instanceof RoboAereo) {
-            // Verifica colisão com outros robôs aéreos na mesma altitude
-            int zRobo = ((RoboAereo) roboMovendo).getZ();
-
-            for (Robo robo : Controlador.getAmbiente().getRobos()) {
-                if (robo instanceof RoboAereo &&
-                        robo != roboMovendo &&
-                        robo.getX() == xRobo &&
-                        robo.getY() == yRobo &&
-                        ((RoboAereo) robo).getZ() == zRobo)
-                    return "Robo";
-            }
+        ResultadoColisao resultado = new ResultadoColisao();
+        testarPosicao(roboMovendo, xRobo, yRobo, resultado);
+        switch (resultado.getTipo()) {
+            case ROBO:
+                return "Robo";
+            case OBSTACULO:
+                return ((Obstaculo) resultado.getEntidade()).getNome();
+            default:
+                return "Nula";
         }
+    }
 
-        // Verifica colisão com obstáculos
-        for (Obstaculo obstaculo : Controlador.getAmbiente().getObstaculos()) {
-            // Calcula os limites do obstáculo
-            int obsSupX = obstaculo.getX() + (obstaculo.getTipoObstaculo().getComprimento() - 1) / 2;
-            int obsSupY = obstaculo.getY() + (obstaculo.getTipoObstaculo().getLargura() - 1) / 2;
+    /**
+     * Estado da busca pelo primeiro contato no modo VARREDURA. Recebe os
+     * candidatos diretamente dos índices de robôs e obstáculos e guarda o
+     * menor passo de contato encontrado até então.
+     * <p>
+     * Cada robô guarda a sua instância (veja {@link Robo#getBuscaContato()}),
+     * que é reiniciada a cada movimento.
+     */
+    public static final class BuscaContato implements Consumer<Entidade> {
+        private Robo roboMovendo;
+        private Class<? extends Robo> classeAlvo; // Tipo de robô que bloqueia o movimento, ou null.
+        private int zConsulta; // Altitude testada contra a altura dos obstáculos.
+        private int xIni, yIni, sx, sy, dx, dy, passos;
+        // O passo 0 é a posição atual do robô; qualquer contato depois de
+        // "passos" está fora do movimento.
+        private int melhorPasso;
+        private Entidade atingido;
 
-            int obsInfX = obstaculo.getX() - (obstaculo.getTipoObstaculo().getComprimento() - 1) / 2;
-            int obstInfY = obstaculo.getY() - (obstaculo.getTipoObstaculo().getLargura() - 1) / 2;
+        /**
+         * Reinicia a busca para um novo movimento.
+         */
+        private void iniciar(Robo roboMovendo, Class<? extends Robo> classeAlvo, int zConsulta, int xIni, int yIni,
+                int sx, int sy, int dx, int dy, int passos) {
+            this.roboMovendo = roboMovendo;
+            this.classeAlvo = classeAlvo;
+            this.zConsulta = zConsulta;
+            this.xIni = xIni;
+            this.yIni = yIni;
+            this.sx = sx;
+            this.sy = sy;
+            this.dx = dx;
+            this.dy = dy;
+            this.passos = passos;
+            this.melhorPasso = passos + 1;
+            this.atingido = null;
+        }
 
-            if (xRobo < obsInfX || xRobo > obsSupX) {
-                continue;
+        @Override
+        public void accept(Entidade candidato) {
+            int passo;
+            if (candidato instanceof Obstaculo) {
+                Obstaculo obstaculo = (Obstaculo) candidato;
+                if (zConsulta > obstaculo.getTipoObstaculo().getAltura())
+                    return;
+                passo = primeiroPassoNaArea(obstaculo.getInferiorX(), obstaculo.getInferiorY(),
+                        obstaculo.getSuperiorX(), obstaculo.getSuperiorY(), xIni, yIni, sx, sy, dx, dy, passos);
+            } else {
+                if (candidato == roboMovendo || !classeAlvo.isInstance(candidato))
+                    return;
+                passo = primeiroPassoNaArea(candidato.getX(), candidato.getY(), candidato.getX(), candidato.getY(),
+                        xIni, yIni, sx, sy, dx, dy, passos);
             }
-            if (yRobo < obstInfY || yRobo > obsSupY) {
-                continue;
+            // Apenas um passo estritamente menor substitui o atual, então em
+            // empate vale o candidato visitado antes.
+            if (passo < melhorPasso) {
+                melhorPasso = passo;
+                atingido = candidato;
             }
-
-            if (roboMovendo instanceof RoboAereo &&
-                    ((RoboAereo) roboMovendo).getZ() > obstaculo.getTipoObstaculo().getAltura()) {
-                continue;
-            }
-
-            // Se nenhuma das condições acima for verdadeira, há colisão
-            return obstaculo.getNome();
         }
-
-        return "Nula";
     }
 }
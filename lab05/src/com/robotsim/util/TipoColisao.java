@@ -0,0 +1,15 @@
+package com.robotsim.util;
+
+/**
+ * Enumeração dos tipos de colisão detectados pelo {@link TesteColisao}.
+ *
+ * @see ResultadoColisao
+ */
+public enum TipoColisao {
+    /** Nenhuma colisão. */
+    NULA,
+    /** Colisão com outro robô. */
+    ROBO,
+    /** Colisão com um obstáculo. */
+    OBSTACULO
+}
@@ -0,0 +1,146 @@
+package com.robotsim.environment.map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.robotsim.communication.CentralComunicacao;
+import com.robotsim.environment.Ambiente;
+import com.robotsim.environment.StatusPosicao;
+import com.robotsim.environment.entity.TipoEntidade;
+import com.robotsim.environment.obstacle.Obstaculo;
+import com.robotsim.robots.Robo;
+import com.robotsim.robots.aerials.RoboDrone;
+import com.robotsim.robots.terrestrials.RoboTanque;
+import com.robotsim.simulation.SimClock;
+import com.robotsim.simulation.SimulationContext;
+
+/**
+ * Verifica que os três {@link TipoMapa} se comportam como o arranjo denso
+ * original dentro do {@link Ambiente}.
+ * <p>
+ * Um ambiente de cada tipo recebe, em paralelo, a mesma sequência sorteada de
+ * adições, movimentos e remoções de robôs e obstáculos. Depois de cada passo,
+ * {@link Ambiente#validarPosicao(int, int, int)} e
+ * {@link Ambiente#tipoNaPosicao(int, int, int)} devem responder igual nos três
+ * para um conjunto de posições sorteadas (inclusive fora dos limites) e, no
+ * fim, para todas as células.
+ * <p>
+ * Uso: {@code java com.robotsim.environment.map.VerificaMapas [semente]}.
+ */
+public class VerificaMapas {
+    private static final int COMPRIMENTO = 40;
+    private static final int LARGURA = 30;
+    private static final int ALTURA = 12;
+    private static final int PASSOS = 5_000;
+    private static final int SONDAS_POR_PASSO = 16;
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args A semente do sorteio (opcional).
+     */
+    public static void main(String[] args) {
+        long semente = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        Random rand = new Random(semente);
+        TipoMapa[] tipos = TipoMapa.values();
+        Ambiente[] ambientes = new Ambiente[tipos.length];
+        List<List<Robo>> robos = new ArrayList<>();
+        for (int i = 0; i < tipos.length; i++) {
+            ambientes[i] = new Ambiente(COMPRIMENTO, LARGURA, ALTURA, tipos[i]);
+            new SimulationContext(ambientes[i], new CentralComunicacao(), null, new SimClock(SimClock.Modo.VIRTUAL));
+            robos.add(new ArrayList<>());
+        }
+
+        int criados = 0;
+        for (int passo = 0; passo < PASSOS; passo++) {
+            int operacao = rand.nextInt(10);
+            if (operacao < 3) { // Adiciona um robô, se a posição estiver livre nos três.
+                int x = rand.nextInt(COMPRIMENTO), y = rand.nextInt(LARGURA);
+                boolean aereo = rand.nextBoolean();
+                String nome = "R" + criados++;
+                Robo[] novos = new Robo[tipos.length];
+                boolean livre = true;
+                for (int i = 0; i < tipos.length; i++) {
+                    novos[i] = aereo ? new RoboDrone(nome, x, y) : new RoboTanque(nome, x, y);
+                    livre &= ambientes[i].validarPosicao(x, y, novos[i].getZ()) == StatusPosicao.VALIDA;
+                }
+                for (int i = 0; i < tipos.length && livre; i++) {
+                    ambientes[i].adicionarEntidade(novos[i]);
+                    robos.get(i).add(novos[i]);
+                }
+            } else if (operacao == 3 && ambientes[0].getObstaculos().size() < 30) {
+                // O mesmo obstáculo, sorteado no primeiro ambiente, vai para os três.
+                Obstaculo obstaculo;
+                try {
+                    obstaculo = new Obstaculo(ambientes[0]);
+                } catch (IllegalStateException e) {
+                    continue; // Sem espaço para outro obstáculo.
+                }
+                boolean livre = true;
+                for (Ambiente ambiente : ambientes)
+                    livre &= volumeLivre(ambiente, obstaculo);
+                if (livre) // Senão, o volume cruza algum robô.
+                    for (Ambiente ambiente : ambientes)
+                        ambiente.adicionarEntidade(obstaculo);
+            } else if (operacao < 8 && !robos.get(0).isEmpty()) { // Move um robô para uma posição livre.
+                int indice = rand.nextInt(robos.get(0).size());
+                int x = rand.nextInt(COMPRIMENTO), y = rand.nextInt(LARGURA);
+                for (int i = 0; i < tipos.length; i++) {
+                    Robo robo = robos.get(i).get(indice);
+                    if (ambientes[i].validarPosicao(x, y, robo.getZ()) == StatusPosicao.VALIDA)
+                        robo.concluirMovimento(x, y, 0);
+                }
+            } else if (operacao == 8 && !robos.get(0).isEmpty()) { // Remove um robô.
+                int indice = rand.nextInt(robos.get(0).size());
+                for (int i = 0; i < tipos.length; i++)
+                    ambientes[i].removerEntidade(robos.get(i).remove(indice));
+            }
+
+            for (int i = 1; i < tipos.length; i++)
+                verificar(robos.get(i).size() == robos.get(0).size(), passo, "quantidade de robôs difere em " + tipos[i]);
+            for (int sonda = 0; sonda < SONDAS_POR_PASSO; sonda++) {
+                int x = rand.nextInt(COMPRIMENTO + 4) - 2;
+                int y = rand.nextInt(LARGURA + 4) - 2;
+                int z = rand.nextInt(ALTURA + 4) - 2;
+                comparar(ambientes, tipos, x, y, z, passo);
+            }
+        }
+
+        for (int x = 0; x < COMPRIMENTO; x++)
+            for (int y = 0; y < LARGURA; y++)
+                for (int z = 0; z < ALTURA; z++)
+                    comparar(ambientes, tipos, x, y, z, PASSOS);
+        System.out.println("VerificaMapas: " + PASSOS + " passos, " + ambientes[0].getRobos().size() + " robôs e "
+                + ambientes[0].getObstaculos().size() + " obstáculos; os " + tipos.length + " mapas concordam.");
+    }
+
+    /** Compara as respostas dos ambientes para uma posição. */
+    private static void comparar(Ambiente[] ambientes, TipoMapa[] tipos, int x, int y, int z, int passo) {
+        StatusPosicao status = ambientes[0].validarPosicao(x, y, z);
+        TipoEntidade tipo = ambientes[0].tipoNaPosicao(x, y, z);
+        for (int i = 1; i < ambientes.length; i++) {
+            String posicao = "(" + x + ", " + y + ", " + z + ")";
+            verificar(ambientes[i].validarPosicao(x, y, z) == status, passo,
+                    "validarPosicao" + posicao + " difere entre " + tipos[0] + " e " + tipos[i]);
+            verificar(ambientes[i].tipoNaPosicao(x, y, z) == tipo, passo,
+                    "tipoNaPosicao" + posicao + " difere entre " + tipos[0] + " e " + tipos[i]);
+        }
+    }
+
+    /** Verifica se todo o volume do obstáculo está livre no ambiente. */
+    private static boolean volumeLivre(Ambiente ambiente, Obstaculo obstaculo) {
+        int topo = Math.min(obstaculo.getTipoObstaculo().getAltura(), ALTURA - 1);
+        for (int x = obstaculo.getInferiorX(); x <= obstaculo.getSuperiorX(); x++)
+            for (int y = obstaculo.getInferiorY(); y <= obstaculo.getSuperiorY(); y++)
+                for (int z = 0; z <= topo; z++)
+                    if (ambiente.validarPosicao(x, y, z) != StatusPosicao.VALIDA)
+                        return false;
+        return true;
+    }
+
+    private static void verificar(boolean condicao, int passo, String mensagem) {
+        if (!condicao)
+            throw new AssertionError("Passo " + passo + ": " + mensagem);
+    }
+}
@@ -0,0 +1,97 @@
+package com.robotsim.environment.obstacle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.robotsim.environment.Ambiente;
+import com.robotsim.environment.map.TipoMapa;
+
+/**
+ * Compara o {@link CampoDistancia} com a busca exaustiva pelo obstáculo mais
+ * próximo de cada coluna.
+ * <p>
+ * Obstáculos são adicionados e removidos ao acaso em um ambiente pequeno e
+ * cheio, e cada mudança é repetida em um segundo campo com alcance curto, para
+ * exercitar também o limite do alcance. Periodicamente, a distância informada
+ * por {@link Ambiente#distanciaAoObstaculo(int, int)} e pelo segundo campo em
+ * cada coluna deve ser exatamente a menor distância até a área de um obstáculo
+ * ativo (ou infinita além do alcance), e o obstáculo informado deve estar a
+ * essa distância.
+ * <p>
+ * As posições dos obstáculos são sorteadas pelo próprio {@link Obstaculo}, então
+ * cada execução testa um cenário diferente.
+ * <p>
+ * Uso: {@code java com.robotsim.environment.obstacle.VerificaCampoDistancia [semente]}.
+ */
+public class VerificaCampoDistancia {
+    private static final int LADO = 120;
+    private static final int ALCANCE_AMBIENTE = 64; // O alcance do campo de cada Ambiente.
+    private static final int ALCANCE_CURTO = 12;
+    private static final int PASSOS = 1_500;
+    private static final int INTERVALO_VERIFICACAO = 10;
+    private static final int OBSTACULOS_MAXIMOS = 120;
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args A semente das escolhas entre adicionar e remover (opcional).
+     */
+    public static void main(String[] args) {
+        Random rand = new Random(args.length > 0 ? Long.parseLong(args[0]) : 42);
+        Ambiente ambiente = new Ambiente(LADO, LADO, 10, TipoMapa.DENSO);
+        CampoDistancia campoCurto = new CampoDistancia(LADO, LADO, ALCANCE_CURTO);
+        IndiceObstaculos indiceCurto = new IndiceObstaculos();
+        List<Obstaculo> ativos = new ArrayList<>();
+        long colunas = 0;
+
+        for (int passo = 1; passo <= PASSOS; passo++) {
+            if (ativos.isEmpty() || (ativos.size() < OBSTACULOS_MAXIMOS && rand.nextInt(3) > 0)) {
+                Obstaculo obstaculo;
+                try {
+                    obstaculo = new Obstaculo(ambiente);
+                } catch (IllegalStateException e) {
+                    continue; // Ambiente cheio; os próximos passos removem obstáculos.
+                }
+                ambiente.adicionarEntidade(obstaculo);
+                indiceCurto.adicionar(obstaculo);
+                campoCurto.adicionar(obstaculo);
+                ativos.add(obstaculo);
+            } else {
+                Obstaculo obstaculo = ativos.remove(rand.nextInt(ativos.size()));
+                ambiente.removerEntidade(obstaculo);
+                indiceCurto.remover(obstaculo);
+                campoCurto.remover(obstaculo, indiceCurto);
+            }
+            if (passo % INTERVALO_VERIFICACAO != 0)
+                continue;
+
+            for (int x = 0; x < LADO; x++) {
+                for (int y = 0; y < LADO; y++) {
+                    long menor = Long.MAX_VALUE;
+                    for (Obstaculo obstaculo : ativos)
+                        menor = Math.min(menor, obstaculo.distanciaQuadrada(x, y));
+                    verificar(passo, x, y, "ambiente", ALCANCE_AMBIENTE, menor, ambiente.distanciaAoObstaculo(x, y),
+                            ambiente.obstaculoMaisProximo(x, y));
+                    verificar(passo, x, y, "alcance curto", ALCANCE_CURTO, menor, campoCurto.distancia(x, y),
+                            campoCurto.obstaculoMaisProximo(x, y));
+                    colunas++;
+                }
+            }
+        }
+        System.out.println("VerificaCampoDistancia: " + colunas + " colunas comparadas em " + PASSOS
+                + " passos; as distâncias são exatas.");
+    }
+
+    /** Compara a resposta de um campo com a menor distância quadrada exaustiva. */
+    private static void verificar(int passo, int x, int y, String campo, int alcance, long menor, double distancia,
+            Obstaculo obstaculo) {
+        boolean dentro = menor <= (long) alcance * alcance;
+        double esperada = dentro ? Math.sqrt(menor) : Double.POSITIVE_INFINITY;
+        boolean certo = distancia == esperada
+                && (dentro ? obstaculo != null && obstaculo.distanciaQuadrada(x, y) == menor : obstaculo == null);
+        if (!certo)
+            throw new AssertionError("Passo " + passo + ", coluna (" + x + ", " + y + "), " + campo + ": distância "
+                    + distancia + ", esperada " + esperada + ".");
+    }
+}
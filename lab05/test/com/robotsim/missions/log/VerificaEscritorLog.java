@@ -0,0 +1,168 @@
+package com.robotsim.missions.log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifica que todo registro aceito pelo {@link EscritorLog} é gravado, mesmo
+ * quando o escritor é fechado enquanto várias threads ainda registram.
+ * <p>
+ * Em cada rodada, as threads escrevem linhas comuns e obrigatórias em uma fila
+ * pequena enquanto a thread principal fecha o escritor, alternando entre as
+ * duas políticas. Ao fim, o arquivo deve ter exatamente uma linha para cada
+ * chamada que retornou {@code true}.
+ * <p>
+ * Também verifica a reabertura de um log binário cujo fim foi cortado em cada
+ * posição, como por uma execução interrompida:
+ * a nova sessão deve ser lida inteira depois dos registros completos da
+ * anterior. Um arquivo que não é um log binário deve ser renomeado, e não
+ * receber a nova sessão.
+ * <p>
+ * Uso: {@code java com.robotsim.missions.log.VerificaEscritorLog}.
+ */
+public class VerificaEscritorLog {
+    private static final int RODADAS = 100;
+    private static final int THREADS = 4;
+    private static final int REGISTROS_POR_THREAD = 2_000;
+    private static final int MENSAGENS_POR_SESSAO = 20;
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args Não utilizado.
+     * @throws IOException          Se os arquivos temporários não puderem ser
+     *                              usados.
+     * @throws InterruptedException Se a thread principal for interrompida.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path pasta = Files.createTempDirectory("verifica-escritor");
+        try {
+            for (int rodada = 0; rodada < RODADAS; rodada++)
+                verificarRodada(pasta.resolve("rodada" + rodada + ".log"), rodada);
+            System.out.println("VerificaEscritorLog: " + RODADAS + " fechamentos durante a escrita, nenhum registro perdido.");
+            PrintStream erros = System.err;
+            System.setErr(new PrintStream(OutputStream.nullOutputStream())); // Cada reparo é avisado.
+            int cortes;
+            try {
+                cortes = verificarFimIncompleto(pasta);
+                verificarArquivoInvalido(pasta);
+            } finally {
+                System.setErr(erros);
+            }
+            System.out.println("VerificaEscritorLog: log binário reaberto depois de " + cortes
+                    + " cortes no fim, sempre legível.");
+        } finally {
+            try (var arquivos = Files.list(pasta)) {
+                for (Path arquivo : (Iterable<Path>) arquivos::iterator)
+                    Files.deleteIfExists(arquivo);
+            }
+            Files.deleteIfExists(pasta);
+        }
+    }
+
+    /**
+     * Grava uma sessão, corta o fim do arquivo em cada posição e confere a
+     * sessão gravada depois da reabertura.
+     *
+     * @return Quantos cortes foram verificados.
+     */
+    private static int verificarFimIncompleto(Path pasta) throws IOException {
+        Path original = pasta.resolve("original.bin");
+        gravarSessao(original, "ANTERIOR");
+        byte[] completo = Files.readAllBytes(original);
+        int cortes = 0;
+        // Mantém de 1 byte, no meio da assinatura, até todos menos o último.
+        for (int mantidos = 1; mantidos < completo.length; mantidos++, cortes++) {
+            Path arquivo = pasta.resolve("cortado.bin");
+            Files.write(arquivo, Arrays.copyOf(completo, mantidos));
+            int anteriores = mantidos >= CodificadorLog.ASSINATURA.length ? contarMensagens(arquivo, "ANTERIOR") : 0;
+            gravarSessao(arquivo, "NOVA");
+            int novas = contarMensagens(arquivo, "NOVA");
+            if (novas != MENSAGENS_POR_SESSAO || contarMensagens(arquivo, "ANTERIOR") != anteriores)
+                throw new AssertionError(mantidos + " de " + completo.length + " bytes mantidos: " + novas + " de "
+                        + MENSAGENS_POR_SESSAO + " mensagens da nova sessão lidas depois de " + anteriores + " da anterior.");
+            Files.delete(arquivo);
+        }
+        return cortes;
+    }
+
+    /** Confere que um arquivo que não é um log binário é renomeado antes de receber a sessão. */
+    private static void verificarArquivoInvalido(Path pasta) throws IOException {
+        Path arquivo = pasta.resolve("invalido.bin");
+        Files.write(arquivo, "texto qualquer\n".getBytes());
+        gravarSessao(arquivo, "NOVA");
+        if (contarMensagens(arquivo, "NOVA") != MENSAGENS_POR_SESSAO)
+            throw new AssertionError("A sessão gravada sobre um arquivo inválido não pôde ser lida.");
+        try (var arquivos = Files.list(pasta)) {
+            if (arquivos.noneMatch(outro -> outro.getFileName().toString().startsWith("invalido.bin.")))
+                throw new AssertionError("O arquivo inválido não foi renomeado.");
+        }
+    }
+
+    /** Grava uma sessão com algumas mensagens da missão informada. */
+    private static void gravarSessao(Path arquivo, String missao) throws IOException {
+        try (EscritorLog escritor = new EscritorLog(arquivo, 1024, 1, EscritorLog.Politica.BLOQUEAR,
+                CodificadorLog.ASSINATURA)) {
+            CodificadorLog codificador = new CodificadorLog(escritor);
+            for (int i = 0; i < MENSAGENS_POR_SESSAO; i++)
+                codificador.mensagem(missao, "mensagem " + i);
+        }
+    }
+
+    /** Conta os eventos legíveis da missão informada. */
+    private static int contarMensagens(Path arquivo, String missao) throws IOException {
+        LeitorLog leitor = new LeitorLog(ByteBuffer.wrap(Files.readAllBytes(arquivo)));
+        int mensagens = 0;
+        while (leitor.proximo()) {
+            if (missao.equals(leitor.getMissao()))
+                mensagens++;
+        }
+        return mensagens;
+    }
+
+    private static void verificarRodada(Path arquivo, int rodada) throws IOException, InterruptedException {
+        EscritorLog.Politica politica = rodada % 2 == 0 ? EscritorLog.Politica.BLOQUEAR
+                : EscritorLog.Politica.DESCARTAR;
+        EscritorLog escritor = new EscritorLog(arquivo, 64, 1, politica);
+        AtomicLong aceitos = new AtomicLong();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int numero = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < REGISTROS_POR_THREAD; i++) {
+                    byte[] registro = ("thread " + numero + " registro " + i + "\n").getBytes();
+                    boolean aceito = i % 7 == 0 ? escritor.escreverObrigatorio(registro) : escritor.escrever(registro);
+                    if (aceito)
+                        aceitos.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        largada.countDown();
+        Thread.sleep(rodada % 5);
+        escritor.close();
+        for (Thread thread : threads)
+            thread.join();
+
+        long gravados = Files.readAllLines(arquivo).size();
+        if (gravados != aceitos.get())
+            throw new AssertionError("Rodada " + rodada + " (" + politica + "): " + aceitos.get()
+                    + " registros aceitos, mas " + gravados + " gravados.");
+    }
+}
@@ -0,0 +1,160 @@
+package com.robotsim.missions.log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Verifica que um log binário comprimido em blocos ({@link BlocosGzip}) é lido
+ * como o log original, tanto por inteiro quanto pelas consultas do
+ * {@link IndiceLog}.
+ * <p>
+ * Um log com várias sessões e alguns MiB de mensagens de tamanhos variados,
+ * para que muitos registros fiquem divididos entre dois blocos, é gravado e
+ * comprimido de duas formas: em blocos, como a {@link RotacaoLog} faz, e em um
+ * único membro gzip, como nas versões anteriores. Para as duas cópias:
+ * <ul>
+ * <li>o {@code GZIPInputStream} deve devolver exatamente o log original;</li>
+ * <li>o {@link DecodificadorLog} deve produzir o mesmo texto que para o log
+ * original;</li>
+ * <li>consultas por missão e por intervalo de tempo devem encontrar os mesmos
+ * eventos, com as mesmas linhas, que no log original, também quando o índice
+ * já existe.</li>
+ * </ul>
+ * Por fim, o log original é entregue ao {@link LeitorLog} em trechos de 1 a 97
+ * bytes, cortados em todo tipo de posição (no tamanho de um registro, no meio
+ * dele ou junto com o seu fim), e deve ser lido da mesma forma.
+ * <p>
+ * Uso: {@code java com.robotsim.missions.log.VerificaIndiceLog}.
+ */
+public class VerificaIndiceLog {
+    private static final String[] MISSOES = { "MISSAO_EXPLORACAO", "MISSAO_DANO_GLOBAL", "MISSAO_RARA" };
+    private static final int SESSOES = 3;
+    private static final int MENSAGENS_POR_SESSAO = 40_000;
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args Não utilizado.
+     * @throws IOException Se os arquivos temporários não puderem ser usados.
+     */
+    public static void main(String[] args) throws IOException {
+        Path pasta = Files.createTempDirectory("verifica-indice");
+        try {
+            Path original = pasta.resolve("missao.bin");
+            gravar(original);
+            Path emBlocos = pasta.resolve("missao.bin.blocos.gz");
+            try (InputStream entrada = Files.newInputStream(original);
+                    OutputStream saida = Files.newOutputStream(emBlocos)) {
+                BlocosGzip.comprimir(entrada, saida);
+            }
+            Path unico = pasta.resolve("missao.bin.unico.gz");
+            try (InputStream entrada = Files.newInputStream(original);
+                    OutputStream saida = new GZIPOutputStream(Files.newOutputStream(unico))) {
+                entrada.transferTo(saida);
+            }
+
+            byte[] bytes = Files.readAllBytes(original);
+            String texto = decodificar(original);
+            for (Path comprimido : List.of(emBlocos, unico)) {
+                try (InputStream entrada = new GZIPInputStream(Files.newInputStream(comprimido))) {
+                    if (!Arrays.equals(entrada.readAllBytes(), bytes))
+                        throw new AssertionError(comprimido.getFileName() + " não descomprime no log original.");
+                }
+                if (!decodificar(comprimido).equals(texto))
+                    throw new AssertionError(comprimido.getFileName() + " não é decodificado como o log original.");
+                for (int vez = 0; vez < 2; vez++) // A segunda vez usa o índice gravado.
+                    compararConsultas(original, comprimido);
+            }
+            if (!decodificar(new LeitorLog(trechos(bytes).iterator())).equals(texto))
+                throw new AssertionError("O log entregue em trechos pequenos não é lido como o original.");
+            int blocos = (bytes.length + BlocosGzip.TAMANHO_BLOCO - 1) / BlocosGzip.TAMANHO_BLOCO;
+            System.out.println("VerificaIndiceLog: " + bytes.length / 1024 + " KiB em " + blocos
+                    + " blocos e em um único membro, lidos e consultados como o log original.");
+        } finally {
+            try (var arquivos = Files.list(pasta)) {
+                for (Path arquivo : (Iterable<Path>) arquivos::iterator)
+                    Files.deleteIfExists(arquivo);
+            }
+            Files.deleteIfExists(pasta);
+        }
+    }
+
+    /** Grava várias sessões de mensagens de tamanhos variados. */
+    private static void gravar(Path arquivo) throws IOException {
+        Random rand = new Random(42);
+        for (int sessao = 0; sessao < SESSOES; sessao++) {
+            try (EscritorLog escritor = new EscritorLog(arquivo, 4096, 1, EscritorLog.Politica.BLOQUEAR,
+                    CodificadorLog.ASSINATURA)) {
+                CodificadorLog codificador = new CodificadorLog(escritor);
+                for (int i = 0; i < MENSAGENS_POR_SESSAO; i++) {
+                    String missao = MISSOES[rand.nextInt(100) == 0 ? 2 : rand.nextInt(2)];
+                    codificador.mensagem(missao, "sessão " + sessao + ", mensagem " + i + " "
+                            + "x".repeat(rand.nextInt(60)));
+                }
+            }
+        }
+    }
+
+    private static String decodificar(Path log) throws IOException {
+        StringWriter saida = new StringWriter();
+        DecodificadorLog.decodificar(log, saida);
+        return saida.toString();
+    }
+
+    /** Divide o conteúdo em trechos de tamanhos de 1 a 97 bytes, em sequência. */
+    private static List<ByteBuffer> trechos(byte[] bytes) {
+        List<ByteBuffer> trechos = new ArrayList<>();
+        int tamanho = 1;
+        for (int inicio = 0; inicio < bytes.length; inicio += tamanho, tamanho = tamanho % 97 + 1)
+            trechos.add(ByteBuffer.wrap(bytes, inicio, Math.min(tamanho, bytes.length - inicio)));
+        return trechos;
+    }
+
+    /** Escreve as linhas de todos os eventos do leitor, como o {@link DecodificadorLog}. */
+    private static String decodificar(LeitorLog leitor) {
+        StringBuilder texto = new StringBuilder();
+        while (leitor.proximo()) {
+            for (String linha : leitor.linhas())
+                texto.append(linha).append(System.lineSeparator());
+        }
+        return texto.toString();
+    }
+
+    /** Compara consultas ao log comprimido com as mesmas consultas ao original. */
+    private static void compararConsultas(Path original, Path comprimido) throws IOException {
+        IndiceLog indiceOriginal = IndiceLog.carregar(original);
+        IndiceLog indiceComprimido = IndiceLog.carregar(comprimido);
+        // Intervalo com cerca de 5% dos eventos, a partir do meio; os eventos do índice estão em ordem de instante.
+        int eventos = indiceOriginal.getEventos();
+        long meio = indiceOriginal.getNanos(eventos / 2);
+        long fimIntervalo = indiceOriginal.getNanos(eventos / 2 + eventos / 20);
+        for (String missao : new String[] { MISSOES[2], MISSOES[0], null }) {
+            long de = missao == null ? meio : Long.MIN_VALUE;
+            long ate = missao == null ? fimIntervalo : Long.MAX_VALUE;
+            List<String> esperadas = linhas(indiceOriginal, original, missao, de, ate);
+            List<String> obtidas = linhas(indiceComprimido, comprimido, missao, de, ate);
+            if (esperadas.isEmpty() || !esperadas.equals(obtidas))
+                throw new AssertionError(comprimido.getFileName() + ", missão " + missao + ": " + obtidas.size()
+                        + " linhas, esperadas " + esperadas.size() + ".");
+        }
+    }
+
+    private static List<String> linhas(IndiceLog indice, Path log, String missao, long de, long ate)
+            throws IOException {
+        List<String> linhas = new ArrayList<>();
+        int[] eventos = indice.consultar(missao, null, null, de, ate);
+        indice.ler(log, eventos, (leitor, evento) -> linhas.addAll(leitor.linhas()));
+        return linhas;
+    }
+}
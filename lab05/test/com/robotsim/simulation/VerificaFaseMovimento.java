@@ -0,0 +1,149 @@
+package com.robotsim.simulation;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import com.robotsim.communication.CentralComunicacao;
+import com.robotsim.environment.Ambiente;
+import com.robotsim.environment.StatusPosicao;
+import com.robotsim.environment.map.TipoMapa;
+import com.robotsim.environment.obstacle.Obstaculo;
+import com.robotsim.robots.Robo;
+import com.robotsim.robots.aerials.RoboDrone;
+import com.robotsim.robots.terrestrials.RoboTanque;
+
+/**
+ * Verifica que a {@link FaseMovimento} é determinística.
+ * <p>
+ * Três mundos idênticos, com os mesmos obstáculos e robôs (tanques e drones,
+ * que gastam bateria e se destroem ao esgotá-la), recebem a cada tick as mesmas
+ * intenções de movimento: o primeiro na ordem em que foram sorteadas, o segundo
+ * embaralhadas e o terceiro embaralhadas de outro modo e executadas em um
+ * {@link ForkJoinPool} com várias threads. Depois de cada tick, os três devem
+ * ter os mesmos robôs nas mesmas posições e com o mesmo HP, e dois robôs nunca
+ * podem ocupar a mesma célula.
+ * <p>
+ * Uso: {@code java com.robotsim.simulation.VerificaFaseMovimento [semente]}.
+ */
+public class VerificaFaseMovimento {
+    private static final int LADO = 120;
+    private static final int ALTURA = 12;
+    private static final int OBSTACULOS = 30;
+    private static final int ROBOS = 3_000;
+    private static final int TICKS = 20;
+    private static final int DESLOCAMENTO_MAXIMO = 4;
+    private static final int THREADS = 4;
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args A semente do sorteio (opcional).
+     * @throws Exception Se o tick executado no {@link ForkJoinPool} falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        long semente = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Os robôs narram cada movimento.
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+        try {
+            saida.println(verificar(semente, pool));
+        } finally {
+            System.setOut(saida);
+            pool.shutdown();
+        }
+    }
+
+    private static String verificar(long semente, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        Random rand = new Random(semente);
+        SimulationContext[] mundos = new SimulationContext[3];
+        List<List<Robo>> robos = new ArrayList<>();
+        for (int i = 0; i < mundos.length; i++) {
+            Ambiente ambiente = new Ambiente(LADO, LADO, ALTURA, TipoMapa.DENSO);
+            mundos[i] = new SimulationContext(ambiente, new CentralComunicacao(), null,
+                    new SimClock(SimClock.Modo.VIRTUAL));
+            robos.add(new ArrayList<>());
+        }
+        // Os obstáculos são sorteados no primeiro mundo e os mesmos vão para os demais.
+        for (int i = 0; i < OBSTACULOS; i++) {
+            Obstaculo obstaculo = new Obstaculo(mundos[0].getAmbiente());
+            for (SimulationContext mundo : mundos)
+                mundo.getAmbiente().adicionarEntidade(obstaculo);
+        }
+        // Cada robô só é adicionado se a sua célula estiver livre, o que vale igualmente
+        // para os mundos idênticos.
+        for (int i = 0; i < ROBOS; i++) {
+            int x = rand.nextInt(LADO), y = rand.nextInt(LADO);
+            for (int m = 0; m < mundos.length; m++) {
+                Robo robo = i % 2 == 0 ? new RoboTanque("T" + i, x, y) : new RoboDrone("D" + i, x, y);
+                Ambiente ambiente = mundos[m].getAmbiente();
+                if (ambiente.validarPosicao(x, y, robo.getZ()) != StatusPosicao.VALIDA)
+                    continue;
+                ambiente.adicionarEntidade(robo);
+                robos.get(m).add(robo);
+            }
+        }
+        int iniciais = robos.get(0).size();
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            List<int[]> intencoes = new ArrayList<>();
+            for (int i = 0; i < iniciais; i++) {
+                int dx = rand.nextInt(2 * DESLOCAMENTO_MAXIMO + 1) - DESLOCAMENTO_MAXIMO;
+                int dy = rand.nextInt(2 * DESLOCAMENTO_MAXIMO + 1) - DESLOCAMENTO_MAXIMO;
+                intencoes.add(new int[] { i, dx, dy });
+            }
+            for (int m = 0; m < mundos.length; m++) {
+                List<int[]> ordem = new ArrayList<>(intencoes);
+                if (m > 0)
+                    Collections.shuffle(ordem, new Random(semente * 31 + tick * 7 + m));
+                SimulationEngine motor = mundos[m].getMotor();
+                for (int[] intencao : ordem)
+                    motor.enfileirarMovimento(robos.get(m).get(intencao[0]), intencao[1], intencao[2]);
+                if (m == 2)
+                    pool.submit(motor::tick).get(); // As fases paralelas usam as threads do pool.
+                else
+                    motor.tick();
+            }
+            comparar(mundos, robos, tick);
+        }
+        return "VerificaFaseMovimento: " + TICKS + " ticks com " + iniciais + " robôs ("
+                + mundos[0].getAmbiente().getRobos().size() + " restantes); os "
+                + mundos.length + " mundos terminaram iguais.";
+    }
+
+    /** Compara os robôs dos mundos e verifica que não há células compartilhadas. */
+    private static void comparar(SimulationContext[] mundos, List<List<Robo>> robos, int tick) {
+        for (int m = 0; m < mundos.length; m++) {
+            HashSet<Long> ocupadas = new HashSet<>();
+            for (Robo robo : mundos[m].getAmbiente().getRobos()) {
+                long celula = ((long) robo.getX() * LADO + robo.getY()) * ALTURA + robo.getZ();
+                if (!ocupadas.add(celula))
+                    throw new AssertionError("Tick " + tick + ", mundo " + m + ": dois robôs em (" + robo.getX()
+                            + ", " + robo.getY() + ", " + robo.getZ() + ").");
+            }
+        }
+        for (int i = 0; i < robos.get(0).size(); i++) {
+            Robo referencia = robos.get(0).get(i);
+            String esperado = descrever(mundos[0].getAmbiente(), referencia);
+            for (int m = 1; m < mundos.length; m++) {
+                String obtido = descrever(mundos[m].getAmbiente(), robos.get(m).get(i));
+                if (!esperado.equals(obtido))
+                    throw new AssertionError("Tick " + tick + ", robô " + referencia.getNome() + ": " + esperado
+                            + " no mundo 0 e " + obtido + " no mundo " + m + ".");
+            }
+        }
+    }
+
+    private static String descrever(Ambiente ambiente, Robo robo) {
+        if (!ambiente.contemRobo(robo))
+            return "removido";
+        return "(" + robo.getX() + ", " + robo.getY() + ", " + robo.getZ() + ") HP " + robo.getHP();
+    }
+}
@@ -0,0 +1,138 @@
+package com.robotsim.util;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.robotsim.communication.CentralComunicacao;
+import com.robotsim.environment.Ambiente;
+import com.robotsim.environment.StatusPosicao;
+import com.robotsim.environment.map.TipoMapa;
+import com.robotsim.environment.obstacle.Obstaculo;
+import com.robotsim.robots.Robo;
+import com.robotsim.robots.aerials.RoboDrone;
+import com.robotsim.robots.aerials.RoboJato;
+import com.robotsim.robots.terrestrials.RoboTanque;
+import com.robotsim.simulation.SimClock;
+import com.robotsim.simulation.SimulationContext;
+
+/**
+ * Verifica que o {@link ModoColisao#VARREDURA} dá o mesmo resultado que o
+ * percurso célula a célula do {@link ModoColisao#BRESENHAM}.
+ * <p>
+ * Um mundo com obstáculos, tanques, drones e jatos (os aéreos espalhados em
+ * altitudes próximas da altura dos obstáculos) recebe uma sequência sorteada de
+ * movimentos curtos e longos. Cada movimento é calculado nos dois modos por
+ * {@link TesteColisao#calcularColisao(Robo, int, int, ResultadoColisao)}, e os
+ * dois resultados devem ter o mesmo tipo de colisão, a mesma entidade atingida,
+ * a mesma posição de parada e o mesmo dano. O robô então vai para a posição de
+ * parada, se ela estiver livre, para que o mundo mude ao longo da verificação.
+ * <p>
+ * Uso: {@code java com.robotsim.util.VerificaColisao [semente]}.
+ */
+public class VerificaColisao {
+    private static final int LADO = 120;
+    private static final int ALTURA = 64;
+    private static final int OBSTACULOS = 60;
+    private static final int ROBOS_POR_TIPO = 200;
+    private static final int MOVIMENTOS = 20_000;
+    private static final int DESLOCAMENTO_CURTO = 4;
+    // Altitudes dos robôs aéreos: nas alturas do arame farpado (5), do bunker
+    // (30) e do sobrado (45), logo acima delas e bem acima de todos, exceto o
+    // prédio.
+    private static final int[] CAMADAS_AEREAS = { 5, 6, 30, 31, 45, 46 };
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args A semente do sorteio (opcional).
+     */
+    public static void main(String[] args) {
+        long semente = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // As colisões são narradas.
+        try {
+            saida.println(verificar(semente));
+        } finally {
+            System.setOut(saida);
+        }
+    }
+
+    private static String verificar(long semente) {
+        Random rand = new Random(semente);
+        Ambiente ambiente = new Ambiente(LADO, LADO, ALTURA, TipoMapa.DENSO);
+        SimulationContext contexto = new SimulationContext(ambiente, new CentralComunicacao(), null,
+                new SimClock(SimClock.Modo.VIRTUAL));
+        for (int i = 0; i < OBSTACULOS; i++)
+            ambiente.adicionarEntidade(new Obstaculo(ambiente));
+
+        List<Robo> robos = new ArrayList<>();
+        for (int i = 0; i < 3 * ROBOS_POR_TIPO; i++) {
+            int x = rand.nextInt(LADO), y = rand.nextInt(LADO);
+            int tipo = i % 3;
+            int z = tipo == 0 ? 0 : CAMADAS_AEREAS[rand.nextInt(CAMADAS_AEREAS.length)];
+            if (ambiente.validarPosicao(x, y, z) != StatusPosicao.VALIDA)
+                continue;
+            Robo robo = tipo == 0 ? new RoboTanque("T" + i, x, y)
+                    : tipo == 1 ? new RoboDrone("D" + i, x, y) : new RoboJato("J" + i, x, y);
+            robo.setZ(z); // Ainda fora do ambiente: só ajusta a coordenada.
+            ambiente.adicionarEntidade(robo);
+            robos.add(robo);
+        }
+
+        ResultadoColisao bresenham = new ResultadoColisao();
+        ResultadoColisao varredura = new ResultadoColisao();
+        int colisoes = 0;
+        for (int movimento = 0; movimento < MOVIMENTOS; movimento++) {
+            Robo robo = robos.get(rand.nextInt(robos.size()));
+            int xFin, yFin;
+            if (rand.nextBoolean()) {
+                xFin = limitar(robo.getX() + rand.nextInt(2 * DESLOCAMENTO_CURTO + 1) - DESLOCAMENTO_CURTO);
+                yFin = limitar(robo.getY() + rand.nextInt(2 * DESLOCAMENTO_CURTO + 1) - DESLOCAMENTO_CURTO);
+            } else {
+                xFin = rand.nextInt(LADO);
+                yFin = rand.nextInt(LADO);
+            }
+
+            contexto.setModoColisao(ModoColisao.BRESENHAM);
+            TesteColisao.calcularColisao(robo, xFin, yFin, bresenham);
+            contexto.setModoColisao(ModoColisao.VARREDURA);
+            TesteColisao.calcularColisao(robo, xFin, yFin, varredura);
+            comparar(bresenham, varredura, movimento, robo, xFin, yFin);
+
+            if (bresenham.houveColisao())
+                colisoes++;
+            // O recuo do Bresenham volta cada eixo pelo seu último avanço, então a
+            // posição de parada nem sempre é livre. Só movimentos para posições
+            // livres são aplicados, para que duas entidades não dividam uma célula.
+            if (ambiente.validarPosicao(bresenham.getX(), bresenham.getY(), robo.getZ()) == StatusPosicao.VALIDA)
+                robo.concluirMovimento(bresenham.getX(), bresenham.getY(), 0);
+        }
+        return "VerificaColisao: " + MOVIMENTOS + " movimentos de " + robos.size() + " robôs (" + colisoes
+                + " colisões); BRESENHAM e VARREDURA concordam.";
+    }
+
+    private static int limitar(int coordenada) {
+        return Math.max(0, Math.min(LADO - 1, coordenada));
+    }
+
+    private static void comparar(ResultadoColisao esperado, ResultadoColisao obtido, int movimento, Robo robo,
+            int xFin, int yFin) {
+        if (esperado.getTipo() != obtido.getTipo() || esperado.getEntidade() != obtido.getEntidade()
+                || esperado.getX() != obtido.getX() || esperado.getY() != obtido.getY()
+                || esperado.getZ() != obtido.getZ() || esperado.getDano() != obtido.getDano())
+            throw new AssertionError("Movimento " + movimento + ": " + robo.getNome() + " de (" + robo.getX()
+                    + ", " + robo.getY() + ", " + robo.getZ() + ") para (" + xFin + ", " + yFin + "): "
+                    + descrever(esperado) + " com BRESENHAM e " + descrever(obtido) + " com VARREDURA.");
+    }
+
+    private static String descrever(ResultadoColisao resultado) {
+        String entidade = resultado.getEntidade() == null ? "nada"
+                : resultado.getEntidade() instanceof Robo ? ((Robo) resultado.getEntidade()).getNome()
+                        : ((Obstaculo) resultado.getEntidade()).getNome();
+        return resultado.getTipo() + " (" + entidade + ") parando em (" + resultado.getX() + ", "
+                + resultado.getY() + ", " + resultado.getZ() + ") com dano " + resultado.getDano();
+    }
+}
@@ -0,0 +1,278 @@
+package com.robotsim.util;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import com.robotsim.communication.CentralComunicacao;
+import com.robotsim.environment.Ambiente;
+import com.robotsim.environment.StatusPosicao;
+import com.robotsim.environment.entity.Entidade;
+import com.robotsim.environment.map.TipoMapa;
+import com.robotsim.environment.obstacle.Obstaculo;
+import com.robotsim.robots.Robo;
+import com.robotsim.robots.aerials.RoboAereo;
+import com.robotsim.robots.aerials.RoboDrone;
+import com.robotsim.robots.aerials.RoboJato;
+import com.robotsim.robots.terrestrials.RoboTanque;
+import com.robotsim.simulation.SimClock;
+import com.robotsim.simulation.SimulationContext;
+
+/**
+ * Verifica a travessia em três dimensões de
+ * {@link TesteColisao#calcularColisao3D(RoboAereo, int, int, int, ResultadoColisao)}
+ * e os movimentos de {@link RoboAereo#voar(int, int, int)},
+ * {@link RoboAereo#subir(int)} e {@link RoboAereo#descer(int)}.
+ * <p>
+ * O resultado esperado vem de uma travessia de referência simples: a cada passo
+ * o robô vai para o voxel vizinho por face no eixo cuja borda a reta entre os
+ * centros da origem e do destino cruza primeiro, com os empates resolvidos na
+ * ordem X, Y, Z. Cada voxel é testado contra as listas de robôs e obstáculos do
+ * ambiente, sem o mapa de ocupação, o mapa de alturas nem os índices.
+ * <p>
+ * Em um mundo com obstáculos, tanques, drones e jatos, uma sequência sorteada
+ * de operações:
+ * <ul>
+ * <li>calcula trajetórias até voxels sorteados, que devem dar o mesmo tipo de
+ * colisão, entidade atingida, voxel de parada e dano da referência;</li>
+ * <li>faz jatos voarem, inclusive para fora do mapa e acima do teto do
+ * ambiente, e confere a posição, o HP e a remoção do robô;</li>
+ * <li>faz drones subirem e descerem além da sua altitude máxima.</li>
+ * </ul>
+ * Por fim, um drone que tenta voar para fora do mapa deve gastar bateria, já
+ * que as regras do tipo de robô valem antes da verificação dos limites.
+ * <p>
+ * Uso: {@code java com.robotsim.util.VerificaColisao3D [semente]}.
+ */
+public class VerificaColisao3D {
+    private static final int LADO = 80;
+    // Abaixo da altitude máxima dos jatos e acima da dos drones, para que as duas
+    // limitações do teto sejam exercitadas.
+    private static final int ALTURA = 40;
+    private static final int OBSTACULOS = 40;
+    private static final int TANQUES = 100;
+    private static final int AEREOS_POR_TIPO = 150;
+    private static final int OPERACOES = 20_000;
+    private static final int DESLOCAMENTO_MAXIMO = 20;
+
+    /**
+     * Executa a verificação.
+     *
+     * @param args A semente do sorteio (opcional).
+     */
+    public static void main(String[] args) {
+        long semente = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        PrintStream saida = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Os robôs narram cada movimento.
+        try {
+            saida.println(verificar(semente));
+            verificarOrdemDasRegras();
+        } finally {
+            System.setOut(saida);
+        }
+    }
+
+    private static String verificar(long semente) {
+        Random rand = new Random(semente);
+        Ambiente ambiente = novoAmbiente();
+        for (int i = 0; i < OBSTACULOS; i++)
+            ambiente.adicionarEntidade(new Obstaculo(ambiente));
+
+        for (int i = 0; i < TANQUES; i++)
+            adicionar(ambiente, new RoboTanque("T" + i, rand.nextInt(LADO), rand.nextInt(LADO)), 0);
+        List<RoboAereo> aereos = new ArrayList<>();
+        for (int i = 0; i < 2 * AEREOS_POR_TIPO; i++) {
+            int x = rand.nextInt(LADO), y = rand.nextInt(LADO);
+            RoboAereo robo = i % 2 == 0 ? new RoboDrone("D" + i, x, y) : new RoboJato("J" + i, x, y);
+            int teto = Math.min(robo.getAltitudeMaxima(), ALTURA - 1);
+            if (adicionar(ambiente, robo, rand.nextInt(teto + 1)))
+                aereos.add(robo);
+        }
+        int iniciais = aereos.size();
+
+        ResultadoColisao esperado = new ResultadoColisao();
+        ResultadoColisao obtido = new ResultadoColisao();
+        int colisoes = 0, removidos = 0;
+        for (int operacao = 0; operacao < OPERACOES && !aereos.isEmpty(); operacao++) {
+            int indice = rand.nextInt(aereos.size());
+            RoboAereo robo = aereos.get(indice);
+            String inicio = robo.getNome() + " em (" + robo.getX() + ", " + robo.getY() + ", " + robo.getZ() + ")";
+
+            if (rand.nextBoolean()) { // Trajetória até um voxel sorteado, sem mover o robô.
+                int xFin = limitar(robo.getX() + sortearDeslocamento(rand), LADO - 1);
+                int yFin = limitar(robo.getY() + sortearDeslocamento(rand), LADO - 1);
+                int zFin = rand.nextInt(ALTURA);
+                percorrer(ambiente, robo, xFin, yFin, zFin, esperado);
+                TesteColisao.calcularColisao3D(robo, xFin, yFin, zFin, obtido);
+                comparar(esperado, obtido, operacao, inicio + " até (" + xFin + ", " + yFin + ", " + zFin + ")");
+                if (esperado.houveColisao())
+                    colisoes++;
+                continue;
+            }
+
+            // Voo de um jato ou subida e descida de um drone (que não gastam bateria).
+            int deltaX = 0, deltaY = 0;
+            if (robo instanceof RoboJato) {
+                deltaX = sortearDeslocamento(rand);
+                deltaY = sortearDeslocamento(rand);
+            }
+            int deltaZ = rand.nextInt(4 * ALTURA + 1) - 2 * ALTURA;
+            String movimento = inicio + " com delta (" + deltaX + ", " + deltaY + ", " + deltaZ + ")";
+
+            int xFin = robo.getX() + deltaX, yFin = robo.getY() + deltaY;
+            int xAntes = robo.getX(), yAntes = robo.getY(), zAntes = robo.getZ(), hpAntes = robo.getHP();
+            boolean dentro = xFin >= 0 && xFin < LADO && yFin >= 0 && yFin < LADO;
+            if (dentro) {
+                int teto = Math.min(robo.getAltitudeMaxima(), ALTURA - 1);
+                percorrer(ambiente, robo, xFin, yFin, Math.max(0, Math.min(teto, zAntes + deltaZ)), esperado);
+            } else {
+                esperado.definir(TipoColisao.NULA, null, xAntes, yAntes, zAntes, 0); // Movimento cancelado.
+            }
+
+            if (robo instanceof RoboJato)
+                robo.voar(deltaX, deltaY, deltaZ);
+            else if (deltaZ >= 0)
+                robo.subir(deltaZ);
+            else
+                robo.descer(-deltaZ);
+
+            if (hpAntes - esperado.getDano() < 0) {
+                verificar(!ambiente.contemRobo(robo), operacao, movimento + ": deveria ter sido destruído.");
+                aereos.set(indice, aereos.get(aereos.size() - 1));
+                aereos.remove(aereos.size() - 1);
+                removidos++;
+                continue;
+            }
+            verificar(robo.getX() == esperado.getX() && robo.getY() == esperado.getY()
+                    && robo.getZ() == esperado.getZ() && robo.getHP() == hpAntes - esperado.getDano(), operacao,
+                    movimento + ": esperado (" + esperado.getX() + ", " + esperado.getY() + ", " + esperado.getZ()
+                            + ") com HP " + (hpAntes - esperado.getDano()) + ", obtido (" + robo.getX() + ", "
+                            + robo.getY() + ", " + robo.getZ() + ") com HP " + robo.getHP() + ".");
+        }
+        return "VerificaColisao3D: " + OPERACOES + " operações com " + iniciais + " robôs aéreos (" + colisoes
+                + " trajetórias com colisão, " + removidos + " robôs destruídos); a travessia concorda com a "
+                + "referência.";
+    }
+
+    /**
+     * Um drone perto da borda tenta voar duas vezes para fora do mapa. Os dois
+     * voos são cancelados, mas a bateria é gasta em ambos, e no segundo ela se
+     * esgota e o drone é destruído.
+     */
+    private static void verificarOrdemDasRegras() {
+        Ambiente ambiente = novoAmbiente();
+        RoboDrone drone = new RoboDrone("D", LADO - 1, 0);
+        adicionar(ambiente, drone, 0);
+        drone.voar(30, 0, 0);
+        verificar(ambiente.contemRobo(drone) && drone.getX() == LADO - 1, OPERACOES,
+                "o primeiro voo para fora do mapa deveria ser cancelado.");
+        drone.voar(25, 0, 0);
+        verificar(!ambiente.contemRobo(drone), OPERACOES,
+                "o drone deveria gastar bateria antes da verificação dos limites e ser destruído.");
+    }
+
+    private static Ambiente novoAmbiente() {
+        Ambiente ambiente = new Ambiente(LADO, LADO, ALTURA, TipoMapa.DENSO);
+        new SimulationContext(ambiente, new CentralComunicacao(), null, new SimClock(SimClock.Modo.VIRTUAL));
+        return ambiente;
+    }
+
+    /** Adiciona o robô na altitude informada, se a posição estiver livre. */
+    private static boolean adicionar(Ambiente ambiente, Robo robo, int z) {
+        if (ambiente.validarPosicao(robo.getX(), robo.getY(), z) != StatusPosicao.VALIDA)
+            return false;
+        robo.setZ(z); // Ainda fora do ambiente: só ajusta a coordenada.
+        ambiente.adicionarEntidade(robo);
+        return true;
+    }
+
+    private static int sortearDeslocamento(Random rand) {
+        return rand.nextInt(2 * DESLOCAMENTO_MAXIMO + 1) - DESLOCAMENTO_MAXIMO;
+    }
+
+    private static int limitar(int coordenada, int maximo) {
+        return Math.max(0, Math.min(maximo, coordenada));
+    }
+
+    /**
+     * Travessia de referência, voxel a voxel, da posição do robô até
+     * (xFin, yFin, zFin).
+     */
+    private static void percorrer(Ambiente ambiente, Robo robo, int xFin, int yFin, int zFin,
+            ResultadoColisao resultado) {
+        HashMap<Long, Robo> robos = new HashMap<>();
+        for (Robo outro : ambiente.getRobos())
+            if (outro != robo)
+                robos.put(chave(outro.getX(), outro.getY(), outro.getZ()), outro);
+
+        int[] inicio = { robo.getX(), robo.getY(), robo.getZ() };
+        int[] fim = { xFin, yFin, zFin };
+        int[] atual = inicio.clone();
+        int[] passos = new int[3];
+        while (true) {
+            // Eixo cuja próxima borda é cruzada primeiro: a k-ésima borda de um eixo
+            // com deslocamento d fica em t = (2k + 1) / (2d).
+            int eixo = -1;
+            for (int e = 0; e < 3; e++) {
+                int d = Math.abs(fim[e] - inicio[e]);
+                if (passos[e] == d)
+                    continue;
+                if (eixo < 0 || (2L * passos[e] + 1) * Math.abs(fim[eixo] - inicio[eixo])
+                        < (2L * passos[eixo] + 1) * d)
+                    eixo = e;
+            }
+            if (eixo < 0)
+                break;
+
+            int[] anterior = atual.clone();
+            atual[eixo] += fim[eixo] > inicio[eixo] ? 1 : -1;
+            passos[eixo]++;
+
+            Entidade atingido = robos.get(chave(atual[0], atual[1], atual[2]));
+            int dano = 0;
+            if (atingido == null) {
+                for (Obstaculo obstaculo : ambiente.getObstaculos()) {
+                    if (obstaculo.contem(atual[0], atual[1]) && atual[2] <= obstaculo.getTipoObstaculo().getAltura()) {
+                        atingido = obstaculo;
+                        dano = obstaculo.getTipoObstaculo().getDano();
+                        break;
+                    }
+                }
+            }
+            if (atingido != null) {
+                resultado.definir(atingido instanceof Robo ? TipoColisao.ROBO : TipoColisao.OBSTACULO, atingido,
+                        anterior[0], anterior[1], anterior[2], dano);
+                return;
+            }
+        }
+        resultado.definir(TipoColisao.NULA, null, xFin, yFin, zFin, 0);
+    }
+
+    private static long chave(int x, int y, int z) {
+        return ((long) x * LADO + y) * ALTURA + z;
+    }
+
+    private static void comparar(ResultadoColisao esperado, ResultadoColisao obtido, int operacao,
+            String trajetoria) {
+        verificar(esperado.getTipo() == obtido.getTipo() && esperado.getEntidade() == obtido.getEntidade()
+                && esperado.getX() == obtido.getX() && esperado.getY() == obtido.getY()
+                && esperado.getZ() == obtido.getZ() && esperado.getDano() == obtido.getDano(), operacao,
+                trajetoria + ": esperado " + descrever(esperado) + ", obtido " + descrever(obtido) + ".");
+    }
+
+    private static String descrever(ResultadoColisao resultado) {
+        Entidade entidade = resultado.getEntidade();
+        String nome = entidade == null ? "nada"
+                : entidade instanceof Robo ? ((Robo) entidade).getNome() : ((Obstaculo) entidade).getNome();
+        return resultado.getTipo() + " (" + nome + ") parando em (" + resultado.getX() + ", " + resultado.getY()
+                + ", " + resultado.getZ() + ") com dano " + resultado.getDano();
+    }
+
+    private static void verificar(boolean condicao, int operacao, String mensagem) {
+        if (!condicao)
+            throw new AssertionError("Operação " + operacao + ": " + mensagem);
+    }
+}
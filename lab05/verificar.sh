@@ -0,0 +1,30 @@
+#!/bin/bash
+# Compila o simulador com as verificações de test/ e executa cada uma delas.
+# Uso: ./verificar.sh [NomeDaVerificacao...] (sem nomes, executa todas).
+cd "$(dirname "$0")"
+saida=$(mktemp -d)
+trap 'rm -rf "$saida"' EXIT
+
+if ! find src test -name "*.java" -print0 | xargs -0 javac -encoding UTF-8 -d "$saida" -sourcepath src:test; then
+    echo "Erro de compilação. Verifique os erros acima."
+    exit 1
+fi
+
+falhas=0
+for arquivo in $(cd test && find . -name "Verifica*.java" | sort); do
+    classe=$(echo "${arquivo#./}" | sed 's/\.java$//; s|/|.|g')
+    if [ $# -gt 0 ] && [[ ! " $* " =~ " ${classe##*.} " ]]; then
+        continue
+    fi
+    echo "== $classe"
+    if ! java -cp "$saida" "$classe"; then
+        echo "FALHOU: $classe"
+        falhas=$((falhas + 1))
+    fi
+done
+
+if [ $falhas -gt 0 ]; then
+    echo "$falhas verificação(ões) falharam."
+    exit 1
+fi
+echo "Todas as verificações passaram."